@@ -0,0 +1,122 @@
+package apartment.example.backend.benchmark;
+
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.LeaseStatus;
+import apartment.example.backend.entity.enums.PaymentStatus;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.entity.enums.UnitStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark Fixtures
+ *
+ * Detached entity graphs shaped like production data (one lease per unit,
+ * RENT/ELECTRICITY/WATER line items per month). Nothing here touches a database.
+ */
+public final class BenchmarkFixtures {
+
+    private static final PaymentType[] MONTHLY_ITEMS = {
+            PaymentType.RENT, PaymentType.ELECTRICITY, PaymentType.WATER
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Lease lease(long id) {
+        Unit unit = new Unit();
+        unit.setId(id);
+        unit.setRoomNumber(String.format("%d%02d", 1 + id / 20, id % 20));
+        unit.setFloor((int) (1 + id / 20));
+        unit.setStatus(UnitStatus.OCCUPIED);
+        unit.setUnitType("Standard");
+        unit.setRentAmount(BigDecimal.valueOf(8000));
+
+        Tenant tenant = new Tenant();
+        tenant.setId(id);
+        tenant.setFirstName("Tenant");
+        tenant.setLastName(String.valueOf(id));
+        tenant.setEmail("tenant" + id + "@example.com");
+        tenant.setPhone("0800000000");
+        tenant.setEmergencyContact("Contact " + id);
+        tenant.setEmergencyPhone("0800000001");
+
+        Lease lease = new Lease();
+        lease.setId(id);
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.of(2024, 1, 1));
+        lease.setEndDate(LocalDate.of(2026, 12, 31));
+        lease.setRentAmount(BigDecimal.valueOf(8000));
+        lease.setStatus(LeaseStatus.ACTIVE);
+        return lease;
+    }
+
+    /**
+     * {@code leases} leases x {@code months} months x 3 line items
+     */
+    public static List<Payment> payments(int leases, int months) {
+        List<Payment> payments = new ArrayList<>(leases * months * MONTHLY_ITEMS.length);
+        long paymentId = 1;
+        LocalDate firstDueDate = LocalDate.of(2025, 1, 5);
+        for (long leaseId = 1; leaseId <= leases; leaseId++) {
+            Lease lease = lease(leaseId);
+            for (int month = 0; month < months; month++) {
+                for (PaymentType type : MONTHLY_ITEMS) {
+                    payments.add(payment(paymentId++, lease, type, firstDueDate.plusMonths(month)));
+                }
+            }
+        }
+        return payments;
+    }
+
+    public static Payment payment(long id, Lease lease, PaymentType type, LocalDate dueDate) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setLease(lease);
+        payment.setPaymentType(type);
+        payment.setAmount(type == PaymentType.RENT ? BigDecimal.valueOf(8000) : BigDecimal.valueOf(450.75));
+        payment.setDueDate(dueDate);
+        payment.setStatus(id % 4 == 0 ? PaymentStatus.PENDING : PaymentStatus.PAID);
+        payment.setNotes(type + " " + dueDate);
+        payment.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 0));
+        payment.setUpdatedAt(LocalDateTime.of(2025, 1, 1, 9, 0));
+        return payment;
+    }
+
+    /**
+     * Monthly invoice with its line items attached (as after a fetch join)
+     */
+    public static Invoice invoice(long id) {
+        Lease lease = lease(id);
+        LocalDate invoiceDate = LocalDate.of(2025, 6, 1);
+
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setInvoiceNumber("INV-20250601-" + id);
+        invoice.setLease(lease);
+        invoice.setInvoiceDate(invoiceDate);
+        invoice.setDueDate(invoiceDate.plusDays(5));
+        invoice.setNotes("Monthly bill");
+        invoice.setVerifiedAt(LocalDateTime.of(2025, 6, 3, 10, 30));
+        invoice.setCreatedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < MONTHLY_ITEMS.length; i++) {
+            Payment payment = payment(id * 10 + i, lease, MONTHLY_ITEMS[i], invoice.getDueDate());
+            payment.setInvoice(invoice);
+            invoice.getPayments().add(payment);
+            total = total.add(payment.getAmount());
+        }
+        invoice.setTotalAmount(total);
+        return invoice;
+    }
+}
@@ -0,0 +1,77 @@
+package apartment.example.backend.config;
+
+import apartment.example.backend.benchmark.BenchmarkFixtures;
+import apartment.example.backend.dto.PaymentResponseDto;
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.entity.Payment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response serialization through the application ObjectMapper (JacksonConfig)
+ */
+@State(Scope.Benchmark)
+public class JacksonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Invoice invoice;
+    private List<PaymentResponseDto> paymentDtos;
+
+    @Setup
+    public void setup() {
+        objectMapper = new JacksonConfig().objectMapper();
+        invoice = BenchmarkFixtures.invoice(1L);
+
+        // Same shape as GET /payments for 100 leases x 1 month
+        paymentDtos = new ArrayList<>();
+        for (Payment payment : BenchmarkFixtures.payments(100, 1)) {
+            PaymentResponseDto dto = new PaymentResponseDto();
+            dto.setId(payment.getId());
+            dto.setLeaseId(payment.getLease().getId());
+            dto.setAmount(payment.getAmount());
+            dto.setPaidAmount(payment.getAmount());
+            dto.setStatus(payment.getStatus());
+            dto.setPaymentType(payment.getPaymentType());
+            dto.setType(payment.getPaymentType());
+            dto.setDueDate(payment.getDueDate());
+            dto.setNotes(payment.getNotes());
+            dto.setDescription(payment.getNotes());
+            dto.setCreatedAt(payment.getCreatedAt());
+            dto.setUpdatedAt(payment.getUpdatedAt());
+
+            PaymentResponseDto.TenantDto tenantDto = new PaymentResponseDto.TenantDto();
+            tenantDto.setId(payment.getLease().getTenant().getId());
+            tenantDto.setFirstName(payment.getLease().getTenant().getFirstName());
+            tenantDto.setLastName(payment.getLease().getTenant().getLastName());
+            tenantDto.setEmail(payment.getLease().getTenant().getEmail());
+            tenantDto.setPhone(payment.getLease().getTenant().getPhone());
+            dto.setTenant(tenantDto);
+
+            PaymentResponseDto.UnitDto unitDto = new PaymentResponseDto.UnitDto();
+            unitDto.setId(payment.getLease().getUnit().getId());
+            unitDto.setRoomNumber(payment.getLease().getUnit().getRoomNumber());
+            unitDto.setFloor(payment.getLease().getUnit().getFloor());
+            unitDto.setType(payment.getLease().getUnit().getUnitType());
+            dto.setUnit(unitDto);
+
+            paymentDtos.add(dto);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeInvoice() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paymentDtos);
+    }
+}
@@ -0,0 +1,42 @@
+package apartment.example.backend.controller;
+
+import apartment.example.backend.benchmark.BenchmarkFixtures;
+import apartment.example.backend.entity.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PaymentController monthly-summary grouping (tenant -> month -> line items)
+ */
+@State(Scope.Benchmark)
+public class PaymentMonthlySummaryBenchmark {
+
+    @Param({"50", "500"})
+    public int leases;
+
+    @Param({"12"})
+    public int months;
+
+    private List<Payment> payments;
+
+    @Setup
+    public void setup() {
+        payments = BenchmarkFixtures.payments(leases, months);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> allMonths() {
+        return PaymentController.buildMonthlySummaries(payments, null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> singleMonth() {
+        return PaymentController.buildMonthlySummaries(payments, "2025-06");
+    }
+}
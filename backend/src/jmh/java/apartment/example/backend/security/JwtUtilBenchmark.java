@@ -0,0 +1,59 @@
+package apartment.example.backend.security;
+
+import apartment.example.backend.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * JwtUtil token generation and parsing - runs on every authenticated request
+ */
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    // 256-bit key, the minimum HS256 accepts
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci1qd3QtdG9rZW4tZ2VuZXJhdGlvbg==";
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        inject("secretKey", SECRET);
+        inject("jwtExpiration", 3_600_000L);
+
+        user = new User();
+        user.setId(42L);
+        user.setUsername("villager42");
+        user.setRole(User.Role.VILLAGER);
+
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, user);
+    }
+
+    private void inject(String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(JwtUtil.class, fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtUtil, value);
+    }
+}
@@ -0,0 +1,42 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+
+/**
+ * MaintenanceScheduleService.calculateNextTriggerDate per recurrence type
+ */
+@State(Scope.Benchmark)
+public class MaintenanceScheduleBenchmark {
+
+    @Param({"DAILY", "WEEKLY", "MONTHLY", "QUARTERLY", "YEARLY"})
+    public MaintenanceSchedule.RecurrenceType recurrenceType;
+
+    private MaintenanceScheduleService scheduleService;
+    private MaintenanceSchedule schedule;
+
+    @Setup
+    public void setup() {
+        // calculateNextTriggerDate uses none of the collaborators
+        scheduleService = new MaintenanceScheduleService(null, null, null, null, null, null, null, null, null, null);
+
+        schedule = new MaintenanceSchedule();
+        schedule.setRecurrenceType(recurrenceType);
+        schedule.setRecurrenceInterval(2);
+        schedule.setRecurrenceDayOfMonth(31);
+        schedule.setStartDate(LocalDate.of(2025, 1, 31));
+        schedule.setLastTriggeredDate(LocalDate.of(2025, 5, 31));
+        schedule.setEndDate(LocalDate.of(2030, 12, 31));
+    }
+
+    @Benchmark
+    public LocalDate calculateNextTriggerDate() {
+        return scheduleService.calculateNextTriggerDate(schedule);
+    }
+}
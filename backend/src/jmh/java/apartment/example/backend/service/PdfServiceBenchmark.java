@@ -0,0 +1,49 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.benchmark.BenchmarkFixtures;
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.repository.PaymentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * PdfService invoice / receipt rendering (pure iText work, repository answered from memory)
+ */
+@State(Scope.Benchmark)
+public class PdfServiceBenchmark {
+
+    private PdfService pdfService;
+    private Invoice invoice;
+
+    @Setup
+    public void setup() {
+        invoice = BenchmarkFixtures.invoice(1L);
+
+        // Only findByInvoiceId is called while rendering
+        PaymentRepository paymentRepository = (PaymentRepository) Proxy.newProxyInstance(
+                PaymentRepository.class.getClassLoader(),
+                new Class<?>[]{PaymentRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByInvoiceId")) {
+                        return invoice.getPayments();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        pdfService = new PdfService(paymentRepository, null);
+    }
+
+    @Benchmark
+    public byte[] generateInvoicePdf() {
+        return pdfService.generateInvoicePdf(invoice);
+    }
+
+    @Benchmark
+    public byte[] generateReceiptPdf() {
+        return pdfService.generateReceiptPdf(invoice);
+    }
+}
@@ -8,12 +8,14 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import apartment.example.backend.entity.enums.UnitStatus;
 import java.math.BigDecimal;
 import java.util.stream.IntStream;
 
+@EnableAsync
 @EnableScheduling
 @SpringBootApplication
 public class BackendApplication {
@@ -0,0 +1,49 @@
+package apartment.example.backend.config;
+
+import apartment.example.backend.service.ContentAddressedFileStore;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Blob Download Handler
+ *
+ * Handles /uploads/blobs/**. When the object storage can presign downloads (S3), the client
+ * is redirected to a short-lived URL and fetches the bytes from the bucket directly; the
+ * redirect itself is cacheable for half the URL's lifetime. Otherwise the file is served
+ * from the local blob directory like any other upload.
+ */
+public class BlobDownloadHandler implements HttpRequestHandler {
+
+    private final ContentAddressedFileStore fileStore;
+    private final ResourceHttpRequestHandler localHandler;
+
+    public BlobDownloadHandler(ContentAddressedFileStore fileStore, ResourceHttpRequestHandler localHandler) {
+        this.fileStore = fileStore;
+        this.localHandler = localHandler;
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String url = request.getRequestURI().substring(request.getContextPath().length());
+        Optional<String> presigned = url.startsWith(ContentAddressedFileStore.URL_PREFIX)
+                && !url.contains("..")
+                ? fileStore.presignedDownloadUrl(url)
+                : Optional.empty();
+        if (presigned.isEmpty()) {
+            localHandler.handleRequest(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(fileStore.getPresignTtl().dividedBy(2)).cachePrivate().getHeaderValue());
+        response.sendRedirect(presigned.get());
+    }
+}
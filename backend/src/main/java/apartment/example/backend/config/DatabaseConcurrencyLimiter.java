@@ -0,0 +1,127 @@
+package apartment.example.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Database Concurrency Limiter
+ *
+ * With virtual threads every request gets its own thread, so thousands of callers can
+ * ask Hikari for one of its 10 connections at the same time. This limiter puts a fair
+ * semaphore in front of the pool: callers park cheaply in FIFO order, a permit is held
+ * for exactly as long as the JDBC connection is open, and waiting time is bounded.
+ */
+@Slf4j
+public class DatabaseConcurrencyLimiter implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final Duration acquireTimeout;
+
+    public DatabaseConcurrencyLimiter(int limit, Duration acquireTimeout) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Database concurrency limit must be positive");
+        }
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Wrap a DataSource so every connection it hands out holds a permit until closed
+     */
+    public DataSource wrap(DataSource dataSource) {
+        log.info("Limiting concurrent database connections to {} (acquire timeout {})", limit, acquireTimeout);
+        return new LimitedDataSource(dataSource);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.concurrency.limit", () -> limit)
+                .description("Maximum concurrent JDBC connections allowed by the limiter")
+                .register(registry);
+        Gauge.builder("db.concurrency.active", () -> limit - permits.availablePermits())
+                .description("JDBC connections currently held through the limiter")
+                .register(registry);
+        Gauge.builder("db.concurrency.waiting", permits::getQueueLength)
+                .description("Threads waiting for a database permit")
+                .register(registry);
+    }
+
+    private Connection acquire(ConnectionSupplier supplier) throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Database concurrency limit (" + limit
+                        + ") reached - no connection available within " + acquireTimeout.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+        }
+
+        try {
+            return releaseOnClose(supplier.get());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releaseOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private class LimitedDataSource extends DelegatingDataSource {
+
+        LimitedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return acquire(() -> obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return acquire(() -> obtainTargetDataSource().getConnection(username, password));
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package apartment.example.backend.config;
 
+import apartment.example.backend.service.ContentAddressedFileStore;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * File Upload Configuration
- * 
- * Configures file upload directory and serves uploaded files as static resources
+ *
+ * Configures file upload directory and serves uploaded files as static resources.
+ * Upload filenames contain a UUID or the content hash and are never rewritten, so responses are served as
+ * immutable for a year with a strong ETag (If-None-Match -> 304); Range requests are
+ * answered with 206 by ResourceHttpRequestHandler, and full responses above
+ * file.sendfile-min-size go out through Tomcat sendfile (see SendfileResourceHttpMessageConverter).
+ * With S3 object storage, /uploads/blobs/** redirects to a presigned URL instead (see BlobDownloadHandler).
  */
 @Configuration
-public class FileUploadConfig implements WebMvcConfigurer {
+public class FileUploadConfig {
+
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
 
     @Value("${file.upload-dir:uploads/payment-slips}")
     private String uploadDir;
@@ -22,22 +40,66 @@ public class FileUploadConfig implements WebMvcConfigurer {
     @Value("${file.maintenance-upload-dir:uploads/maintenance-attachments}")
     private String maintenanceUploadDir;
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Convert relative path to absolute path for payment slips
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        String uploadPathString = uploadPath.toUri().toString();
-        
+    @Value("${file.blob-dir:uploads/blobs}")
+    private String blobDir;
+
+    @Value("${file.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    @Bean
+    public ResourceHttpRequestHandler paymentSlipResourceHandler() {
         // Serve uploaded files at /uploads/payment-slips/**
-        registry.addResourceHandler("/uploads/payment-slips/**")
-                .addResourceLocations(uploadPathString + "/");
+        return uploadsHandler(Paths.get(uploadDir), sendfileMinSize);
+    }
 
-        // Convert relative path to absolute path for maintenance attachments
-        Path maintenanceUploadPath = Paths.get(maintenanceUploadDir).toAbsolutePath().normalize();
-        String maintenanceUploadPathString = maintenanceUploadPath.toUri().toString();
-        
+    @Bean
+    public ResourceHttpRequestHandler maintenanceAttachmentResourceHandler() {
         // Serve uploaded files at /uploads/maintenance-attachments/**
-        registry.addResourceHandler("/uploads/maintenance-attachments/**")
-                .addResourceLocations(maintenanceUploadPathString + "/");
+        return uploadsHandler(Paths.get(maintenanceUploadDir), sendfileMinSize);
+    }
+
+    @Bean
+    public ResourceHttpRequestHandler blobResourceHandler() {
+        // Serve content-addressed uploads at /uploads/blobs/** (local object storage)
+        return uploadsHandler(Paths.get(blobDir), sendfileMinSize);
+    }
+
+    /**
+     * Ordered ahead of Spring MVC's default static resource mapping
+     */
+    @Bean
+    public SimpleUrlHandlerMapping uploadsHandlerMapping(ResourceHttpRequestHandler paymentSlipResourceHandler,
+                                                         ResourceHttpRequestHandler maintenanceAttachmentResourceHandler,
+                                                         ResourceHttpRequestHandler blobResourceHandler,
+                                                         ContentAddressedFileStore fileStore) {
+        return new SimpleUrlHandlerMapping(Map.of(
+                "/uploads/payment-slips/**", paymentSlipResourceHandler,
+                "/uploads/maintenance-attachments/**", maintenanceAttachmentResourceHandler,
+                "/uploads/blobs/**", new BlobDownloadHandler(fileStore, blobResourceHandler)),
+                Ordered.LOWEST_PRECEDENCE - 2);
+    }
+
+    static ResourceHttpRequestHandler uploadsHandler(Path directory, DataSize sendfileMinSize) {
+        // Convert relative path to absolute path
+        Path location = directory.toAbsolutePath().normalize();
+
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocations(List.of(new FileSystemResource(location.toString() + "/")));
+        handler.setCacheControl(IMMUTABLE);
+        handler.setUseLastModified(true);
+        handler.setEtagGenerator(FileUploadConfig::strongEtag);
+        handler.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter(sendfileMinSize.toBytes()));
+        return handler;
+    }
+
+    /**
+     * Modification time and length, like nginx - changes whenever the bytes on disk do
+     */
+    static String strongEtag(Resource resource) {
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,106 @@
+package apartment.example.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lazy Load Guard
+ *
+ * Open-session-in-view is off: a request holds a connection only while a service
+ * transaction runs, and responses are rendered from data the endpoint fetched up front
+ * (entity graphs, fetch joins, DTOs). This listener reports any lazy proxy or collection
+ * initialized without an active transaction - a WARN log and the
+ * hibernate.lazy.loads.outside.transaction counter tagged with the entity or collection role.
+ * With jpa.lazy-load-guard.fail set (the test profile) it throws instead, so a missing fetch
+ * plan fails the build rather than quietly holding a connection through serialization.
+ *
+ * At startup it also checks that open-in-view and hibernate.enable_lazy_load_no_trans,
+ * which would let those loads succeed, are both off.
+ */
+@Component
+@Slf4j
+public class LazyLoadGuard implements LoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final boolean openInView;
+    private final boolean fail;
+
+    public LazyLoadGuard(EntityManagerFactory entityManagerFactory,
+                         MeterRegistry meterRegistry,
+                         @Value("${spring.jpa.open-in-view:true}") boolean openInView,
+                         @Value("${jpa.lazy-load-guard.fail:false}") boolean fail) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.openInView = openInView;
+        this.fail = fail;
+    }
+
+    @PostConstruct
+    void register() {
+        if (openInView) {
+            misconfigured("spring.jpa.open-in-view is enabled; set it to false");
+        }
+        if (Boolean.parseBoolean(String.valueOf(
+                entityManagerFactory.getProperties().get(AvailableSettings.ENABLE_LAZY_LOAD_NO_TRANS)))) {
+            misconfigured(AvailableSettings.ENABLE_LAZY_LOAD_NO_TRANS + " is enabled; set it to false");
+        }
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, this);
+        registry.prependListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+        // Proxy initialization; eager associations resolved by a query use the internal load types
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            check(event.getEntityClassName());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        check(event.getCollection().getRole());
+    }
+
+    private void check(String role) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        Counter.builder("hibernate.lazy.loads.outside.transaction")
+                .description("Lazy proxies and collections initialized without an active transaction")
+                .tag("role", String.valueOf(role))
+                .register(meterRegistry)
+                .increment();
+        if (fail) {
+            throw new LazyInitializationException("Lazy load of " + role
+                    + " outside a transaction; fetch it in the service that loads the entity");
+        }
+        log.warn("Lazy load of {} outside a transaction", role);
+    }
+
+    private void misconfigured(String message) {
+        if (fail) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+}
@@ -0,0 +1,97 @@
+package apartment.example.backend.config;
+
+import apartment.example.backend.service.LocalObjectStorage;
+import apartment.example.backend.service.ObjectStorage;
+import apartment.example.backend.service.S3ObjectStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Object Storage Configuration
+ *
+ * file.storage.type=local (default) keeps blobs in file.blob-dir on the shared volume.
+ * file.storage.type=s3 stores them in file.s3.bucket; file.s3.endpoint points the client
+ * at an S3-compatible server such as MinIO (path-style addressing), and credentials fall
+ * back to the default AWS chain when file.s3.access-key is not set.
+ */
+@Configuration
+public class ObjectStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+    public ObjectStorage localObjectStorage(@Value("${file.blob-dir:uploads/blobs}") String blobDir) {
+        return new LocalObjectStorage(Paths.get(blobDir));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+    static class S3StorageConfig {
+
+        @Value("${file.s3.endpoint:}")
+        private String endpoint;
+
+        @Value("${file.s3.region:us-east-1}")
+        private String region;
+
+        @Value("${file.s3.access-key:}")
+        private String accessKey;
+
+        @Value("${file.s3.secret-key:}")
+        private String secretKey;
+
+        @Value("${file.s3.path-style:true}")
+        private boolean pathStyle;
+
+        @Bean(destroyMethod = "close")
+        public S3Client s3Client() {
+            var builder = S3Client.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(credentials())
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+            if (StringUtils.hasText(endpoint)) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            return builder.build();
+        }
+
+        @Bean(destroyMethod = "close")
+        public S3Presigner s3Presigner() {
+            var builder = S3Presigner.builder()
+                    .region(Region.of(region))
+                    .credentialsProvider(credentials())
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+            if (StringUtils.hasText(endpoint)) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            return builder.build();
+        }
+
+        @Bean
+        public ObjectStorage s3ObjectStorage(S3Client s3Client, S3Presigner s3Presigner,
+                                             @Value("${file.s3.bucket}") String bucket,
+                                             @Value("${file.s3.part-size:8MB}") DataSize partSize) {
+            return new S3ObjectStorage(s3Client, s3Presigner, bucket, partSize.toBytes());
+        }
+
+        private AwsCredentialsProvider credentials() {
+            return StringUtils.hasText(accessKey)
+                    ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                    : DefaultCredentialsProvider.create();
+        }
+    }
+}
@@ -81,6 +81,7 @@ public class SecurityConfig {
                         
                         // Invoices - Tenants can view their own invoices
                         // IMPORTANT: Specific routes MUST come before catch-all patterns
+                        .requestMatchers("/invoices/billing-runs/**").hasAnyRole("ADMIN")  // Admin runs monthly billing (before /invoices/{id})
                         .requestMatchers(HttpMethod.POST, "/invoices/{id}/upload-slip").authenticated()  // User can upload payment slip
                         .requestMatchers(HttpMethod.POST, "/invoices/{id}/installment").authenticated()  // User can create installment plan
                         .requestMatchers(HttpMethod.GET, "/invoices/{id}/installments").authenticated()  // User can view installment invoices
@@ -91,6 +92,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/invoices/{id}/pdf").authenticated()  // User can download invoice PDF
                         .requestMatchers("/invoices/**").hasAnyRole("ADMIN")  // Admin can manage all invoices
                         
+                        // Meter readings - Admin imports the monthly reading sheets
+                        .requestMatchers("/meter-readings/**").hasAnyRole("ADMIN")
+                        
                         // Tenants - Users can view their own profile
                         .requestMatchers(HttpMethod.GET, "/tenants/*").authenticated()  // User can view own tenant profile by ID
                         .requestMatchers("/tenants/**").hasAnyRole("ADMIN")  // Admin can manage all tenants
@@ -108,7 +112,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/maintenance-requests/**").hasAnyRole("ADMIN")  // Admin deletes
                         
                         // Maintenance Stocks - Admin only
-                        .requestMatchers("/maintenance/stocks/**", "/maintenance-requests/*/items/**").hasAnyRole("ADMIN")  // Stock and items management
+                        .requestMatchers("/maintenance/stocks/**", "/maintenance-requests/*/items/**", "/maintenance-requests/items/**").hasAnyRole("ADMIN")  // Stock and items management
                         
                         // Maintenance Schedules - Admin only
                         .requestMatchers("/maintenance/schedules/**").hasAnyRole("ADMIN")  // Schedule management
@@ -143,6 +147,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Cursor of the next page of paged listings
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L); // Cache preflight for 1 hour
         
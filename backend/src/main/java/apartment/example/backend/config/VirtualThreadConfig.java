@@ -0,0 +1,58 @@
+package apartment.example.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Virtual Thread Configuration
+ *
+ * Active only when spring.threads.virtual.enabled=true. Spring Boot then runs Tomcat
+ * request handling, the @Async executor and the @Scheduled scheduler on virtual threads;
+ * this class adds what the application needs on top of that:
+ * - a DatabaseConcurrencyLimiter in front of the Hikari pool
+ * - a JFR-based monitor that reports carrier-thread pinning
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public DatabaseConcurrencyLimiter databaseConcurrencyLimiter(
+            @Value("${db.concurrency-limit:${spring.datasource.hikari.maximum-pool-size:10}}") int limit,
+            @Value("${db.acquire-timeout:20s}") Duration acquireTimeout) {
+        return new DatabaseConcurrencyLimiter(limit, acquireTimeout);
+    }
+
+    /**
+     * Static so the post-processor is registered before the DataSource bean is created
+     */
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiterPostProcessor(
+            ObjectProvider<DatabaseConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return limiter.getObject().wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+}
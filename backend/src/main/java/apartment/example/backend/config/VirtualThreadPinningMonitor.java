@@ -0,0 +1,77 @@
+package apartment.example.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Virtual Thread Pinning Monitor
+ *
+ * Listens to the JFR jdk.VirtualThreadPinned event (a virtual thread blocked while it
+ * could not unmount, e.g. inside a synchronized block or a native frame) and reports
+ * pins longer than the threshold: a WARN log with the application frames and the
+ * jvm.threads.virtual.pinned counter tagged with the first application method.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "apartment.example.backend";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {})", threshold);
+    }
+
+    @Override
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> appFrames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .filter(frame -> frame.startsWith(APP_PACKAGE))
+                .collect(Collectors.toList());
+        String site = appFrames.isEmpty() ? "framework" : appFrames.get(0).substring(0, appFrames.get(0).lastIndexOf(':'));
+
+        Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual thread pinning events longer than the monitor threshold")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site,
+                appFrames.isEmpty() ? "" : " <- " + String.join(" <- ", appFrames));
+    }
+}
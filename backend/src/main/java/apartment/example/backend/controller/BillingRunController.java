@@ -0,0 +1,106 @@
+package apartment.example.backend.controller;
+
+import apartment.example.backend.entity.BillingRun;
+import apartment.example.backend.service.BillingRunService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Billing Run Controller
+ *
+ * Admin endpoints for monthly billing runs over all active leases
+ */
+@RestController
+@RequestMapping("/invoices/billing-runs")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BillingRunController {
+
+    private final BillingRunService billingRunService;
+
+    /**
+     * Start a billing run
+     *
+     * POST /invoices/billing-runs
+     *
+     * Request Body:
+     * {
+     *   "billingMonth": "2025-11",
+     *   "invoiceDate": "2025-11-01",      (optional, default first of the month)
+     *   "dueDate": "2025-11-06",          (optional, default invoice date + billing-run.due-days)
+     *   "dryRun": true,
+     *   "usage": { "12": { "electricityUnits": 120, "waterUnits": 8 } }
+     * }
+     *
+     * A dry run answers 200 with the invoices it would create. A real run answers 202 with
+     * the run; its progress is at GET /invoices/billing-runs/{id}.
+     */
+    @PostMapping
+    public ResponseEntity<BillingRunService.RunResult> startRun(@RequestBody StartRunRequest request) {
+        if (request.getBillingMonth() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            BillingRunService.RunResult result = billingRunService.start(new BillingRunService.RunRequest(
+                    request.getBillingMonth().atDay(1),
+                    request.getInvoiceDate(),
+                    request.getDueDate(),
+                    request.isDryRun(),
+                    request.getUsage()));
+            return request.isDryRun()
+                    ? ResponseEntity.ok(result)
+                    : ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+        } catch (IllegalStateException e) {
+            log.warn("Billing run for {} not started: {}", request.getBillingMonth(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Progress of a billing run
+     *
+     * GET /invoices/billing-runs/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BillingRun> getRun(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(billingRunService.getRun(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Latest billing runs, newest first
+     *
+     * GET /invoices/billing-runs
+     */
+    @GetMapping
+    public ResponseEntity<List<BillingRun>> getRecentRuns() {
+        return ResponseEntity.ok(billingRunService.getRecentRuns());
+    }
+
+    /**
+     * Start Billing Run Request DTO
+     */
+    @Data
+    public static class StartRunRequest {
+        private YearMonth billingMonth;
+        private LocalDate invoiceDate;
+        private LocalDate dueDate;
+        private boolean dryRun;
+        private Map<Long, BillingRunService.UtilityUsage> usage;
+    }
+}
@@ -4,6 +4,7 @@ import apartment.example.backend.entity.Invoice;
 import apartment.example.backend.entity.enums.InvoiceType;
 import apartment.example.backend.entity.enums.PaymentType;
 import apartment.example.backend.service.InvoiceService;
+import apartment.example.backend.service.MeterReadingService;
 import apartment.example.backend.service.PdfService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -15,6 +16,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -29,12 +31,18 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class InvoiceController {
 
+    // Response header with the cursor of the next page of a paged listing
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private InvoiceService invoiceService;
     
     @Autowired
     private PdfService pdfService;
 
+    @Autowired
+    private MeterReadingService meterReadingService;
+
     /**
      * Create a new invoice with payment line items
      * 
@@ -51,6 +59,9 @@ public class InvoiceController {
      *   "notes": "ค่าเช่าประจำเดือน พฤศจิกายน 2025"
      * }
      * 
+     * With "billingMonth": "2025-11", electricity and water amounts left out are taken
+     * from the unit's imported meter readings for that month.
+     * 
      * Response: Invoice object with invoice number and payment line items
      */
     @PostMapping("/create")
@@ -64,6 +75,19 @@ public class InvoiceController {
             List<InvoiceService.PaymentItem> paymentItems = new ArrayList<>();
 
             if (invoiceType == InvoiceType.MONTHLY_RENT) {
+                BigDecimal electricityAmount = request.getElectricityAmount();
+                BigDecimal waterAmount = request.getWaterAmount();
+                if (request.getBillingMonth() != null && (electricityAmount == null || waterAmount == null)) {
+                    MeterReadingService.UtilityCharges charges = meterReadingService.getChargesForLease(
+                        request.getLeaseId(), request.getBillingMonth().atDay(1));
+                    if (electricityAmount == null) {
+                        electricityAmount = charges.electricityAmount();
+                    }
+                    if (waterAmount == null) {
+                        waterAmount = charges.waterAmount();
+                    }
+                }
+
                 // Monthly rent + utilities
                 if (request.getRentAmount() != null && request.getRentAmount().compareTo(BigDecimal.ZERO) > 0) {
                     paymentItems.add(new InvoiceService.PaymentItem(
@@ -73,18 +97,18 @@ public class InvoiceController {
                     ));
                 }
 
-                if (request.getElectricityAmount() != null && request.getElectricityAmount().compareTo(BigDecimal.ZERO) > 0) {
+                if (electricityAmount != null && electricityAmount.compareTo(BigDecimal.ZERO) > 0) {
                     paymentItems.add(new InvoiceService.PaymentItem(
                         PaymentType.ELECTRICITY,
-                        request.getElectricityAmount(),
+                        electricityAmount,
                         "ค่าไฟฟ้า"
                     ));
                 }
 
-                if (request.getWaterAmount() != null && request.getWaterAmount().compareTo(BigDecimal.ZERO) > 0) {
+                if (waterAmount != null && waterAmount.compareTo(BigDecimal.ZERO) > 0) {
                     paymentItems.add(new InvoiceService.PaymentItem(
                         PaymentType.WATER,
-                        request.getWaterAmount(),
+                        waterAmount,
                         "ค่าน้ำ"
                     ));
                 }
@@ -183,23 +207,35 @@ public class InvoiceController {
      * Get all invoices for a lease
      * 
      * GET /invoices/lease/{leaseId}
+     * GET /invoices/lease/{leaseId}?includeArchived=true - also invoices moved to the archive
      */
     @GetMapping("/lease/{leaseId}")
-    public ResponseEntity<List<Invoice>> getInvoicesByLeaseId(@PathVariable Long leaseId) {
-        List<Invoice> invoices = invoiceService.getInvoicesByLeaseId(leaseId);
+    public ResponseEntity<List<Invoice>> getInvoicesByLeaseId(
+            @PathVariable Long leaseId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<Invoice> invoices = includeArchived
+                ? invoiceService.getInvoiceHistoryByLeaseId(leaseId)
+                : invoiceService.getInvoicesByLeaseId(leaseId);
         return ResponseEntity.ok(invoices);
     }
 
     /**
-     * Get all invoices for a tenant by email
+     * Get a page of a tenant's invoices by email, newest first
+     * 
+     * GET /invoices/tenant/{tenantEmail}?size=50
+     * GET /invoices/tenant/{tenantEmail}?after={cursor}&size=50 - next page
      * 
-     * GET /invoices/tenant/{tenantEmail}
+     * The X-Next-Cursor header carries the after value of the next page; it is absent on the last page
      */
     @GetMapping("/tenant/{tenantEmail}")
-    public ResponseEntity<List<Invoice>> getInvoicesByTenantEmail(@PathVariable String tenantEmail) {
+    public ResponseEntity<List<Invoice>> getInvoicesByTenantEmail(
+            @PathVariable String tenantEmail,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
         try {
-            List<Invoice> invoices = invoiceService.getInvoicesByTenantEmail(tenantEmail);
-            return ResponseEntity.ok(invoices);
+            return toPageResponse(invoiceService.getInvoicesByTenantEmail(tenantEmail, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -237,6 +273,7 @@ public class InvoiceController {
         private BigDecimal rentAmount;
         private BigDecimal electricityAmount;
         private BigDecimal waterAmount;
+        private YearMonth billingMonth; // Fill missing utilities from meter readings
         private BigDecimal amount; // For non-MONTHLY_RENT types
         private String invoiceType; // MONTHLY_RENT, SECURITY_DEPOSIT, etc.
         private String notes;
@@ -290,6 +327,14 @@ public class InvoiceController {
             this.waterAmount = waterAmount;
         }
 
+        public YearMonth getBillingMonth() {
+            return billingMonth;
+        }
+
+        public void setBillingMonth(YearMonth billingMonth) {
+            this.billingMonth = billingMonth;
+        }
+
         public BigDecimal getAmount() {
             return amount;
         }
@@ -374,25 +419,56 @@ public class InvoiceController {
     }
     
     /**
-     * Get all invoices waiting for verification (Admin only)
+     * Other invoices whose payment slip is byte-for-byte the same file (Admin only)
+     *
+     * GET /invoices/{id}/duplicate-slips
+     */
+    @GetMapping("/{id}/duplicate-slips")
+    public ResponseEntity<Map<String, Object>> getDuplicateSlips(@PathVariable Long id) {
+        List<Long> invoiceIds = invoiceService.findInvoicesWithSameSlip(id);
+        return ResponseEntity.ok(Map.of("invoiceId", id, "duplicateInvoiceIds", invoiceIds));
+    }
+
+    /**
+     * Get a page of the invoices waiting for verification, latest slip first (Admin only)
      * 
-     * GET /invoices/waiting-verification
+     * GET /invoices/waiting-verification?after={cursor}&size=50
+     * 
+     * The X-Next-Cursor header carries the after value of the next page; it is absent on the last page
      */
     @GetMapping("/waiting-verification")
-    public ResponseEntity<List<Invoice>> getInvoicesWaitingVerification() {
-        List<Invoice> invoices = invoiceService.getInvoicesWaitingVerification();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<Invoice>> getInvoicesWaitingVerification(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return toPageResponse(invoiceService.getInvoicesWaitingVerification(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
-     * Get all paid invoices (Admin only)
+     * Get a page of the paid invoices (Admin only)
      * 
-     * GET /invoices/paid
+     * GET /invoices/paid?after={cursor}&size=50
      */
     @GetMapping("/paid")
-    public ResponseEntity<List<Invoice>> getPaidInvoices() {
-        List<Invoice> invoices = invoiceService.getPaidInvoices();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<Invoice>> getPaidInvoices(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return toPageResponse(invoiceService.getPaidInvoices(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static ResponseEntity<List<Invoice>> toPageResponse(InvoiceService.InvoicePage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.invoices());
     }
     
     /**
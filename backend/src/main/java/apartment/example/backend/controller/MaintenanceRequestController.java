@@ -412,6 +412,13 @@ public class MaintenanceRequestController {
         return ResponseEntity.ok(stats);
     }
 
+    // Get request counts by status, then priority, then category
+    @GetMapping("/stats/breakdown")
+    public ResponseEntity<Map<String, Map<String, Map<String, Long>>>> getStatsBreakdown() {
+        Map<String, Map<String, Map<String, Long>>> stats = maintenanceRequestService.getStatsBreakdown();
+        return ResponseEntity.ok(stats);
+    }
+
     // ============================================
     // MAINTENANCE REQUEST ITEMS ENDPOINTS
     // ============================================
@@ -521,6 +528,20 @@ public class MaintenanceRequestController {
         }
     }
 
+    /**
+     * Calculate total item cost for several requests at once (admin board page)
+     * GET /maintenance-requests/items/costs?requestIds=1,2,3
+     */
+    @GetMapping("/items/costs")
+    public ResponseEntity<Map<String, Object>> calculateItemsCosts(@RequestParam List<Long> requestIds) {
+        log.info("GET /maintenance-requests/items/costs - {} requests", requestIds.size());
+        Map<Long, java.math.BigDecimal> costs = itemService.calculateTotalCosts(requestIds);
+        return ResponseEntity.ok(Map.of(
+            "costs", costs,
+            "currency", "THB"
+        ));
+    }
+
     /**
      * Tenant selects time slot for maintenance request
      * PUT /maintenance-requests/{id}/select-time
@@ -1,16 +1,22 @@
 package apartment.example.backend.controller;
 
+import apartment.example.backend.dto.MaintenanceCalendarDTO;
 import apartment.example.backend.dto.MaintenanceScheduleDTO;
+import apartment.example.backend.service.MaintenanceCalendarService;
 import apartment.example.backend.service.MaintenanceScheduleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Maintenance Schedule Controller
@@ -25,6 +31,7 @@ import java.util.List;
 public class MaintenanceScheduleController {
 
     private final MaintenanceScheduleService scheduleService;
+    private final MaintenanceCalendarService calendarService;
 
     /**
      * Get all active schedules
@@ -46,6 +53,33 @@ public class MaintenanceScheduleController {
         }
     }
 
+    /**
+     * Get the occurrence calendar of all active schedules
+     * 
+     * GET /maintenance/schedules/calendar?from=2026-01-01&to=2026-12-31
+     * 
+     * from defaults to today and to to a year after from, both inclusive
+     * Response: Every date a schedule fires in the range, with the load per month
+     */
+    @GetMapping("/calendar")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OWNER')")
+    public ResponseEntity<MaintenanceCalendarDTO> getCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusYears(1).minusDays(1);
+        log.info("GET /maintenance/schedules/calendar?from={}&to={}", start, end);
+        try {
+            return ResponseEntity.ok(calendarService.getCalendar(start, end));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid calendar range {} - {}: {}", start, end, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            log.error("Error projecting maintenance calendar", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get schedule by ID
      * 
@@ -297,6 +331,29 @@ public class MaintenanceScheduleController {
         }
     }
 
+    /**
+     * Get the schedule as it was at a point in time, rebuilt from its change log
+     * 
+     * GET /maintenance/schedules/{id}/snapshot?at=2025-11-01T00:00:00
+     * 
+     * Response: Schedule fields at that time; 404 if the schedule did not exist then
+     */
+    @GetMapping("/{id}/snapshot")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OWNER')")
+    public ResponseEntity<Map<String, Object>> getScheduleSnapshot(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        log.info("GET /maintenance/schedules/{}/snapshot?at={}", id, at);
+        try {
+            return scheduleService.getScheduleSnapshot(id, at)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch (RuntimeException e) {
+            log.error("Schedule not found: {}", id, e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     /**
      * Trigger schedule for specific unit only
      * 
@@ -0,0 +1,102 @@
+package apartment.example.backend.controller;
+
+import apartment.example.backend.entity.MeterReading;
+import apartment.example.backend.service.MeterReadingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Meter Reading Controller
+ *
+ * Admin endpoints for importing the monthly utility reading sheets
+ */
+@RestController
+@RequestMapping("/meter-readings")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class MeterReadingController {
+
+    private final MeterReadingService meterReadingService;
+
+    /**
+     * Import readings from CSV
+     *
+     * POST /meter-readings/import
+     * Content-Type: text/csv
+     *
+     * room_number,utility_type,period,reading,previous_reading,read_date
+     * 101,ELECTRICITY,2025-11,1520.5,,2025-11-30
+     * 101,WATER,2025-11,312,,2025-11-30
+     *
+     * The body is streamed, not uploaded as a file, so sheets of any size can be posted.
+     * Invalid rows are skipped and listed in the response.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<MeterReadingService.ImportResult> importCsv(InputStream body) {
+        try {
+            return ResponseEntity.ok(meterReadingService.importCsv(body));
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Meter reading CSV import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Import readings from JSON
+     *
+     * POST /meter-readings/import
+     * Content-Type: application/json
+     *
+     * [ { "roomNumber": "101", "utilityType": "ELECTRICITY", "period": "2025-11", "reading": 1520.5 } ]
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MeterReadingService.ImportResult> importJson(InputStream body) {
+        try {
+            return ResponseEntity.ok(meterReadingService.importJson(body));
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Meter reading JSON import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Readings of one month
+     *
+     * GET /meter-readings?period=2025-11
+     */
+    @GetMapping
+    public ResponseEntity<List<MeterReading>> getReadingsForPeriod(@RequestParam YearMonth period) {
+        return ResponseEntity.ok(meterReadingService.getReadingsForPeriod(period.atDay(1)));
+    }
+
+    /**
+     * Readings of one unit, newest month first
+     *
+     * GET /meter-readings/unit/{unitId}
+     */
+    @GetMapping("/unit/{unitId}")
+    public ResponseEntity<List<MeterReading>> getReadingsForUnit(@PathVariable Long unitId) {
+        return ResponseEntity.ok(meterReadingService.getReadingsForUnit(unitId));
+    }
+
+    /**
+     * Utility charges of a lease's unit for one month, as used for its invoice
+     *
+     * GET /meter-readings/lease/{leaseId}/charges?period=2025-11
+     */
+    @GetMapping("/lease/{leaseId}/charges")
+    public ResponseEntity<MeterReadingService.UtilityCharges> getChargesForLease(
+            @PathVariable Long leaseId,
+            @RequestParam YearMonth period) {
+        return ResponseEntity.ok(meterReadingService.getChargesForLease(leaseId, period.atDay(1)));
+    }
+}
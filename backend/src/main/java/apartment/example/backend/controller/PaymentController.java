@@ -4,10 +4,12 @@ import apartment.example.backend.dto.PaymentResponseDto;
 import apartment.example.backend.entity.Payment;
 import apartment.example.backend.entity.Lease;
 import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.TenantBillingLedger;
 import apartment.example.backend.entity.Unit;
 import apartment.example.backend.entity.enums.PaymentStatus;
 import apartment.example.backend.entity.enums.PaymentType;
 import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.service.BillingLedgerService;
 import apartment.example.backend.service.PaymentService;
 import apartment.example.backend.service.LeaseService;
 import apartment.example.backend.service.TenantService;
@@ -41,6 +43,7 @@ public class PaymentController {
     private final PaymentService paymentService;
     private final LeaseService leaseService;
     private final TenantService tenantService;
+    private final BillingLedgerService billingLedgerService;
 
     @GetMapping
     public ResponseEntity<List<PaymentResponseDto>> getAllPayments() {
@@ -56,100 +59,107 @@ public class PaymentController {
             @RequestParam(required = false) String month) {
         try {
             List<Payment> allPayments = paymentService.getAllPayments();
-            
-            // Filter payments for OCCUPIED units only
-            List<Payment> occupiedUnitPayments = allPayments.stream()
-                .filter(payment -> payment.getLease().getUnit().getStatus() == UnitStatus.OCCUPIED)
+            return ResponseEntity.ok(buildMonthlySummaries(allPayments, month));
+        } catch (Exception e) {
+            log.error("Error getting monthly payment summary: {}", e.getMessage());
+            return ResponseEntity.ok(new ArrayList<>()); // Return empty list on error
+        }
+    }
+
+    /**
+     * Group payments of OCCUPIED units by tenant and month into summary rows (newest month first).
+     * Kept free of I/O so the grouping cost can be benchmarked on its own.
+     */
+    static List<Map<String, Object>> buildMonthlySummaries(List<Payment> allPayments, String month) {
+        // Filter payments for OCCUPIED units only
+        List<Payment> occupiedUnitPayments = allPayments.stream()
+            .filter(payment -> payment.getLease().getUnit().getStatus() == UnitStatus.OCCUPIED)
+            .collect(Collectors.toList());
+        
+        // If month parameter is provided, filter by month
+        if (month != null && !month.isEmpty()) {
+            occupiedUnitPayments = occupiedUnitPayments.stream()
+                .filter(payment -> payment.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM")).equals(month))
                 .collect(Collectors.toList());
-            
-            // If month parameter is provided, filter by month
-            if (month != null && !month.isEmpty()) {
-                occupiedUnitPayments = occupiedUnitPayments.stream()
-                    .filter(payment -> payment.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM")).equals(month))
+        }
+        
+        // Group payments by tenant and month
+        Map<String, Map<String, List<Payment>>> groupedPayments = occupiedUnitPayments.stream()
+            .collect(Collectors.groupingBy(
+                payment -> payment.getLease().getTenant().getEmail(),
+                Collectors.groupingBy(payment -> 
+                    payment.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM"))
+                )
+            ));
+        
+        List<Map<String, Object>> monthlySummaries = new ArrayList<>();
+        
+        for (Map.Entry<String, Map<String, List<Payment>>> tenantEntry : groupedPayments.entrySet()) {
+            String tenantEmail = tenantEntry.getKey();
+            
+            for (Map.Entry<String, List<Payment>> monthEntry : tenantEntry.getValue().entrySet()) {
+                String monthKey = monthEntry.getKey();
+                List<Payment> monthPayments = monthEntry.getValue();
+                
+                BigDecimal totalAmount = monthPayments.stream()
+                    .map(Payment::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+                
+                boolean allPaid = monthPayments.stream()
+                    .allMatch(p -> p.getStatus() == PaymentStatus.PAID);
+                
+                // Create breakdown for frontend
+                List<Map<String, Object>> breakdown = monthPayments.stream()
+                    .map(payment -> {
+                        Map<String, Object> paymentBreakdown = new HashMap<>();
+                        paymentBreakdown.put("id", payment.getId());
+                        paymentBreakdown.put("type", payment.getPaymentType().toString());
+                        paymentBreakdown.put("amount", payment.getAmount());
+                        paymentBreakdown.put("status", payment.getStatus().toString());
+                        paymentBreakdown.put("dueDate", payment.getDueDate().toString());
+                        return paymentBreakdown;
+                    })
                     .collect(Collectors.toList());
-            }
-            
-            // Group payments by tenant and month
-            Map<String, Map<String, List<Payment>>> groupedPayments = occupiedUnitPayments.stream()
-                .collect(Collectors.groupingBy(
-                    payment -> payment.getLease().getTenant().getEmail(),
-                    Collectors.groupingBy(payment -> 
-                        payment.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM"))
-                    )
-                ));
-            
-            List<Map<String, Object>> monthlySummaries = new ArrayList<>();
-            
-            for (Map.Entry<String, Map<String, List<Payment>>> tenantEntry : groupedPayments.entrySet()) {
-                String tenantEmail = tenantEntry.getKey();
                 
-                for (Map.Entry<String, List<Payment>> monthEntry : tenantEntry.getValue().entrySet()) {
-                    String monthKey = monthEntry.getKey();
-                    List<Payment> monthPayments = monthEntry.getValue();
-                    
-                    BigDecimal totalAmount = monthPayments.stream()
-                        .map(Payment::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                    boolean allPaid = monthPayments.stream()
-                        .allMatch(p -> p.getStatus() == PaymentStatus.PAID);
-                    
-                    // Create breakdown for frontend
-                    List<Map<String, Object>> breakdown = monthPayments.stream()
-                        .map(payment -> {
-                            Map<String, Object> paymentBreakdown = new HashMap<>();
-                            paymentBreakdown.put("id", payment.getId());
-                            paymentBreakdown.put("type", payment.getPaymentType().toString());
-                            paymentBreakdown.put("amount", payment.getAmount());
-                            paymentBreakdown.put("status", payment.getStatus().toString());
-                            paymentBreakdown.put("dueDate", payment.getDueDate().toString());
-                            return paymentBreakdown;
-                        })
-                        .collect(Collectors.toList());
-                    
-                    // Safely extract tenant information with null checks
-                    Payment firstPayment = monthPayments.get(0);
-                    Lease lease = firstPayment.getLease();
-                    Tenant tenant = lease != null ? lease.getTenant() : null;
-                    Unit unit = lease != null ? lease.getUnit() : null;
-                    
-                    String tenantName = "Unknown Tenant";
-                    if (tenant != null) {
-                        String firstName = Optional.ofNullable(tenant.getFirstName()).orElse("");
-                        String lastName = Optional.ofNullable(tenant.getLastName()).orElse("");
-                        tenantName = (firstName + " " + lastName).trim();
-                        if (tenantName.isEmpty()) {
-                            tenantName = "Unknown Tenant";
-                        }
+                // Safely extract tenant information with null checks
+                Payment firstPayment = monthPayments.get(0);
+                Lease lease = firstPayment.getLease();
+                Tenant tenant = lease != null ? lease.getTenant() : null;
+                Unit unit = lease != null ? lease.getUnit() : null;
+                
+                String tenantName = "Unknown Tenant";
+                if (tenant != null) {
+                    String firstName = Optional.ofNullable(tenant.getFirstName()).orElse("");
+                    String lastName = Optional.ofNullable(tenant.getLastName()).orElse("");
+                    tenantName = (firstName + " " + lastName).trim();
+                    if (tenantName.isEmpty()) {
+                        tenantName = "Unknown Tenant";
                     }
-                    
-                    String unitNumber = unit != null ? unit.getRoomNumber() : "N/A";
-                    
-                    Map<String, Object> summary = new HashMap<>();
-                    summary.put("tenantEmail", tenantEmail);
-                    summary.put("tenantName", tenantName);
-                    summary.put("unitNumber", unitNumber);
-                    summary.put("month", monthKey);
-                    summary.put("totalAmount", totalAmount);
-                    summary.put("paymentCount", monthPayments.size());
-                    summary.put("allPaid", allPaid);
-                    summary.put("status", allPaid ? "COMPLETED" : "PENDING");
-                    summary.put("breakdown", breakdown);
-                    
-                    monthlySummaries.add(summary);
                 }
+                
+                String unitNumber = unit != null ? unit.getRoomNumber() : "N/A";
+                
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("tenantEmail", tenantEmail);
+                summary.put("tenantName", tenantName);
+                summary.put("unitNumber", unitNumber);
+                summary.put("month", monthKey);
+                summary.put("totalAmount", totalAmount);
+                summary.put("paymentCount", monthPayments.size());
+                summary.put("allPaid", allPaid);
+                summary.put("status", allPaid ? "COMPLETED" : "PENDING");
+                summary.put("breakdown", breakdown);
+                
+                monthlySummaries.add(summary);
             }
-            
-            // Sort by month descending
-            monthlySummaries.sort((a, b) -> 
-                ((String) b.get("month")).compareTo((String) a.get("month"))
-            );
-            
-            return ResponseEntity.ok(monthlySummaries);
-        } catch (Exception e) {
-            log.error("Error getting monthly payment summary: {}", e.getMessage());
-            return ResponseEntity.ok(new ArrayList<>()); // Return empty list on error
         }
+        
+        // Sort by month descending
+        monthlySummaries.sort((a, b) -> 
+            ((String) b.get("month")).compareTo((String) a.get("month"))
+        );
+        
+        return monthlySummaries;
     }
 
     @GetMapping("/paged")
@@ -602,52 +612,34 @@ public class PaymentController {
         try {
             log.info("Getting payment history for villager email: {}", email);
             
-            List<Payment> allPayments = paymentService.getAllPayments();
-            
-            // Filter payments for this specific tenant
-            List<Payment> tenantPayments = allPayments.stream()
-                .filter(payment -> {
-                    if (payment.getLease() == null || payment.getLease().getTenant() == null) {
-                        return false;
-                    }
-                    return payment.getLease().getTenant().getEmail().equals(email);
-                })
-                .sorted((a, b) -> b.getDueDate().compareTo(a.getDueDate())) // Most recent first
-                .collect(Collectors.toList());
+            Optional<Tenant> tenant = tenantService.findByEmail(email);
+            if (tenant.isEmpty()) {
+                return ResponseEntity.ok(new ArrayList<>());
+            }
             
-            // Group by month and create monthly summaries
-            Map<String, List<Payment>> monthlyPayments = tenantPayments.stream()
-                .collect(Collectors.groupingBy(payment -> 
+            // Monthly totals come from the ledger; payments are only read for the breakdown
+            List<TenantBillingLedger> ledger = billingLedgerService.getLedger(tenant.get().getId());
+            Map<String, List<Payment>> monthlyPayments = paymentService.getPaymentHistoryByTenant(tenant.get().getId())
+                .stream()
+                .collect(Collectors.groupingBy(payment ->
                     payment.getDueDate().format(DateTimeFormatter.ofPattern("yyyy-MM"))
                 ));
             
             List<Map<String, Object>> paymentHistory = new ArrayList<>();
             
-            for (Map.Entry<String, List<Payment>> entry : monthlyPayments.entrySet()) {
-                String month = entry.getKey();
-                List<Payment> monthPayments = entry.getValue();
-                
-                BigDecimal totalAmount = monthPayments.stream()
-                    .map(Payment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-                boolean allPaid = monthPayments.stream()
-                    .allMatch(p -> p.getStatus() == PaymentStatus.PAID);
-                
-                LocalDate paidDate = monthPayments.stream()
-                    .filter(p -> p.getPaidDate() != null)
-                    .map(Payment::getPaidDate)
-                    .max(LocalDate::compareTo)
-                    .orElse(null);
+            for (TenantBillingLedger row : ledger) {
+                String month = row.getBillingMonth().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+                List<Payment> monthPayments = monthlyPayments.getOrDefault(month, List.of());
+                LocalDate paidDate = row.getLastPaidDate();
                 
                 Map<String, Object> monthlyRecord = new HashMap<>();
                 monthlyRecord.put("month", month);
                 monthlyRecord.put("monthDisplay", formatMonthDisplay(month));
-                monthlyRecord.put("totalAmount", totalAmount);
-                monthlyRecord.put("status", allPaid ? "PAID" : "PENDING");
+                monthlyRecord.put("totalAmount", row.getTotalAmount());
+                monthlyRecord.put("status", row.getUnpaidCount() == 0 ? "PAID" : "PENDING");
                 monthlyRecord.put("paidDate", paidDate);
                 monthlyRecord.put("paidDateDisplay", paidDate != null ? formatDateDisplay(paidDate) : null);
-                monthlyRecord.put("paymentCount", monthPayments.size());
+                monthlyRecord.put("paymentCount", row.getPaymentCount());
                 
                 // Add breakdown details
                 List<Map<String, Object>> breakdown = monthPayments.stream()
@@ -664,15 +656,14 @@ public class PaymentController {
                     .collect(Collectors.toList());
                 
                 monthlyRecord.put("breakdown", breakdown);
-                    // Include unit number and tenant email for frontend
-                    monthlyRecord.put("unitNumber", monthPayments.get(0).getLease().getUnit().getRoomNumber());
-                    monthlyRecord.put("tenantEmail", monthPayments.get(0).getLease().getTenant().getEmail());
+                // Include unit number and tenant email for frontend
+                monthlyRecord.put("unitNumber", monthPayments.isEmpty() ? null
+                    : monthPayments.get(0).getLease().getUnit().getRoomNumber());
+                monthlyRecord.put("tenantEmail", tenant.get().getEmail());
                 paymentHistory.add(monthlyRecord);
             }
             
-            // Sort by month descending (most recent first)
-            paymentHistory.sort((a, b) -> ((String) b.get("month")).compareTo((String) a.get("month")));
-            
+            // Ledger rows are already newest month first
             return ResponseEntity.ok(paymentHistory);
         } catch (Exception e) {
             log.error("Error getting villager payment history: {}", e.getMessage());
@@ -1,5 +1,6 @@
 package apartment.example.backend.controller;
 
+import apartment.example.backend.entity.Lease;
 import apartment.example.backend.entity.Tenant;
 import apartment.example.backend.dto.TenantResponseDto;
 import apartment.example.backend.service.TenantService;
@@ -28,16 +29,14 @@ public class TenantController {
     @GetMapping
     public ResponseEntity<List<TenantResponseDto>> getAllTenants() {
         List<Tenant> tenants = tenantService.getAllTenants();
-        List<TenantResponseDto> tenantDtos = tenants.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tenantDtos);
+        return ResponseEntity.ok(convertToDtos(tenants));
     }
 
     @GetMapping("/paged")
     public ResponseEntity<Page<TenantResponseDto>> getAllTenants(Pageable pageable) {
         Page<Tenant> tenants = tenantService.getAllTenants(pageable);
-        Page<TenantResponseDto> tenantDtos = tenants.map(this::convertToDto);
+        Map<Long, Lease> activeLeases = activeLeases(tenants.getContent());
+        Page<TenantResponseDto> tenantDtos = tenants.map(tenant -> convertToDto(tenant, activeLeases.get(tenant.getId())));
         return ResponseEntity.ok(tenantDtos);
     }
 
@@ -71,10 +70,7 @@ public class TenantController {
             return ResponseEntity.badRequest().build();
         }
         
-        List<TenantResponseDto> tenantDtos = tenants.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tenantDtos);
+        return ResponseEntity.ok(convertToDtos(tenants));
     }
 
     @PostMapping
@@ -130,6 +126,22 @@ public class TenantController {
     }
 
     private TenantResponseDto convertToDto(Tenant tenant) {
+        return convertToDto(tenant, activeLeases(List.of(tenant)).get(tenant.getId()));
+    }
+
+    private List<TenantResponseDto> convertToDtos(List<Tenant> tenants) {
+        Map<Long, Lease> activeLeases = activeLeases(tenants);
+        return tenants.stream()
+                .map(tenant -> convertToDto(tenant, activeLeases.get(tenant.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Lease> activeLeases(List<Tenant> tenants) {
+        return tenantService.getActiveLeasesByTenantId(tenants.stream().map(Tenant::getId).toList());
+    }
+
+    // Current lease info comes from the active lease, fetched in one query per listing
+    private TenantResponseDto convertToDto(Tenant tenant, Lease activeLease) {
         TenantResponseDto dto = new TenantResponseDto();
         dto.setId(tenant.getId());
         dto.setFirstName(tenant.getFirstName());
@@ -139,11 +151,12 @@ public class TenantController {
         dto.setEmergencyContact(tenant.getEmergencyContact());
         dto.setEmergencyPhone(tenant.getEmergencyPhone());
         dto.setOccupation(tenant.getOccupation());
-        // Use @Transient helper methods to get current lease info
-        dto.setUnitId(tenant.getCurrentUnitId());
-        dto.setMoveInDate(tenant.getCurrentMoveInDate());
-        dto.setLeaseEndDate(tenant.getCurrentLeaseEndDate());
-        dto.setMonthlyRent(tenant.getCurrentMonthlyRent());
+        if (activeLease != null) {
+            dto.setUnitId(activeLease.getUnit().getId());
+            dto.setMoveInDate(activeLease.getStartDate());
+            dto.setLeaseEndDate(activeLease.getEndDate());
+            dto.setMonthlyRent(activeLease.getRentAmount());
+        }
         dto.setStatus(tenant.getStatus());
         dto.setCreatedAt(tenant.getCreatedAt());
         dto.setUpdatedAt(tenant.getUpdatedAt());
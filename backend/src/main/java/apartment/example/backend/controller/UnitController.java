@@ -4,7 +4,6 @@ import apartment.example.backend.entity.Unit;
 import apartment.example.backend.entity.Tenant;
 import apartment.example.backend.entity.Lease;
 import apartment.example.backend.entity.enums.UnitStatus;
-import apartment.example.backend.entity.enums.LeaseStatus;
 import apartment.example.backend.service.UnitService;
 import apartment.example.backend.service.TenantService;
 import apartment.example.backend.service.LeaseService;
@@ -93,14 +92,15 @@ public class UnitController {
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboard() {
+        UnitService.UnitCounts counts = unitService.getUnitCounts();
         Map<String, Object> dashboard = Map.of(
-            "totalUnits", unitService.getAllUnits().size(),
-            "availableUnits", unitService.countUnitsByStatus(UnitStatus.AVAILABLE),
-            "occupiedUnits", unitService.countUnitsByStatus(UnitStatus.OCCUPIED),
-            "maintenanceUnits", unitService.countUnitsByStatus(UnitStatus.MAINTENANCE),
-            "reservedUnits", unitService.countUnitsByStatus(UnitStatus.RESERVED),
-            "floor1Units", unitService.countUnitsByFloor(1),
-            "floor2Units", unitService.countUnitsByFloor(2)
+            "totalUnits", counts.total(),
+            "availableUnits", counts.status(UnitStatus.AVAILABLE),
+            "occupiedUnits", counts.status(UnitStatus.OCCUPIED),
+            "maintenanceUnits", counts.status(UnitStatus.MAINTENANCE),
+            "reservedUnits", counts.status(UnitStatus.RESERVED),
+            "floor1Units", counts.floor(1),
+            "floor2Units", counts.floor(2)
         );
         return ResponseEntity.ok(dashboard);
     }
@@ -174,6 +174,11 @@ public class UnitController {
     public ResponseEntity<List<Map<String, Object>>> getUnitsWithDetails() {
         try {
             List<Unit> units = unitService.getAllUnits();
+            // One query for every active lease (with tenant and unit), matched to units by id
+            Map<Long, Lease> activeLeasesByUnit = new HashMap<>();
+            for (Lease lease : leaseService.getActiveLeases()) {
+                activeLeasesByUnit.putIfAbsent(lease.getUnit().getId(), lease);
+            }
             List<Map<String, Object>> detailedUnits = new java.util.ArrayList<>();
             
             for (Unit unit : units) {
@@ -182,36 +187,12 @@ public class UnitController {
                 
                 // Get current tenant info if occupied
                 if (unit.getStatus() == UnitStatus.OCCUPIED) {
-                    try {
-                        // Get all leases and filter by unit and status manually
-                        List<Lease> allLeases = leaseService.getAllLeases();
-                        log.info("Total leases in database: {}", allLeases.size());
-                        
-                        for (Lease lease : allLeases) {
-                            log.info("Lease ID: {}, Unit ID: {}, Status: {}, Unit Object: {}", 
-                                   lease.getId(), 
-                                   lease.getUnit() != null ? lease.getUnit().getId() : "NULL", 
-                                   lease.getStatus(),
-                                   lease.getUnit() != null ? "exists" : "NULL");
-                        }
-                        
-                        Optional<Lease> activeLease = allLeases.stream()
-                            .filter(lease -> lease.getUnit() != null && 
-                                           lease.getUnit().getId().equals(unit.getId()) && 
-                                           lease.getStatus() == LeaseStatus.ACTIVE)
-                            .findFirst();
-                        
-                        if (activeLease.isPresent()) {
-                            Lease lease = activeLease.get();
-                            unitDetails.put("lease", lease);
-                            unitDetails.put("tenant", lease.getTenant());
-                            log.info("Found lease for unit {}: tenant {}", unit.getRoomNumber(), 
-                                   lease.getTenant() != null ? lease.getTenant().getFirstName() : "null");
-                        } else {
-                            log.info("No active lease found for occupied unit {} (ID: {})", unit.getRoomNumber(), unit.getId());
-                        }
-                    } catch (Exception e) {
-                        log.error("Error getting lease for unit {}: {}", unit.getRoomNumber(), e.getMessage());
+                    Lease lease = activeLeasesByUnit.get(unit.getId());
+                    if (lease != null) {
+                        unitDetails.put("lease", lease);
+                        unitDetails.put("tenant", lease.getTenant());
+                    } else {
+                        log.info("No active lease found for occupied unit {} (ID: {})", unit.getRoomNumber(), unit.getId());
                     }
                 }
                 
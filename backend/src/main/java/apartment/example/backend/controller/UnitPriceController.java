@@ -33,7 +33,7 @@ public class UnitPriceController {
     /**
      * POST /api/units/{id}/change-price
      * Change unit rent price (Admin only)
-     * Database triggers will automatically handle price history and audit logging
+     * UnitAuditRecorder automatically handles price history and audit logging
      */
     @PostMapping("/{id}/change-price")
     @PreAuthorize("hasRole('ADMIN')")
@@ -58,7 +58,7 @@ public class UnitPriceController {
                         unit.getRoomNumber());
             }
             
-            // Update price - database trigger will handle:
+            // Update price - UnitAuditRecorder will handle on commit:
             // 1. Close old price history record (set effective_to)
             // 2. Create new price history record
             // 3. Create audit log entry
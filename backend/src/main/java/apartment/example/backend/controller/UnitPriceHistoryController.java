@@ -17,9 +17,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -124,6 +126,18 @@ public class UnitPriceHistoryController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * GET /api/units/price-history/rents-at?date=2025-11-01
+     * Rent of every unit on a specific date, keyed by unit ID (admin only)
+     */
+    @GetMapping("/price-history/rents-at")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<Long, BigDecimal>> getAllRentsAtDate(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("Fetching rents of all units on date: {}", date);
+        return ResponseEntity.ok(priceHistoryService.getAllRentAmountsAtDate(date));
+    }
+
     // ============================================
     // AUDIT LOG ENDPOINTS
     // ============================================
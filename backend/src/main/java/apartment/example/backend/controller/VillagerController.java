@@ -26,6 +26,7 @@ public class VillagerController {
     private final LeaseService leaseService;
     private final PaymentService paymentService;
     private final MaintenanceRequestService maintenanceRequestService;
+    private final BillingLedgerService billingLedgerService;
 
     @GetMapping("/dashboard/{email}")
     public ResponseEntity<Map<String, Object>> getVillagerDashboard(@PathVariable String email) {
@@ -37,6 +38,9 @@ public class VillagerController {
             if (tenant.isPresent()) {
                 dashboard.put("tenant", tenant.get());
                 
+                // Monthly billing totals across all of the tenant's leases
+                dashboard.put("ledger", billingLedgerService.getLedger(tenant.get().getId()));
+                
                 // Get lease information
                 List<Lease> leases = leaseService.getLeasesByTenant(tenant.get().getId());
                 dashboard.put("leases", leases);
@@ -0,0 +1,35 @@
+package apartment.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceCalendarDTO {
+    private LocalDate from;
+    private LocalDate to;
+
+    // Every date an active schedule fires in the range, by date
+    private List<MaintenanceOccurrenceDTO> occurrences;
+
+    // Load per calendar month of the range, months without occurrences included
+    private List<MonthLoad> months;
+
+    private Integer totalOccurrences;
+    private BigDecimal totalEstimatedCost;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthLoad {
+        private String month; // yyyy-MM
+        private Integer occurrences;
+        private BigDecimal estimatedCost;
+    }
+}
@@ -0,0 +1,20 @@
+package apartment.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceOccurrenceDTO {
+    private LocalDate date;
+    private Long scheduleId;
+    private String title;
+    private String category;
+    private String priority;
+    private BigDecimal estimatedCost;
+}
@@ -29,6 +29,7 @@ public class MaintenanceRequestDTO {
     private BigDecimal actualCost;
     private String completionNotes;
     private String attachmentUrls;  // Add attachment URLs
+    private String attachmentThumbnailUrls;
     private LocalDateTime submittedDate;
     private LocalDateTime completedDate;
     
@@ -69,6 +70,7 @@ public class MaintenanceRequestDTO {
     dto.setActualCost(request.getActualCost());
         dto.setCompletionNotes(request.getCompletionNotes());
         dto.setAttachmentUrls(request.getAttachmentUrls());  // Add attachment URLs
+        dto.setAttachmentThumbnailUrls(request.getAttachmentThumbnailUrls());
         dto.setSubmittedDate(request.getSubmittedDate());
         dto.setCompletedDate(request.getCompletedDate());
         dto.setRoomNumber(roomNumber);
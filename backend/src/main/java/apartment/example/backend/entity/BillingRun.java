@@ -0,0 +1,75 @@
+package apartment.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class for billing_runs table
+ * One monthly billing run over all active leases; the counters are its progress
+ */
+@Entity
+@Table(name = "billing_runs")
+@Data
+public class BillingRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the billed month
+    @Column(name = "billing_month", nullable = false)
+    private LocalDate billingMonth;
+
+    @Column(name = "invoice_date", nullable = false)
+    private LocalDate invoiceDate;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "dry_run", nullable = false)
+    private Boolean dryRun = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.RUNNING;
+
+    @Column(name = "electricity_rate", nullable = false, precision = 10, scale = 2)
+    private BigDecimal electricityRate;
+
+    @Column(name = "water_rate", nullable = false, precision = 10, scale = 2)
+    private BigDecimal waterRate;
+
+    @Column(name = "total_leases", nullable = false)
+    private Integer totalLeases = 0;
+
+    @Column(name = "billed", nullable = false)
+    private Integer billed = 0;
+
+    @Column(name = "skipped", nullable = false)
+    private Integer skipped = 0;
+
+    @Column(name = "failed", nullable = false)
+    private Integer failed = 0;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -25,10 +25,13 @@ import java.util.List;
 @Entity
 @Table(name = "invoices", indexes = {
     @Index(name = "idx_invoice_number", columnList = "invoice_number"),
-    @Index(name = "idx_lease", columnList = "lease_id"),
+    @Index(name = "idx_lease_invoice_date", columnList = "lease_id, invoice_date"),
     @Index(name = "idx_invoice_date", columnList = "invoice_date"),
     @Index(name = "idx_due_date", columnList = "due_date"),
-    @Index(name = "idx_status", columnList = "status")
+    @Index(name = "idx_status_slip_uploaded", columnList = "status, slip_uploaded_at"),
+    @Index(name = "idx_parent_installment", columnList = "parent_invoice_id, installment_number"),
+    @Index(name = "idx_slip_url", columnList = "slip_url"),
+    @Index(name = "idx_status_due_date", columnList = "status, due_date")
 })
 @Data
 public class Invoice {
@@ -69,6 +72,10 @@ public class Invoice {
     @Column(name = "slip_url", length = 500)
     private String slipUrl;
 
+    // Set in the background once the slip thumbnail has been generated
+    @Column(name = "slip_thumbnail_url", length = 500)
+    private String slipThumbnailUrl;
+
     @Column(name = "slip_uploaded_at")
     private LocalDateTime slipUploadedAt;
 
@@ -57,6 +57,10 @@ public class MaintenanceRequest {
     @Column(name = "attachment_urls", columnDefinition = "TEXT")
     private String attachmentUrls;
 
+    // Aligned with attachmentUrls, empty entry where no thumbnail exists (e.g. PDF)
+    @Column(name = "attachment_thumbnail_urls", columnDefinition = "TEXT")
+    private String attachmentThumbnailUrls;
+
     @Column(name = "submitted_date", nullable = false)
     private LocalDateTime submittedDate = LocalDateTime.now();
 
@@ -178,6 +182,9 @@ public class MaintenanceRequest {
     public String getAttachmentUrls() { return attachmentUrls; }
     public void setAttachmentUrls(String attachmentUrls) { this.attachmentUrls = attachmentUrls; }
 
+    public String getAttachmentThumbnailUrls() { return attachmentThumbnailUrls; }
+    public void setAttachmentThumbnailUrls(String attachmentThumbnailUrls) { this.attachmentThumbnailUrls = attachmentThumbnailUrls; }
+
     public Long getScheduleId() { return scheduleId; }
     public void setScheduleId(Long scheduleId) { this.scheduleId = scheduleId; }
 
@@ -20,6 +20,10 @@ public class MaintenanceRequestItem {
     @Column(name = "quantity_used", nullable = false)
     private Integer quantityUsed;
 
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.RESERVED;
+
     @Column(columnDefinition = "TEXT")
     private String notes;
 
@@ -36,6 +40,12 @@ public class MaintenanceRequestItem {
     @Transient
     private java.math.BigDecimal unitPrice;
 
+    public enum Status {
+        RESERVED,   // stock held while the request is open
+        COMMITTED,  // stock drawn from the on-hand quantity
+        RELEASED    // reservation returned because the request was cancelled
+    }
+
     // Constructors
     public MaintenanceRequestItem() {}
 
@@ -78,6 +88,14 @@ public class MaintenanceRequestItem {
         this.quantityUsed = quantityUsed;
     }
 
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
     public String getNotes() {
         return notes;
     }
@@ -71,6 +71,10 @@ public class MaintenanceSchedule {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate lastTriggeredDate;
 
+    @Column(name = "last_notified_date")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastNotifiedDate;
+
     // Notification Settings
     @Column(name = "notify_days_before")
     private Integer notifyDaysBefore = 3;
@@ -22,6 +22,10 @@ public class MaintenanceStock {
     @Column(nullable = false)
     private Integer quantity = 0;
 
+    // Held by items on open maintenance requests; drawn from quantity when the request completes
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity = 0;
+
     @Column(nullable = false, length = 50)
     private String unit; // Unit of measurement: ชิ้น, กล่อง, ม้วน, ลิตร
 
@@ -87,6 +91,19 @@ public class MaintenanceStock {
         this.quantity = quantity;
     }
 
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    // Quantity that can still be reserved by new request items
+    public Integer getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+
     public String getUnit() {
         return unit;
     }
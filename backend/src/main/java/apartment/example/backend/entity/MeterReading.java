@@ -0,0 +1,73 @@
+package apartment.example.backend.entity;
+
+import apartment.example.backend.entity.enums.UtilityType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class for meter_readings table
+ * One meter reading per unit, utility and month, written by MeterReadingService imports
+ */
+@Entity
+@Table(name = "meter_readings", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_unit_utility_period", columnNames = {"unit_id", "utility_type", "reading_period"})
+})
+@Data
+public class MeterReading {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "unit_id", nullable = false)
+    private Long unitId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "utility_type", nullable = false, length = 20)
+    private UtilityType utilityType;
+
+    // First day of the month the reading closes
+    @Column(name = "reading_period", nullable = false)
+    private LocalDate readingPeriod;
+
+    @Column(name = "reading_value", nullable = false, precision = 12, scale = 2)
+    private BigDecimal readingValue;
+
+    @Column(name = "previous_value", precision = 12, scale = 2)
+    private BigDecimal previousValue;
+
+    // readingValue - previousValue; null for a unit's first reading
+    @Column(name = "consumption", precision = 12, scale = 2)
+    private BigDecimal consumption;
+
+    // Rate captured when the reading was imported
+    @Column(name = "rate", precision = 10, scale = 2)
+    private BigDecimal rate;
+
+    @Column(name = "amount", precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "read_date")
+    private LocalDate readDate;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -3,7 +3,9 @@ package apartment.example.backend.entity;
 import apartment.example.backend.entity.enums.PaymentMethod;
 import apartment.example.backend.entity.enums.PaymentStatus;
 import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.service.BillingLedgerListener;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,11 +17,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments", indexes = {
-    @Index(name = "idx_lease", columnList = "lease_id"),
+    @Index(name = "idx_lease_due_date", columnList = "lease_id, due_date"),
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_due_date", columnList = "due_date"),
     @Index(name = "idx_payment_type", columnList = "payment_type")
 })
+@EntityListeners(BillingLedgerListener.class)
 @Data
 public class Payment {
 
@@ -83,6 +86,20 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Lease and due date as last read from or written to the database, so BillingLedgerListener
+    // can refresh the ledger month a payment moved away from
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Long loadedLeaseId;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LocalDate loadedDueDate;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,51 @@
+package apartment.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class for scheduled_job_state table
+ * Cross-replica lock and resumable checkpoint of one batch job
+ */
+@Entity
+@Table(name = "scheduled_job_state")
+@Data
+public class ScheduledJobState {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    // Replica currently running the job; only valid until lockedUntil
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "run_date")
+    private LocalDate runDate;
+
+    @Column(name = "phase", length = 30)
+    private String phase;
+
+    // Keyset cursor: last id of the last committed chunk in the current phase
+    @Column(name = "last_id", nullable = false)
+    private Long lastId = 0L;
+
+    @Column(name = "processed", nullable = false)
+    private Integer processed = 0;
+
+    @Column(name = "failed", nullable = false)
+    private Integer failed = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // Null while a run is in progress or was interrupted
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,41 @@
+package apartment.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class for stored_files table
+ * One row per distinct uploaded content, keyed by SHA-256 and reference counted
+ */
+@Entity
+@Table(name = "stored_files", indexes = {
+    @Index(name = "idx_orphaned", columnList = "ref_count, orphaned_at")
+})
+@Data
+public class StoredFile {
+
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "extension", nullable = false, length = 10)
+    private String extension = "";
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Set when refCount drops to 0; the blob is collected after file.blob-gc-grace
+    @Column(name = "orphaned_at")
+    private LocalDateTime orphanedAt;
+}
@@ -49,7 +49,9 @@ public class Tenant {
     // REMOVED: monthlyRent (use leases.monthlyRent)
     
     // Helper methods to get current lease info (from active lease)
+    // Not serialized: they walk the lazy leases collection; TenantController maps these from one lease query
     @Transient
+    @JsonIgnore
     public Long getCurrentUnitId() {
         return leases != null ? leases.stream()
                 .filter(l -> l.getStatus() == apartment.example.backend.entity.enums.LeaseStatus.ACTIVE)
@@ -60,6 +62,7 @@ public class Tenant {
     }
     
     @Transient
+    @JsonIgnore
     public LocalDate getCurrentMoveInDate() {
         return leases != null ? leases.stream()
                 .filter(l -> l.getStatus() == apartment.example.backend.entity.enums.LeaseStatus.ACTIVE)
@@ -69,6 +72,7 @@ public class Tenant {
     }
     
     @Transient
+    @JsonIgnore
     public LocalDate getCurrentLeaseEndDate() {
         return leases != null ? leases.stream()
                 .filter(l -> l.getStatus() == apartment.example.backend.entity.enums.LeaseStatus.ACTIVE)
@@ -78,6 +82,7 @@ public class Tenant {
     }
     
     @Transient
+    @JsonIgnore
     public BigDecimal getCurrentMonthlyRent() {
         return leases != null ? leases.stream()
                 .filter(l -> l.getStatus() == apartment.example.backend.entity.enums.LeaseStatus.ACTIVE)
@@ -0,0 +1,55 @@
+package apartment.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class for tenant_billing_ledger table
+ * Monthly billing totals per tenant, maintained by BillingLedgerService - never written directly
+ */
+@Entity
+@Table(name = "tenant_billing_ledger", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tenant_month", columnNames = {"tenant_id", "billing_month"})
+})
+@Data
+public class TenantBillingLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    // First day of the month of the payments' due dates
+    @Column(name = "billing_month", nullable = false)
+    private LocalDate billingMonth;
+
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "paid_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    @Column(name = "payment_count", nullable = false)
+    private Integer paymentCount = 0;
+
+    @Column(name = "paid_count", nullable = false)
+    private Integer paidCount = 0;
+
+    @Column(name = "unpaid_count", nullable = false)
+    private Integer unpaidCount = 0;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Integer invoiceCount = 0;
+
+    @Column(name = "last_paid_date")
+    private LocalDate lastPaidDate;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
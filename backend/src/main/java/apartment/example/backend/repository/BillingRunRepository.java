@@ -0,0 +1,41 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.BillingRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BillingRunRepository extends JpaRepository<BillingRun, Long> {
+
+    List<BillingRun> findTop20ByOrderByIdDesc();
+
+    /**
+     * Add a partition's results to the run's progress counters (runs in the partition's transaction)
+     */
+    @Modifying
+    @Query("UPDATE BillingRun r SET r.billed = r.billed + :billed, r.skipped = r.skipped + :skipped, " +
+           "r.failed = r.failed + :failed, r.totalAmount = r.totalAmount + :amount WHERE r.id = :id")
+    int addProgress(@Param("id") Long id, @Param("billed") int billed, @Param("skipped") int skipped,
+                    @Param("failed") int failed, @Param("amount") BigDecimal amount);
+
+    /**
+     * Mark runs still RUNNING as FAILED - only called while holding the billing run lock
+     */
+    @Modifying
+    @Query("UPDATE BillingRun r SET r.status = 'FAILED', " +
+           "r.errorMessage = :error, r.finishedAt = :now " +
+           "WHERE r.status = 'RUNNING' AND r.dryRun = false")
+    int failUnfinished(@Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BillingRun r SET r.status = :status, r.errorMessage = :error, r.finishedAt = :now WHERE r.id = :id")
+    int finish(@Param("id") Long id, @Param("status") BillingRun.Status status,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+}
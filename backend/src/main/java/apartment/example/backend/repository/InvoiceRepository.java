@@ -1,12 +1,15 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.Invoice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +42,13 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
      */
     List<Invoice> findByLeaseId(Long leaseId);
 
+    /**
+     * Archived invoices (invoices_archive) of a lease - read-only history, newest first
+     */
+    @Query(value = "SELECT a.* FROM invoices_archive a WHERE a.lease_id = :leaseId ORDER BY a.invoice_date DESC",
+           nativeQuery = true)
+    List<Invoice> findArchivedByLeaseId(@Param("leaseId") Long leaseId);
+
     /**
      * Count invoices by invoice date (for generating unique invoice numbers)
      */
@@ -56,38 +66,79 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
      */
     boolean existsByInvoiceNumber(String invoiceNumber);
 
+    /*
+     * Listings are read in two phases: a page of invoice ids in keyset order, then the
+     * invoices of that page with their lease, tenant, unit and payments. Fetch-joining the
+     * payments collection in the listing itself would multiply rows per payment and leave
+     * Hibernate to paginate in memory.
+     */
+
     /**
-     * Find all invoices for a specific tenant by email
-     * Joins through Lease -> Tenant with eager fetching to avoid LazyInitializationException
+     * Page of a tenant's invoice keys (by email) as {id, invoiceDate}, newest invoice date
+     * first; pass a null afterId for the first page, or the date and id of the last key of the
+     * previous page
      */
-    @Query("SELECT DISTINCT i FROM Invoice i " +
-           "LEFT JOIN FETCH i.lease l " +
-           "LEFT JOIN FETCH l.tenant t " +
-           "LEFT JOIN FETCH l.unit u " +
-           "LEFT JOIN FETCH i.payments p " +
+    @Query("SELECT i.id, i.invoiceDate FROM Invoice i JOIN i.lease l JOIN l.tenant t " +
            "WHERE t.email = :tenantEmail " +
-           "ORDER BY i.invoiceDate DESC")
-    List<Invoice> findByTenantEmail(@Param("tenantEmail") String tenantEmail);
-    
+           "AND (:afterId IS NULL OR i.invoiceDate < :afterDate " +
+           "     OR (i.invoiceDate = :afterDate AND i.id < :afterId)) " +
+           "ORDER BY i.invoiceDate DESC, i.id DESC")
+    List<Object[]> findKeysByTenantEmail(@Param("tenantEmail") String tenantEmail,
+                                         @Param("afterDate") LocalDate afterDate,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    /**
+     * Page of the keys of invoices with the given status as {id, slipUploadedAt}, latest slip
+     * upload first and invoices without a slip last; pass a null afterId for the first page, or
+     * the slip upload time (null when it had none) and id of the last key of the previous page
+     */
+    @Query("SELECT i.id, i.slipUploadedAt FROM Invoice i " +
+           "WHERE i.status = :status " +
+           "AND (:afterId IS NULL " +
+           "     OR (:afterUploadedAt IS NOT NULL AND (i.slipUploadedAt < :afterUploadedAt " +
+           "         OR (i.slipUploadedAt = :afterUploadedAt AND i.id < :afterId) OR i.slipUploadedAt IS NULL)) " +
+           "     OR (:afterUploadedAt IS NULL AND i.slipUploadedAt IS NULL AND i.id < :afterId)) " +
+           "ORDER BY i.slipUploadedAt DESC, i.id DESC")
+    List<Object[]> findKeysByStatus(@Param("status") Invoice.InvoiceStatus status,
+                                    @Param("afterUploadedAt") LocalDateTime afterUploadedAt,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
     /**
-     * Find all invoices by status
+     * Ids of the installment invoices of a parent invoice, in installment order
      */
-    @Query("SELECT DISTINCT i FROM Invoice i " +
+    @Query("SELECT i.id FROM Invoice i WHERE i.parentInvoiceId = :parentInvoiceId ORDER BY i.installmentNumber ASC")
+    List<Long> findIdsByParentInvoiceId(@Param("parentInvoiceId") Long parentInvoiceId);
+
+    /**
+     * Invoices by id with lease, tenant and unit (to-one joins, one row per invoice)
+     */
+    @Query("SELECT i FROM Invoice i " +
            "LEFT JOIN FETCH i.lease l " +
            "LEFT JOIN FETCH l.tenant t " +
            "LEFT JOIN FETCH l.unit u " +
-           "LEFT JOIN FETCH i.payments p " +
-           "WHERE i.status = :status " +
-           "ORDER BY i.slipUploadedAt DESC")
-    List<Invoice> findByStatus(@Param("status") Invoice.InvoiceStatus status);
+           "WHERE i.id IN :ids")
+    List<Invoice> findWithLeaseByIdIn(@Param("ids") List<Long> ids);
 
     /**
-     * Find all installment invoices for a parent invoice
+     * Initialize the payments of invoices already loaded in the persistence context
      */
-    @Query("SELECT DISTINCT i FROM Invoice i " +
-           "LEFT JOIN FETCH i.lease l " +
-           "LEFT JOIN FETCH i.payments p " +
-           "WHERE i.parentInvoiceId = :parentInvoiceId " +
-           "ORDER BY i.installmentNumber ASC")
-    List<Invoice> findByParentInvoiceId(@Param("parentInvoiceId") Long parentInvoiceId);
+    @Query("SELECT DISTINCT i FROM Invoice i LEFT JOIN FETCH i.payments p WHERE i.id IN :ids")
+    List<Invoice> fetchPaymentsByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Other invoices whose slip points at the same stored file (duplicate slip detection)
+     */
+    @Query("SELECT i.id FROM Invoice i WHERE i.slipUrl = :slipUrl AND i.id <> :invoiceId")
+    List<Long> findIdsBySlipUrlAndIdNot(@Param("slipUrl") String slipUrl, @Param("invoiceId") Long invoiceId);
+
+    /**
+     * Set the slip thumbnail only, and only while the invoice still carries that slip
+     */
+    @Modifying
+    @Query("UPDATE Invoice i SET i.slipThumbnailUrl = :thumbnailUrl WHERE i.id = :id AND i.slipUrl = :slipUrl")
+    int updateSlipThumbnailUrl(@Param("id") Long id,
+                               @Param("slipUrl") String slipUrl,
+                               @Param("thumbnailUrl") String thumbnailUrl);
 }
@@ -2,35 +2,65 @@ package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.Lease;
 import apartment.example.backend.entity.enums.LeaseStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LeaseRepository extends JpaRepository<Lease, Long> {
     
+    // Lease responses render the tenant and unit; fetch both with the lease
+    @Override
+    @EntityGraph(attributePaths = {"tenant", "unit"})
+    List<Lease> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = {"tenant", "unit"})
+    Page<Lease> findAll(Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"tenant", "unit"})
+    Optional<Lease> findWithTenantAndUnitById(Long id);
+    
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     List<Lease> findByStatus(LeaseStatus status);
     
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     List<Lease> findByTenantId(Long tenantId);
     
+    // Active leases of many tenants at once, for tenant listings
+    @EntityGraph(attributePaths = "tenant")
+    List<Lease> findByTenantIdInAndStatus(Collection<Long> tenantIds, LeaseStatus status);
+    
     List<Lease> findByTenantIdAndStatus(Long tenantId, LeaseStatus status);
     
     long countByTenantIdAndStatus(Long tenantId, LeaseStatus status);
     
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     List<Lease> findByUnitId(Long unitId);
     
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     Optional<Lease> findByUnitIdAndStatus(Long unitId, LeaseStatus status);
     
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     @Query("SELECT l FROM Lease l WHERE l.endDate BETWEEN :startDate AND :endDate AND l.status = :status")
     List<Lease> findLeasesEndingBetween(@Param("startDate") LocalDate startDate, 
                                        @Param("endDate") LocalDate endDate, 
                                        @Param("status") LeaseStatus status);
     
+    @EntityGraph(attributePaths = {"tenant", "unit"})
     @Query("SELECT l FROM Lease l WHERE l.endDate < :date AND l.status = :status")
     List<Lease> findExpiredLeases(@Param("date") LocalDate date, @Param("status") LeaseStatus status);
     
@@ -45,4 +75,35 @@ public interface LeaseRepository extends JpaRepository<Lease, Long> {
                                            @Param("email") String email);
     
     List<Lease> findByStatusAndEndDateBefore(LeaseStatus status, LocalDate date);
-}
\ No newline at end of file
+    
+    // Keyset scans for the lease expiration job: next chunk of ids after :afterId
+    @Query("SELECT l.id FROM Lease l WHERE l.status = :status AND l.endDate < :date AND l.id > :afterId ORDER BY l.id")
+    List<Long> findIdsByStatusAndEndDateBefore(@Param("status") LeaseStatus status,
+                                               @Param("date") LocalDate date,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    @Query("SELECT l.id FROM Lease l WHERE l.status = :status AND l.endDate < :date " +
+           "AND l.unit.status = 'OCCUPIED' " +
+           "AND l.id > :afterId ORDER BY l.id")
+    List<Long> findOccupiedIdsByStatusAndEndDateBefore(@Param("status") LeaseStatus status,
+                                                       @Param("date") LocalDate date,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+    
+    // Lock a chunk of leases (in id order) with unit and tenant for processing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Lease l JOIN FETCH l.unit JOIN FETCH l.tenant WHERE l.id IN :ids ORDER BY l.id")
+    List<Lease> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Lease l SET l.status = :to, l.updatedAt = :now WHERE l.id IN :ids AND l.status = :from")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("from") LeaseStatus from,
+                           @Param("to") LeaseStatus to,
+                           @Param("now") LocalDateTime now);
+    
+    @Query("SELECT DISTINCT l.tenant.id FROM Lease l WHERE l.tenant.id IN :tenantIds AND l.status = :status")
+    List<Long> findTenantIdsByTenantIdInAndStatus(@Param("tenantIds") Collection<Long> tenantIds,
+                                                  @Param("status") LeaseStatus status);
+}
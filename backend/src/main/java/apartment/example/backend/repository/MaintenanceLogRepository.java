@@ -1,7 +1,10 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.MaintenanceLog;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,6 +19,24 @@ public interface MaintenanceLogRepository extends JpaRepository<MaintenanceLog,
     // Find logs by request ID
     List<MaintenanceLog> findByRequestIdOrderByCreatedAtDesc(Long requestId);
 
+    // Schedule history including archived logs (maintenance_logs_archive), newest first
+    @Query(value = "SELECT * FROM (" +
+                   "SELECT l.*, NULL AS archived_at FROM maintenance_logs l WHERE l.schedule_id = :scheduleId " +
+                   "UNION ALL " +
+                   "SELECT a.* FROM maintenance_logs_archive a WHERE a.schedule_id = :scheduleId) h " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           nativeQuery = true)
+    List<MaintenanceLog> findHistoryByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    // Request history including archived logs, newest first
+    @Query(value = "SELECT * FROM (" +
+                   "SELECT l.*, NULL AS archived_at FROM maintenance_logs l WHERE l.request_id = :requestId " +
+                   "UNION ALL " +
+                   "SELECT a.* FROM maintenance_logs_archive a WHERE a.request_id = :requestId) h " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           nativeQuery = true)
+    List<MaintenanceLog> findHistoryByRequestId(@Param("requestId") Long requestId);
+
     // Find logs by action type
     List<MaintenanceLog> findByActionTypeOrderByCreatedAtDesc(MaintenanceLog.ActionType actionType);
 
@@ -25,7 +46,8 @@ public interface MaintenanceLogRepository extends JpaRepository<MaintenanceLog,
     // Find logs within date range
     List<MaintenanceLog> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime startDate, LocalDateTime endDate);
 
-    // Find recent logs (for audit trail)
+    // Find recent logs (for audit trail), with the schedule, request and user the DTO shows
+    @EntityGraph(attributePaths = {"schedule", "request", "createdBy"})
     List<MaintenanceLog> findTop100ByOrderByCreatedAtDesc();
 
     // Find logs by schedule and action type
@@ -1,21 +1,25 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.MaintenanceNotification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface MaintenanceNotificationRepository extends JpaRepository<MaintenanceNotification, Long> {
 
-    // Find notifications by user ID
+    // Find notifications by user ID (with the user, schedule and request the DTO shows)
+    @EntityGraph(attributePaths = {"user", "schedule", "request"})
     List<MaintenanceNotification> findByUser_IdOrderByCreatedAtDesc(Long userId);
 
     // Find unread notifications by user ID
+    @EntityGraph(attributePaths = {"user", "schedule", "request"})
     List<MaintenanceNotification> findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
 
     // Count unread notifications
@@ -41,8 +45,11 @@ public interface MaintenanceNotificationRepository extends JpaRepository<Mainten
     @Query("UPDATE MaintenanceNotification mn SET mn.isRead = true, mn.readAt = CURRENT_TIMESTAMP WHERE mn.user.id = :userId AND mn.isRead = false")
     void markAllAsReadByUserId(@Param("userId") Long userId);
 
-    // Delete old read notifications (for cleanup)
+    // Delete up to :limit notifications read before the cutoff (cleanup runs this in a loop,
+    // one short transaction per batch)
+    @Transactional
     @Modifying
-    @Query("DELETE FROM MaintenanceNotification mn WHERE mn.isRead = true AND mn.readAt < :cutoffDate")
-    void deleteOldReadNotifications(@Param("cutoffDate") java.time.LocalDateTime cutoffDate);
+    @Query(value = "DELETE FROM maintenance_notifications WHERE is_read = TRUE AND read_at < :cutoffDate " +
+                   "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int deleteReadBefore(@Param("cutoffDate") java.time.LocalDateTime cutoffDate, @Param("limit") int limit);
 }
@@ -1,12 +1,19 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.MaintenanceRequestItem;
+import apartment.example.backend.entity.MaintenanceRequestItem.Status;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MaintenanceRequestItemRepository extends JpaRepository<MaintenanceRequestItem, Long> {
@@ -16,16 +23,57 @@ public interface MaintenanceRequestItemRepository extends JpaRepository<Maintena
      */
     List<MaintenanceRequestItem> findByMaintenanceRequestId(Long maintenanceRequestId);
     
+    /**
+     * Lock the items of a request in a given status (settling reservations on complete/cancel)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT mri FROM MaintenanceRequestItem mri WHERE mri.maintenanceRequestId = :requestId AND mri.status = :status")
+    List<MaintenanceRequestItem> findForUpdateByRequestIdAndStatus(@Param("requestId") Long requestId,
+                                                                   @Param("status") Status status);
+
+    /**
+     * Lock a single item while its quantity or reservation changes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT mri FROM MaintenanceRequestItem mri WHERE mri.id = :id")
+    Optional<MaintenanceRequestItem> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Move every item of a request from one status to another
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceRequestItem mri SET mri.status = :to WHERE mri.maintenanceRequestId = :requestId AND mri.status = :from")
+    int updateStatusByRequestId(@Param("requestId") Long requestId, @Param("from") Status from, @Param("to") Status to);
+
     /**
      * Find all requests that used a specific stock item
      */
     List<MaintenanceRequestItem> findByStockId(Long stockId);
     
     /**
-     * Get items with stock details joined
+     * Get items with stock details joined - each row is [item, itemName, unit, unitPrice]
+     */
+    @Query("SELECT mri, s.itemName, s.unit, s.unitPrice FROM MaintenanceRequestItem mri " +
+           "LEFT JOIN MaintenanceStock s ON s.id = mri.stockId " +
+           "WHERE mri.maintenanceRequestId = :requestId ORDER BY mri.id")
+    List<Object[]> findItemsWithStockByRequestId(@Param("requestId") Long requestId);
+
+    /**
+     * Material cost of a request, SUM(quantity_used * unit_price) over items still holding stock
+     */
+    @Query("SELECT COALESCE(SUM(mri.quantityUsed * s.unitPrice), 0) FROM MaintenanceRequestItem mri " +
+           "JOIN MaintenanceStock s ON s.id = mri.stockId " +
+           "WHERE mri.maintenanceRequestId = :requestId AND mri.status <> :excluded")
+    BigDecimal sumCostByRequestId(@Param("requestId") Long requestId, @Param("excluded") Status excluded);
+
+    /**
+     * Material cost per request for a page of requests - each row is [requestId, cost]
      */
-    @Query("SELECT mri FROM MaintenanceRequestItem mri WHERE mri.maintenanceRequestId = :requestId")
-    List<MaintenanceRequestItem> findItemsWithStockByRequestId(@Param("requestId") Long requestId);
+    @Query("SELECT mri.maintenanceRequestId, SUM(mri.quantityUsed * s.unitPrice) FROM MaintenanceRequestItem mri " +
+           "JOIN MaintenanceStock s ON s.id = mri.stockId " +
+           "WHERE mri.maintenanceRequestId IN :requestIds AND mri.status <> :excluded " +
+           "GROUP BY mri.maintenanceRequestId")
+    List<Object[]> sumCostByRequestIds(@Param("requestIds") Collection<Long> requestIds, @Param("excluded") Status excluded);
     
     /**
      * Delete all items for a maintenance request
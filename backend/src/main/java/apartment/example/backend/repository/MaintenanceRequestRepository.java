@@ -4,15 +4,30 @@ import apartment.example.backend.entity.MaintenanceRequest;
 import apartment.example.backend.entity.MaintenanceRequest.Priority;
 import apartment.example.backend.entity.MaintenanceRequest.Category;
 import apartment.example.backend.entity.MaintenanceRequest.RequestStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MaintenanceRequestRepository extends JpaRepository<MaintenanceRequest, Long> {
     
+    // Find by ID holding a shared lock, so the status cannot change until the caller commits
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT m FROM MaintenanceRequest m WHERE m.id = :id")
+    Optional<MaintenanceRequest> findForShareById(@Param("id") Long id);
+    
+    // Find by ID holding an exclusive lock, taken before the request's items are settled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MaintenanceRequest m WHERE m.id = :id")
+    Optional<MaintenanceRequest> findForUpdateById(@Param("id") Long id);
+    
     // Find by tenant ID
     List<MaintenanceRequest> findByTenantId(Long tenantId);
     
@@ -52,4 +67,15 @@ public interface MaintenanceRequestRepository extends JpaRepository<MaintenanceR
     
     // Find by unit and preferred time containing date
     List<MaintenanceRequest> findByUnitIdAndPreferredTimeContaining(Long unitId, String date);
+
+    @Query("SELECT r.attachmentUrls FROM MaintenanceRequest r WHERE r.id = :id")
+    Optional<String> findAttachmentUrlsById(@Param("id") Long id);
+
+    // Set the thumbnail list only, and only while the attachments are the ones it was built from
+    @Modifying
+    @Query("UPDATE MaintenanceRequest r SET r.attachmentThumbnailUrls = :thumbnailUrls " +
+           "WHERE r.id = :id AND r.attachmentUrls = :attachmentUrls")
+    int updateAttachmentThumbnailUrls(@Param("id") Long id,
+                                      @Param("attachmentUrls") String attachmentUrls,
+                                      @Param("thumbnailUrls") String thumbnailUrls);
 }
@@ -1,7 +1,9 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.MaintenanceSchedule;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,9 +14,26 @@ import java.util.List;
 @Repository
 public interface MaintenanceScheduleRepository extends JpaRepository<MaintenanceSchedule, Long> {
 
-    // Find active schedules
+    // Find active schedules (with the assigned and creating users the DTO shows)
+    @EntityGraph(attributePaths = {"assignedTo", "createdBy"})
     List<MaintenanceSchedule> findByIsActiveTrueOrderByNextTriggerDateAsc();
 
+    // Find schedules that can come due (rebuilds the trigger index at startup)
+    List<MaintenanceSchedule> findByIsActiveTrueAndIsPausedFalse();
+
+    // Claim the occurrence due on the expected date; 0 rows when another instance already moved the schedule on
+    @Modifying
+    @Query("UPDATE MaintenanceSchedule ms SET ms.lastTriggeredDate = :triggeredOn, ms.nextTriggerDate = :next " +
+           "WHERE ms.id = :id AND ms.nextTriggerDate = :expected")
+    int claimTrigger(@Param("id") Long id, @Param("expected") LocalDate expected,
+                     @Param("next") LocalDate next, @Param("triggeredOn") LocalDate triggeredOn);
+
+    // Claim the upcoming-maintenance notification of the given date; 0 rows when it was already sent
+    @Modifying
+    @Query("UPDATE MaintenanceSchedule ms SET ms.lastNotifiedDate = :notifyDate " +
+           "WHERE ms.id = :id AND (ms.lastNotifiedDate IS NULL OR ms.lastNotifiedDate < :notifyDate)")
+    int claimNotification(@Param("id") Long id, @Param("notifyDate") LocalDate notifyDate);
+
     // Find schedules by recurrence type
     List<MaintenanceSchedule> findByRecurrenceTypeAndIsActiveTrue(MaintenanceSchedule.RecurrenceType recurrenceType);
 
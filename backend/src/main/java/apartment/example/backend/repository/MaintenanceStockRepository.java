@@ -3,8 +3,13 @@ package apartment.example.backend.repository;
 import apartment.example.backend.entity.MaintenanceStock;
 import apartment.example.backend.entity.MaintenanceStock.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -34,4 +39,67 @@ public interface MaintenanceStockRepository extends JpaRepository<MaintenanceSto
      * Find stocks with low quantity (less than threshold)
      */
     List<MaintenanceStock> findByQuantityLessThanAndDeletedAtIsNull(Integer threshold);
+
+    // Atomic stock ledger updates - each is a single conditional UPDATE, so concurrent
+    // callers serialize on the row lock and the WHERE clause is re-checked against the
+    // latest committed row. A return value of 0 means the condition did not hold.
+
+    /**
+     * Reserve quantity for an open request if enough unreserved stock remains
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.reservedQuantity = s.reservedQuantity + :quantity, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.deletedAt IS NULL AND s.quantity - s.reservedQuantity >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    /**
+     * Release a reservation without touching the on-hand quantity
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.reservedQuantity = s.reservedQuantity - :quantity, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.reservedQuantity >= :quantity")
+    int release(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    /**
+     * Turn a reservation into a draw: both the on-hand and reserved quantity go down
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.quantity = s.quantity - :quantity, " +
+           "s.reservedQuantity = s.reservedQuantity - :quantity, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.reservedQuantity >= :quantity AND s.quantity >= :quantity")
+    int commitReserved(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    /**
+     * Draw unreserved stock directly (items added to an already completed request)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.quantity = s.quantity - :quantity, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.deletedAt IS NULL AND s.quantity - s.reservedQuantity >= :quantity")
+    int draw(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    /**
+     * Add or remove on-hand quantity, never dropping below what is reserved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.quantity = s.quantity + :change, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.quantity + :change >= s.reservedQuantity")
+    int adjustQuantity(@Param("id") Long id, @Param("change") int change, @Param("now") LocalDateTime now);
+
+    /**
+     * Edit the descriptive columns only; null keeps the current value. The quantity
+     * columns are left to the ledger updates above.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE MaintenanceStock s SET s.itemName = COALESCE(:itemName, s.itemName), " +
+           "s.category = COALESCE(:category, s.category), s.unit = COALESCE(:unit, s.unit), " +
+           "s.unitPrice = COALESCE(:unitPrice, s.unitPrice), " +
+           "s.description = COALESCE(:description, s.description), s.updatedAt = :now " +
+           "WHERE s.id = :id")
+    int updateDetails(@Param("id") Long id,
+                      @Param("itemName") String itemName,
+                      @Param("category") Category category,
+                      @Param("unit") String unit,
+                      @Param("unitPrice") BigDecimal unitPrice,
+                      @Param("description") String description,
+                      @Param("now") LocalDateTime now);
 }
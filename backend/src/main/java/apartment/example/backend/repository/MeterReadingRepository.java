@@ -0,0 +1,24 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.MeterReading;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MeterReadingRepository extends JpaRepository<MeterReading, Long> {
+
+    /**
+     * All readings of one month (idx_period)
+     */
+    List<MeterReading> findByReadingPeriodOrderByUnitIdAscUtilityTypeAsc(LocalDate readingPeriod);
+
+    /**
+     * A unit's readings, newest month first (uk_unit_utility_period)
+     */
+    List<MeterReading> findByUnitIdOrderByReadingPeriodDescUtilityTypeAsc(Long unitId);
+
+    List<MeterReading> findByUnitIdAndReadingPeriod(Long unitId, LocalDate readingPeriod);
+}
@@ -3,6 +3,9 @@ package apartment.example.backend.repository;
 import apartment.example.backend.entity.Payment;
 import apartment.example.backend.entity.enums.PaymentStatus;
 import apartment.example.backend.entity.enums.PaymentType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -21,27 +25,59 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
            "LEFT JOIN FETCH l.unit u")
     List<Payment> findAllWithRelations();
     
+    // Payment responses carry the lease's tenant and unit; fetch them with the payment
+    @Override
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
+    Page<Payment> findAll(Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
+    Optional<Payment> findWithLeaseById(Long id);
+    
     List<Payment> findByLeaseId(Long leaseId);
     
+    // Served by idx_lease_due_date (lease_id, due_date) - no filesort for monthly grouping
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
+    List<Payment> findByLeaseIdOrderByDueDateDesc(Long leaseId);
+    
     List<Payment> findByInvoiceId(Long invoiceId);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     List<Payment> findByStatus(PaymentStatus status);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     List<Payment> findByPaymentType(PaymentType paymentType);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     @Query("SELECT p FROM Payment p WHERE p.dueDate <= :date AND p.status != 'PAID'")
     List<Payment> findOverduePayments(@Param("date") LocalDate date);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     @Query("SELECT p FROM Payment p WHERE p.dueDate BETWEEN :startDate AND :endDate")
     List<Payment> findPaymentsDueBetween(@Param("startDate") LocalDate startDate, 
                                         @Param("endDate") LocalDate endDate);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     @Query("SELECT p FROM Payment p JOIN p.lease l JOIN l.unit u WHERE u.id = :unitId")
     List<Payment> findByUnitId(@Param("unitId") Long unitId);
     
+    @EntityGraph(attributePaths = {"lease", "lease.tenant", "lease.unit"})
     @Query("SELECT p FROM Payment p JOIN p.lease l JOIN l.tenant t WHERE t.id = :tenantId")
     List<Payment> findByTenantId(@Param("tenantId") Long tenantId);
     
+    // One tenant's payments with lease and unit for the monthly history breakdown, newest first
+    @Query("SELECT p FROM Payment p JOIN FETCH p.lease l JOIN FETCH l.unit u " +
+           "WHERE l.tenant.id = :tenantId ORDER BY p.dueDate DESC")
+    List<Payment> findByTenantIdWithLeaseOrderByDueDateDesc(@Param("tenantId") Long tenantId);
+    
+    // Archived payments (payments_archive) of one tenant - read-only history, newest first
+    @Query(value = "SELECT a.* FROM payments_archive a JOIN leases l ON l.id = a.lease_id " +
+                   "WHERE l.tenant_id = :tenantId ORDER BY a.due_date DESC", nativeQuery = true)
+    List<Payment> findArchivedByTenantId(@Param("tenantId") Long tenantId);
+    
+    // Archived line items of archived invoices
+    @Query(value = "SELECT a.* FROM payments_archive a WHERE a.invoice_id IN (:invoiceIds)", nativeQuery = true)
+    List<Payment> findArchivedByInvoiceIds(@Param("invoiceIds") List<Long> invoiceIds);
+    
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'PAID' AND p.paidDate BETWEEN :startDate AND :endDate")
     Double getTotalRevenueByDateRange(@Param("startDate") LocalDate startDate, 
                                      @Param("endDate") LocalDate endDate);
@@ -2,11 +2,15 @@ package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.RentalRequest;
 import apartment.example.backend.entity.enums.RentalRequestStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,8 @@ public interface RentalRequestRepository extends JpaRepository<RentalRequest, Lo
     
     long countByStatus(RentalRequestStatus status);
     
+    // Responses include the unit's rent (getMonthlyRent / getTotalAmount); fetch it with the request
+    @EntityGraph(attributePaths = "unit")
     List<RentalRequest> findByUnitId(Long unitId);
     
     @Query("SELECT r FROM RentalRequest r WHERE r.status = 'PENDING' ORDER BY r.requestDate ASC")
@@ -25,6 +31,7 @@ public interface RentalRequestRepository extends JpaRepository<RentalRequest, Lo
     @Query("SELECT r FROM RentalRequest r WHERE r.unitId = :unitId AND r.status = 'PENDING'")
     List<RentalRequest> findPendingRequestsByUnitId(@Param("unitId") Long unitId);
     
+    @EntityGraph(attributePaths = "unit")
     @Query("SELECT r FROM RentalRequest r WHERE r.email = :email")
     List<RentalRequest> findByEmail(@Param("email") String email);
     
@@ -52,4 +59,11 @@ public interface RentalRequestRepository extends JpaRepository<RentalRequest, Lo
     // Fetch pending RentalRequests with Unit data
     @Query("SELECT r FROM RentalRequest r LEFT JOIN FETCH r.unit WHERE r.status = :status ORDER BY r.requestDate DESC")
     List<RentalRequest> findByStatusWithUnit(@Param("status") RentalRequestStatus status);
-}
\ No newline at end of file
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RentalRequest r SET r.status = :to, r.updatedAt = :now WHERE r.userId IN :userIds AND r.status = :from")
+    int updateStatusByUserIdIn(@Param("userIds") Collection<Long> userIds,
+                               @Param("from") RentalRequestStatus from,
+                               @Param("to") RentalRequestStatus to,
+                               @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,77 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.ScheduledJobState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ScheduledJobStateRepository extends JpaRepository<ScheduledJobState, String> {
+
+    /**
+     * Create the job's row on first use
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduled_job_state (job_name) VALUES (:jobName)", nativeQuery = true)
+    int insertIfAbsent(@Param("jobName") String jobName);
+
+    /**
+     * Take the lock if it is free, expired or already ours - 1 when acquired
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobState s SET s.lockedBy = :owner, s.lockedUntil = :until " +
+           "WHERE s.jobName = :jobName AND (s.lockedUntil IS NULL OR s.lockedUntil < :now OR s.lockedBy = :owner)")
+    int tryLock(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    /**
+     * Release the lock if we still hold it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobState s SET s.lockedUntil = NULL WHERE s.jobName = :jobName AND s.lockedBy = :owner")
+    int unlock(@Param("jobName") String jobName, @Param("owner") String owner);
+
+    /**
+     * Reset the checkpoint for a new run - 0 when the lock was lost
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobState s SET s.runDate = :runDate, s.phase = :phase, s.lastId = 0, " +
+           "s.processed = 0, s.failed = 0, s.startedAt = :now, s.finishedAt = NULL " +
+           "WHERE s.jobName = :jobName AND s.lockedBy = :owner")
+    int startRun(@Param("jobName") String jobName, @Param("owner") String owner,
+                 @Param("runDate") LocalDate runDate, @Param("phase") String phase, @Param("now") LocalDateTime now);
+
+    /**
+     * Record a committed chunk and renew the lock. Runs inside the chunk's transaction, so
+     * the checkpoint and the chunk commit together; 0 when another replica took the lock
+     * over, which must roll the chunk back.
+     */
+    @Modifying
+    @Query("UPDATE ScheduledJobState s SET s.phase = :phase, s.lastId = :lastId, " +
+           "s.processed = s.processed + :processed, s.failed = s.failed + :failed, s.lockedUntil = :until " +
+           "WHERE s.jobName = :jobName AND s.lockedBy = :owner")
+    int saveProgress(@Param("jobName") String jobName, @Param("owner") String owner,
+                     @Param("phase") String phase, @Param("lastId") long lastId,
+                     @Param("processed") int processed, @Param("failed") int failed,
+                     @Param("until") LocalDateTime until);
+
+    /**
+     * Mark the run complete
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobState s SET s.phase = :phase, s.finishedAt = :now " +
+           "WHERE s.jobName = :jobName AND s.lockedBy = :owner")
+    int finishRun(@Param("jobName") String jobName, @Param("owner") String owner,
+                  @Param("phase") String phase, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,61 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.StoredFile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Insert the blob with one reference, or add a reference if it already exists.
+     * Takes the row lock, so garbage collection cannot remove the blob until the caller commits.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO stored_files (sha256, extension, content_type, size_bytes, ref_count, created_at) " +
+                   "VALUES (:sha256, :extension, :contentType, :sizeBytes, 1, :now) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, orphaned_at = NULL",
+           nativeQuery = true)
+    int retain(@Param("sha256") String sha256, @Param("extension") String extension,
+               @Param("contentType") String contentType, @Param("sizeBytes") long sizeBytes,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Drop one reference; the blob is marked orphaned when the last one goes
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StoredFile f SET f.orphanedAt = CASE WHEN f.refCount <= 1 THEN :now ELSE NULL END, " +
+           "f.refCount = f.refCount - 1 WHERE f.sha256 = :sha256 AND f.refCount > 0")
+    int release(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    /**
+     * Restart the grace period of an unreferenced blob that is about to be referenced again,
+     * so garbage collection leaves it alone between staging and commit
+     */
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.orphanedAt = :now WHERE f.sha256 = :sha256 AND f.refCount = 0")
+    int holdOrphan(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    /**
+     * Blobs without references since before the cutoff - garbage collection candidates
+     */
+    @Query("SELECT f.sha256 FROM StoredFile f WHERE f.refCount = 0 AND f.orphanedAt < :cutoff ORDER BY f.orphanedAt")
+    List<String> findOrphanedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Lock a blob row while deciding whether to delete it
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StoredFile f WHERE f.sha256 = :sha256")
+    Optional<StoredFile> findForUpdate(@Param("sha256") String sha256);
+}
@@ -0,0 +1,92 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.TenantBillingLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TenantBillingLedgerRepository extends JpaRepository<TenantBillingLedger, Long> {
+
+    /**
+     * Ledger rows of one tenant, newest month first - served by uk_tenant_month
+     */
+    List<TenantBillingLedger> findByTenantIdOrderByBillingMonthDesc(Long tenantId);
+
+    /**
+     * Recompute one month for the tenant holding the lease from that tenant's payments,
+     * live and archived (leases by idx_tenant, payments by idx_lease_due_date) and upsert the row
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tenant_billing_ledger (tenant_id, billing_month, total_amount, paid_amount, " +
+                   "payment_count, paid_count, unpaid_count, invoice_count, last_paid_date, updated_at) " +
+                   "SELECT * FROM (" +
+                   "  SELECT l.tenant_id AS tenant_id, :month AS billing_month, " +
+                   "         COALESCE(SUM(p.amount), 0) AS total_amount, " +
+                   "         COALESCE(SUM(CASE WHEN p.status = 'PAID' THEN p.amount ELSE 0 END), 0) AS paid_amount, " +
+                   "         COUNT(p.id) AS payment_count, " +
+                   "         COUNT(CASE WHEN p.status = 'PAID' THEN 1 END) AS paid_count, " +
+                   "         COUNT(CASE WHEN p.status <> 'PAID' THEN 1 END) AS unpaid_count, " +
+                   "         COUNT(DISTINCT p.invoice_id) AS invoice_count, " +
+                   "         MAX(p.paid_date) AS last_paid_date, " +
+                   "         NOW() AS updated_at " +
+                   "  FROM leases owner " +
+                   "  JOIN leases l ON l.tenant_id = owner.tenant_id " +
+                   "  LEFT JOIN LATERAL (" +
+                   "    SELECT id, amount, status, invoice_id, paid_date FROM payments " +
+                   "    WHERE lease_id = l.id AND due_date >= :month AND due_date < :nextMonth " +
+                   "    UNION ALL " +
+                   "    SELECT id, amount, status, invoice_id, paid_date FROM payments_archive " +
+                   "    WHERE lease_id = l.id AND due_date >= :month AND due_date < :nextMonth" +
+                   "  ) p ON TRUE " +
+                   "  WHERE owner.id = :leaseId " +
+                   "  GROUP BY l.tenant_id" +
+                   ") AS m " +
+                   "ON DUPLICATE KEY UPDATE total_amount = m.total_amount, paid_amount = m.paid_amount, " +
+                   "payment_count = m.payment_count, paid_count = m.paid_count, unpaid_count = m.unpaid_count, " +
+                   "invoice_count = m.invoice_count, last_paid_date = m.last_paid_date, updated_at = m.updated_at",
+           nativeQuery = true)
+    int refreshMonth(@Param("leaseId") Long leaseId, @Param("month") LocalDate month,
+                     @Param("nextMonth") LocalDate nextMonth);
+
+    /**
+     * Drop the month again once its last payment is gone
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tenant_billing_ledger " +
+                   "WHERE payment_count = 0 AND billing_month = :month " +
+                   "AND tenant_id = (SELECT tenant_id FROM leases WHERE id = :leaseId)",
+           nativeQuery = true)
+    int deleteEmptyMonth(@Param("leaseId") Long leaseId, @Param("month") LocalDate month);
+
+    /**
+     * Rebuild every row from the payments and payments_archive tables (backfill after bulk imports, repair)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tenant_billing_ledger (tenant_id, billing_month, total_amount, paid_amount, " +
+                   "payment_count, paid_count, unpaid_count, invoice_count, last_paid_date, updated_at) " +
+                   "SELECT l.tenant_id, CAST(DATE_FORMAT(p.due_date, '%Y-%m-01') AS DATE), SUM(p.amount), " +
+                   "       SUM(CASE WHEN p.status = 'PAID' THEN p.amount ELSE 0 END), COUNT(*), " +
+                   "       COUNT(CASE WHEN p.status = 'PAID' THEN 1 END), " +
+                   "       COUNT(CASE WHEN p.status <> 'PAID' THEN 1 END), " +
+                   "       COUNT(DISTINCT p.invoice_id), MAX(p.paid_date), NOW() " +
+                   "FROM (SELECT lease_id, amount, due_date, paid_date, status, invoice_id FROM payments " +
+                   "      UNION ALL " +
+                   "      SELECT lease_id, amount, due_date, paid_date, status, invoice_id FROM payments_archive) p " +
+                   "JOIN leases l ON l.id = p.lease_id " +
+                   "GROUP BY l.tenant_id, CAST(DATE_FORMAT(p.due_date, '%Y-%m-01') AS DATE)",
+           nativeQuery = true)
+    int insertAllFromPayments();
+
+    /**
+     * Clear the ledger ahead of insertAllFromPayments
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tenant_billing_ledger", nativeQuery = true)
+    int deleteAllRows();
+}
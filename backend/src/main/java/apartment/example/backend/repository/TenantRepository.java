@@ -1,11 +1,15 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.enums.TenantStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +27,10 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
     
     // Removed: findByUnitId - tenants no longer have direct unit_id field
     // Use LeaseRepository to find tenants by unit instead
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Tenant t SET t.status = :status, t.updatedAt = :now WHERE t.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") TenantStatus status,
+                           @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import apartment.example.backend.entity.UnitAuditLog;
 import apartment.example.backend.entity.enums.UnitAuditActionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,24 +16,61 @@ import java.util.List;
 @Repository
 public interface UnitAuditLogRepository extends JpaRepository<UnitAuditLog, Long> {
 
+    /**
+     * All audit logs with their unit and user (audit log DTOs show the room number and username)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
+    Page<UnitAuditLog> findAll(Pageable pageable);
+
     /**
      * Find all audit logs for a specific unit with pagination
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     Page<UnitAuditLog> findByUnitIdOrderByCreatedAtDesc(Long unitId, Pageable pageable);
 
+    /**
+     * Audit history of a unit including archived entries (unit_audit_logs_archive), newest first
+     */
+    @Query(value = "SELECT * FROM (" +
+                   "SELECT l.*, NULL AS archived_at FROM unit_audit_logs l WHERE l.unit_id = :unitId " +
+                   "UNION ALL " +
+                   "SELECT a.* FROM unit_audit_logs_archive a WHERE a.unit_id = :unitId) h " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           countQuery = "SELECT (SELECT COUNT(*) FROM unit_audit_logs WHERE unit_id = :unitId) + " +
+                        "(SELECT COUNT(*) FROM unit_audit_logs_archive WHERE unit_id = :unitId)",
+           nativeQuery = true)
+    Page<UnitAuditLog> findHistoryByUnitId(@Param("unitId") Long unitId, Pageable pageable);
+
+    /**
+     * Price change history of a unit including archived entries, newest first
+     */
+    @Query(value = "SELECT * FROM (" +
+                   "SELECT l.*, NULL AS archived_at FROM unit_audit_logs l " +
+                   "WHERE l.unit_id = :unitId AND l.action_type = 'PRICE_CHANGED' " +
+                   "UNION ALL " +
+                   "SELECT a.* FROM unit_audit_logs_archive a " +
+                   "WHERE a.unit_id = :unitId AND a.action_type = 'PRICE_CHANGED') h " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           nativeQuery = true)
+    List<UnitAuditLog> findPriceChangeHistoryByUnitId(@Param("unitId") Long unitId);
+
     /**
      * Find audit logs by action type
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     Page<UnitAuditLog> findByActionTypeOrderByCreatedAtDesc(UnitAuditActionType actionType, Pageable pageable);
 
     /**
      * Find audit logs by user
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     Page<UnitAuditLog> findByCreatedByIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
 
     /**
      * Find audit logs for a unit within a date range
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     @Query("SELECT ual FROM UnitAuditLog ual WHERE ual.unit.id = :unitId " +
            "AND ual.createdAt BETWEEN :startDate AND :endDate " +
            "ORDER BY ual.createdAt DESC")
@@ -43,11 +81,13 @@ public interface UnitAuditLogRepository extends JpaRepository<UnitAuditLog, Long
     /**
      * Find recent audit logs (last N records)
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     List<UnitAuditLog> findTop10ByUnitIdOrderByCreatedAtDesc(Long unitId);
 
     /**
      * Find all audit logs with filters
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     @Query("SELECT ual FROM UnitAuditLog ual WHERE " +
            "(:unitId IS NULL OR ual.unit.id = :unitId) AND " +
            "(:actionType IS NULL OR ual.actionType = :actionType) AND " +
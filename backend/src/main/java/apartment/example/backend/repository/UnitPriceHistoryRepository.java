@@ -1,12 +1,14 @@
 package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.UnitPriceHistory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,25 +17,38 @@ public interface UnitPriceHistoryRepository extends JpaRepository<UnitPriceHisto
 
     /**
      * Find all price history for a specific unit, ordered by effective date descending
+     * (this and the other entity queries fetch the unit and user the price history DTO shows)
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     List<UnitPriceHistory> findByUnitIdOrderByEffectiveFromDesc(Long unitId);
 
     /**
      * Find current price for a unit (where effective_to is NULL)
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     Optional<UnitPriceHistory> findByUnitIdAndEffectiveToIsNull(Long unitId);
 
     /**
      * Find price effective on a specific date
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     @Query("SELECT uph FROM UnitPriceHistory uph WHERE uph.unit.id = :unitId " +
            "AND uph.effectiveFrom <= :date " +
            "AND (uph.effectiveTo IS NULL OR uph.effectiveTo >= :date)")
     Optional<UnitPriceHistory> findPriceAtDate(@Param("unitId") Long unitId, @Param("date") LocalDate date);
 
+    /**
+     * Price intervals of many units as (unitId, rentAmount, effectiveFrom, effectiveTo),
+     * in effectiveFrom order per unit - loads UnitPriceIndex
+     */
+    @Query("SELECT uph.unit.id, uph.rentAmount, uph.effectiveFrom, uph.effectiveTo FROM UnitPriceHistory uph " +
+           "WHERE uph.unit.id IN :unitIds ORDER BY uph.unit.id, uph.effectiveFrom, uph.id")
+    List<Object[]> findIntervalsByUnitIdIn(@Param("unitIds") Collection<Long> unitIds);
+
     /**
      * Find price history within a date range
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     @Query("SELECT uph FROM UnitPriceHistory uph WHERE uph.unit.id = :unitId " +
            "AND ((uph.effectiveFrom <= :endDate AND (uph.effectiveTo IS NULL OR uph.effectiveTo >= :startDate)))")
     List<UnitPriceHistory> findPriceHistoryInRange(@Param("unitId") Long unitId, 
@@ -43,6 +58,7 @@ public interface UnitPriceHistoryRepository extends JpaRepository<UnitPriceHisto
     /**
      * Find all current prices (active prices for all units)
      */
+    @EntityGraph(attributePaths = {"unit", "createdBy"})
     @Query("SELECT uph FROM UnitPriceHistory uph WHERE uph.effectiveTo IS NULL")
     List<UnitPriceHistory> findAllCurrentPrices();
 
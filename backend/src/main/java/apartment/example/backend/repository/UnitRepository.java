@@ -3,11 +3,14 @@ package apartment.example.backend.repository;
 import apartment.example.backend.entity.Unit;
 import apartment.example.backend.entity.enums.UnitStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +30,12 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     long countByStatus(UnitStatus status);
     
     long countByFloor(Integer floor);
+
+    /**
+     * (status, floor, count) for every status/floor pair that has units
+     */
+    @Query("SELECT u.status, u.floor, COUNT(u) FROM Unit u GROUP BY u.status, u.floor")
+    List<Object[]> countByStatusAndFloor();
     
     @Query("SELECT u FROM Unit u WHERE u.floor = :floor ORDER BY u.roomNumber")
     List<Unit> findByFloorOrderByRoomNumber(@Param("floor") Integer floor);
@@ -35,4 +44,19 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     List<Unit> findAllOrderByFloorAndRoomNumber();
     
     boolean existsByRoomNumber(String roomNumber);
+
+    @Query("SELECT u.id FROM Unit u")
+    List<Long> findAllIds();
+
+    /**
+     * (id, rentAmount) of the given units
+     */
+    @Query("SELECT u.id, u.rentAmount FROM Unit u WHERE u.id IN :ids")
+    List<Object[]> findRentAmountsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = :status, u.updatedAt = :now WHERE u.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") UnitStatus status,
+                           @Param("now") LocalDateTime now);
 }
\ No newline at end of file
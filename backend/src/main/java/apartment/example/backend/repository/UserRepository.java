@@ -2,7 +2,11 @@ package apartment.example.backend.repository;
 
 import apartment.example.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional; // อย่าลืม import
 
@@ -14,4 +18,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Find user by email for registration validation
     Optional<User> findByEmail(String email);
+    
+    // Prefetch users for a batch of tenant emails in one query
+    List<User> findByEmailIn(Collection<String> emails);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.role = :to WHERE u.id IN :ids AND u.role = :from")
+    int updateRoleByIdIn(@Param("ids") Collection<Long> ids,
+                         @Param("from") User.Role from,
+                         @Param("to") User.Role to);
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Payment;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Billing Ledger Listener
+ *
+ * JPA listener on Payment that reports the months a write touches to BillingLedgerService.
+ * An update can move a payment to another month (due date) or tenant (lease), so both the
+ * month it was loaded with and the one it is saved with are refreshed. Before each write the
+ * tenants involved are locked, so the recompute never waits on another writer's payments.
+ * Hibernate obtains this listener from the Spring context; the service is looked up lazily
+ * because the listener is created while the EntityManagerFactory is still being built.
+ */
+@Component
+public class BillingLedgerListener {
+
+    private final ObjectProvider<BillingLedgerService> ledgerService;
+
+    public BillingLedgerListener(ObjectProvider<BillingLedgerService> ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @PostLoad
+    public void onLoad(Payment payment) {
+        remember(payment);
+        ledgerService.getObject().track();
+    }
+
+    @PrePersist
+    public void beforePersist(Payment payment) {
+        ledgerService.getObject().track();
+        ledgerService.getObject().lockTenant(leaseId(payment));
+    }
+
+    @PostPersist
+    public void afterPersist(Payment payment) {
+        markCurrent(payment);
+        remember(payment);
+    }
+
+    @PreUpdate
+    public void beforeUpdate(Payment payment) {
+        ledgerService.getObject().lockTenant(payment.getLoadedLeaseId());
+        ledgerService.getObject().lockTenant(leaseId(payment));
+    }
+
+    @PostUpdate
+    public void afterUpdate(Payment payment) {
+        ledgerService.getObject().markDirty(payment.getLoadedLeaseId(), payment.getLoadedDueDate());
+        markCurrent(payment);
+        remember(payment);
+    }
+
+    @PreRemove
+    public void beforeRemove(Payment payment) {
+        ledgerService.getObject().lockTenant(payment.getLoadedLeaseId());
+    }
+
+    @PostRemove
+    public void afterRemove(Payment payment) {
+        ledgerService.getObject().markDirty(payment.getLoadedLeaseId(), payment.getLoadedDueDate());
+        markCurrent(payment);
+    }
+
+    private void markCurrent(Payment payment) {
+        ledgerService.getObject().markDirty(leaseId(payment), payment.getDueDate());
+    }
+
+    private void remember(Payment payment) {
+        payment.setLoadedLeaseId(leaseId(payment));
+        payment.setLoadedDueDate(payment.getDueDate());
+    }
+
+    // Reading the id of a lazy lease proxy does not initialize it
+    private static Long leaseId(Payment payment) {
+        return payment.getLease() != null ? payment.getLease().getId() : null;
+    }
+}
@@ -0,0 +1,164 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.TenantBillingLedger;
+import apartment.example.backend.repository.TenantBillingLedgerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Billing Ledger Service
+ *
+ * Maintains tenant_billing_ledger, the per-tenant monthly read model behind the villager
+ * dashboard and payment history. BillingLedgerListener reports every payment insert,
+ * update and delete as a (lease, month) pair; just before the transaction commits, each
+ * touched month is recomputed from that tenant's payments of the month only, so tenant
+ * pages read a handful of indexed ledger rows instead of scanning payments.
+ *
+ * A transaction locks the tenant row (SELECT ... FOR UPDATE) before it first writes one of
+ * the tenant's payments. The recompute reads the tenant's payments with locking reads, so
+ * without that lock two writers of the same tenant could each hold a payment row the other's
+ * recompute waits for while waiting on the other's ledger row. With it, writers of a tenant
+ * queue up front, and the ledger rows, which may not exist yet, need no lock of their own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillingLedgerService {
+
+    private final TenantBillingLedgerRepository ledgerRepository;
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * A billing month of the tenant holding the lease
+     */
+    record LedgerKey(Long leaseId, LocalDate month) {
+    }
+
+    /**
+     * Ledger rows of one tenant, newest month first
+     */
+    @Transactional(readOnly = true)
+    public List<TenantBillingLedger> getLedger(Long tenantId) {
+        return ledgerRepository.findByTenantIdOrderByBillingMonthDesc(tenantId);
+    }
+
+    /**
+     * Recompute the whole ledger, e.g. after payments were written with plain JDBC
+     */
+    @Transactional
+    public int rebuild() {
+        ledgerRepository.deleteAllRows();
+        int rows = ledgerRepository.insertAllFromPayments();
+        log.info("Rebuilt tenant billing ledger: {} rows", rows);
+        return rows;
+    }
+
+    /**
+     * Make sure the current transaction refreshes the ledger before it commits.
+     * Called when a payment is loaded or persisted - dirty checking flushes updates only at
+     * commit, which is too late to register then.
+     */
+    public void track() {
+        synchronization();
+    }
+
+    /**
+     * Lock the tenant holding the lease for the rest of the transaction. Called before a
+     * payment of the lease is inserted, updated or deleted; once per lease and transaction.
+     */
+    public void lockTenant(Long leaseId) {
+        LedgerSynchronization synchronization = synchronization();
+        if (leaseId == null || synchronization == null || !synchronization.lockedLeases.add(leaseId)) {
+            return;
+        }
+        // Plain JDBC on the transaction's connection: this runs inside Hibernate's flush
+        jdbc.queryForList("SELECT t.id FROM leases l JOIN tenants t ON t.id = l.tenant_id " +
+                          "WHERE l.id = :leaseId FOR UPDATE OF t",
+                new MapSqlParameterSource("leaseId", leaseId), Long.class);
+    }
+
+    /**
+     * Record that a payment of the lease due in this month changed
+     */
+    public void markDirty(Long leaseId, LocalDate dueDate) {
+        if (leaseId == null || dueDate == null) {
+            return;
+        }
+        LedgerSynchronization synchronization = synchronization();
+        if (synchronization != null) {
+            lockTenant(leaseId);
+            synchronization.pending.add(new LedgerKey(leaseId, dueDate.withDayOfMonth(1)));
+        }
+    }
+
+    private LedgerSynchronization synchronization() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        LedgerSynchronization synchronization =
+                (LedgerSynchronization) TransactionSynchronizationManager.getResource(this);
+        if (synchronization == null) {
+            synchronization = new LedgerSynchronization();
+            TransactionSynchronizationManager.bindResource(this, synchronization);
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        }
+        return synchronization;
+    }
+
+    /**
+     * Flushes pending payment changes (so their listeners have reported every month), then
+     * recomputes the touched months inside the same transaction
+     */
+    private class LedgerSynchronization implements TransactionSynchronization {
+
+        private final Set<LedgerKey> pending = new LinkedHashSet<>();
+        private final Set<Long> lockedLeases = new HashSet<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (readOnly) {
+                return;
+            }
+            entityManager.flush();
+            if (pending.isEmpty()) {
+                return;
+            }
+            // The writers' tenant locks are already held, so the ledger rows touched here are ours alone
+            List<LedgerKey> months = new ArrayList<>(pending);
+            months.sort((a, b) -> a.leaseId().equals(b.leaseId())
+                    ? a.month().compareTo(b.month())
+                    : a.leaseId().compareTo(b.leaseId()));
+            pending.clear();
+            for (LedgerKey key : months) {
+                ledgerRepository.refreshMonth(key.leaseId(), key.month(), key.month().plusMonths(1));
+                ledgerRepository.deleteEmptyMonth(key.leaseId(), key.month());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BillingLedgerService.this);
+        }
+    }
+}
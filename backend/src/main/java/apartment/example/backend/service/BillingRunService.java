@@ -0,0 +1,547 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.BillingRun;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.repository.BillingRunRepository;
+import apartment.example.backend.repository.ScheduledJobStateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Billing Run Service
+ *
+ * Invoices every ACTIVE lease for a billing month in one run. Starting a run captures the
+ * utility rates and snapshots the leases into billing_run_items (see V9__billing_runs.sql);
+ * the snapshot is then billed in partitions of billing-run.partition-size on a bounded pool
+ * of billing-run.parallelism threads. Each partition computes rent from the unit price
+ * history and utilities from the month's meter readings (or usage sent with the run) at the
+ * captured rates, and inserts its invoices and payments with
+ * JDBC batches, using invoice numbers reserved up front. It commits together with its item
+ * statuses and the run's progress counters.
+ *
+ * Only one run executes at a time across replicas (scheduled_job_state lock). A lease is
+ * billed at most once per month. A run that fails or dies leaves its unbilled items PENDING,
+ * and the next run for the month finishes them. Dry runs compute the same invoices without
+ * writing them.
+ */
+@Service
+@Slf4j
+public class BillingRunService {
+
+    static final String LOCK_NAME = "billing-run";
+
+    private static final String ELIGIBLE_LEASES =
+            "FROM leases l WHERE l.status = 'ACTIVE' AND l.start_date < :nextMonth AND l.end_date >= :month";
+
+    // Joins the month's electricity (e) and water (w) readings of lease l's unit
+    private static final String METER_READINGS =
+            "LEFT JOIN meter_readings e ON e.unit_id = l.unit_id AND e.utility_type = 'ELECTRICITY' " +
+            "AND e.reading_period = :month " +
+            "LEFT JOIN meter_readings w ON w.unit_id = l.unit_id AND w.utility_type = 'WATER' " +
+            "AND w.reading_period = :month ";
+
+    private final BillingRunRepository billingRunRepository;
+    private final ScheduledJobStateRepository jobStateRepository;
+    private final InvoiceNumberSequence invoiceNumberSequence;
+    private final UnitPriceHistoryService unitPriceHistoryService;
+    private final ApartmentSettingsService settingsService;
+    private final BillingLedgerService billingLedgerService;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int partitionSize;
+    private final int dueDays;
+    private final Duration lockTtl;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final String owner;
+
+    /**
+     * Metered usage of one lease for the billed month; overrides the imported meter readings
+     */
+    public record UtilityUsage(BigDecimal electricityUnits, BigDecimal waterUnits) {
+    }
+
+    /**
+     * Billing month plus optional overrides; usage is keyed by lease id
+     */
+    public record RunRequest(LocalDate billingMonth, LocalDate invoiceDate, LocalDate dueDate,
+                             boolean dryRun, Map<Long, UtilityUsage> usage) {
+    }
+
+    /**
+     * What a dry run would bill for one lease
+     */
+    public record PreviewLine(Long leaseId, String roomNumber, BigDecimal rent, BigDecimal electricity,
+                              BigDecimal water, BigDecimal total, boolean alreadyBilled) {
+    }
+
+    public record RunResult(BillingRun run, List<PreviewLine> preview) {
+    }
+
+    private record Line(PaymentType type, BigDecimal amount, String description) {
+    }
+
+    private record Item(Long id, Long leaseId, Long unitId, String leaseStatus,
+                        BigDecimal electricityUnits, BigDecimal waterUnits) {
+    }
+
+    private record Bill(Item item, List<Line> lines, BigDecimal total) {
+    }
+
+    private record PartitionResult(int billed, int skipped, BigDecimal amount) {
+    }
+
+    public BillingRunService(BillingRunRepository billingRunRepository,
+                             ScheduledJobStateRepository jobStateRepository,
+                             InvoiceNumberSequence invoiceNumberSequence,
+                             UnitPriceHistoryService unitPriceHistoryService,
+                             ApartmentSettingsService settingsService,
+                             BillingLedgerService billingLedgerService,
+                             NamedParameterJdbcTemplate jdbc,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${billing-run.parallelism:4}") int parallelism,
+                             @Value("${billing-run.partition-size:200}") int partitionSize,
+                             @Value("${billing-run.due-days:5}") int dueDays,
+                             @Value("${billing-run.lock-ttl:10m}") Duration lockTtl) {
+        this.billingRunRepository = billingRunRepository;
+        this.jobStateRepository = jobStateRepository;
+        this.invoiceNumberSequence = invoiceNumberSequence;
+        this.unitPriceHistoryService = unitPriceHistoryService;
+        this.settingsService = settingsService;
+        this.billingLedgerService = billingLedgerService;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.partitionSize = partitionSize;
+        this.dueDays = dueDays;
+        this.lockTtl = lockTtl;
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("billing-run-", 1).daemon(true).factory());
+        this.coordinator = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("billing-run-coordinator").daemon(true).factory());
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public BillingRun getRun(Long id) {
+        return billingRunRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Billing run not found with id: " + id));
+    }
+
+    public List<BillingRun> getRecentRuns() {
+        return billingRunRepository.findTop20ByOrderByIdDesc();
+    }
+
+    /**
+     * Start a billing run. A dry run is computed synchronously and returned with its preview;
+     * a real run is snapshotted here and billed in the background - poll getRun for progress.
+     *
+     * @throws IllegalStateException when another run is in progress
+     */
+    public RunResult start(RunRequest request) {
+        LocalDate month = request.billingMonth().withDayOfMonth(1);
+        LocalDate invoiceDate = request.invoiceDate() != null ? request.invoiceDate() : month;
+        LocalDate dueDate = request.dueDate() != null ? request.dueDate() : invoiceDate.plusDays(dueDays);
+        if (dueDate.isBefore(invoiceDate)) {
+            throw new IllegalArgumentException("Due date cannot be before invoice date");
+        }
+        Map<Long, UtilityUsage> usage = request.usage() != null ? request.usage() : Map.of();
+
+        BillingRun run = new BillingRun();
+        run.setBillingMonth(month);
+        run.setInvoiceDate(invoiceDate);
+        run.setDueDate(dueDate);
+        run.setDryRun(request.dryRun());
+        run.setElectricityRate(settingsService.getElectricityRate());
+        run.setWaterRate(settingsService.getWaterRate());
+        run.setStartedAt(LocalDateTime.now());
+
+        if (request.dryRun()) {
+            return dryRun(run, usage);
+        }
+
+        // The row lock keeps other replicas out; the flag keeps a second run on this one out
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A billing run is already in progress");
+        }
+        jobStateRepository.insertIfAbsent(LOCK_NAME);
+        LocalDateTime now = LocalDateTime.now();
+        if (jobStateRepository.tryLock(LOCK_NAME, owner, now.plus(lockTtl), now) == 0) {
+            running.set(false);
+            throw new IllegalStateException("A billing run is already in progress");
+        }
+        BillingRun started;
+        try {
+            started = transactionTemplate.execute(status -> {
+                // We hold the lock, so a run still marked RUNNING died with its replica
+                billingRunRepository.failUnfinished("Interrupted before completion", LocalDateTime.now());
+                BillingRun saved = billingRunRepository.save(run);
+                saved.setTotalLeases(snapshot(saved, usage));
+                return saved;
+            });
+            coordinator.execute(() -> execute(started.getId()));
+        } catch (RuntimeException e) {
+            jobStateRepository.unlock(LOCK_NAME, owner);
+            running.set(false);
+            throw e;
+        }
+        log.info("=== Started billing run #{} for {}: {} lease(s) to bill ===",
+                started.getId(), YearMonth.from(month), started.getTotalLeases());
+        return new RunResult(started, List.of());
+    }
+
+    /**
+     * Claim this month's unbilled leases for the run: PENDING items left by earlier runs,
+     * plus every eligible lease that has no item yet. Usage not recorded on an item comes
+     * from the unit's meter readings for the month, and usage sent with the run overrides
+     * both. Returns the number of items to bill.
+     */
+    private int snapshot(BillingRun run, Map<Long, UtilityUsage> usage) {
+        MapSqlParameterSource params = monthParams(run.getBillingMonth()).addValue("runId", run.getId());
+        jdbc.update("UPDATE billing_run_items SET run_id = :runId " +
+                    "WHERE billing_month = :month AND status = 'PENDING'", params);
+        jdbc.update("INSERT IGNORE INTO billing_run_items (run_id, lease_id, billing_month) " +
+                    "SELECT :runId, l.id, :month " + ELIGIBLE_LEASES, params);
+        jdbc.update("UPDATE billing_run_items i JOIN leases l ON l.id = i.lease_id " + METER_READINGS +
+                    "SET i.electricity_units = COALESCE(i.electricity_units, e.consumption), " +
+                    "i.water_units = COALESCE(i.water_units, w.consumption) " +
+                    "WHERE i.run_id = :runId AND i.status = 'PENDING'", params);
+        if (!usage.isEmpty()) {
+            SqlParameterSource[] batch = usage.entrySet().stream()
+                    .map(entry -> new MapSqlParameterSource()
+                            .addValue("runId", run.getId())
+                            .addValue("leaseId", entry.getKey())
+                            .addValue("electricity", entry.getValue().electricityUnits())
+                            .addValue("water", entry.getValue().waterUnits()))
+                    .toArray(SqlParameterSource[]::new);
+            jdbc.batchUpdate("UPDATE billing_run_items SET electricity_units = :electricity, water_units = :water " +
+                             "WHERE run_id = :runId AND lease_id = :leaseId AND status = 'PENDING'", batch);
+        }
+        Integer pending = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM billing_run_items WHERE run_id = :runId AND status = 'PENDING'",
+                params, Integer.class);
+        return pending != null ? pending : 0;
+    }
+
+    /**
+     * Bill the run's PENDING items partition by partition on the worker pool
+     */
+    private void execute(Long runId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String error = null;
+        try {
+            BillingRun run = getRun(runId);
+            List<Long> itemIds = jdbc.queryForList(
+                    "SELECT id FROM billing_run_items WHERE run_id = :runId AND status = 'PENDING' ORDER BY id",
+                    new MapSqlParameterSource("runId", runId), Long.class);
+            String prefix = InvoiceService.invoiceNumberPrefix(run.getInvoiceDate());
+            // One number per item, reserved up front in its own transaction; skipped and
+            // failed items leave gaps, but no other invoice can take a number from the block
+            long first = itemIds.isEmpty() ? 1 : invoiceNumberSequence.reserve(prefix, itemIds.size());
+            AtomicLong sequence = new AtomicLong(first - 1);
+
+            List<Future<?>> partitions = new ArrayList<>();
+            for (int from = 0; from < itemIds.size(); from += partitionSize) {
+                List<Long> partition = itemIds.subList(from, Math.min(from + partitionSize, itemIds.size()));
+                partitions.add(workers.submit(() -> processPartition(run, partition, prefix, sequence)));
+            }
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Billing run #{} failed", runId, e);
+            error = e.getMessage();
+        } finally {
+            BillingRun progress = getRun(runId);
+            BillingRun.Status status = error == null && progress.getFailed() == 0
+                    ? BillingRun.Status.COMPLETED : BillingRun.Status.FAILED;
+            String message = error;
+            // Release first: once the status leaves RUNNING, callers may start the next run
+            jobStateRepository.unlock(LOCK_NAME, owner);
+            running.set(false);
+            transactionTemplate.executeWithoutResult(tx ->
+                    billingRunRepository.finish(runId, status, message, LocalDateTime.now()));
+            sample.stop(Timer.builder("billing.run.duration")
+                    .description("Duration of billing runs")
+                    .register(meterRegistry));
+            log.info("=== Billing run #{} {}: {} billed, {} skipped, {} failed, total {} ===", runId, status,
+                    progress.getBilled(), progress.getSkipped(), progress.getFailed(), progress.getTotalAmount());
+        }
+    }
+
+    /**
+     * Bill one partition in its own transaction; on failure its items stay PENDING for the next run
+     */
+    private void processPartition(BillingRun run, List<Long> itemIds, String prefix, AtomicLong sequence) {
+        try {
+            PartitionResult result = transactionTemplate.execute(
+                    status -> billPartition(run, itemIds, prefix, sequence));
+            if (result != null) {
+                counter("billing.run.invoices", "Invoices created by billing runs").increment(result.billed());
+            }
+        } catch (RuntimeException e) {
+            log.error("Billing run #{} failed to bill {} lease(s) from item #{}",
+                    run.getId(), itemIds.size(), itemIds.get(0), e);
+            transactionTemplate.executeWithoutResult(status ->
+                    billingRunRepository.addProgress(run.getId(), 0, 0, itemIds.size(), BigDecimal.ZERO));
+            counter("billing.run.failed", "Leases billing runs failed to bill").increment(itemIds.size());
+        }
+        // Renew the lock while the run makes progress
+        LocalDateTime now = LocalDateTime.now();
+        jobStateRepository.tryLock(LOCK_NAME, owner, now.plus(lockTtl), now);
+    }
+
+    private PartitionResult billPartition(BillingRun run, List<Long> itemIds, String prefix, AtomicLong sequence) {
+        List<Item> items = jdbc.query(
+                "SELECT i.id, i.lease_id, l.unit_id, l.status AS lease_status, i.electricity_units, i.water_units " +
+                "FROM billing_run_items i JOIN leases l ON l.id = i.lease_id " +
+                "WHERE i.id IN (:ids) AND i.status = 'PENDING' ORDER BY i.id FOR UPDATE",
+                new MapSqlParameterSource("ids", itemIds),
+                (rs, rowNum) -> new Item(rs.getLong("id"), rs.getLong("lease_id"), rs.getLong("unit_id"),
+                        rs.getString("lease_status"), rs.getBigDecimal("electricity_units"),
+                        rs.getBigDecimal("water_units")));
+        if (items.isEmpty()) {
+            return new PartitionResult(0, 0, BigDecimal.ZERO);
+        }
+        Map<Long, BigDecimal> rents = unitPriceHistoryService.getRentAmountsAtDate(
+                items.stream().map(Item::unitId).distinct().toList(), run.getBillingMonth());
+
+        List<Bill> bills = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (Item item : items) {
+            List<Line> lines = "ACTIVE".equals(item.leaseStatus())
+                    ? lines(rents.get(item.unitId()), item.electricityUnits(), item.waterUnits(), run)
+                    : List.of();
+            if (lines.isEmpty()) {
+                skipped.add(item.id());
+            } else {
+                bills.add(new Bill(item, lines, total(lines)));
+            }
+        }
+
+        BigDecimal amount = BigDecimal.ZERO;
+        if (!bills.isEmpty()) {
+            amount = insertInvoices(run, bills, prefix, sequence);
+        }
+        if (!skipped.isEmpty()) {
+            jdbc.update("UPDATE billing_run_items SET status = 'SKIPPED' WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", skipped));
+        }
+        billingRunRepository.addProgress(run.getId(), bills.size(), skipped.size(), 0, amount);
+        return new PartitionResult(bills.size(), skipped.size(), amount);
+    }
+
+    /**
+     * Batch-insert one invoice per bill with its payment lines and mark the items BILLED;
+     * returns the billed total
+     */
+    private BigDecimal insertInvoices(BillingRun run, List<Bill> bills, String prefix, AtomicLong sequence) {
+        LocalDateTime now = LocalDateTime.now();
+        // Take a contiguous range for the partition from the block reserved for the run
+        long first = sequence.getAndAdd(bills.size()) + 1;
+        String notes = "ค่าเช่าประจำเดือน " + YearMonth.from(run.getBillingMonth());
+        Map<Long, String> numbers = new HashMap<>();
+        List<SqlParameterSource> invoices = new ArrayList<>();
+        for (int i = 0; i < bills.size(); i++) {
+            Bill bill = bills.get(i);
+            String number = prefix + (first + i);
+            numbers.put(bill.item().id(), number);
+            invoices.add(new MapSqlParameterSource()
+                    .addValue("number", number)
+                    .addValue("leaseId", bill.item().leaseId())
+                    .addValue("invoiceDate", run.getInvoiceDate())
+                    .addValue("dueDate", run.getDueDate())
+                    .addValue("total", bill.total())
+                    .addValue("notes", notes)
+                    .addValue("now", now));
+        }
+        jdbc.batchUpdate("INSERT INTO invoices (invoice_number, lease_id, invoice_date, due_date, total_amount, " +
+                         "invoice_type, status, notes, can_pay, created_at, updated_at) " +
+                         "VALUES (:number, :leaseId, :invoiceDate, :dueDate, :total, " +
+                         "'MONTHLY_RENT', 'PENDING', :notes, TRUE, :now, :now)",
+                invoices.toArray(SqlParameterSource[]::new));
+
+        Map<String, Long> invoiceIds = new HashMap<>();
+        jdbc.query("SELECT id, invoice_number FROM invoices WHERE invoice_number IN (:numbers)",
+                new MapSqlParameterSource("numbers", numbers.values()),
+                rs -> {
+                    invoiceIds.put(rs.getString("invoice_number"), rs.getLong("id"));
+                });
+
+        List<SqlParameterSource> payments = new ArrayList<>();
+        List<SqlParameterSource> billed = new ArrayList<>();
+        BigDecimal amount = BigDecimal.ZERO;
+        for (Bill bill : bills) {
+            Long invoiceId = invoiceIds.get(numbers.get(bill.item().id()));
+            for (Line line : bill.lines()) {
+                payments.add(new MapSqlParameterSource()
+                        .addValue("invoiceId", invoiceId)
+                        .addValue("leaseId", bill.item().leaseId())
+                        .addValue("type", line.type().name())
+                        .addValue("amount", line.amount())
+                        .addValue("dueDate", run.getDueDate())
+                        // Item ids are unique, so receipt numbers need no timestamp probe
+                        .addValue("receipt", PaymentService.receiptPrefix(line.type()) + "-B" + bill.item().id())
+                        .addValue("notes", line.description())
+                        .addValue("now", now));
+            }
+            billed.add(new MapSqlParameterSource()
+                    .addValue("id", bill.item().id())
+                    .addValue("invoiceId", invoiceId)
+                    .addValue("total", bill.total()));
+            amount = amount.add(bill.total());
+            billingLedgerService.markDirty(bill.item().leaseId(), run.getDueDate());
+        }
+        jdbc.batchUpdate("INSERT INTO payments (invoice_id, lease_id, payment_type, amount, due_date, " +
+                         "payment_method, status, receipt_number, notes, created_at, updated_at) " +
+                         "VALUES (:invoiceId, :leaseId, :type, :amount, :dueDate, " +
+                         "'CASH', 'PENDING', :receipt, :notes, :now, :now)",
+                payments.toArray(SqlParameterSource[]::new));
+        jdbc.batchUpdate("UPDATE billing_run_items SET status = 'BILLED', invoice_id = :invoiceId, " +
+                         "total_amount = :total WHERE id = :id",
+                billed.toArray(SqlParameterSource[]::new));
+        return amount;
+    }
+
+    /**
+     * Compute what the run would bill without writing invoices; the run is recorded as a dry run
+     */
+    private RunResult dryRun(BillingRun run, Map<Long, UtilityUsage> usage) {
+        record Eligible(Long leaseId, Long unitId, String roomNumber, boolean alreadyBilled, UtilityUsage metered) {
+        }
+        List<PreviewLine> preview = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            List<Eligible> leases = jdbc.query(
+                    "SELECT l.id, l.unit_id, u.room_number, EXISTS (SELECT 1 FROM billing_run_items i " +
+                    "WHERE i.lease_id = l.id AND i.billing_month = :month AND i.status <> 'PENDING') AS billed, " +
+                    "e.consumption AS electricity_units, w.consumption AS water_units " +
+                    "FROM leases l JOIN units u ON u.id = l.unit_id " + METER_READINGS +
+                    "WHERE l.status = 'ACTIVE' AND l.start_date < :nextMonth AND l.end_date >= :month ORDER BY l.id",
+                    monthParams(run.getBillingMonth()),
+                    (rs, rowNum) -> new Eligible(rs.getLong("id"), rs.getLong("unit_id"),
+                            rs.getString("room_number"), rs.getBoolean("billed"),
+                            new UtilityUsage(rs.getBigDecimal("electricity_units"), rs.getBigDecimal("water_units"))));
+            Map<Long, BigDecimal> rents = unitPriceHistoryService.getRentAmountsAtDate(
+                    leases.stream().map(Eligible::unitId).distinct().toList(), run.getBillingMonth());
+
+            List<PreviewLine> result = new ArrayList<>();
+            for (Eligible lease : leases) {
+                UtilityUsage leaseUsage = usage.getOrDefault(lease.leaseId(), lease.metered());
+                List<Line> lines = lines(rents.get(lease.unitId()),
+                        leaseUsage.electricityUnits(), leaseUsage.waterUnits(), run);
+                result.add(new PreviewLine(lease.leaseId(), lease.roomNumber(),
+                        amountOf(lines, PaymentType.RENT), amountOf(lines, PaymentType.ELECTRICITY),
+                        amountOf(lines, PaymentType.WATER), total(lines), lease.alreadyBilled()));
+            }
+            return result;
+        });
+
+        int billable = 0;
+        BigDecimal amount = BigDecimal.ZERO;
+        for (PreviewLine line : preview) {
+            if (!line.alreadyBilled() && line.total().signum() > 0) {
+                billable++;
+                amount = amount.add(line.total());
+            }
+        }
+        run.setTotalLeases(preview.size());
+        run.setBilled(billable);
+        run.setSkipped(preview.size() - billable);
+        run.setTotalAmount(amount);
+        run.setStatus(BillingRun.Status.COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+        BillingRun saved = billingRunRepository.save(run);
+        log.info("Dry billing run #{} for {}: {} of {} lease(s) billable, total {}",
+                saved.getId(), YearMonth.from(run.getBillingMonth()), billable, preview.size(), amount);
+        return new RunResult(saved, preview);
+    }
+
+    /**
+     * Payment lines for one lease: rent, plus electricity and water when usage is known
+     */
+    private static List<Line> lines(BigDecimal rent, BigDecimal electricityUnits, BigDecimal waterUnits, BillingRun run) {
+        List<Line> lines = new ArrayList<>();
+        if (rent != null && rent.signum() > 0) {
+            lines.add(new Line(PaymentType.RENT, rent, "ค่าเช่า"));
+        }
+        if (electricityUnits != null && electricityUnits.signum() > 0) {
+            lines.add(new Line(PaymentType.ELECTRICITY,
+                    electricityUnits.multiply(run.getElectricityRate()).setScale(2, RoundingMode.HALF_UP), "ค่าไฟฟ้า"));
+        }
+        if (waterUnits != null && waterUnits.signum() > 0) {
+            lines.add(new Line(PaymentType.WATER,
+                    waterUnits.multiply(run.getWaterRate()).setScale(2, RoundingMode.HALF_UP), "ค่าน้ำ"));
+        }
+        return lines;
+    }
+
+    private static BigDecimal total(List<Line> lines) {
+        return lines.stream().map(Line::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal amountOf(List<Line> lines, PaymentType type) {
+        return lines.stream()
+                .filter(line -> line.type() == type)
+                .map(Line::amount)
+                .findFirst()
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private static MapSqlParameterSource monthParams(LocalDate month) {
+        return new MapSqlParameterSource()
+                .addValue("month", month)
+                .addValue("nextMonth", month.plusMonths(1));
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder(name).description(description).register(meterRegistry);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.StoredFile;
+import apartment.example.backend.repository.StoredFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-Addressed File Store
+ *
+ * Uploads are stored once per distinct content under their SHA-256: key ab/abcdef....jpg
+ * in the configured ObjectStorage, URL /uploads/blobs/ab/abcdef....jpg.
+ * Storing is split so no database connection is held while bytes are transferred:
+ * - stage(): write the upload to a local temp file, hash it and hand it to the object
+ *   storage unless identical content is already stored (no transaction)
+ * - commit(): inside the caller's metadata transaction, add a reference (database only)
+ * - release(): drop a reference when a URL is replaced or its owner deleted
+ * Blobs whose last reference went away more than file.blob-gc-grace ago are deleted by
+ * collectGarbage(), together with their derived preview/thumbnail files; so are objects
+ * staged for a transaction that rolled back.
+ */
+@Service
+@Slf4j
+public class ContentAddressedFileStore {
+
+    public static final String URL_PREFIX = "/uploads/blobs/";
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,9}");
+    private static final int GC_BATCH = 500;
+
+    private final StoredFileRepository storedFileRepository;
+    private final FileUploadService fileUploadService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectStorage objectStorage;
+    private final MeterRegistry meterRegistry;
+    private final Path stagingDir;
+    private final Duration gcGrace;
+    private final Duration presignTtl;
+
+    public ContentAddressedFileStore(StoredFileRepository storedFileRepository,
+                                     FileUploadService fileUploadService,
+                                     TransactionTemplate transactionTemplate,
+                                     ObjectStorage objectStorage,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${file.staging-dir:uploads/.staging}") String stagingDir,
+                                     @Value("${file.blob-gc-grace:24h}") Duration gcGrace,
+                                     @Value("${file.presign-ttl:10m}") Duration presignTtl) {
+        this.storedFileRepository = storedFileRepository;
+        this.fileUploadService = fileUploadService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectStorage = objectStorage;
+        this.meterRegistry = meterRegistry;
+        this.stagingDir = Paths.get(stagingDir).toAbsolutePath().normalize();
+        this.gcGrace = gcGrace;
+        this.presignTtl = presignTtl;
+    }
+
+    /**
+     * An upload that is in the object storage but not yet referenced
+     */
+    public record PendingBlob(String sha256, String extension, String contentType, long sizeBytes, String kind) {
+    }
+
+    /**
+     * Write the upload to a temp file, hash it and store it - call outside any transaction
+     */
+    public PendingBlob stage(MultipartFile file, String kind) throws IOException {
+        Path tempFile = fileUploadService.store(file, stagingDir, UUID.randomUUID() + ".part", kind);
+        try {
+            String sha256 = sha256(tempFile);
+            String contentType = file.getContentType() != null && file.getContentType().length() <= 100
+                    ? file.getContentType() : null;
+            // Restart the grace period of a known but unreferenced blob, so garbage collection
+            // cannot take it before commit() adds the reference
+            transactionTemplate.executeWithoutResult(status ->
+                    storedFileRepository.holdOrphan(sha256, LocalDateTime.now()));
+            // The first upload of this content decides the extension
+            Optional<String> registeredExtension = storedFileRepository.findById(sha256)
+                    .map(StoredFile::getExtension);
+            String extension = registeredExtension.orElse(extensionOf(file.getOriginalFilename()));
+            long sizeBytes = Files.size(tempFile);
+
+            String key = key(sha256, extension);
+            if (registeredExtension.isPresent() && objectStorage.exists(key)) {
+                Counter.builder("uploads.deduplicated")
+                        .description("Uploads whose content was already stored")
+                        .tag("kind", kind)
+                        .register(meterRegistry)
+                        .increment();
+                log.info("Upload {} deduplicated against existing blob {}", kind, sha256);
+            } else {
+                // Also rewrites an untracked leftover, so its age no longer qualifies it for the sweep
+                objectStorage.put(key, tempFile, contentType);
+            }
+            return new PendingBlob(sha256, extension, contentType, sizeBytes, kind);
+        } finally {
+            fileUploadService.deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Add a reference to the blob; returns the blob URL.
+     * Must run inside the transaction that stores the URL - the row lock taken here keeps
+     * garbage collection away from the blob until that transaction ends. Only the database
+     * is touched here; stage() already made sure the object is stored.
+     */
+    public String commit(PendingBlob blob) {
+        storedFileRepository.retain(blob.sha256(), blob.extension(), blob.contentType(), blob.sizeBytes(),
+                LocalDateTime.now());
+        String extension = storedFileRepository.findById(blob.sha256())
+                .map(StoredFile::getExtension)
+                .orElse(blob.extension());
+        if (!extension.equals(blob.extension())) {
+            // Another upload of the same bytes registered first under a different extension;
+            // nothing points at this copy, drop it once the row lock is released
+            String duplicate = key(blob.sha256(), blob.extension());
+            afterCompletion(() -> deleteQuietly(duplicate));
+        }
+        return URL_PREFIX + key(blob.sha256(), extension);
+    }
+
+    /**
+     * Drop one reference - call inside the transaction that removes or replaces the URL.
+     * URLs from before the store existed (/uploads/payment-slips/...) are left alone.
+     */
+    public void release(String url) {
+        if (isBlobUrl(url)) {
+            storedFileRepository.release(shaOf(url), LocalDateTime.now());
+        }
+    }
+
+    public boolean isBlobUrl(String url) {
+        return url != null && url.startsWith(URL_PREFIX) && SHA256.matcher(shaOf(url)).matches();
+    }
+
+    /**
+     * The file behind a blob (or derived) URL when the storage is a local directory
+     */
+    public Optional<Path> localPath(String url) {
+        return objectStorage.localPath(keyOf(url));
+    }
+
+    public boolean exists(String url) {
+        try {
+            return objectStorage.exists(keyOf(url));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void download(String url, Path target) throws IOException {
+        objectStorage.download(keyOf(url), target);
+    }
+
+    /**
+     * Store a file derived from a blob (preview, thumbnail) next to it; the file is consumed
+     */
+    public void putDerived(String url, Path file, String contentType) throws IOException {
+        objectStorage.put(keyOf(url), file, contentType);
+    }
+
+    /**
+     * Direct download URL from the object storage, valid for file.presign-ttl;
+     * empty when /uploads/blobs/** serves the file itself
+     */
+    public Optional<String> presignedDownloadUrl(String url) {
+        return objectStorage.presignedDownloadUrl(keyOf(url), presignTtl);
+    }
+
+    public Duration getPresignTtl() {
+        return presignTtl;
+    }
+
+    /**
+     * Delete blobs orphaned for longer than the grace period, then objects the database
+     * never referenced (transaction rolled back after staging) and stale temp files.
+     * Safe to run on every replica: each blob is re-checked under its row lock.
+     */
+    @Scheduled(cron = "${file.blob-gc-cron:0 30 3 * * *}")
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gcGrace);
+        int collected = 0;
+        int collectedInBatch;
+        List<String> candidates;
+        do {
+            collectedInBatch = 0;
+            candidates = storedFileRepository.findOrphanedBefore(cutoff, PageRequest.of(0, GC_BATCH));
+            for (String sha256 : candidates) {
+                try {
+                    Boolean deleted = transactionTemplate.execute(status -> storedFileRepository.findForUpdate(sha256)
+                            .filter(storedFile -> storedFile.getRefCount() == 0
+                                    && storedFile.getOrphanedAt() != null
+                                    && storedFile.getOrphanedAt().isBefore(cutoff))
+                            .map(storedFile -> {
+                                deleteBlobObjects(sha256);
+                                storedFileRepository.delete(storedFile);
+                                return true;
+                            })
+                            .orElse(false));
+                    if (Boolean.TRUE.equals(deleted)) {
+                        collectedInBatch++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not collect blob {}: {}", sha256, e.getMessage());
+                }
+            }
+            collected += collectedInBatch;
+            // Stop when a batch makes no progress, so failing blobs are not retried in a loop
+        } while (candidates.size() == GC_BATCH && collectedInBatch > 0);
+
+        Instant untrackedCutoff = Instant.now().minus(gcGrace);
+        int untracked = sweepUntracked(untrackedCutoff);
+        sweepStaging(untrackedCutoff);
+        Counter.builder("uploads.blobs.collected")
+                .description("Blob files deleted by garbage collection")
+                .register(meterRegistry)
+                .increment(collected + untracked);
+        log.info("Blob garbage collection removed {} orphaned and {} untracked blobs", collected, untracked);
+    }
+
+    private int sweepUntracked(Instant cutoff) {
+        int removed = 0;
+        try (Stream<ObjectStorage.StoredObject> objects = objectStorage.list("")) {
+            for (ObjectStorage.StoredObject object : (Iterable<ObjectStorage.StoredObject>) objects::iterator) {
+                if (object.lastModified().isAfter(cutoff)) {
+                    continue;
+                }
+                String sha256 = shaOf(object.key());
+                if (SHA256.matcher(sha256).matches() && !storedFileRepository.existsById(sha256)) {
+                    objectStorage.delete(object.key());
+                    removed++;
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Blob sweep stopped early: {}", e.getMessage());
+        }
+        return removed;
+    }
+
+    /**
+     * Temp files left behind by a crash while an upload was being staged
+     */
+    private void sweepStaging(Instant cutoff) {
+        if (!Files.isDirectory(stagingDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".part"))
+                    .filter(file -> {
+                        try {
+                            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(fileUploadService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not list staging directory {}: {}", stagingDir, e.getMessage());
+        }
+    }
+
+    /**
+     * The blob and everything derived from it (previews, thumbnails) share the key prefix
+     */
+    private void deleteBlobObjects(String sha256) {
+        try (Stream<ObjectStorage.StoredObject> objects = objectStorage.list(sha256.substring(0, 2) + "/" + sha256)) {
+            for (ObjectStorage.StoredObject object : (Iterable<ObjectStorage.StoredObject>) objects::iterator) {
+                objectStorage.delete(object.key());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete blob " + sha256, e);
+        }
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            objectStorage.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete duplicate blob {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static String key(String sha256, String extension) {
+        return sha256.substring(0, 2) + "/" + (extension.isEmpty() ? sha256 : sha256 + "." + extension);
+    }
+
+    private static String keyOf(String url) {
+        if (!url.startsWith(URL_PREFIX)) {
+            throw new IllegalArgumentException("Not a blob URL: " + url);
+        }
+        return url.substring(URL_PREFIX.length());
+    }
+
+    private static String shaOf(String url) {
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        return name.contains(".") ? name.substring(0, name.indexOf('.')) : name;
+    }
+
+    static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
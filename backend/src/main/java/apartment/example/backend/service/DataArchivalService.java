@@ -0,0 +1,171 @@
+package apartment.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Archival Service
+ *
+ * Moves closed billing records and old logs from the hot tables into their *_archive
+ * tables (see V7__archive_tables.sql). Rows are selected by primary key in batches of
+ * archive.batch-size; each batch is copied and deleted in its own short transaction,
+ * with a pause in between, so no run holds locks for long or produces one huge binlog
+ * event. Copies are idempotent, so overlapping runs on several replicas are harmless.
+ */
+@Service
+@Slf4j
+public class DataArchivalService {
+
+    private static final String CLOSED_INVOICES =
+            "SELECT id FROM invoices WHERE status IN ('PAID', 'CANCELLED') AND due_date < :cutoff " +
+            "ORDER BY id LIMIT :limit";
+    private static final String SETTLED_PAYMENTS =
+            "SELECT id FROM payments WHERE status = 'PAID' AND due_date < :cutoff AND invoice_id IS NULL " +
+            "ORDER BY id LIMIT :limit";
+    private static final String OLD_MAINTENANCE_LOGS =
+            "SELECT id FROM maintenance_logs WHERE created_at < :cutoff ORDER BY id LIMIT :limit";
+    private static final String OLD_UNIT_AUDIT_LOGS =
+            "SELECT id FROM unit_audit_logs WHERE created_at < :cutoff ORDER BY id LIMIT :limit";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int billingHorizonMonths;
+    private final Duration logHorizon;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public DataArchivalService(EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${archive.enabled:true}") boolean enabled,
+                               @Value("${archive.billing-horizon-months:24}") int billingHorizonMonths,
+                               @Value("${archive.log-horizon:365d}") Duration logHorizon,
+                               @Value("${archive.batch-size:500}") int batchSize,
+                               @Value("${archive.batch-pause:200ms}") Duration batchPause) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.billingHorizonMonths = billingHorizonMonths;
+        this.logHorizon = logHorizon;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Nightly archival run
+     */
+    @Scheduled(cron = "${archive.cron:0 0 4 * * *}")
+    public void archiveScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive(LocalDate.now().withDayOfMonth(1).minusMonths(billingHorizonMonths),
+                    LocalDateTime.now().minus(logHorizon));
+        } catch (RuntimeException e) {
+            log.error("Archival run failed", e);
+        }
+    }
+
+    /**
+     * Archive everything older than the given horizons and return the rows moved per table
+     */
+    public Map<String, Integer> archive(LocalDate billingCutoff, LocalDateTime logCutoff) {
+        log.info("=== Starting archival: billing before {}, logs before {} ===", billingCutoff, logCutoff);
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        // Invoices first: their payments move with them, leaving only standalone payments
+        moved.put("invoices", drain(CLOSED_INVOICES, billingCutoff, this::archiveInvoices));
+        moved.put("payments", drain(SETTLED_PAYMENTS, billingCutoff, ids -> move("payments", "id", ids)));
+        moved.put("maintenance_logs", drain(OLD_MAINTENANCE_LOGS, logCutoff, ids -> move("maintenance_logs", "id", ids)));
+        moved.put("unit_audit_logs", drain(OLD_UNIT_AUDIT_LOGS, logCutoff, ids -> move("unit_audit_logs", "id", ids)));
+        moved.forEach((table, rows) -> Counter.builder("archive.rows")
+                .description("Rows moved from hot tables to archive tables")
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment(rows));
+        log.info("=== Completed archival: {} ===", moved);
+        return moved;
+    }
+
+    private interface BatchMover {
+        int move(List<Long> ids);
+    }
+
+    /**
+     * Select a batch of ids, move it in its own transaction, repeat until nothing is left
+     */
+    private int drain(String selectIds, Object cutoff, BatchMover mover) {
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = selectIds(selectIds, cutoff);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> batch = ids;
+            Integer moved = transactionTemplate.execute(status -> mover.move(batch));
+            total += moved != null ? moved : 0;
+            pause();
+        } while (ids.size() == batchSize);
+        return total;
+    }
+
+    private List<Long> selectIds(String sql, Object cutoff) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = entityManager.createNativeQuery(sql)
+                .setParameter("cutoff", cutoff)
+                .setParameter("limit", batchSize)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private int archiveInvoices(List<Long> invoiceIds) {
+        move("payments", "invoice_id", invoiceIds);
+        return move("invoices", "id", invoiceIds);
+    }
+
+    /**
+     * Copy the rows to the archive table (a row another run already copied is kept as is),
+     * then delete them from the hot table
+     */
+    private int move(String table, String keyColumn, List<Long> ids) {
+        String archive = table + "_archive";
+        entityManager.createNativeQuery(
+                        "INSERT INTO " + archive + " SELECT h.*, NOW() FROM " + table + " h " +
+                        "WHERE h." + keyColumn + " IN (:ids) " +
+                        "ON DUPLICATE KEY UPDATE " + archive + ".id = " + archive + ".id")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return entityManager.createNativeQuery("DELETE FROM " + table + " WHERE " + keyColumn + " IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archival interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package apartment.example.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * File Upload Service
+ *
+ * Writes uploaded files without touching the database, so callers can store the file
+ * first and commit its metadata afterwards in a short transaction:
+ * - the multipart part is transferred to a temp file next to the target (Tomcat renames
+ *   its own spooled file when both sit on the same volume, otherwise it is copied once)
+ * - the temp file is moved into place atomically, so /uploads never serves a partial file
+ *
+ * Metrics, tagged by upload kind:
+ * - uploads.duration (timer, also tagged success/failure)
+ * - uploads.size (bytes per file); throughput = rate(uploads_size_bytes_sum) / rate(uploads_duration_seconds_sum)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileUploadService {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Store an uploaded file as directory/filename and return its path
+     */
+    public Path store(MultipartFile file, Path directory, String filename, String kind) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path target = directory.resolve(filename);
+        Path temp = directory.resolve(".upload-" + UUID.randomUUID() + ".part");
+        String outcome = "failure";
+
+        try {
+            Files.createDirectories(directory);
+            file.transferTo(temp.toFile());
+            moveIntoPlace(temp, target);
+
+            DistributionSummary.builder("uploads.size")
+                    .description("Size of stored upload files")
+                    .baseUnit("bytes")
+                    .tag("kind", kind)
+                    .register(meterRegistry)
+                    .record(Files.size(target));
+            outcome = "success";
+            return target;
+        } finally {
+            if (!outcome.equals("success")) {
+                deleteQuietly(temp);
+            }
+            long nanos = sample.stop(Timer.builder("uploads.duration")
+                    .description("Time to write an upload to its final location")
+                    .tag("kind", kind)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            log.debug("Upload {} {} ({}) in {} ms", kind, filename, outcome, nanos / 1_000_000);
+        }
+    }
+
+    /**
+     * Remove a stored file, e.g. when the metadata transaction that should reference it fails
+     */
+    public void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete upload file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.repository.InvoiceRepository;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Image Thumbnail Service
+ *
+ * Background stage that runs after an upload commits: for every image it writes a
+ * size-bounded preview (file.preview-size, for the verification view) and a thumbnail
+ * (file.thumbnail-size, for lists) as JPEG beside the original, e.g.
+ * slip_1_x.jpg -> slip_1_x.preview.jpg / slip_1_x.thumb.jpg, then records the thumbnail
+ * URL on the Invoice or MaintenanceRequest. Deduplicated uploads reuse the files already
+ * rendered for the same blob. Large photos are decoded with source
+ * subsampling so a 12 MP image never needs a full-resolution bitmap in memory.
+ */
+@Service
+@Slf4j
+public class ImageThumbnailService {
+
+    static final String THUMBNAIL_SUFFIX = ".thumb.jpg";
+    static final String PREVIEW_SUFFIX = ".preview.jpg";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final InvoiceRepository invoiceRepository;
+    private final MaintenanceRequestRepository maintenanceRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentAddressedFileStore fileStore;
+    private final MeterRegistry meterRegistry;
+    private final Path legacyMaintenanceDir;
+    private final int thumbnailSize;
+    private final int previewSize;
+
+    public ImageThumbnailService(InvoiceRepository invoiceRepository,
+                                 MaintenanceRequestRepository maintenanceRequestRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ContentAddressedFileStore fileStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${file.maintenance-upload-dir:uploads/maintenance-attachments}") String legacyMaintenanceDir,
+                                 @Value("${file.thumbnail-size:320}") int thumbnailSize,
+                                 @Value("${file.preview-size:1280}") int previewSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.maintenanceRequestRepository = maintenanceRequestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fileStore = fileStore;
+        this.meterRegistry = meterRegistry;
+        this.legacyMaintenanceDir = Paths.get(legacyMaintenanceDir).toAbsolutePath().normalize();
+        this.thumbnailSize = thumbnailSize;
+        this.previewSize = previewSize;
+    }
+
+    /**
+     * Generate slip previews and set Invoice.slipThumbnailUrl if the slip is still current.
+     * Only that column is written, so changes made to the invoice meanwhile are kept.
+     */
+    @Async
+    public void processPaymentSlip(Long invoiceId, String slipUrl) {
+        if (!generateForBlob(slipUrl, "payment-slip")) {
+            return;
+        }
+        String thumbnailUrl = derivedUrl(slipUrl, THUMBNAIL_SUFFIX);
+        transactionTemplate.executeWithoutResult(status ->
+                invoiceRepository.updateSlipThumbnailUrl(invoiceId, slipUrl, thumbnailUrl));
+    }
+
+    /**
+     * Generate previews for new attachments and rebuild MaintenanceRequest.attachmentThumbnailUrls.
+     * Only that column is written, and only if the attachment list is unchanged; an upload
+     * that lands meanwhile schedules its own rebuild.
+     */
+    @Async
+    public void processMaintenanceAttachments(Long requestId, List<String> attachmentUrls) {
+        if (attachmentUrls.isEmpty()) {
+            return;
+        }
+        Map<String, Boolean> rendered = new HashMap<>();
+        attachmentUrls.forEach(url -> rendered.put(url, generateForBlob(url, "maintenance-attachment")));
+
+        transactionTemplate.executeWithoutResult(status ->
+                maintenanceRequestRepository.findAttachmentUrlsById(requestId).ifPresent(attachments -> {
+                    if (attachments.isEmpty()) {
+                        return;
+                    }
+                    List<String> thumbnails = new ArrayList<>();
+                    for (String url : attachments.split(",")) {
+                        boolean exists = rendered.computeIfAbsent(url, this::hasThumbnail);
+                        thumbnails.add(exists ? derivedUrl(url, THUMBNAIL_SUFFIX) : "");
+                    }
+                    maintenanceRequestRepository.updateAttachmentThumbnailUrls(
+                            requestId, attachments, String.join(",", thumbnails));
+                }));
+    }
+
+    private boolean hasThumbnail(String url) {
+        if (fileStore.isBlobUrl(url)) {
+            return fileStore.exists(derivedUrl(url, THUMBNAIL_SUFFIX));
+        }
+        String filename = url.substring(url.lastIndexOf('/') + 1);
+        return Files.exists(legacyMaintenanceDir.resolve(derivedName(filename, THUMBNAIL_SUFFIX)));
+    }
+
+    /**
+     * Render previews for a stored blob. A local blob is rendered in place; with remote
+     * object storage the original is downloaded to a scratch directory and the results uploaded.
+     */
+    boolean generateForBlob(String url, String kind) {
+        Optional<Path> localFile = fileStore.localPath(url);
+        if (localFile.isPresent()) {
+            return generate(localFile.get(), kind);
+        }
+        String previewUrl = derivedUrl(url, PREVIEW_SUFFIX);
+        String thumbnailUrl = derivedUrl(url, THUMBNAIL_SUFFIX);
+        Path scratch = null;
+        try {
+            if (fileStore.exists(previewUrl) && fileStore.exists(thumbnailUrl)) {
+                return true;
+            }
+            scratch = Files.createTempDirectory("thumbnails");
+            Path original = scratch.resolve(url.substring(url.lastIndexOf('/') + 1));
+            fileStore.download(url, original);
+            if (!generate(original, kind)) {
+                return false;
+            }
+            String filename = original.getFileName().toString();
+            fileStore.putDerived(previewUrl, scratch.resolve(derivedName(filename, PREVIEW_SUFFIX)), "image/jpeg");
+            fileStore.putDerived(thumbnailUrl, scratch.resolve(derivedName(filename, THUMBNAIL_SUFFIX)), "image/jpeg");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate thumbnails for {}: {}", url, e.getMessage());
+            return false;
+        } finally {
+            if (scratch != null) {
+                try {
+                    FileSystemUtils.deleteRecursively(scratch);
+                } catch (IOException e) {
+                    log.warn("Could not remove scratch directory {}: {}", scratch, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write preview and thumbnail for one file; false when it is not a readable image.
+     * A deduplicated blob already has both, so they are not rendered again.
+     */
+    boolean generate(Path original, String kind) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            String originalName = original.getFileName().toString();
+            if (Files.exists(original.resolveSibling(derivedName(originalName, PREVIEW_SUFFIX)))
+                    && Files.exists(original.resolveSibling(derivedName(originalName, THUMBNAIL_SUFFIX)))) {
+                outcome = "existing";
+                return true;
+            }
+            BufferedImage preview = readScaled(original, previewSize);
+            if (preview == null) {
+                outcome = "skipped";
+                return false;
+            }
+            writeJpeg(preview, original.resolveSibling(derivedName(originalName, PREVIEW_SUFFIX)));
+            writeJpeg(scale(preview, thumbnailSize), original.resolveSibling(derivedName(originalName, THUMBNAIL_SUFFIX)));
+            outcome = "success";
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate thumbnails for {}: {}", original, e.getMessage());
+            return false;
+        } finally {
+            sample.stop(Timer.builder("uploads.thumbnail.duration")
+                    .description("Time to generate preview and thumbnail for an upload")
+                    .tag("kind", kind)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * slip_1_x.jpg + .thumb.jpg -> slip_1_x.thumb.jpg
+     */
+    static String derivedName(String filename, String suffix) {
+        int dot = filename.lastIndexOf('.');
+        return (dot > 0 ? filename.substring(0, dot) : filename) + suffix;
+    }
+
+    static String derivedUrl(String url, String suffix) {
+        int slash = url.lastIndexOf('/');
+        return url.substring(0, slash + 1) + derivedName(url.substring(slash + 1), suffix);
+    }
+
+    /**
+     * Decode with source subsampling to roughly twice the target size, then scale down
+     */
+    private BufferedImage readScaled(Path source, int maxSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scale(reader.read(0, param), maxSize);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fit within maxSize x maxSize on an opaque RGB canvas (JPEG has no alpha)
+     */
+    private static BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Write to a temp file and move it into place so /uploads never serves a partial image
+     */
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = target.resolveSibling(".thumb-" + UUID.randomUUID() + ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package apartment.example.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Invoice Number Sequence
+ *
+ * Allocates the N of INV-YYYYMMDD-N from one invoice_number_sequences row per date prefix.
+ * Each allocation is a single UPDATE ... SET next_value = next_value + :count, so manual
+ * invoices and billing runs on any replica draw from the same counter and never issue
+ * the same number twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceNumberSequence {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Reserve count consecutive numbers under the prefix and return the first.
+     * Runs in the caller's transaction if there is one: the row stays locked until it
+     * commits, and a rollback hands the numbers back.
+     */
+    @Transactional
+    public long reserve(String prefix, int count) {
+        MapSqlParameterSource params = new MapSqlParameterSource("prefix", prefix).addValue("count", count);
+        String advance = "UPDATE invoice_number_sequences SET next_value = next_value + :count WHERE prefix = :prefix";
+        if (jdbc.update(advance, params) == 0) {
+            // First use of the prefix: start after the highest number already issued under it.
+            // ON DUPLICATE KEY takes the row lock exclusively when another caller created it first.
+            jdbc.update("INSERT INTO invoice_number_sequences (prefix, next_value) " +
+                        "SELECT :prefix, COALESCE(MAX(CAST(SUBSTRING(invoice_number, CHAR_LENGTH(:prefix) + 1) " +
+                        "AS UNSIGNED)), 0) + 1 " +
+                        "FROM invoices WHERE invoice_number LIKE CONCAT(:prefix, '%') " +
+                        "ON DUPLICATE KEY UPDATE next_value = invoice_number_sequences.next_value",
+                    params);
+            jdbc.update(advance, params);
+        }
+        Long next = jdbc.queryForObject(
+                "SELECT next_value FROM invoice_number_sequences WHERE prefix = :prefix", params, Long.class);
+        return next - count;
+    }
+}
@@ -9,23 +9,29 @@ import apartment.example.backend.entity.enums.PaymentType;
 import apartment.example.backend.repository.InvoiceRepository;
 import apartment.example.backend.repository.LeaseRepository;
 import apartment.example.backend.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Invoice Service
@@ -33,8 +39,12 @@ import java.util.UUID;
  * Business logic for creating and managing invoices with payment line items
  */
 @Service
+@Slf4j
 public class InvoiceService {
 
+    // Largest page the invoice listings return
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private InvoiceRepository invoiceRepository;
 
@@ -46,9 +56,24 @@ public class InvoiceService {
 
     @Autowired
     private PaymentService paymentService;
-    
-    @Value("${file.upload-dir:uploads/payment-slips}")
-    private String uploadDir;
+
+    @Autowired
+    private ContentAddressedFileStore fileStore;
+
+    @Autowired
+    private ImageThumbnailService imageThumbnailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InvoiceNumberSequence invoiceNumberSequence;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Create an invoice with multiple payment line items
@@ -134,25 +159,18 @@ public class InvoiceService {
      * Example: INV-20251113-1, INV-20251113-2, etc.
      */
     private String generateInvoiceNumber(LocalDate invoiceDate) {
-        // Format date as YYYYMMDD
-        String dateStr = invoiceDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        
-        // Get count of invoices for this date
-        long count = invoiceRepository.countByInvoiceDate(invoiceDate);
-        
-        // Generate sequential number
-        long sequenceNumber = count + 1;
+        // Drawn from the same per-date counter as billing runs, so it never lands in a run's block
+        String prefix = invoiceNumberPrefix(invoiceDate);
         
         // Format: INV-YYYYMMDD-XXX
-        String invoiceNumber = String.format("INV-%s-%d", dateStr, sequenceNumber);
-        
-        // Check if exists (race condition protection)
-        while (invoiceRepository.existsByInvoiceNumber(invoiceNumber)) {
-            sequenceNumber++;
-            invoiceNumber = String.format("INV-%s-%d", dateStr, sequenceNumber);
-        }
-        
-        return invoiceNumber;
+        return prefix + invoiceNumberSequence.reserve(prefix, 1);
+    }
+
+    /**
+     * Invoice number prefix for a date: INV-YYYYMMDD-
+     */
+    static String invoiceNumberPrefix(LocalDate invoiceDate) {
+        return "INV-" + invoiceDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
     }
 
     /**
@@ -179,55 +197,123 @@ public class InvoiceService {
     }
 
     /**
-     * Get all invoices for a tenant by email
+     * Get all invoices for a lease including archived ones, newest first
+     * 
+     * Archived invoices are detached and carry their archived payment line items, so they
+     * can be serialized like live ones but are never written back.
+     */
+    @Transactional(readOnly = true)
+    public List<Invoice> getInvoiceHistoryByLeaseId(Long leaseId) {
+        List<Invoice> archived = invoiceRepository.findArchivedByLeaseId(leaseId);
+        if (!archived.isEmpty()) {
+            Map<Long, List<Payment>> lineItems = paymentRepository.findArchivedByInvoiceIds(
+                            archived.stream().map(Invoice::getId).toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(payment -> payment.getInvoice().getId()));
+            for (Invoice invoice : archived) {
+                entityManager.detach(invoice);
+                invoice.setPayments(new ArrayList<>(lineItems.getOrDefault(invoice.getId(), List.of())));
+            }
+        }
+
+        List<Invoice> history = new ArrayList<>(invoiceRepository.findByLeaseId(leaseId));
+        history.addAll(archived);
+        history.sort(Comparator.comparing(Invoice::getInvoiceDate).reversed());
+        return history;
+    }
+
+    /**
+     * Get a page of a tenant's invoices by email, newest first
+     * 
+     * after is the nextCursor of the previous page, null for the first page
      */
-    public List<Invoice> getInvoicesByTenantEmail(String tenantEmail) {
-        return invoiceRepository.findByTenantEmail(tenantEmail);
+    @Transactional(readOnly = true)
+    public InvoicePage getInvoicesByTenantEmail(String tenantEmail, String after, int size) {
+        int limit = pageSize(size);
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (after != null) {
+            String[] cursor = splitCursor(after);
+            afterDate = parseCursorValue(cursor[0], LocalDate::parse);
+            afterId = parseCursorValue(cursor[1], Long::valueOf);
+        }
+        List<Object[]> keys = invoiceRepository.findKeysByTenantEmail(tenantEmail, afterDate, afterId,
+                PageRequest.ofSize(limit + 1));
+        return toPage(keys, limit, last -> last[1] + "_" + last[0]);
     }
     
     /**
      * Upload payment slip for an invoice
+     * 
+     * The file is written before any transaction starts, so a slow upload does not hold a
+     * database connection; the invoice is re-read and updated in a short transaction after.
      */
-    @Transactional
     public Invoice uploadPaymentSlip(Long invoiceId, MultipartFile slipFile) {
-        Invoice invoice = getInvoiceById(invoiceId);
+        checkAcceptsPaymentSlip(getInvoiceById(invoiceId));
         
-        // Validate invoice status
-        if (invoice.getStatus() != Invoice.InvoiceStatus.PENDING && 
-            invoice.getStatus() != Invoice.InvoiceStatus.REJECTED) {
-            throw new RuntimeException("Invoice is not in a state that accepts payment slip uploads");
+        // Hash the file and hand it to the object storage before opening the metadata transaction.
+        // If the transaction fails, the unreferenced object is removed by blob garbage collection.
+        ContentAddressedFileStore.PendingBlob blob;
+        try {
+            blob = fileStore.stage(slipFile, "payment-slip");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload payment slip: " + e.getMessage());
         }
         
-        try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+        Invoice saved = transactionTemplate.execute(status -> {
+            // Re-check: the invoice may have changed while the file was being written
+            Invoice invoice = getInvoiceById(invoiceId);
+            checkAcceptsPaymentSlip(invoice);
             
-            // Generate unique filename
-            String originalFilename = slipFile.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                : ".jpg";
-            String filename = String.format("slip_%s_%s%s", 
-                invoiceId, 
-                UUID.randomUUID().toString(), 
-                extension);
-            
-            // Save file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(slipFile.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            String slipUrl = fileStore.commit(blob);
+            if (!slipUrl.equals(invoice.getSlipUrl())) {
+                fileStore.release(invoice.getSlipUrl());
+                invoice.setSlipThumbnailUrl(null);
+            } else {
+                // Same bytes uploaded again - the reference is already held
+                fileStore.release(slipUrl);
+            }
+            warnIfDuplicateSlip(invoice, slipUrl);
             
-            // Update invoice
-            invoice.setSlipUrl("/uploads/payment-slips/" + filename);
+            invoice.setSlipUrl(slipUrl);
             invoice.setSlipUploadedAt(LocalDateTime.now());
             invoice.setStatus(Invoice.InvoiceStatus.WAITING_VERIFICATION);
             
             return invoiceRepository.save(invoice);
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload payment slip: " + e.getMessage());
+        });
+        
+        // Preview and thumbnail are generated in the background after the commit
+        imageThumbnailService.processPaymentSlip(invoiceId, saved.getSlipUrl());
+        return saved;
+    }
+    
+    /**
+     * Identical bytes already attached to another invoice usually mean a re-used slip.
+     * Content addressing makes this an indexed lookup on slip_url instead of a file comparison.
+     */
+    private void warnIfDuplicateSlip(Invoice invoice, String slipUrl) {
+        List<Long> others = invoiceRepository.findIdsBySlipUrlAndIdNot(slipUrl, invoice.getId());
+        if (!others.isEmpty()) {
+            log.warn("Payment slip for invoice {} is identical to the slip of invoice(s) {}", invoice.getId(), others);
+            meterRegistry.counter("invoices.slips.duplicate").increment();
+        }
+    }
+    
+    /**
+     * Other invoices carrying the exact same payment slip file (Admin verification aid)
+     */
+    public List<Long> findInvoicesWithSameSlip(Long invoiceId) {
+        Invoice invoice = getInvoiceById(invoiceId);
+        if (invoice.getSlipUrl() == null || !fileStore.isBlobUrl(invoice.getSlipUrl())) {
+            return List.of();
+        }
+        return invoiceRepository.findIdsBySlipUrlAndIdNot(invoice.getSlipUrl(), invoiceId);
+    }
+    
+    private void checkAcceptsPaymentSlip(Invoice invoice) {
+        if (invoice.getStatus() != Invoice.InvoiceStatus.PENDING && 
+            invoice.getStatus() != Invoice.InvoiceStatus.REJECTED) {
+            throw new RuntimeException("Invoice is not in a state that accepts payment slip uploads");
         }
     }
     
@@ -265,24 +351,44 @@ public class InvoiceService {
     }
     
     /**
-     * Get all invoices waiting for verification
+     * Get a page of the invoices waiting for verification, latest slip first
      */
-    public List<Invoice> getInvoicesWaitingVerification() {
-        return invoiceRepository.findByStatus(Invoice.InvoiceStatus.WAITING_VERIFICATION);
+    @Transactional(readOnly = true)
+    public InvoicePage getInvoicesWaitingVerification(String after, int size) {
+        return getInvoicesByStatus(Invoice.InvoiceStatus.WAITING_VERIFICATION, after, size);
     }
     
     /**
-     * Get all paid invoices
+     * Get a page of the paid invoices, latest slip first and those paid without a slip last
      */
-    public List<Invoice> getPaidInvoices() {
-        return invoiceRepository.findByStatus(Invoice.InvoiceStatus.PAID);
+    @Transactional(readOnly = true)
+    public InvoicePage getPaidInvoices(String after, int size) {
+        return getInvoicesByStatus(Invoice.InvoiceStatus.PAID, after, size);
+    }
+
+    private InvoicePage getInvoicesByStatus(Invoice.InvoiceStatus status, String after, int size) {
+        int limit = pageSize(size);
+        LocalDateTime afterUploadedAt = null;
+        Long afterId = null;
+        if (after != null) {
+            String[] cursor = splitCursor(after);
+            afterUploadedAt = cursor[0].isEmpty() ? null : parseCursorValue(cursor[0], LocalDateTime::parse);
+            afterId = parseCursorValue(cursor[1], Long::valueOf);
+        }
+        List<Object[]> keys = invoiceRepository.findKeysByStatus(status, afterUploadedAt, afterId,
+                PageRequest.ofSize(limit + 1));
+        return toPage(keys, limit, last -> (last[1] != null ? last[1].toString() : "") + "_" + last[0]);
     }
     
     /**
-     * Delete an invoice
+     * Delete an invoice and drop its reference on the payment slip
      */
+    @Transactional
     public void deleteInvoice(Long invoiceId) {
-        invoiceRepository.deleteById(invoiceId);
+        invoiceRepository.findById(invoiceId).ifPresent(invoice -> {
+            fileStore.release(invoice.getSlipUrl());
+            invoiceRepository.delete(invoice);
+        });
     }
 
     /**
@@ -435,8 +541,62 @@ public class InvoiceService {
     /**
      * Get installment invoices for a parent invoice
      */
+    @Transactional(readOnly = true)
     public List<Invoice> getInstallmentInvoices(Long parentInvoiceId) {
-        return invoiceRepository.findByParentInvoiceId(parentInvoiceId);
+        return loadWithDetails(invoiceRepository.findIdsByParentInvoiceId(parentInvoiceId));
+    }
+
+    /**
+     * One page of invoices; nextCursor is null on the last page
+     */
+    public record InvoicePage(List<Invoice> invoices, String nextCursor) {
+    }
+
+    /**
+     * Build a page from up to limit + 1 keys ({id, sort value}) in listing order; the extra key
+     * only tells that there is a next page. The cursor comes from the last key read, so an
+     * invoice deleted before the second phase loads it does not move or break the cursor.
+     */
+    private InvoicePage toPage(List<Object[]> keys, int limit, Function<Object[], String> cursorOf) {
+        boolean hasNext = keys.size() > limit;
+        List<Object[]> page = hasNext ? keys.subList(0, limit) : keys;
+        List<Invoice> invoices = loadWithDetails(page.stream().map(key -> (Long) key[0]).toList());
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new InvoicePage(invoices, nextCursor);
+    }
+
+    /**
+     * Load invoices with lease, tenant, unit and payments in two queries, in the order of ids
+     */
+    private List<Invoice> loadWithDetails(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Invoice> byId = invoiceRepository.findWithLeaseByIdIn(ids).stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+        // Same persistence context: initializes the payments of the invoices loaded above
+        invoiceRepository.fetchPaymentsByIdIn(ids);
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static String[] splitCursor(String cursor) {
+        int separator = cursor.lastIndexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        return new String[]{cursor.substring(0, separator), cursor.substring(separator + 1)};
+    }
+
+    private static <T> T parseCursorValue(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor value: " + value, e);
+        }
     }
 
     /**
@@ -0,0 +1,337 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.ScheduledJobState;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.User;
+import apartment.example.backend.entity.enums.LeaseStatus;
+import apartment.example.backend.entity.enums.RentalRequestStatus;
+import apartment.example.backend.entity.enums.TenantStatus;
+import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.RentalRequestRepository;
+import apartment.example.backend.repository.ScheduledJobStateRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import apartment.example.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lease Expiration Job
+ *
+ * Nightly batch that expires ACTIVE leases past their end date (phase EXPIRE) and releases
+ * units of TERMINATED leases whose checkout date has passed (phase CHECKOUT). Leases are
+ * walked by id in chunks of lease-expiration.chunk-size; each chunk is locked, updated with
+ * bulk statements and committed on its own, together with the job's checkpoint in
+ * scheduled_job_state. Only the replica holding the job's lock runs it, and a run that
+ * crashes resumes after its last committed chunk.
+ */
+@Service
+@Slf4j
+public class LeaseExpirationJob {
+
+    static final String JOB_NAME = "lease-expiration";
+    static final String PHASE_EXPIRE = "EXPIRE";
+    static final String PHASE_CHECKOUT = "CHECKOUT";
+    static final String PHASE_DONE = "DONE";
+
+    private final LeaseRepository leaseRepository;
+    private final UnitRepository unitRepository;
+    private final UnitAuditRecorder unitAuditRecorder;
+    private final TenantRepository tenantRepository;
+    private final UserRepository userRepository;
+    private final RentalRequestRepository rentalRequestRepository;
+    private final ScheduledJobStateRepository jobStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final Duration lockTtl;
+    private final String owner;
+
+    public record Result(boolean ran, int processed, int failed) {
+    }
+
+    /**
+     * Thrown inside a chunk transaction when another replica has taken the job over
+     */
+    private static class LockLostException extends RuntimeException {
+        LockLostException() {
+            super("Lease expiration lock lost to another instance");
+        }
+    }
+
+    public LeaseExpirationJob(LeaseRepository leaseRepository,
+                              UnitRepository unitRepository,
+                              UnitAuditRecorder unitAuditRecorder,
+                              TenantRepository tenantRepository,
+                              UserRepository userRepository,
+                              RentalRequestRepository rentalRequestRepository,
+                              ScheduledJobStateRepository jobStateRepository,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${lease-expiration.chunk-size:200}") int chunkSize,
+                              @Value("${lease-expiration.lock-ttl:10m}") Duration lockTtl) {
+        this.leaseRepository = leaseRepository;
+        this.unitRepository = unitRepository;
+        this.unitAuditRecorder = unitAuditRecorder;
+        this.tenantRepository = tenantRepository;
+        this.userRepository = userRepository;
+        this.rentalRequestRepository = rentalRequestRepository;
+        this.jobStateRepository = jobStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.lockTtl = lockTtl;
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Daily run at 2 AM
+     */
+    @Scheduled(cron = "${lease-expiration.cron:0 0 2 * * *}")
+    public void runScheduled() {
+        try {
+            run(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Lease expiration job failed", e);
+        }
+    }
+
+    /**
+     * Run (or resume) the job for the given business date. Returns without doing anything
+     * when another instance holds the lock.
+     */
+    public Result run(LocalDate today) {
+        jobStateRepository.insertIfAbsent(JOB_NAME);
+        LocalDateTime now = LocalDateTime.now();
+        if (jobStateRepository.tryLock(JOB_NAME, owner, now.plus(lockTtl), now) == 0) {
+            log.info("Lease expiration job is running on another instance, skipping");
+            return new Result(false, 0, 0);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ScheduledJobState state = jobStateRepository.findById(JOB_NAME).orElseThrow();
+            String phase;
+            long lastId;
+            if (today.equals(state.getRunDate()) && state.getFinishedAt() == null && state.getPhase() != null) {
+                phase = state.getPhase();
+                lastId = state.getLastId();
+                log.info("=== Resuming lease expiration for {} in phase {} after lease #{} ===", today, phase, lastId);
+            } else {
+                jobStateRepository.startRun(JOB_NAME, owner, today, PHASE_EXPIRE, now);
+                phase = PHASE_EXPIRE;
+                lastId = 0;
+                log.info("=== Starting lease expiration for {} ===", today);
+            }
+
+            if (PHASE_EXPIRE.equals(phase)) {
+                drain(PHASE_EXPIRE, lastId, today);
+                checkpoint(PHASE_CHECKOUT, 0, 0, 0);
+                phase = PHASE_CHECKOUT;
+                lastId = 0;
+            }
+            if (PHASE_CHECKOUT.equals(phase)) {
+                drain(PHASE_CHECKOUT, lastId, today);
+            }
+            jobStateRepository.finishRun(JOB_NAME, owner, PHASE_DONE, LocalDateTime.now());
+
+            ScheduledJobState finished = jobStateRepository.findById(JOB_NAME).orElseThrow();
+            log.info("=== Completed lease expiration: {} lease(s) processed, {} failed ===",
+                    finished.getProcessed(), finished.getFailed());
+            return new Result(true, finished.getProcessed(), finished.getFailed());
+        } finally {
+            sample.stop(Timer.builder("leases.expiration.duration")
+                    .description("Duration of lease expiration job runs")
+                    .register(meterRegistry));
+            jobStateRepository.unlock(JOB_NAME, owner);
+        }
+    }
+
+    /**
+     * Process one phase chunk by chunk, starting after the given lease id
+     */
+    private void drain(String phase, long afterId, LocalDate today) {
+        long cursor = afterId;
+        List<Long> ids;
+        do {
+            ids = nextIds(phase, cursor, today);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> chunk = ids;
+            long chunkLastId = chunk.get(chunk.size() - 1);
+            int processed;
+            int failed = 0;
+            try {
+                processed = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                    int count = processChunk(phase, chunk, today);
+                    saveProgress(phase, chunkLastId, count, 0);
+                    return count;
+                }));
+            } catch (LockLostException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // One bad lease must not block the chunk: retry lease by lease and count the failures
+                log.warn("Lease expiration chunk after lease #{} failed, retrying one by one: {}", cursor, e.getMessage());
+                processed = 0;
+                for (Long leaseId : chunk) {
+                    try {
+                        processed += Objects.requireNonNull(
+                                transactionTemplate.execute(status -> processChunk(phase, List.of(leaseId), today)));
+                    } catch (RuntimeException leaseError) {
+                        failed++;
+                        log.error("Failed to process lease #{} in phase {}", leaseId, phase, leaseError);
+                    }
+                }
+                checkpoint(phase, chunkLastId, processed, failed);
+            }
+            countChunk(phase, processed, failed);
+            cursor = chunkLastId;
+        } while (ids.size() == chunkSize);
+    }
+
+    private List<Long> nextIds(String phase, long afterId, LocalDate today) {
+        PageRequest limit = PageRequest.of(0, chunkSize);
+        return PHASE_EXPIRE.equals(phase)
+                ? leaseRepository.findIdsByStatusAndEndDateBefore(LeaseStatus.ACTIVE, today, afterId, limit)
+                : leaseRepository.findOccupiedIdsByStatusAndEndDateBefore(LeaseStatus.TERMINATED, today, afterId, limit);
+    }
+
+    /**
+     * Lock the chunk's leases and apply the phase to them with bulk updates; runs in the
+     * caller's transaction and returns the number of leases changed
+     */
+    private int processChunk(String phase, List<Long> ids, LocalDate today) {
+        LocalDateTime now = LocalDateTime.now();
+        // Re-check under the lock: a lease may have changed since the id scan
+        List<Lease> leases = leaseRepository.findAllByIdInForUpdate(ids).stream()
+                .filter(lease -> isDue(phase, lease, today))
+                .toList();
+        if (leases.isEmpty()) {
+            return 0;
+        }
+
+        if (PHASE_EXPIRE.equals(phase)) {
+            leaseRepository.updateStatusByIdIn(ids(leases, Lease::getId), LeaseStatus.ACTIVE, LeaseStatus.EXPIRED, now);
+        }
+        // The bulk update bypasses the unit listener; the loaded units still hold their old status
+        leases.stream()
+                .map(Lease::getUnit)
+                .collect(Collectors.toMap(Unit::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new))
+                .values()
+                .forEach(unit -> unitAuditRecorder.statusChanged(unit, UnitStatus.AVAILABLE));
+        unitRepository.updateStatusByIdIn(ids(leases, lease -> lease.getUnit().getId()), UnitStatus.AVAILABLE, now);
+
+        // Tenants with no active lease left go back to USER and INACTIVE (multi-unit tenants keep VILLAGER)
+        Map<Long, Tenant> tenants = leases.stream()
+                .map(Lease::getTenant)
+                .collect(Collectors.toMap(Tenant::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        Set<Long> stillActive = new HashSet<>(
+                leaseRepository.findTenantIdsByTenantIdInAndStatus(tenants.keySet(), LeaseStatus.ACTIVE));
+        List<Tenant> released = tenants.values().stream()
+                .filter(tenant -> !stillActive.contains(tenant.getId()))
+                .toList();
+        if (!released.isEmpty()) {
+            releaseTenants(phase, released, now);
+        }
+
+        String source = PHASE_EXPIRE.equals(phase) ? "AUTO_EXPIRED" : "CHECKOUT_DATE_PASSED";
+        for (Lease lease : leases) {
+            log.info("[{}] Lease #{} for unit {} - Tenant: {} {}, Email: {}", source,
+                    lease.getId(), lease.getUnit().getRoomNumber(),
+                    lease.getTenant().getFirstName(), lease.getTenant().getLastName(),
+                    lease.getTenant().getEmail());
+        }
+        return leases.size();
+    }
+
+    private void releaseTenants(String phase, List<Tenant> tenants, LocalDateTime now) {
+        Set<String> emails = tenants.stream().map(Tenant::getEmail).collect(Collectors.toSet());
+        List<User> users = userRepository.findByEmailIn(emails);
+        if (!users.isEmpty()) {
+            List<Long> userIds = users.stream().map(User::getId).toList();
+            userRepository.updateRoleByIdIn(userIds, User.Role.VILLAGER, User.Role.USER);
+            rentalRequestRepository.updateStatusByUserIdIn(
+                    userIds, RentalRequestStatus.APPROVED, RentalRequestStatus.COMPLETED, now);
+        }
+        Set<String> found = users.stream().map(User::getEmail).collect(Collectors.toSet());
+        emails.stream()
+                .filter(email -> !found.contains(email))
+                .forEach(email -> log.warn("[{}] User not found for tenant email: {}", phase, email));
+        tenantRepository.updateStatusByIdIn(ids(tenants, Tenant::getId), TenantStatus.INACTIVE, now);
+    }
+
+    private boolean isDue(String phase, Lease lease, LocalDate today) {
+        if (!lease.getEndDate().isBefore(today)) {
+            return false;
+        }
+        return PHASE_EXPIRE.equals(phase)
+                ? lease.getStatus() == LeaseStatus.ACTIVE
+                : lease.getStatus() == LeaseStatus.TERMINATED && lease.getUnit().getStatus() == UnitStatus.OCCUPIED;
+    }
+
+    private static <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).distinct().toList();
+    }
+
+    /**
+     * Write the checkpoint and renew the lock in the current transaction
+     */
+    private void saveProgress(String phase, long lastId, int processed, int failed) {
+        int updated = jobStateRepository.saveProgress(JOB_NAME, owner, phase, lastId, processed, failed,
+                LocalDateTime.now().plus(lockTtl));
+        if (updated == 0) {
+            throw new LockLostException();
+        }
+    }
+
+    private void checkpoint(String phase, long lastId, int processed, int failed) {
+        transactionTemplate.executeWithoutResult(status -> saveProgress(phase, lastId, processed, failed));
+    }
+
+    private void countChunk(String phase, int processed, int failed) {
+        Counter.builder("leases.expiration.processed")
+                .description("Leases processed by the lease expiration job")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .increment(processed);
+        Counter.builder("leases.expiration.failed")
+                .description("Leases the lease expiration job failed to process")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .increment(failed);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
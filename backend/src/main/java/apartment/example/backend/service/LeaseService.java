@@ -18,8 +18,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -37,6 +37,7 @@ public class LeaseService {
     private final UserRepository userRepository;
     private final TenantRepository tenantRepository;
     private final RentalRequestRepository rentalRequestRepository;
+    private final LeaseExpirationJob leaseExpirationJob;
 
     public List<Lease> getAllLeases() {
         return leaseRepository.findAll();
@@ -47,7 +48,7 @@ public class LeaseService {
     }
 
     public Optional<Lease> getLeaseById(Long id) {
-        return leaseRepository.findById(id);
+        return leaseRepository.findWithTenantAndUnitById(id);
     }
 
     public List<Lease> getLeasesByStatus(LeaseStatus status) {
@@ -295,41 +296,14 @@ public class LeaseService {
         }
     }
 
-    @Scheduled(cron = "0 0 2 * * *")  // Run daily at 2 AM
-    @Transactional
+    /**
+     * Run the lease expiration job now (normally scheduled by LeaseExpirationJob).
+     * Not transactional: the job commits chunk by chunk.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void expireLeases() {
-        List<Lease> expiredLeases = getExpiredLeases();
-        log.info("Starting lease expiration job, found {} lease(s) to process", expiredLeases.size());
-        
-        for (Lease lease : expiredLeases) {
-            lease.setStatus(LeaseStatus.EXPIRED);
-            leaseRepository.save(lease);
-            
-            log.info("Expired lease #{} for unit {} - Tenant: {} {}, Email: {}", 
-                    lease.getId(), lease.getUnit().getRoomNumber(), 
-                    lease.getTenant().getFirstName(), lease.getTenant().getLastName(), 
-                    lease.getTenant().getEmail());
-            
-            // Use shared cleanup logic
-            performLeaseCleanup(lease, "AUTO_EXPIRED");
-        }
-        
-        log.info("Lease expiration job completed, processed {} lease(s)", expiredLeases.size());
-        
-        // Also process TERMINATED leases whose checkout date has passed
-        List<Lease> terminatedLeases = leaseRepository.findByStatusAndEndDateBefore(
-            LeaseStatus.TERMINATED, LocalDate.now());
-        
-        log.info("Processing {} terminated lease(s) past checkout date", terminatedLeases.size());
-        
-        for (Lease lease : terminatedLeases) {
-            // Check if unit is still occupied (might have been cleaned up already)
-            if (lease.getUnit().getStatus() == UnitStatus.OCCUPIED) {
-                log.info("Processing terminated lease #{} past checkout date {}", 
-                    lease.getId(), lease.getEndDate());
-                performLeaseCleanup(lease, "CHECKOUT_DATE_PASSED");
-            }
-        }
+        LeaseExpirationJob.Result result = leaseExpirationJob.run(LocalDate.now());
+        log.info("Lease expiration run: {}", result);
     }
 
     public Lease updateLease(Long id, Lease leaseDetails) {
@@ -0,0 +1,230 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.dto.MaintenanceCalendarDTO;
+import apartment.example.backend.dto.MaintenanceOccurrenceDTO;
+import apartment.example.backend.entity.MaintenanceSchedule;
+import apartment.example.backend.repository.MaintenanceScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maintenance Calendar Service
+ *
+ * Projects every date the active, unpaused schedules will fire over a date range by stepping
+ * each schedule's recurrence from its next trigger date, the same way a trigger advances it.
+ * The per-schedule sequences are merged lazily through a priority queue keyed on each
+ * schedule's next occurrence, so occurrences come out in date order without expanding and
+ * sorting every schedule up front.
+ *
+ * Calendars are cached per range and MaintenanceTriggerIndex version; the version moves with
+ * every schedule change committed on this instance. Cached calendars also expire after
+ * maintenance-calendar.ttl so changes made on other replicas show up.
+ */
+@Service
+@Slf4j
+public class MaintenanceCalendarService {
+
+    private record Range(LocalDate from, LocalDate to) {
+    }
+
+    /**
+     * One firing of a schedule
+     */
+    public record Occurrence(MaintenanceSchedule schedule, LocalDate date) {
+    }
+
+    private static final Comparator<Occurrence> BY_DATE = Comparator
+            .comparing(Occurrence::date)
+            .thenComparing(occurrence -> occurrence.schedule().getId());
+
+    private final MaintenanceScheduleRepository scheduleRepository;
+    private final MaintenanceTriggerIndex triggerIndex;
+    private final long maxRangeDays;
+    private final long ttlNanos;
+    private final Map<Range, MaintenanceCalendarDTO> cache;
+    // Guards the cache and the fields below; a lock rather than synchronized so virtual
+    // threads waiting on it do not pin their carrier
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private long cachedVersion = -1;
+    private long cachedAt;
+    // Bumped whenever the cache is cleared; a load that raced a clear does not keep its result
+    private long generation;
+
+    public MaintenanceCalendarService(MaintenanceScheduleRepository scheduleRepository,
+                                      MaintenanceTriggerIndex triggerIndex,
+                                      @Value("${maintenance-calendar.max-range-days:1830}") long maxRangeDays,
+                                      @Value("${maintenance-calendar.cache-size:32}") int cacheSize,
+                                      @Value("${maintenance-calendar.ttl:5m}") Duration ttl) {
+        this.scheduleRepository = scheduleRepository;
+        this.triggerIndex = triggerIndex;
+        this.maxRangeDays = maxRangeDays;
+        this.ttlNanos = ttl.toNanos();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Range, MaintenanceCalendarDTO> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Occurrences of all active schedules from one date to another, both inclusive, with the
+     * load per month
+     */
+    @Transactional(readOnly = true)
+    public MaintenanceCalendarDTO getCalendar(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Calendar end date is before its start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Calendar range exceeds " + maxRangeDays + " days");
+        }
+
+        Range range = new Range(from, to);
+        // Read before loading: a change committed meanwhile moves the version past this entry
+        long version = triggerIndex.version();
+        long loadGeneration;
+        cacheLock.lock();
+        try {
+            long now = System.nanoTime();
+            if (cachedVersion != version || now - cachedAt >= ttlNanos) {
+                cache.clear();
+                cachedVersion = version;
+                cachedAt = now;
+                generation++;
+            }
+            loadGeneration = generation;
+            MaintenanceCalendarDTO cached = cache.get(range);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+
+        List<MaintenanceSchedule> schedules = scheduleRepository.findByIsActiveTrueAndIsPausedFalse();
+        MaintenanceCalendarDTO calendar = toCalendar(from, to, occurrences(schedules, from, to));
+        log.info("Projected {} maintenance occurrence(s) of {} schedule(s) from {} to {}",
+                calendar.getTotalOccurrences(), schedules.size(), from, to);
+
+        cacheLock.lock();
+        try {
+            if (generation == loadGeneration) {
+                cache.put(range, calendar);
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+        return calendar;
+    }
+
+    /**
+     * Occurrences of the schedules from one date to another, both inclusive, in date order
+     * (schedule id within a date), computed as the stream is consumed
+     */
+    public static Stream<Occurrence> occurrences(List<MaintenanceSchedule> schedules, LocalDate from, LocalDate to) {
+        PriorityQueue<Occurrence> heads = new PriorityQueue<>(Math.max(1, schedules.size()), BY_DATE);
+        for (MaintenanceSchedule schedule : schedules) {
+            LocalDate first = firstOccurrence(schedule, from);
+            if (first != null && !first.isAfter(to)) {
+                heads.add(new Occurrence(schedule, first));
+            }
+        }
+
+        Iterator<Occurrence> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Occurrence next() {
+                Occurrence occurrence = heads.poll();
+                if (occurrence == null) {
+                    throw new NoSuchElementException();
+                }
+                LocalDate after = step(occurrence.schedule(), occurrence.date());
+                if (after != null && !after.isAfter(to)) {
+                    heads.add(new Occurrence(occurrence.schedule(), after));
+                }
+                return occurrence;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SORTED), false);
+    }
+
+    /**
+     * The schedule's first occurrence on or after the date; null when it will not fire again
+     * (a one-time schedule already run, or one past its end date)
+     */
+    private static LocalDate firstOccurrence(MaintenanceSchedule schedule, LocalDate from) {
+        LocalDate date = schedule.getNextTriggerDate();
+        if (date == null || (schedule.getLastTriggeredDate() != null && !date.isAfter(schedule.getLastTriggeredDate()))) {
+            return null;
+        }
+        while (date != null && date.isBefore(from)) {
+            date = step(schedule, date);
+        }
+        return date;
+    }
+
+    /**
+     * The occurrence after the given one; null when the recurrence does not move forward
+     */
+    private static LocalDate step(MaintenanceSchedule schedule, LocalDate date) {
+        LocalDate next = MaintenanceScheduleService.occurrenceAfter(schedule, date);
+        return next.isAfter(date) ? next : null;
+    }
+
+    private static MaintenanceCalendarDTO toCalendar(LocalDate from, LocalDate to, Stream<Occurrence> occurrences) {
+        Map<YearMonth, MaintenanceCalendarDTO.MonthLoad> months = new LinkedHashMap<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            months.put(month, new MaintenanceCalendarDTO.MonthLoad(month.toString(), 0, BigDecimal.ZERO));
+        }
+
+        List<MaintenanceOccurrenceDTO> items = new ArrayList<>();
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (Iterator<Occurrence> it = occurrences.iterator(); it.hasNext(); ) {
+            Occurrence occurrence = it.next();
+            MaintenanceSchedule schedule = occurrence.schedule();
+            BigDecimal cost = schedule.getEstimatedCost() != null ? schedule.getEstimatedCost() : BigDecimal.ZERO;
+
+            items.add(new MaintenanceOccurrenceDTO(
+                    occurrence.date(),
+                    schedule.getId(),
+                    schedule.getTitle(),
+                    schedule.getCategory() != null ? schedule.getCategory().name() : null,
+                    schedule.getPriority() != null ? schedule.getPriority().name() : null,
+                    schedule.getEstimatedCost()));
+
+            MaintenanceCalendarDTO.MonthLoad load = months.get(YearMonth.from(occurrence.date()));
+            load.setOccurrences(load.getOccurrences() + 1);
+            load.setEstimatedCost(load.getEstimatedCost().add(cost));
+            totalCost = totalCost.add(cost);
+        }
+
+        return new MaintenanceCalendarDTO(from, to, items, new ArrayList<>(months.values()), items.size(), totalCost);
+    }
+}
@@ -7,6 +7,7 @@ import apartment.example.backend.entity.MaintenanceSchedule;
 import apartment.example.backend.entity.User;
 import apartment.example.backend.repository.MaintenanceLogRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,9 +15,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,26 +26,37 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MaintenanceLogService {
 
+    private static final TypeReference<List<ScheduleDiff.Operation>> OPERATIONS = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {
+    };
+
+    // Fields the full-schedule records written before field-level diffs compared
+    private static final Set<String> LEGACY_FIELDS = Set.of("title", "description", "category", "recurrenceType",
+            "recurrenceInterval", "targetType", "targetUnits", "priority", "isActive", "isPaused");
+
     private final MaintenanceLogRepository logRepository;
     private final ObjectMapper objectMapper;
 
     /**
-     * Get logs by schedule ID
+     * Get logs by schedule ID, including archived logs
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceLogDTO> getLogsByScheduleId(Long scheduleId) {
         log.info("Fetching logs for schedule: {}", scheduleId);
-        return logRepository.findByScheduleIdOrderByCreatedAtDesc(scheduleId)
+        return logRepository.findHistoryByScheduleId(scheduleId)
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get logs by request ID
+     * Get logs by request ID, including archived logs
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceLogDTO> getLogsByRequestId(Long requestId) {
         log.info("Fetching logs for request: {}", requestId);
-        return logRepository.findByRequestIdOrderByCreatedAtDesc(requestId)
+        return logRepository.findHistoryByRequestId(requestId)
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -52,6 +65,7 @@ public class MaintenanceLogService {
     /**
      * Get recent logs
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceLogDTO> getRecentLogs() {
         log.info("Fetching recent logs");
         return logRepository.findTop100ByOrderByCreatedAtDesc()
@@ -75,37 +89,16 @@ public class MaintenanceLogService {
     }
 
     /**
-     * Log schedule updated
+     * Log schedule updated, recording only the fields that changed since the before snapshot
      */
     @Transactional
-    public void logScheduleUpdated(MaintenanceSchedule newSchedule, MaintenanceSchedule oldSchedule, User updatedBy) {
+    public void logScheduleUpdated(MaintenanceSchedule newSchedule, Map<String, Object> before, User updatedBy) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(newSchedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_UPDATED);
         logEntry.setActionDescription("Maintenance schedule updated: " + newSchedule.getTitle());
         logEntry.setCreatedBy(updatedBy);
-
-        // Track what changed
-        Map<String, Object> changes = new HashMap<>();
-        if (!oldSchedule.getTitle().equals(newSchedule.getTitle())) {
-            changes.put("title", Map.of("old", oldSchedule.getTitle(), "new", newSchedule.getTitle()));
-        }
-        if (oldSchedule.getCategory() != newSchedule.getCategory()) {
-            changes.put("category", Map.of("old", oldSchedule.getCategory(), "new", newSchedule.getCategory()));
-        }
-        if (oldSchedule.getIsActive() != newSchedule.getIsActive()) {
-            changes.put("isActive", Map.of("old", oldSchedule.getIsActive(), "new", newSchedule.getIsActive()));
-        }
-
-        try {
-            if (!changes.isEmpty()) {
-                logEntry.setPreviousValue(objectMapper.writeValueAsString(oldSchedule));
-                logEntry.setNewValue(objectMapper.writeValueAsString(newSchedule));
-            }
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing schedule changes", e);
-        }
-
+        recordChanges(logEntry, before, newSchedule);
         logRepository.save(logEntry);
         log.info("Logged schedule update: {}", newSchedule.getId());
     }
@@ -128,12 +121,13 @@ public class MaintenanceLogService {
      * Log schedule activated
      */
     @Transactional
-    public void logScheduleActivated(MaintenanceSchedule schedule, User user) {
+    public void logScheduleActivated(MaintenanceSchedule schedule, Map<String, Object> before, User user) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(schedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_ACTIVATED);
         logEntry.setActionDescription("Schedule activated: " + schedule.getTitle());
         logEntry.setCreatedBy(user);
+        recordChanges(logEntry, before, schedule);
         logRepository.save(logEntry);
     }
 
@@ -141,12 +135,13 @@ public class MaintenanceLogService {
      * Log schedule deactivated
      */
     @Transactional
-    public void logScheduleDeactivated(MaintenanceSchedule schedule, User user) {
+    public void logScheduleDeactivated(MaintenanceSchedule schedule, Map<String, Object> before, User user) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(schedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_DEACTIVATED);
         logEntry.setActionDescription("Schedule deactivated: " + schedule.getTitle());
         logEntry.setCreatedBy(user);
+        recordChanges(logEntry, before, schedule);
         logRepository.save(logEntry);
     }
 
@@ -154,12 +149,13 @@ public class MaintenanceLogService {
      * Log schedule paused
      */
     @Transactional
-    public void logSchedulePaused(MaintenanceSchedule schedule, User user) {
+    public void logSchedulePaused(MaintenanceSchedule schedule, Map<String, Object> before, User user) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(schedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_PAUSED);
         logEntry.setActionDescription("Schedule paused: " + schedule.getTitle());
         logEntry.setCreatedBy(user);
+        recordChanges(logEntry, before, schedule);
         logRepository.save(logEntry);
     }
 
@@ -167,12 +163,13 @@ public class MaintenanceLogService {
      * Log schedule resumed
      */
     @Transactional
-    public void logScheduleResumed(MaintenanceSchedule schedule, User user) {
+    public void logScheduleResumed(MaintenanceSchedule schedule, Map<String, Object> before, User user) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(schedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_RESUMED);
         logEntry.setActionDescription("Schedule resumed: " + schedule.getTitle());
         logEntry.setCreatedBy(user);
+        recordChanges(logEntry, before, schedule);
         logRepository.save(logEntry);
     }
 
@@ -180,12 +177,13 @@ public class MaintenanceLogService {
      * Log schedule triggered
      */
     @Transactional
-    public void logScheduleTriggered(MaintenanceSchedule schedule, User user) {
+    public void logScheduleTriggered(MaintenanceSchedule schedule, Map<String, Object> before, User user) {
         MaintenanceLog logEntry = new MaintenanceLog();
         logEntry.setSchedule(schedule);
         logEntry.setActionType(MaintenanceLog.ActionType.SCHEDULE_TRIGGERED);
         logEntry.setActionDescription("Schedule triggered: " + schedule.getTitle());
         logEntry.setCreatedBy(user);
+        recordChanges(logEntry, before, schedule);
         logRepository.save(logEntry);
     }
 
@@ -239,6 +237,72 @@ public class MaintenanceLogService {
         logRepository.save(logEntry);
     }
 
+    /**
+     * Rebuild the schedule's fields as they were at the given time, by undoing the changes
+     * logged after it, newest first. Empty when the schedule did not exist yet.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> reconstructSchedule(MaintenanceSchedule schedule, LocalDateTime at) {
+        if (schedule.getCreatedAt() != null && schedule.getCreatedAt().isAfter(at)) {
+            return Optional.empty();
+        }
+        Map<String, Object> snapshot = ScheduleDiff.snapshot(schedule);
+        for (MaintenanceLog logEntry : logRepository.findHistoryByScheduleId(schedule.getId())) {
+            if (!logEntry.getCreatedAt().isAfter(at)) {
+                break;
+            }
+            ScheduleDiff.apply(snapshot, undoOperations(logEntry));
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Store the changed fields as operations: newValue turns the old schedule into the new
+     * one, previousValue turns it back. A single changed field is also named in fieldName.
+     */
+    private void recordChanges(MaintenanceLog logEntry, Map<String, Object> before, MaintenanceSchedule schedule) {
+        Map<String, Object> after = ScheduleDiff.snapshot(schedule);
+        List<ScheduleDiff.Operation> changes = ScheduleDiff.diff(before, after);
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            logEntry.setNewValue(objectMapper.writeValueAsString(changes));
+            logEntry.setPreviousValue(objectMapper.writeValueAsString(ScheduleDiff.diff(after, before)));
+            if (changes.size() == 1) {
+                logEntry.setFieldName(changes.get(0).field());
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing schedule changes", e);
+        }
+    }
+
+    /**
+     * Operations undoing a logged schedule change. Older rows hold the whole old and new
+     * schedule instead; their differing fields (of those the update copied) are undone.
+     */
+    private List<ScheduleDiff.Operation> undoOperations(MaintenanceLog logEntry) {
+        String previous = logEntry.getPreviousValue();
+        if (previous == null || previous.isBlank()) {
+            return List.of();
+        }
+        try {
+            if (previous.trim().startsWith("[")) {
+                return objectMapper.readValue(previous, OPERATIONS);
+            }
+            if (previous.trim().startsWith("{") && logEntry.getNewValue() != null) {
+                Map<String, Object> oldFields = objectMapper.readValue(previous, FIELDS);
+                Map<String, Object> newFields = objectMapper.readValue(logEntry.getNewValue(), FIELDS);
+                oldFields.keySet().retainAll(LEGACY_FIELDS);
+                newFields.keySet().retainAll(LEGACY_FIELDS);
+                return ScheduleDiff.diff(newFields, oldFields);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable change record of maintenance log {}", logEntry.getId(), e);
+        }
+        return List.of();
+    }
+
     /**
      * Convert log entity to DTO
      */
@@ -19,12 +19,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MaintenanceNotificationService {
 
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
     private final MaintenanceNotificationRepository notificationRepository;
     private final UserRepository userRepository;
 
     /**
      * Get all notifications for a user
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceNotificationDTO> getNotificationsByUserId(Long userId) {
         log.info("Fetching notifications for user: {}", userId);
         return notificationRepository.findByUser_IdOrderByCreatedAtDesc(userId)
@@ -36,6 +39,7 @@ public class MaintenanceNotificationService {
     /**
      * Get unread notifications for a user
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceNotificationDTO> getUnreadNotificationsByUserId(Long userId) {
         log.info("Fetching unread notifications for user: {}", userId);
         return notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(userId)
@@ -242,11 +246,18 @@ public class MaintenanceNotificationService {
     /**
      * Delete old read notifications (cleanup)
      */
-    @Transactional
-    public void deleteOldReadNotifications(int daysOld) {
+    public int deleteOldReadNotifications(int daysOld) {
         log.info("Deleting read notifications older than {} days", daysOld);
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysOld);
-        notificationRepository.deleteOldReadNotifications(cutoffDate);
+        // Bounded batches, each committed on its own, instead of one long-running DELETE
+        int total = 0;
+        int deleted;
+        do {
+            deleted = notificationRepository.deleteReadBefore(cutoffDate, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+        log.info("Deleted {} read notifications", total);
+        return total;
     }
 
     /**
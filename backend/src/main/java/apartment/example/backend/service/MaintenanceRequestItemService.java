@@ -1,8 +1,12 @@
 package apartment.example.backend.service;
 
+import apartment.example.backend.entity.MaintenanceRequest;
+import apartment.example.backend.entity.MaintenanceRequest.RequestStatus;
 import apartment.example.backend.entity.MaintenanceRequestItem;
+import apartment.example.backend.entity.MaintenanceRequestItem.Status;
 import apartment.example.backend.entity.MaintenanceStock;
 import apartment.example.backend.repository.MaintenanceRequestItemRepository;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
 import apartment.example.backend.repository.MaintenanceStockRepository;
 import apartment.example.backend.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -10,12 +14,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
  * Service for managing maintenance request items (stock usage)
+ *
+ * Stock moves through single conditional UPDATEs on maintenance_stocks: items on open
+ * requests reserve stock, completing the request commits the reservation, cancelling or
+ * deleting it releases the reservation.
  */
 @Service
 @Slf4j
@@ -28,25 +41,22 @@ public class MaintenanceRequestItemService {
     private MaintenanceStockRepository stockRepository;
 
     @Autowired
-    private MaintenanceStockService stockService;
+    private MaintenanceRequestRepository requestRepository;
 
     /**
-     * Get all items for a maintenance request
+     * Get all items for a maintenance request, with stock details from the same query
      */
     public List<MaintenanceRequestItem> getItemsByRequestId(Long requestId) {
         log.info("Fetching items for maintenance request ID: {}", requestId);
-        List<MaintenanceRequestItem> items = itemRepository.findByMaintenanceRequestId(requestId);
-        
-        // Populate transient fields with stock data
-        items.forEach(item -> {
-            stockRepository.findById(item.getStockId()).ifPresent(stock -> {
-                item.setItemName(stock.getItemName());
-                item.setUnit(stock.getUnit());
-                item.setUnitPrice(stock.getUnitPrice());
-            });
-        });
-        
-        return items;
+        return itemRepository.findItemsWithStockByRequestId(requestId).stream()
+            .map(row -> {
+                MaintenanceRequestItem item = (MaintenanceRequestItem) row[0];
+                item.setItemName((String) row[1]);
+                item.setUnit((String) row[2]);
+                item.setUnitPrice((BigDecimal) row[3]);
+                return item;
+            })
+            .collect(Collectors.toList());
     }
 
     /**
@@ -56,20 +66,12 @@ public class MaintenanceRequestItemService {
     public MaintenanceRequestItem addItemToRequest(Long requestId, Long stockId, Integer quantity, String notes) {
         log.info("Adding item to request {}: stockId={}, quantity={}", requestId, stockId, quantity);
         
-        if (quantity <= 0) {
+        if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        // Verify stock exists and has enough quantity
-        MaintenanceStock stock = stockRepository.findById(stockId)
-            .orElseThrow(() -> new ResourceNotFoundException("Stock item not found with ID: " + stockId));
-
-        if (stock.getQuantity() < quantity) {
-            throw new IllegalArgumentException(
-                String.format("Insufficient stock. Available: %d %s, Requested: %d %s", 
-                    stock.getQuantity(), stock.getUnit(), quantity, stock.getUnit())
-            );
-        }
+        Status status = statusForNewItems(requestId);
+        takeStock(stockId, quantity, status);
 
         // Create the item record
         MaintenanceRequestItem item = new MaintenanceRequestItem();
@@ -77,32 +79,50 @@ public class MaintenanceRequestItemService {
         item.setStockId(stockId);
         item.setQuantityUsed(quantity);
         item.setNotes(notes);
+        item.setStatus(status);
         item.setCreatedAt(LocalDateTime.now());
 
         MaintenanceRequestItem savedItem = itemRepository.save(item);
 
-        // Reduce stock quantity
-        stockService.reduceStock(stockId, quantity);
-
-        log.info("Item added successfully and stock reduced");
+        log.info("Item added successfully ({})", status);
         return savedItem;
     }
 
     /**
-     * Add multiple items to a maintenance request
+     * Add multiple items to a maintenance request.
+     * Quantities are summed per stock row and each row is updated once, in id order so
+     * concurrent batches lock rows in the same sequence; any shortfall rolls back the batch.
      */
     @Transactional
     public List<MaintenanceRequestItem> addItemsToRequest(Long requestId, List<MaintenanceRequestItem> items) {
         log.info("Adding {} items to maintenance request ID: {}", items.size(), requestId);
-        
-        return items.stream()
-            .map(item -> addItemToRequest(
-                requestId, 
-                item.getStockId(), 
-                item.getQuantityUsed(), 
-                item.getNotes()
-            ))
+
+        Map<Long, Integer> quantityByStock = new TreeMap<>();
+        for (MaintenanceRequestItem item : items) {
+            if (item.getQuantityUsed() == null || item.getQuantityUsed() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantityByStock.merge(item.getStockId(), item.getQuantityUsed(), Integer::sum);
+        }
+
+        Status status = statusForNewItems(requestId);
+        quantityByStock.forEach((stockId, quantity) -> takeStock(stockId, quantity, status));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MaintenanceRequestItem> toSave = items.stream()
+            .map(source -> {
+                MaintenanceRequestItem item = new MaintenanceRequestItem();
+                item.setMaintenanceRequestId(requestId);
+                item.setStockId(source.getStockId());
+                item.setQuantityUsed(source.getQuantityUsed());
+                item.setNotes(source.getNotes());
+                item.setStatus(status);
+                item.setCreatedAt(now);
+                return item;
+            })
             .collect(Collectors.toList());
+
+        return itemRepository.saveAll(toSave);
     }
 
     /**
@@ -112,54 +132,50 @@ public class MaintenanceRequestItemService {
     public MaintenanceRequestItem updateItemQuantity(Long itemId, Integer newQuantity) {
         log.info("Updating item ID {} to quantity {}", itemId, newQuantity);
         
-        if (newQuantity <= 0) {
+        if (newQuantity == null || newQuantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
-        MaintenanceRequestItem item = itemRepository.findById(itemId)
+        MaintenanceRequestItem item = itemRepository.findForUpdateById(itemId)
             .orElseThrow(() -> new ResourceNotFoundException("Request item not found with ID: " + itemId));
 
+        if (item.getStatus() == Status.RELEASED) {
+            throw new IllegalArgumentException("Item belongs to a cancelled request and no longer holds stock");
+        }
+
         int quantityDifference = newQuantity - item.getQuantityUsed();
         
         if (quantityDifference != 0) {
-            // Verify stock availability if increasing quantity
             if (quantityDifference > 0) {
-                MaintenanceStock stock = stockRepository.findById(item.getStockId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Stock not found"));
-                
-                if (stock.getQuantity() < quantityDifference) {
-                    throw new IllegalArgumentException("Insufficient stock for quantity increase");
-                }
+                takeStock(item.getStockId(), quantityDifference, item.getStatus());
+            } else {
+                returnStock(item.getStockId(), -quantityDifference, item.getStatus());
             }
             
-            // Update stock quantity
-            stockService.updateStockQuantity(item.getStockId(), -quantityDifference);
-            
             // Update item quantity
             item.setQuantityUsed(newQuantity);
-            itemRepository.save(item);
+            item = itemRepository.save(item);
         }
 
         return item;
     }
 
     /**
-     * Remove item from request and restore stock
+     * Remove item from request and return its stock (release the reservation or restock a committed draw)
      */
     @Transactional
     public void removeItem(Long itemId) {
         log.info("Removing item ID: {}", itemId);
         
-        MaintenanceRequestItem item = itemRepository.findById(itemId)
+        MaintenanceRequestItem item = itemRepository.findForUpdateById(itemId)
             .orElseThrow(() -> new ResourceNotFoundException("Request item not found with ID: " + itemId));
 
-        // Restore stock quantity
-        stockService.addStock(item.getStockId(), item.getQuantityUsed());
+        returnStock(item.getStockId(), item.getQuantityUsed(), item.getStatus());
 
         // Delete the item
         itemRepository.deleteById(itemId);
         
-        log.info("Item removed and stock restored");
+        log.info("Item removed and stock returned");
     }
 
     /**
@@ -171,38 +187,145 @@ public class MaintenanceRequestItemService {
         
         List<MaintenanceRequestItem> items = itemRepository.findByMaintenanceRequestId(requestId);
         
-        // Restore stock for each item
+        // Return stock for each item
         items.forEach(item -> {
             try {
-                stockService.addStock(item.getStockId(), item.getQuantityUsed());
+                returnStock(item.getStockId(), item.getQuantityUsed(), item.getStatus());
             } catch (Exception e) {
-                log.error("Failed to restore stock for item {}: {}", item.getId(), e.getMessage());
+                log.error("Failed to return stock for item {}: {}", item.getId(), e.getMessage());
             }
         });
 
         // Delete all items
         itemRepository.deleteByMaintenanceRequestId(requestId);
         
-        log.info("All items removed and stock restored for request ID: {}", requestId);
+        log.info("All items removed and stock returned for request ID: {}", requestId);
+    }
+
+    /**
+     * Apply a request status change to its stock: completing draws the reserved stock,
+     * cancelling releases it. Other transitions keep the reservations as they are.
+     */
+    @Transactional
+    public void settleStockForStatus(Long requestId, RequestStatus newStatus) {
+        if (newStatus == RequestStatus.COMPLETED) {
+            commitReservations(requestId);
+        } else if (newStatus == RequestStatus.CANCELLED) {
+            releaseReservations(requestId);
+        }
     }
 
     /**
-     * Get total cost for items used in a request
+     * Draw every reserved item of a request from the on-hand quantity
      */
-    public java.math.BigDecimal calculateTotalCost(Long requestId) {
+    @Transactional
+    public void commitReservations(Long requestId) {
+        settleReservations(requestId, Status.COMMITTED);
+    }
+
+    /**
+     * Release every reserved item of a request (request cancelled or about to be deleted)
+     */
+    @Transactional
+    public void releaseReservations(Long requestId) {
+        settleReservations(requestId, Status.RELEASED);
+    }
+
+    private void settleReservations(Long requestId, Status target) {
+        // Row locks on the items make a second concurrent settle wait and then find nothing left to do
+        List<MaintenanceRequestItem> reserved = itemRepository.findForUpdateByRequestIdAndStatus(requestId, Status.RESERVED);
+        if (reserved.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> quantityByStock = new TreeMap<>();
+        reserved.forEach(item -> quantityByStock.merge(item.getStockId(), item.getQuantityUsed(), Integer::sum));
+
+        LocalDateTime now = LocalDateTime.now();
+        quantityByStock.forEach((stockId, quantity) -> {
+            int updated = target == Status.COMMITTED
+                ? stockRepository.commitReserved(stockId, quantity, now)
+                : stockRepository.release(stockId, quantity, now);
+            if (updated == 0) {
+                throw new IllegalStateException(String.format(
+                    "Stock %d does not hold a reservation of %d for request %d", stockId, quantity, requestId));
+            }
+        });
+
+        itemRepository.updateStatusByRequestId(requestId, Status.RESERVED, target);
+        log.info("{} reservations on {} stock rows for request ID: {}", target, quantityByStock.size(), requestId);
+    }
+
+    /**
+     * Items added to an open request reserve stock; items recorded against a
+     * completed request are drawn straight away. Cancelled requests take no items.
+     */
+    private Status statusForNewItems(Long requestId) {
+        MaintenanceRequest request = requestRepository.findForShareById(requestId)
+            .orElseThrow(() -> new ResourceNotFoundException("Maintenance request not found with ID: " + requestId));
+
+        if (request.getStatus() == RequestStatus.CANCELLED) {
+            throw new IllegalArgumentException("Cannot add items to a cancelled maintenance request");
+        }
+        return request.getStatus() == RequestStatus.COMPLETED ? Status.COMMITTED : Status.RESERVED;
+    }
+
+    private void takeStock(Long stockId, int quantity, Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = status == Status.COMMITTED
+            ? stockRepository.draw(stockId, quantity, now)
+            : stockRepository.reserve(stockId, quantity, now);
+
+        if (updated == 0) {
+            MaintenanceStock stock = stockRepository.findById(stockId)
+                .filter(found -> found.getDeletedAt() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock item not found with ID: " + stockId));
+            throw new IllegalArgumentException(
+                String.format("Insufficient stock. Available: %d %s, Requested: %d %s",
+                    stock.getAvailableQuantity(), stock.getUnit(), quantity, stock.getUnit())
+            );
+        }
+    }
+
+    private void returnStock(Long stockId, int quantity, Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (status) {
+            case RESERVED -> stockRepository.release(stockId, quantity, now);
+            case COMMITTED -> stockRepository.adjustQuantity(stockId, quantity, now);
+            case RELEASED -> 1; // already returned when the request was cancelled
+        };
+
+        if (updated == 0) {
+            throw new IllegalStateException(String.format(
+                "Could not return %d to stock %d (%s)", quantity, stockId, status));
+        }
+    }
+
+    /**
+     * Get total cost for items used in a request (released reservations excluded)
+     */
+    public BigDecimal calculateTotalCost(Long requestId) {
         log.info("Calculating total cost for request ID: {}", requestId);
-        
-        List<MaintenanceRequestItem> items = getItemsByRequestId(requestId);
-        
-        return items.stream()
-            .map(item -> {
-                if (item.getUnitPrice() != null) {
-                    return item.getUnitPrice().multiply(
-                        new java.math.BigDecimal(item.getQuantityUsed())
-                    );
-                }
-                return java.math.BigDecimal.ZERO;
-            })
-            .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
+        return itemRepository.sumCostByRequestId(requestId, Status.RELEASED);
+    }
+
+    /**
+     * Get total cost per request for many requests in one query; requests without items map to zero
+     */
+    public Map<Long, BigDecimal> calculateTotalCosts(Collection<Long> requestIds) {
+        log.info("Calculating total cost for {} requests", requestIds.size());
+
+        Map<Long, BigDecimal> costs = new LinkedHashMap<>();
+        requestIds.forEach(id -> costs.put(id, BigDecimal.ZERO));
+        if (requestIds.isEmpty()) {
+            return costs;
+        }
+
+        for (Object[] row : itemRepository.sumCostByRequestIds(requestIds, Status.RELEASED)) {
+            if (row[1] != null) {
+                costs.put((Long) row[0], (BigDecimal) row[1]);
+            }
+        }
+        return costs;
     }
 }
@@ -7,18 +7,14 @@ import apartment.example.backend.entity.MaintenanceRequest.RequestStatus;
 import apartment.example.backend.entity.MaintenanceLog;
 import apartment.example.backend.repository.MaintenanceRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class MaintenanceRequestService {
@@ -32,8 +28,20 @@ public class MaintenanceRequestService {
     @Autowired
     private MaintenanceNotificationService notificationService;
 
-    @Value("${file.maintenance-upload-dir:uploads/maintenance-attachments}")
-    private String uploadDir;
+    @Autowired
+    private MaintenanceRequestItemService itemService;
+
+    @Autowired
+    private ContentAddressedFileStore fileStore;
+
+    @Autowired
+    private ImageThumbnailService imageThumbnailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MaintenanceRequestStatsService statsService;
 
     // Create a new maintenance request
     public MaintenanceRequest createMaintenanceRequest(MaintenanceRequest request) {
@@ -111,42 +119,41 @@ public class MaintenanceRequestService {
 
 public MaintenanceRequest updateMaintenanceRequest(Long id, MaintenanceRequest requestDetailsFromFrontend) {
     
-    // 1. ดึงข้อมูลเก่าที่มีอยู่จาก Database ขึ้นมาก่อน
-    MaintenanceRequest existingRequest = maintenanceRequestRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("Request not found with id: " + id));
-
-    // เก็บ status เดิมเพื่อตรวจสอบการเปลี่ยนแปลง
-    RequestStatus oldStatus = existingRequest.getStatus();
+    // 1. ดึงข้อมูลเก่าที่มีอยู่จาก Database ขึ้นมาก่อน แล้วบันทึกพร้อมปรับ stock ใน transaction เดียวกัน
+    StatusChange change = changeStatus(id, "Request not found with id: " + id, existingRequest -> {
+        RequestStatus oldStatus = existingRequest.getStatus();
     
-    // 2. อัปเดตเฉพาะ field ที่ได้รับมาจากฟอร์มเท่านั้น
-    // ใช้ if ตรวจสอบเพื่อป้องกันการเขียนทับ field สำคัญด้วยค่า null
-    if (requestDetailsFromFrontend.getTitle() != null) {
-        existingRequest.setTitle(requestDetailsFromFrontend.getTitle());
-    }
-    if (requestDetailsFromFrontend.getDescription() != null) {
-        existingRequest.setDescription(requestDetailsFromFrontend.getDescription());
-    }
-    if (requestDetailsFromFrontend.getPriority() != null) {
-        existingRequest.setPriority(requestDetailsFromFrontend.getPriority());
-    }
-    if (requestDetailsFromFrontend.getCategory() != null) {
-        existingRequest.setCategory(requestDetailsFromFrontend.getCategory());
-    }
-    if (requestDetailsFromFrontend.getStatus() != null) {
-        existingRequest.setStatus(requestDetailsFromFrontend.getStatus());
+        // 2. อัปเดตเฉพาะ field ที่ได้รับมาจากฟอร์มเท่านั้น
+        // ใช้ if ตรวจสอบเพื่อป้องกันการเขียนทับ field สำคัญด้วยค่า null
+        if (requestDetailsFromFrontend.getTitle() != null) {
+            existingRequest.setTitle(requestDetailsFromFrontend.getTitle());
+        }
+        if (requestDetailsFromFrontend.getDescription() != null) {
+            existingRequest.setDescription(requestDetailsFromFrontend.getDescription());
+        }
+        if (requestDetailsFromFrontend.getPriority() != null) {
+            existingRequest.setPriority(requestDetailsFromFrontend.getPriority());
+        }
+        if (requestDetailsFromFrontend.getCategory() != null) {
+            existingRequest.setCategory(requestDetailsFromFrontend.getCategory());
+        }
+        if (requestDetailsFromFrontend.getStatus() != null) {
+            existingRequest.setStatus(requestDetailsFromFrontend.getStatus());
         
-        // ถ้า status เปลี่ยนเป็น COMPLETED ให้บันทึกวันที่เสร็จสิ้น
-        if (requestDetailsFromFrontend.getStatus() == RequestStatus.COMPLETED && oldStatus != RequestStatus.COMPLETED) {
-            existingRequest.setCompletedDate(LocalDateTime.now());
+            // ถ้า status เปลี่ยนเป็น COMPLETED ให้บันทึกวันที่เสร็จสิ้น
+            if (requestDetailsFromFrontend.getStatus() == RequestStatus.COMPLETED && oldStatus != RequestStatus.COMPLETED) {
+                existingRequest.setCompletedDate(LocalDateTime.now());
+            }
         }
-    }
-    if (requestDetailsFromFrontend.getPreferredTime() != null) {
-        existingRequest.setPreferredTime(requestDetailsFromFrontend.getPreferredTime());
-    }
-    // เพิ่ม field อื่นๆ ที่คุณอนุญาตให้แก้ไขได้จากฟอร์ม...
+        if (requestDetailsFromFrontend.getPreferredTime() != null) {
+            existingRequest.setPreferredTime(requestDetailsFromFrontend.getPreferredTime());
+        }
+        // เพิ่ม field อื่นๆ ที่คุณอนุญาตให้แก้ไขได้จากฟอร์ม...
+    });
 
-    // 3. บันทึกอ็อบเจกต์ที่อัปเดตแล้วกลับลง Database
-    MaintenanceRequest saved = maintenanceRequestRepository.save(existingRequest);
+    // 3. อ็อบเจกต์ที่อัปเดตแล้วถูกบันทึกลง Database ใน changeStatus
+    MaintenanceRequest saved = change.request();
+    RequestStatus oldStatus = change.oldStatus();
     
     // 4. ถ้ามีการเปลี่ยน status ให้ส่ง notification และบันทึก log
     if (requestDetailsFromFrontend.getStatus() != null && oldStatus != requestDetailsFromFrontend.getStatus()) {
@@ -193,47 +200,45 @@ public MaintenanceRequest updateMaintenanceRequest(Long id, MaintenanceRequest r
 
     // Update status of maintenance request
     public MaintenanceRequest updateRequestStatus(Long id, RequestStatus status, String notes) {
-        return maintenanceRequestRepository.findById(id)
-                .map(request -> {
-                    RequestStatus oldStatus = request.getStatus();
-                    request.setStatus(status);
-                    if (notes != null && !notes.trim().isEmpty()) {
-                        request.setCompletionNotes(notes);
-                    }
-                    if (status == RequestStatus.COMPLETED) {
-                        request.setCompletedDate(LocalDateTime.now());
-                    }
-                    MaintenanceRequest saved = maintenanceRequestRepository.save(request);
-                    
-                    // Log status change (pass null for user since we don't have security context here)
-                    try {
-                        logService.logRequestStatusChanged(saved, oldStatus.toString(), status.toString(), null);
-                    } catch (Exception e) {
-                        // Log error but don't fail the operation
-                        System.err.println("Failed to log status change: " + e.getMessage());
-                    }
-                    
-                    // Send notification to user on status change
-                    try {
-                        Long userId = saved.getCreatedByUserId();
-                        
-                        if (userId != null) {
-                            // Send different notification based on status
-                            if (status == RequestStatus.COMPLETED) {
-                                notificationService.notifyMaintenanceCompleted(saved, userId);
-                            } else if (status == RequestStatus.APPROVED || status == RequestStatus.IN_PROGRESS) {
-                                notificationService.notifyStatusChanged(saved, userId, status.toString());
-                            } else if (status == RequestStatus.CANCELLED) {
-                                notificationService.notifyStatusChanged(saved, userId, "CANCELLED");
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to send status change notification: " + e.getMessage());
-                    }
-                    
-                    return saved;
-                })
-                .orElseThrow(() -> new RuntimeException("Maintenance request not found"));
+        StatusChange change = changeStatus(id, "Maintenance request not found", request -> {
+            request.setStatus(status);
+            if (notes != null && !notes.trim().isEmpty()) {
+                request.setCompletionNotes(notes);
+            }
+            if (status == RequestStatus.COMPLETED) {
+                request.setCompletedDate(LocalDateTime.now());
+            }
+        });
+        MaintenanceRequest saved = change.request();
+        RequestStatus oldStatus = change.oldStatus();
+        
+        // Log status change (pass null for user since we don't have security context here)
+        try {
+            logService.logRequestStatusChanged(saved, oldStatus.toString(), status.toString(), null);
+        } catch (Exception e) {
+            // Log error but don't fail the operation
+            System.err.println("Failed to log status change: " + e.getMessage());
+        }
+        
+        // Send notification to user on status change
+        try {
+            Long userId = saved.getCreatedByUserId();
+            
+            if (userId != null) {
+                // Send different notification based on status
+                if (status == RequestStatus.COMPLETED) {
+                    notificationService.notifyMaintenanceCompleted(saved, userId);
+                } else if (status == RequestStatus.APPROVED || status == RequestStatus.IN_PROGRESS) {
+                    notificationService.notifyStatusChanged(saved, userId, status.toString());
+                } else if (status == RequestStatus.CANCELLED) {
+                    notificationService.notifyStatusChanged(saved, userId, "CANCELLED");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to send status change notification: " + e.getMessage());
+        }
+        
+        return saved;
     }
 
     // Update priority of maintenance request
@@ -248,139 +253,150 @@ public MaintenanceRequest updateMaintenanceRequest(Long id, MaintenanceRequest r
 
     // Complete maintenance request
     public MaintenanceRequest completeMaintenanceRequest(Long id, String completionNotes) {
-        return maintenanceRequestRepository.findById(id)
-                .map(request -> {
-                    RequestStatus oldStatus = request.getStatus();
-                    request.setStatus(RequestStatus.COMPLETED);
-                    request.setCompletedDate(LocalDateTime.now());
-                    request.setCompletionNotes(completionNotes);
-                    MaintenanceRequest saved = maintenanceRequestRepository.save(request);
-                    
-                    // Log completion (pass null for user since we don't have security context here)
-                    try {
-                        logService.logRequestStatusChanged(saved, oldStatus.toString(), "COMPLETED", null);
-                    } catch (Exception e) {
-                        // Log error but don't fail the operation
-                        System.err.println("Failed to log completion: " + e.getMessage());
-                    }
-                    
-                    // Send notification to user (creator)
-                    try {
-                        Long userId = saved.getCreatedByUserId();
-                        
-                        if (userId != null) {
-                            notificationService.notifyMaintenanceCompleted(saved, userId);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to send completion notification: " + e.getMessage());
-                    }
-                    
-                    return saved;
-                })
-                .orElseThrow(() -> new RuntimeException("Maintenance request not found"));
+        // Saving COMPLETED draws the stock reserved by the request's items
+        StatusChange change = changeStatus(id, "Maintenance request not found", request -> {
+            request.setStatus(RequestStatus.COMPLETED);
+            request.setCompletedDate(LocalDateTime.now());
+            request.setCompletionNotes(completionNotes);
+        });
+        MaintenanceRequest saved = change.request();
+        RequestStatus oldStatus = change.oldStatus();
+        
+        // Log completion (pass null for user since we don't have security context here)
+        try {
+            logService.logRequestStatusChanged(saved, oldStatus.toString(), "COMPLETED", null);
+        } catch (Exception e) {
+            // Log error but don't fail the operation
+            System.err.println("Failed to log completion: " + e.getMessage());
+        }
+        
+        // Send notification to user (creator)
+        try {
+            Long userId = saved.getCreatedByUserId();
+            
+            if (userId != null) {
+                notificationService.notifyMaintenanceCompleted(saved, userId);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to send completion notification: " + e.getMessage());
+        }
+        
+        return saved;
     }
 
     // Reject maintenance request
     public MaintenanceRequest rejectMaintenanceRequest(Long id, String rejectionReason) {
-        return maintenanceRequestRepository.findById(id)
-                .map(request -> {
-                    request.setStatus(RequestStatus.CANCELLED);
-                    request.setCompletionNotes(rejectionReason);
-                    return maintenanceRequestRepository.save(request);
-                })
-                .orElseThrow(() -> new RuntimeException("Maintenance request not found"));
+        // Saving CANCELLED releases the stock reserved by the request's items
+        return changeStatus(id, "Maintenance request not found", request -> {
+            request.setStatus(RequestStatus.CANCELLED);
+            request.setCompletionNotes(rejectionReason);
+        }).request();
+    }
+
+    /**
+     * Apply an update to a request and settle its items' stock in one transaction, so a
+     * failed settle rolls the status back with it. Settling follows the items' own state
+     * (only RESERVED items are drawn or released), so it runs on every save and a retry
+     * of a half-applied change still finishes it.
+     * The request row is locked first, the same order addItemToRequest takes (request,
+     * then stock and items), so the two cannot deadlock.
+     */
+    private StatusChange changeStatus(Long id, String notFoundMessage, Consumer<MaintenanceRequest> update) {
+        return transactionTemplate.execute(status -> {
+            MaintenanceRequest request = maintenanceRequestRepository.findForUpdateById(id)
+                    .orElseThrow(() -> new RuntimeException(notFoundMessage));
+            RequestStatus oldStatus = request.getStatus();
+            update.accept(request);
+            MaintenanceRequest saved = maintenanceRequestRepository.save(request);
+            itemService.settleStockForStatus(saved.getId(), saved.getStatus());
+            return new StatusChange(saved, oldStatus);
+        });
+    }
+
+    private record StatusChange(MaintenanceRequest request, RequestStatus oldStatus) {
     }
 
     // Delete maintenance request
     public void deleteMaintenanceRequest(Long id) {
-        maintenanceRequestRepository.deleteById(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Lock the request before its items, like changeStatus; items are removed by
+            // ON DELETE CASCADE, so hand their reservations back first
+            maintenanceRequestRepository.findForUpdateById(id).ifPresent(request -> {
+                itemService.releaseReservations(id);
+                if (request.getAttachmentUrls() != null && !request.getAttachmentUrls().isEmpty()) {
+                    Arrays.stream(request.getAttachmentUrls().split(",")).forEach(fileStore::release);
+                }
+                maintenanceRequestRepository.delete(request);
+            });
+        });
     }
 
-    // Get maintenance request statistics
+    // Get maintenance request statistics (total and per status)
     public Map<String, Long> getMaintenanceRequestStats() {
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("TOTAL", (long) maintenanceRequestRepository.findAll().size());
-        stats.put("NOT_SUBMITTED", maintenanceRequestRepository.countByStatus(RequestStatus.NOT_SUBMITTED));
-        stats.put("SUBMITTED", maintenanceRequestRepository.countByStatus(RequestStatus.SUBMITTED));
-        stats.put("WAITING_FOR_REPAIR", maintenanceRequestRepository.countByStatus(RequestStatus.WAITING_FOR_REPAIR));
-        stats.put("APPROVED", maintenanceRequestRepository.countByStatus(RequestStatus.APPROVED));
-        stats.put("IN_PROGRESS", maintenanceRequestRepository.countByStatus(RequestStatus.IN_PROGRESS));
-        stats.put("COMPLETED", maintenanceRequestRepository.countByStatus(RequestStatus.COMPLETED));
-        stats.put("CANCELLED", maintenanceRequestRepository.countByStatus(RequestStatus.CANCELLED));
-        return stats;
+        return statsService.getStatusStats();
+    }
+
+    // Get request counts by status, priority and category
+    public Map<String, Map<String, Map<String, Long>>> getStatsBreakdown() {
+        return statsService.getBreakdown();
     }
 
     /**
      * Upload attachments for a maintenance request
+     *
+     * Files are stored before any transaction starts; the attachment URLs are then
+     * appended in a short transaction so a slow upload never holds a database connection.
      */
-    @Transactional
     public MaintenanceRequest uploadAttachments(Long requestId, MultipartFile[] files) {
-        MaintenanceRequest request = getMaintenanceRequestById(requestId)
-                .orElseThrow(() -> new RuntimeException("Maintenance request not found"));
+        if (!maintenanceRequestRepository.existsById(requestId)) {
+            throw new RuntimeException("Maintenance request not found");
+        }
 
+        // Hash each file and hand it to the object storage before opening the metadata transaction.
+        // If anything fails later, unreferenced objects are removed by blob garbage collection.
+        List<ContentAddressedFileStore.PendingBlob> blobs = new ArrayList<>();
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            List<String> fileUrls = new ArrayList<>();
-
-            // Save each file
             for (MultipartFile file : files) {
                 if (!file.isEmpty()) {
-                    // Generate unique filename
-                    String originalFilename = file.getOriginalFilename();
-                    String extension = originalFilename != null && originalFilename.contains(".")
-                            ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                            : "";
-                    String filename = String.format("maintenance_%s_%s%s",
-                            requestId,
-                            UUID.randomUUID().toString(),
-                            extension);
-
-                    // Save file
-                    Path filePath = uploadPath.resolve(filename);
-                    Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-                    // Add URL to list
-                    fileUrls.add("/uploads/maintenance-attachments/" + filename);
+                    blobs.add(fileStore.stage(file, "maintenance-attachment"));
                 }
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload attachments: " + e.getMessage());
+        }
+
+        List<String> fileUrls = new ArrayList<>();
+        MaintenanceRequest saved = transactionTemplate.execute(status -> {
+            MaintenanceRequest request = getMaintenanceRequestById(requestId)
+                    .orElseThrow(() -> new RuntimeException("Maintenance request not found"));
+
+            blobs.forEach(blob -> fileUrls.add(fileStore.commit(blob)));
 
             // Update request with file URLs
             if (!fileUrls.isEmpty()) {
+                List<String> urls = new ArrayList<>(fileUrls);
                 String existingUrls = request.getAttachmentUrls();
                 if (existingUrls != null && !existingUrls.isEmpty()) {
-                    fileUrls.add(0, existingUrls);
+                    urls.add(0, existingUrls);
                 }
-                request.setAttachmentUrls(String.join(",", fileUrls));
+                request.setAttachmentUrls(String.join(",", urls));
             }
 
             return maintenanceRequestRepository.save(request);
+        });
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload attachments: " + e.getMessage());
-        }
+        // Previews and thumbnails are generated in the background after the commit
+        imageThumbnailService.processMaintenanceAttachments(requestId, fileUrls.stream().distinct().toList());
+        return saved;
     }
 
     // Get statistics by priority
     public Map<String, Long> getStatsByPriority() {
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("LOW", maintenanceRequestRepository.countByPriority(Priority.LOW));
-        stats.put("MEDIUM", maintenanceRequestRepository.countByPriority(Priority.MEDIUM));
-        stats.put("HIGH", maintenanceRequestRepository.countByPriority(Priority.HIGH));
-        stats.put("URGENT", maintenanceRequestRepository.countByPriority(Priority.URGENT));
-        return stats;
+        return statsService.getPriorityStats();
     }
 
     // Get statistics by category
     public Map<String, Long> getStatsByCategory() {
-        Map<String, Long> stats = new HashMap<>();
-        for (Category category : Category.values()) {
-            stats.put(category.name(), maintenanceRequestRepository.countByCategory(category));
-        }
-        return stats;
+        return statsService.getCategoryStats();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Maintenance Request Stats Listener
+ *
+ * Hibernate event listener that drops the cached maintenance request counts when a
+ * transaction inserting or deleting a request, or changing its status, priority or category,
+ * commits. Updates to other columns leave the counts alone.
+ */
+@Component
+public class MaintenanceRequestStatsListener implements PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Set<String> COUNTED_PROPERTIES = Set.of("status", "priority", "category");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MaintenanceRequestStatsService statsService;
+
+    public MaintenanceRequestStatsListener(EntityManagerFactory entityManagerFactory,
+                                           MaintenanceRequestStatsService statsService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.statsService = statsService;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof MaintenanceRequest) {
+            statsService.invalidateAfterCommit();
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof MaintenanceRequest && changesCounts(event)) {
+            statsService.invalidateAfterCommit();
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof MaintenanceRequest) {
+            statsService.invalidateAfterCommit();
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static boolean changesCounts(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        // No dirty properties when the request was updated without being loaded first
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (COUNTED_PROPERTIES.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
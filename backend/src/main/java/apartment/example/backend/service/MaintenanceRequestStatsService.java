@@ -0,0 +1,248 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceRequest.Category;
+import apartment.example.backend.entity.MaintenanceRequest.Priority;
+import apartment.example.backend.entity.MaintenanceRequest.RequestStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Maintenance Request Stats Service
+ *
+ * Request counts by status, priority and category, read with a single GROUP BY ... WITH
+ * ROLLUP over maintenance_requests. The detail rows give every status x priority x category
+ * cell, from which the priority and category totals are summed; the rollup rows give the
+ * status totals and the grand total.
+ *
+ * The counts are cached for maintenance-stats.ttl and dropped as soon as a transaction that
+ * wrote a maintenance request commits (see MaintenanceRequestStatsListener). The same counts
+ * are published as the maintenance.requests gauges, which read the cache.
+ */
+@Service
+@Slf4j
+public class MaintenanceRequestStatsService {
+
+    private static final String COUNT_BY_STATUS_PRIORITY_CATEGORY =
+            "SELECT status, priority, category, COUNT(*) AS requests, " +
+            "       GROUPING(status) AS all_statuses, GROUPING(priority) AS all_priorities, " +
+            "       GROUPING(category) AS all_categories " +
+            "FROM maintenance_requests " +
+            "GROUP BY status, priority, category WITH ROLLUP";
+
+    /**
+     * Counts as of one read; cells are indexed by status, priority and category ordinal
+     */
+    public record Counts(long total, long[] byStatus, long[][][] cells, long generation, long loadedAtNanos) {
+
+        public long count(RequestStatus status, Priority priority, Category category) {
+            return cells[status.ordinal()][priority.ordinal()][category.ordinal()];
+        }
+
+        public long byStatus(RequestStatus status) {
+            return byStatus[status.ordinal()];
+        }
+
+        public long byPriority(Priority priority) {
+            long sum = 0;
+            for (long[][] status : cells) {
+                for (long count : status[priority.ordinal()]) {
+                    sum += count;
+                }
+            }
+            return sum;
+        }
+
+        public long byCategory(Category category) {
+            long sum = 0;
+            for (long[][] status : cells) {
+                for (long[] priority : status) {
+                    sum += priority[category.ordinal()];
+                }
+            }
+            return sum;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Duration ttl;
+    private final AtomicLong generation = new AtomicLong();
+    // One load at a time; a lock rather than synchronized so a virtual thread waiting on the
+    // query does not pin its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Counts cached;
+
+    public MaintenanceRequestStatsService(NamedParameterJdbcTemplate jdbc,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${maintenance-stats.ttl:30s}") Duration ttl) {
+        this.jdbc = jdbc;
+        this.ttl = ttl;
+
+        Gauge.builder("maintenance.requests", this, stats -> stats.gauge(Counts::total))
+                .description("Maintenance requests")
+                .register(meterRegistry);
+        for (RequestStatus status : RequestStatus.values()) {
+            Gauge.builder("maintenance.requests.by.status", this, stats -> stats.gauge(c -> c.byStatus(status)))
+                    .description("Maintenance requests by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        for (Priority priority : Priority.values()) {
+            Gauge.builder("maintenance.requests.by.priority", this, stats -> stats.gauge(c -> c.byPriority(priority)))
+                    .description("Maintenance requests by priority")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+        }
+        for (Category category : Category.values()) {
+            Gauge.builder("maintenance.requests.by.category", this, stats -> stats.gauge(c -> c.byCategory(category)))
+                    .description("Maintenance requests by category")
+                    .tag("category", category.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Current counts, from the cache while it is fresh
+     */
+    public Counts getCounts() {
+        Counts counts = cached;
+        if (counts != null && isFresh(counts)) {
+            return counts;
+        }
+        loadLock.lock();
+        try {
+            counts = cached;
+            if (counts != null && isFresh(counts)) {
+                return counts;
+            }
+            counts = load();
+            cached = counts;
+            return counts;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Total and per-status counts, every status included
+     */
+    public Map<String, Long> getStatusStats() {
+        Counts counts = getCounts();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("TOTAL", counts.total());
+        for (RequestStatus status : RequestStatus.values()) {
+            stats.put(status.name(), counts.byStatus(status));
+        }
+        return stats;
+    }
+
+    public Map<String, Long> getPriorityStats() {
+        Counts counts = getCounts();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (Priority priority : Priority.values()) {
+            stats.put(priority.name(), counts.byPriority(priority));
+        }
+        return stats;
+    }
+
+    public Map<String, Long> getCategoryStats() {
+        Counts counts = getCounts();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (Category category : Category.values()) {
+            stats.put(category.name(), counts.byCategory(category));
+        }
+        return stats;
+    }
+
+    /**
+     * Non-zero counts nested by status, then priority, then category
+     */
+    public Map<String, Map<String, Map<String, Long>>> getBreakdown() {
+        Counts counts = getCounts();
+        Map<String, Map<String, Map<String, Long>>> breakdown = new LinkedHashMap<>();
+        for (RequestStatus status : RequestStatus.values()) {
+            for (Priority priority : Priority.values()) {
+                for (Category category : Category.values()) {
+                    long count = counts.count(status, priority, category);
+                    if (count > 0) {
+                        breakdown.computeIfAbsent(status.name(), s -> new LinkedHashMap<>())
+                                .computeIfAbsent(priority.name(), p -> new LinkedHashMap<>())
+                                .put(category.name(), count);
+                    }
+                }
+            }
+        }
+        return breakdown;
+    }
+
+    /**
+     * Drop the cached counts once the current transaction commits; right away when there is
+     * no transaction
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private boolean isFresh(Counts counts) {
+        return counts.generation() == generation.get()
+                && System.nanoTime() - counts.loadedAtNanos() < ttl.toNanos();
+    }
+
+    private Counts load() {
+        // Taken before reading: a write committed during the read makes the result stale at once
+        long readGeneration = generation.get();
+        long loadedAt = System.nanoTime();
+        long[] byStatus = new long[RequestStatus.values().length];
+        long[][][] cells = new long[RequestStatus.values().length][Priority.values().length][Category.values().length];
+        long[] total = new long[1];
+
+        jdbc.query(COUNT_BY_STATUS_PRIORITY_CATEGORY, new MapSqlParameterSource(), rs -> {
+            long requests = rs.getLong("requests");
+            if (rs.getInt("all_statuses") == 1) {
+                total[0] = requests;
+            } else if (rs.getInt("all_priorities") == 1) {
+                byStatus[RequestStatus.valueOf(rs.getString("status")).ordinal()] = requests;
+            } else if (rs.getInt("all_categories") == 0) {
+                cells[RequestStatus.valueOf(rs.getString("status")).ordinal()]
+                        [Priority.valueOf(rs.getString("priority")).ordinal()]
+                        [Category.valueOf(rs.getString("category")).ordinal()] = requests;
+            }
+        });
+        return new Counts(total[0], byStatus, cells, readGeneration, loadedAt);
+    }
+
+    private double gauge(ToLongFunction<Counts> count) {
+        try {
+            return count.applyAsLong(getCounts());
+        } catch (RuntimeException e) {
+            log.warn("Could not read maintenance request counts for metrics", e);
+            return Double.NaN;
+        }
+    }
+}
@@ -20,9 +20,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -40,10 +42,12 @@ public class MaintenanceScheduleService {
     private final MaintenanceNotificationService notificationService;
     private final ObjectMapper objectMapper;
     private final EntityManager entityManager;
+    private final MaintenanceTriggerIndex triggerIndex;
 
     /**
      * Get all active schedules
      */
+    @Transactional(readOnly = true)
     public List<MaintenanceScheduleDTO> getAllActiveSchedules() {
         log.info("Fetching all active schedules");
         List<MaintenanceSchedule> schedules = scheduleRepository.findByIsActiveTrueOrderByNextTriggerDateAsc();
@@ -55,6 +59,7 @@ public class MaintenanceScheduleService {
     /**
      * Get schedule by ID
      */
+    @Transactional(readOnly = true)
     public MaintenanceScheduleDTO getScheduleById(Long id) {
         log.info("Fetching schedule with id: {}", id);
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
@@ -62,6 +67,17 @@ public class MaintenanceScheduleService {
         return convertToDTO(schedule);
     }
 
+    /**
+     * Schedule fields as they were at the given time, rebuilt from the change log;
+     * empty when the schedule did not exist yet
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getScheduleSnapshot(Long id, LocalDateTime at) {
+        MaintenanceSchedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Schedule not found with id: " + id));
+        return logService.reconstructSchedule(schedule, at);
+    }
+
     /**
      * Create new maintenance schedule
      */
@@ -82,6 +98,7 @@ public class MaintenanceScheduleService {
 
         MaintenanceSchedule saved = scheduleRepository.save(schedule);
         log.info("Created schedule with id: {}", saved.getId());
+        triggerIndex.reindexAfterCommit(saved);
 
         // Log the action
         logService.logScheduleCreated(saved, creator);
@@ -121,17 +138,18 @@ public class MaintenanceScheduleService {
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
-        MaintenanceSchedule oldSchedule = cloneSchedule(schedule);
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
         updateScheduleFromDTO(schedule, dto);
 
         // Recalculate next trigger date if recurrence settings changed
         schedule.setNextTriggerDate(calculateNextTriggerDate(schedule));
 
         MaintenanceSchedule updated = scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(updated);
 
         // Log changes
         User updater = userRepository.findById(updatedByUserId).orElse(null);
-        logService.logScheduleUpdated(updated, oldSchedule, updater);
+        logService.logScheduleUpdated(updated, before, updater);
 
         return convertToDTO(updated);
     }
@@ -157,6 +175,7 @@ public class MaintenanceScheduleService {
 
         // Now delete the schedule (foreign key will set logs' schedule_id to NULL)
         scheduleRepository.deleteById(id);
+        triggerIndex.removeAfterCommit(id);
     }
 
     /**
@@ -169,11 +188,13 @@ public class MaintenanceScheduleService {
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
         schedule.setIsActive(true);
         scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(schedule);
 
         User user = userRepository.findById(userId).orElse(null);
-        logService.logScheduleActivated(schedule, user);
+        logService.logScheduleActivated(schedule, before, user);
     }
 
     /**
@@ -186,11 +207,13 @@ public class MaintenanceScheduleService {
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
         schedule.setIsActive(false);
         scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(schedule);
 
         User user = userRepository.findById(userId).orElse(null);
-        logService.logScheduleDeactivated(schedule, user);
+        logService.logScheduleDeactivated(schedule, before, user);
     }
 
     /**
@@ -203,11 +226,13 @@ public class MaintenanceScheduleService {
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
         schedule.setIsPaused(true);
         scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(schedule);
 
         User user = userRepository.findById(userId).orElse(null);
-        logService.logSchedulePaused(schedule, user);
+        logService.logSchedulePaused(schedule, before, user);
     }
 
     /**
@@ -220,18 +245,30 @@ public class MaintenanceScheduleService {
         MaintenanceSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
         schedule.setIsPaused(false);
         scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(schedule);
 
         User user = userRepository.findById(userId).orElse(null);
-        logService.logScheduleResumed(schedule, user);
+        logService.logScheduleResumed(schedule, before, user);
     }
 
     /**
-     * Trigger schedule and create maintenance requests
+     * Trigger schedule and create maintenance requests for its stored next trigger date
      */
     @Transactional
     public void triggerSchedule(Long scheduleId) {
+        triggerSchedule(scheduleId, null);
+    }
+
+    /**
+     * Trigger the occurrence due on the expected date (the stored next trigger date when null).
+     * The occurrence is claimed with a conditional update first, so when several instances fire
+     * the same occurrence only the one whose update moves the schedule on creates requests.
+     */
+    @Transactional
+    public void triggerSchedule(Long scheduleId, LocalDate expectedDate) {
         log.info("Triggering schedule with id: {}", scheduleId);
 
         MaintenanceSchedule schedule = scheduleRepository.findById(scheduleId)
@@ -242,6 +279,18 @@ public class MaintenanceScheduleService {
             return;
         }
 
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
+        LocalDate expected = expectedDate != null ? expectedDate : schedule.getNextTriggerDate();
+        LocalDate today = LocalDate.now();
+        LocalDate next = occurrenceAfter(schedule, today);
+        if (scheduleRepository.claimTrigger(scheduleId, expected, next, today) == 0) {
+            log.info("Schedule {} occurrence of {} was already triggered", scheduleId, expected);
+            return;
+        }
+        // Keep the loaded entity in step with the claimed row
+        schedule.setLastTriggeredDate(today);
+        schedule.setNextTriggerDate(next);
+
         // Create maintenance requests based on target type
         List<Long> targetUnitIds = resolveTargetUnits(schedule);
         
@@ -251,13 +300,11 @@ public class MaintenanceScheduleService {
             createMaintenanceRequestFromSchedule(schedule, unitId);
         }
 
-        // Update schedule
-        schedule.setLastTriggeredDate(LocalDate.now());
-        schedule.setNextTriggerDate(calculateNextTriggerDate(schedule));
         scheduleRepository.save(schedule);
+        triggerIndex.reindexAfterCommit(schedule);
 
         // Log trigger
-        logService.logScheduleTriggered(schedule, null);
+        logService.logScheduleTriggered(schedule, before, null);
     }
 
     /**
@@ -340,8 +387,9 @@ public class MaintenanceScheduleService {
 
     /**
      * Calculate next trigger date based on recurrence settings
+     * (package-private so the JMH suite can call it directly)
      */
-    private LocalDate calculateNextTriggerDate(MaintenanceSchedule schedule) {
+    LocalDate calculateNextTriggerDate(MaintenanceSchedule schedule) {
         LocalDate baseDate = schedule.getLastTriggeredDate() != null 
                 ? schedule.getLastTriggeredDate() 
                 : schedule.getStartDate();
@@ -350,6 +398,14 @@ public class MaintenanceScheduleService {
             baseDate = LocalDate.now();
         }
 
+        return occurrenceAfter(schedule, baseDate);
+    }
+
+    /**
+     * The date a schedule fires next after firing on the base date, capped at its end date;
+     * MaintenanceCalendarService steps through future occurrences with it
+     */
+    static LocalDate occurrenceAfter(MaintenanceSchedule schedule, LocalDate baseDate) {
         LocalDate nextDate;
 
         switch (schedule.getRecurrenceType()) {
@@ -562,24 +618,6 @@ public class MaintenanceScheduleService {
         }
     }
 
-    /**
-     * Clone schedule for comparison
-     */
-    private MaintenanceSchedule cloneSchedule(MaintenanceSchedule schedule) {
-        MaintenanceSchedule clone = new MaintenanceSchedule();
-        clone.setTitle(schedule.getTitle());
-        clone.setDescription(schedule.getDescription());
-        clone.setCategory(schedule.getCategory());
-        clone.setRecurrenceType(schedule.getRecurrenceType());
-        clone.setRecurrenceInterval(schedule.getRecurrenceInterval());
-        clone.setTargetType(schedule.getTargetType());
-        clone.setTargetUnits(schedule.getTargetUnits());
-        clone.setPriority(schedule.getPriority());
-        clone.setIsActive(schedule.getIsActive());
-        clone.setIsPaused(schedule.getIsPaused());
-        return clone;
-    }
-
     /**
      * Get affected units with auto-generated time slots
      */
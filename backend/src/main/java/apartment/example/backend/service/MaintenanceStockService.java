@@ -69,59 +69,55 @@ public class MaintenanceStockService {
     @Transactional
     public MaintenanceStock createStock(MaintenanceStock stock) {
         log.info("Creating new stock item: {}", stock.getItemName());
+        stock.setReservedQuantity(0);
         stock.setCreatedAt(LocalDateTime.now());
         stock.setUpdatedAt(LocalDateTime.now());
         return stockRepository.save(stock);
     }
 
     /**
-     * Update existing stock item
+     * Update existing stock item.
+     * The descriptive fields are written with a targeted UPDATE, and a new quantity is
+     * applied as a change from the quantity read here through the conditional ledger
+     * update, so reservations and draws committed meanwhile are kept.
      */
     @Transactional
     public MaintenanceStock updateStock(Long id, MaintenanceStock stockDetails) {
         log.info("Updating stock item ID: {}", id);
         MaintenanceStock stock = getStockById(id);
         
-        if (stockDetails.getItemName() != null) {
-            stock.setItemName(stockDetails.getItemName());
-        }
-        if (stockDetails.getCategory() != null) {
-            stock.setCategory(stockDetails.getCategory());
-        }
         if (stockDetails.getQuantity() != null) {
-            stock.setQuantity(stockDetails.getQuantity());
-        }
-        if (stockDetails.getUnit() != null) {
-            stock.setUnit(stockDetails.getUnit());
-        }
-        if (stockDetails.getUnitPrice() != null) {
-            stock.setUnitPrice(stockDetails.getUnitPrice());
-        }
-        if (stockDetails.getDescription() != null) {
-            stock.setDescription(stockDetails.getDescription());
+            int quantityChange = stockDetails.getQuantity() - stock.getQuantity();
+            if (quantityChange != 0
+                    && stockRepository.adjustQuantity(id, quantityChange, LocalDateTime.now()) == 0) {
+                throw new IllegalArgumentException("Stock quantity cannot be lower than the reserved quantity ("
+                    + getStockById(id).getReservedQuantity() + ")");
+            }
         }
         
-        stock.setUpdatedAt(LocalDateTime.now());
-        return stockRepository.save(stock);
+        stockRepository.updateDetails(id, stockDetails.getItemName(), stockDetails.getCategory(),
+            stockDetails.getUnit(), stockDetails.getUnitPrice(), stockDetails.getDescription(),
+            LocalDateTime.now());
+        return getStockById(id);
     }
 
     /**
-     * Update stock quantity (for adding or reducing stock)
+     * Update stock quantity (for adding or reducing stock).
+     * Applied as one conditional UPDATE so concurrent changes are never lost and the
+     * quantity cannot drop below what open requests have reserved.
      */
     @Transactional
     public MaintenanceStock updateStockQuantity(Long id, Integer quantityChange) {
         log.info("Updating stock quantity for ID: {}, change: {}", id, quantityChange);
-        MaintenanceStock stock = getStockById(id);
         
-        int newQuantity = stock.getQuantity() + quantityChange;
-        if (newQuantity < 0) {
-            throw new IllegalArgumentException("Stock quantity cannot be negative. Current: " + 
-                stock.getQuantity() + ", Change: " + quantityChange);
+        int updated = stockRepository.adjustQuantity(id, quantityChange, LocalDateTime.now());
+        if (updated == 0) {
+            MaintenanceStock stock = getStockById(id);
+            throw new IllegalArgumentException("Stock quantity cannot go below the reserved quantity. Current: " +
+                stock.getQuantity() + ", Reserved: " + stock.getReservedQuantity() + ", Change: " + quantityChange);
         }
         
-        stock.setQuantity(newQuantity);
-        stock.setUpdatedAt(LocalDateTime.now());
-        return stockRepository.save(stock);
+        return getStockById(id);
     }
 
     /**
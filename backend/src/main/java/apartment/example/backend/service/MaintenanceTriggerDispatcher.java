@@ -0,0 +1,135 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.repository.MaintenanceScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintenance Trigger Dispatcher
+ *
+ * Fills MaintenanceTriggerIndex from the active, unpaused schedules once the application is
+ * ready, then runs schedule triggers and upcoming-maintenance notifications on a single
+ * thread as their entries come due. A trigger or notification that fails is retried after
+ * maintenance-schedule.retry-delay instead of waiting for the next day.
+ *
+ * Every replica runs a dispatcher; a trigger claims its occurrence and a notification its date
+ * in the database, so only one replica creates the requests or sends the notification. The index is rebuilt from the database every
+ * maintenance-schedule.index-ttl so schedule changes made on other replicas show up.
+ */
+@Component
+@Slf4j
+public class MaintenanceTriggerDispatcher {
+
+    private final MaintenanceTriggerIndex index;
+    private final MaintenanceScheduleRepository scheduleRepository;
+    private final MaintenanceScheduleService scheduleService;
+    private final ScheduledTaskService scheduledTaskService;
+    private final Duration retryDelay;
+    private final long resyncNanos;
+    private final Counter fired;
+    private final Counter failed;
+    private volatile boolean running;
+    private long rebuiltAt;
+    private Thread dispatcherThread;
+
+    public MaintenanceTriggerDispatcher(MaintenanceTriggerIndex index,
+                                        MaintenanceScheduleRepository scheduleRepository,
+                                        MaintenanceScheduleService scheduleService,
+                                        ScheduledTaskService scheduledTaskService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${maintenance-schedule.retry-delay:5m}") Duration retryDelay,
+                                        @Value("${maintenance-schedule.index-ttl:5m}") Duration indexTtl) {
+        this.index = index;
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleService = scheduleService;
+        this.scheduledTaskService = scheduledTaskService;
+        this.retryDelay = retryDelay;
+        this.resyncNanos = indexTtl.toNanos();
+        this.fired = Counter.builder("maintenance.schedule.dispatched")
+                .description("Schedule triggers and upcoming-maintenance notifications run when due")
+                .register(meterRegistry);
+        this.failed = Counter.builder("maintenance.schedule.dispatch.failed")
+                .description("Schedule triggers and notifications that failed and were put back for a retry")
+                .register(meterRegistry);
+        Gauge.builder("maintenance.schedule.index.size", index, MaintenanceTriggerIndex::size)
+                .description("Entries waiting in the schedule trigger index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        running = true;
+        dispatcherThread = Thread.ofPlatform().name("maintenance-trigger-dispatcher").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (dispatcherThread == null) {
+            return;
+        }
+        dispatcherThread.interrupt();
+        try {
+            dispatcherThread.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rebuild() {
+        index.rebuild(scheduleRepository.findByIsActiveTrueAndIsPausedFalse());
+        rebuiltAt = System.nanoTime();
+    }
+
+    private void run() {
+        while (running) {
+            if (System.nanoTime() - rebuiltAt >= resyncNanos) {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild the maintenance trigger index, keeping the current one", e);
+                    rebuiltAt = System.nanoTime();
+                }
+            }
+            MaintenanceTriggerIndex.Entry entry;
+            try {
+                entry = index.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (entry != null) {
+                dispatch(entry);
+            }
+        }
+    }
+
+    void dispatch(MaintenanceTriggerIndex.Entry entry) {
+        try {
+            switch (entry.kind()) {
+                // Reindexes the schedule at its new next trigger date once committed; a no-op when
+                // another replica already claimed the occurrence
+                case TRIGGER -> scheduleService.triggerSchedule(entry.scheduleId(), entry.date());
+                // Likewise a no-op when another replica already sent the notification
+                case NOTIFY -> scheduledTaskService.sendUpcomingMaintenanceNotification(entry.scheduleId(), entry.date());
+            }
+            fired.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Failed to run {} for schedule ID: {}, retrying in {}",
+                    entry.kind(), entry.scheduleId(), retryDelay, e);
+            index.retry(entry, retryDelay);
+        }
+    }
+}
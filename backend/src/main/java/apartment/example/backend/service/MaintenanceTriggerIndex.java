@@ -0,0 +1,200 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceSchedule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintenance Trigger Index
+ *
+ * In-memory index of when each active, unpaused schedule is next due: one TRIGGER entry at
+ * maintenance-schedule.trigger-time on its next trigger date, and one NOTIFY entry at
+ * maintenance-schedule.notify-time notifyDaysBefore days earlier. Entries sit in a DelayQueue
+ * and come out exactly when due, so nothing scans the schedule table to find due work.
+ *
+ * Every (re)index of a schedule takes a new version; entries of older versions stay in the
+ * queue but are dropped when they come out, which makes updates and removals O(log n)
+ * without searching the queue. MaintenanceScheduleService reindexes a schedule after each
+ * committed change; MaintenanceTriggerDispatcher rebuilds the index at startup and drains it.
+ */
+@Component
+@Slf4j
+public class MaintenanceTriggerIndex {
+
+    public enum Kind { TRIGGER, NOTIFY }
+
+    /**
+     * One due instant of a schedule; the date is the trigger or notification date it stands for
+     */
+    public record Entry(Long scheduleId, Kind kind, LocalDate date, long dueAtMillis, long version)
+            implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Entry) other).dueAtMillis);
+        }
+
+        Entry retryAfter(Duration delay) {
+            return new Entry(scheduleId, kind, date, System.currentTimeMillis() + delay.toMillis(), version);
+        }
+    }
+
+    private final DelayQueue<Entry> queue = new DelayQueue<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersion = new AtomicLong();
+    private final LocalTime triggerTime;
+    private final LocalTime notifyTime;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public MaintenanceTriggerIndex(@Value("${maintenance-schedule.trigger-time:06:00}") String triggerTime,
+                                   @Value("${maintenance-schedule.notify-time:08:00}") String notifyTime) {
+        this.triggerTime = LocalTime.parse(triggerTime);
+        this.notifyTime = LocalTime.parse(notifyTime);
+    }
+
+    /**
+     * Replace the whole index with the given schedules
+     */
+    public void rebuild(List<MaintenanceSchedule> schedules) {
+        versions.clear();
+        queue.clear();
+        schedules.forEach(this::reindex);
+        log.info("Indexed {} maintenance schedule(s), {} pending trigger(s) and notification(s)",
+                versions.size(), queue.size());
+    }
+
+    /**
+     * Index the schedule as it is now. A schedule that is inactive or paused, or whose next
+     * trigger date is not after its last trigger (a one-time schedule already run, or a
+     * schedule that has reached its end date) is dropped from the index.
+     */
+    public void reindex(MaintenanceSchedule schedule) {
+        long version = nextVersion.incrementAndGet();
+        versions.put(schedule.getId(), version);
+
+        LocalDate next = schedule.getNextTriggerDate();
+        if (!Boolean.TRUE.equals(schedule.getIsActive()) || Boolean.TRUE.equals(schedule.getIsPaused())
+                || next == null
+                || (schedule.getLastTriggeredDate() != null && !next.isAfter(schedule.getLastTriggeredDate()))) {
+            versions.remove(schedule.getId(), version);
+            return;
+        }
+
+        // A trigger date already past fires right away
+        queue.offer(new Entry(schedule.getId(), Kind.TRIGGER, next, dueAt(next, triggerTime), version));
+
+        // A notification not yet sent is due right away if its time has passed (say it failed and
+        // the index was rebuilt before the retry), as long as the occurrence has not come
+        Integer daysBefore = schedule.getNotifyDaysBefore();
+        if (daysBefore != null && daysBefore > 0) {
+            LocalDate notifyDate = next.minusDays(daysBefore);
+            LocalDate notified = schedule.getLastNotifiedDate();
+            if ((notified == null || notified.isBefore(notifyDate))
+                    && dueAt(next, triggerTime) > System.currentTimeMillis()) {
+                queue.offer(new Entry(schedule.getId(), Kind.NOTIFY, notifyDate, dueAt(notifyDate, notifyTime), version));
+            }
+        }
+    }
+
+    /**
+     * Drop the schedule from the index
+     */
+    public void remove(Long scheduleId) {
+        nextVersion.incrementAndGet();
+        versions.remove(scheduleId);
+    }
+
+    /**
+     * Reindex the schedule once the current transaction commits, reading it as committed;
+     * right away when there is no transaction
+     */
+    public void reindexAfterCommit(MaintenanceSchedule schedule) {
+        afterCommit(() -> reindex(schedule));
+    }
+
+    /**
+     * Drop the schedule from the index once the current transaction commits
+     */
+    public void removeAfterCommit(Long scheduleId) {
+        afterCommit(() -> remove(scheduleId));
+    }
+
+    /**
+     * Wait up to the timeout for the next due entry of a current version; null on timeout
+     */
+    public Entry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Entry entry = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (entry == null || isCurrent(entry)) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Put an entry whose handling failed back into the index, due again after the delay,
+     * unless the schedule has been reindexed meanwhile
+     */
+    public void retry(Entry entry, Duration delay) {
+        if (isCurrent(entry)) {
+            queue.offer(entry.retryAfter(delay));
+        }
+    }
+
+    /**
+     * Changes with every rebuild, reindex and removal, so it identifies the committed state of
+     * all schedules as far as this instance has seen
+     */
+    public long version() {
+        return nextVersion.get();
+    }
+
+    /**
+     * Entries waiting in the queue, including superseded ones not yet dropped
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        return Long.valueOf(entry.version()).equals(versions.get(entry.scheduleId()));
+    }
+
+    private long dueAt(LocalDate date, LocalTime time) {
+        return date.atTime(time).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,536 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MeterReading;
+import apartment.example.backend.entity.enums.UtilityType;
+import apartment.example.backend.repository.MeterReadingRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Meter readings: bulk import of the monthly reading sheets and the utility charges they produce.
+ *
+ * Imports stream the request body (CSV or a JSON array) and validate it row by row; valid rows
+ * are buffered up to meter-readings.import-batch-size and upserted with one JDBC batch per
+ * transaction, so memory stays flat however large the sheet is. Invalid rows are reported and
+ * skipped without failing the import. Consumption is the difference from the unit's previous
+ * reading of the same utility and is priced with the rates read once when the import starts.
+ * A corrected or back-filled month also re-chains the stored month that follows it (previous
+ * value, consumption and amount at that month's own rate) in the same transaction, unless that
+ * month was seeded with its own previous reading; a correction that would leave the following
+ * month with negative consumption is rejected.
+ */
+@Service
+@Slf4j
+public class MeterReadingService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    // How far back an import looks for a unit's previous reading
+    private static final int HISTORY_MONTHS = 12;
+
+    private static final String UPSERT =
+            "INSERT INTO meter_readings (unit_id, utility_type, reading_period, reading_value, previous_value, " +
+            "consumption, rate, amount, read_date) " +
+            "VALUES (:unitId, :utilityType, :period, :reading, :previous, :consumption, :rate, :amount, :readDate) AS new " +
+            "ON DUPLICATE KEY UPDATE reading_value = new.reading_value, previous_value = new.previous_value, " +
+            "consumption = new.consumption, rate = new.rate, amount = new.amount, read_date = new.read_date";
+
+    private static final String RECHAIN =
+            "UPDATE meter_readings SET previous_value = :previous, consumption = :consumption, amount = :amount " +
+            "WHERE unit_id = :unitId AND utility_type = :utilityType AND reading_period = :period";
+
+    private final MeterReadingRepository meterReadingRepository;
+    private final ApartmentSettingsService settingsService;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    /**
+     * Outcome of one import; errors lists at most MAX_REPORTED_ERRORS rejected rows
+     */
+    public record ImportResult(long rowsRead, long imported, long rejected, List<RowError> errors) {
+    }
+
+    /**
+     * A rejected row: the CSV line number or the 1-based index in the JSON array
+     */
+    public record RowError(long row, String message) {
+    }
+
+    /**
+     * Metered usage and charges of one unit for one month; null where there is no reading
+     */
+    public record UtilityCharges(BigDecimal electricityUnits, BigDecimal electricityAmount,
+                                 BigDecimal waterUnits, BigDecimal waterAmount) {
+    }
+
+    private record Row(long row, String roomNumber, UtilityType utilityType, LocalDate period,
+                       BigDecimal reading, BigDecimal previous, LocalDate readDate) {
+    }
+
+    private record StoredReading(BigDecimal reading, BigDecimal previous, BigDecimal rate) {
+    }
+
+    public MeterReadingService(MeterReadingRepository meterReadingRepository,
+                               ApartmentSettingsService settingsService,
+                               NamedParameterJdbcTemplate jdbc,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${meter-readings.import-batch-size:500}") int batchSize) {
+        this.meterReadingRepository = meterReadingRepository;
+        this.settingsService = settingsService;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.importedCounter = Counter.builder("meter.readings.imported")
+                .description("Meter readings written by imports")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("meter.readings.rejected")
+                .description("Meter reading rows rejected by imports")
+                .register(meterRegistry);
+    }
+
+    public List<MeterReading> getReadingsForPeriod(LocalDate period) {
+        return meterReadingRepository.findByReadingPeriodOrderByUnitIdAscUtilityTypeAsc(period.withDayOfMonth(1));
+    }
+
+    public List<MeterReading> getReadingsForUnit(Long unitId) {
+        return meterReadingRepository.findByUnitIdOrderByReadingPeriodDescUtilityTypeAsc(unitId);
+    }
+
+    /**
+     * Utility charges for the unit of a lease in the month of the given date
+     */
+    public UtilityCharges getChargesForLease(Long leaseId, LocalDate period) {
+        Map<String, BigDecimal[]> byType = new HashMap<>();
+        jdbc.query("SELECT m.utility_type, m.consumption, m.amount FROM meter_readings m " +
+                   "JOIN leases l ON l.unit_id = m.unit_id " +
+                   "WHERE l.id = :leaseId AND m.reading_period = :period",
+                new MapSqlParameterSource()
+                        .addValue("leaseId", leaseId)
+                        .addValue("period", period.withDayOfMonth(1)),
+                rs -> {
+                    byType.put(rs.getString("utility_type"),
+                            new BigDecimal[]{rs.getBigDecimal("consumption"), rs.getBigDecimal("amount")});
+                });
+        BigDecimal[] electricity = byType.getOrDefault(UtilityType.ELECTRICITY.name(), new BigDecimal[2]);
+        BigDecimal[] water = byType.getOrDefault(UtilityType.WATER.name(), new BigDecimal[2]);
+        return new UtilityCharges(electricity[0], electricity[1], water[0], water[1]);
+    }
+
+    /**
+     * Import readings from CSV with a header row. Columns (any order, snake_case or camelCase):
+     * room_number, utility_type (ELECTRICITY/WATER), period (yyyy-MM), reading,
+     * and optionally previous_reading (for a unit's first reading or a replaced meter) and read_date.
+     */
+    public ImportResult importCsv(InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.replace("\uFEFF", "").split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                columns.put(normalizeColumn(names[i]), i);
+            }
+            for (String required : List.of("roomnumber", "utilitytype", "period", "reading")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header is missing column: " + required);
+                }
+            }
+
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] cells = line.split(",", -1);
+                batch.add(lineNumber,
+                        cell(cells, columns, "roomnumber"),
+                        cell(cells, columns, "utilitytype"),
+                        cell(cells, columns, "period"),
+                        cell(cells, columns, "reading"),
+                        cell(cells, columns, "previousreading"),
+                        cell(cells, columns, "readdate"));
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Import readings from a JSON array of objects with roomNumber, utilityType, period, reading,
+     * and optionally previousReading and readDate. The array is read one element at a time.
+     */
+    public ImportResult importJson(InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of readings");
+            }
+            long index = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    index++;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        batch.reject(index, "Expected an object");
+                        continue;
+                    }
+                    JsonNode node = objectMapper.readTree(parser);
+                    batch.add(index,
+                            text(node, "roomNumber"),
+                            text(node, "utilityType"),
+                            text(node, "period"),
+                            text(node, "reading"),
+                            text(node, "previousReading"),
+                            text(node, "readDate"));
+                }
+            } catch (JsonProcessingException e) {
+                // Keep what was read before the malformed element
+                batch.reject(index, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Rows of one import: validated as they arrive, written batchSize at a time
+     */
+    private class ImportBatch {
+
+        private final Map<UtilityType, BigDecimal> rates = new EnumMap<>(UtilityType.class);
+        private final Map<String, Long> unitIds = new HashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private List<Row> pending = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+
+        ImportBatch() {
+            rates.put(UtilityType.ELECTRICITY, settingsService.getElectricityRate());
+            rates.put(UtilityType.WATER, settingsService.getWaterRate());
+        }
+
+        void add(long row, String roomNumber, String utilityType, String period, String reading,
+                 String previous, String readDate) {
+            rowsRead++;
+            if (roomNumber == null) {
+                reject(row, "Room number is required");
+                return;
+            }
+            UtilityType type;
+            try {
+                type = UtilityType.valueOf(required(utilityType, "Utility type").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                reject(row, utilityType == null ? e.getMessage() : "Unknown utility type: " + utilityType);
+                return;
+            }
+            try {
+                LocalDate readingPeriod = parsePeriod(required(period, "Period"));
+                BigDecimal value = parseReading(required(reading, "Reading"), "Reading");
+                BigDecimal previousValue = previous != null ? parseReading(previous, "Previous reading") : null;
+                LocalDate date = readDate != null ? LocalDate.parse(readDate) : null;
+                pending.add(new Row(row, roomNumber, type, readingPeriod, value, previousValue, date));
+            } catch (DateTimeParseException e) {
+                reject(row, "Invalid date: " + e.getParsedString());
+                return;
+            } catch (IllegalArgumentException e) {
+                reject(row, e.getMessage());
+                return;
+            }
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            importedCounter.increment(imported);
+            rejectedCounter.increment(rejected);
+            log.info("Meter reading import: {} row(s) read, {} imported, {} rejected", rowsRead, imported, rejected);
+            return new ImportResult(rowsRead, imported, rejected, List.copyOf(errors));
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Row> rows = pending;
+            pending = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> write(rows));
+        }
+
+        /**
+         * Compute consumption against the previous reading of each (unit, utility), upsert the batch
+         * and re-chain the stored months that follow a corrected or back-filled one
+         */
+        private void write(List<Row> rows) {
+            resolveUnits(rows);
+            List<Row> known = new ArrayList<>();
+            for (Row row : rows) {
+                if (unitIds.get(row.roomNumber()) == null) {
+                    reject(row.row(), "Unknown room: " + row.roomNumber());
+                } else {
+                    known.add(row);
+                }
+            }
+            if (known.isEmpty()) {
+                return;
+            }
+            // Earlier months first, so a sheet holding several months chains its own readings
+            known.sort(Comparator.comparing(Row::period).thenComparingLong(Row::row));
+            Map<String, TreeMap<LocalDate, StoredReading>> stored = stored(known);
+            Map<String, TreeSet<LocalDate>> written = new HashMap<>();
+            for (Row row : known) {
+                written.computeIfAbsent(key(row), key -> new TreeSet<>()).add(row.period());
+            }
+            Map<String, TreeMap<LocalDate, BigDecimal>> history = new HashMap<>();
+            stored.forEach((key, readings) -> {
+                TreeMap<LocalDate, BigDecimal> values = new TreeMap<>();
+                readings.forEach((period, reading) -> values.put(period, reading.reading()));
+                history.put(key, values);
+            });
+
+            List<SqlParameterSource> batch = new ArrayList<>();
+            Map<String, SqlParameterSource> rechained = new HashMap<>();
+            for (Row row : known) {
+                Long unitId = unitIds.get(row.roomNumber());
+                String key = key(row);
+                TreeMap<LocalDate, BigDecimal> readings = history.computeIfAbsent(key, k -> new TreeMap<>());
+                BigDecimal previous = row.previous();
+                if (previous == null) {
+                    Entry<LocalDate, BigDecimal> before = readings.lowerEntry(row.period());
+                    previous = before != null ? before.getValue() : null;
+                }
+                if (previous != null && row.reading().compareTo(previous) < 0) {
+                    reject(row.row(), "Reading " + row.reading().toPlainString() +
+                            " is lower than the previous reading " + previous.toPlainString());
+                    continue;
+                }
+                Entry<LocalDate, StoredReading> next = following(stored.get(key), written.get(key), row.period());
+                if (next != null && next.getValue().reading().compareTo(row.reading()) < 0) {
+                    reject(row.row(), "Reading " + row.reading().toPlainString() + " is higher than the " +
+                            next.getKey() + " reading " + next.getValue().reading().toPlainString());
+                    continue;
+                }
+                BigDecimal consumption = previous != null ? row.reading().subtract(previous) : null;
+                BigDecimal rate = rates.get(row.utilityType());
+                BigDecimal amount = consumption != null
+                        ? consumption.multiply(rate).setScale(2, RoundingMode.HALF_UP)
+                        : null;
+                readings.put(row.period(), row.reading());
+                batch.add(new MapSqlParameterSource()
+                        .addValue("unitId", unitId)
+                        .addValue("utilityType", row.utilityType().name())
+                        .addValue("period", row.period())
+                        .addValue("reading", row.reading())
+                        .addValue("previous", previous)
+                        .addValue("consumption", consumption)
+                        .addValue("rate", rate)
+                        .addValue("amount", amount)
+                        .addValue("readDate", row.readDate()));
+                if (next != null) {
+                    // Keyed by the following month, so the last row written before it wins
+                    BigDecimal nextConsumption = next.getValue().reading().subtract(row.reading());
+                    BigDecimal nextRate = next.getValue().rate() != null ? next.getValue().rate() : rate;
+                    rechained.put(key + ":" + next.getKey(), new MapSqlParameterSource()
+                            .addValue("unitId", unitId)
+                            .addValue("utilityType", row.utilityType().name())
+                            .addValue("period", next.getKey())
+                            .addValue("previous", row.reading())
+                            .addValue("consumption", nextConsumption)
+                            .addValue("amount", nextConsumption.multiply(nextRate).setScale(2, RoundingMode.HALF_UP)));
+                }
+                imported++;
+            }
+            if (!batch.isEmpty()) {
+                jdbc.batchUpdate(UPSERT, batch.toArray(SqlParameterSource[]::new));
+            }
+            if (!rechained.isEmpty()) {
+                jdbc.batchUpdate(RECHAIN, rechained.values().toArray(SqlParameterSource[]::new));
+            }
+        }
+
+        /**
+         * The stored month right after the period, if this batch does not rewrite it or anything
+         * in between and its previous value was chained from the reading before it
+         */
+        private Entry<LocalDate, StoredReading> following(TreeMap<LocalDate, StoredReading> stored,
+                                                          TreeSet<LocalDate> written, LocalDate period) {
+            if (stored == null) {
+                return null;
+            }
+            Entry<LocalDate, StoredReading> next = stored.higherEntry(period);
+            if (next == null) {
+                return null;
+            }
+            LocalDate nextWritten = written.higher(period);
+            if (nextWritten != null && !nextWritten.isAfter(next.getKey())) {
+                return null;
+            }
+            // A month seeded with its own previous reading (first reading, replaced meter) keeps it
+            Entry<LocalDate, StoredReading> before = stored.lowerEntry(next.getKey());
+            BigDecimal chainedFrom = before != null ? before.getValue().reading() : null;
+            BigDecimal previous = next.getValue().previous();
+            boolean chained = previous == null
+                    ? chainedFrom == null
+                    : chainedFrom != null && previous.compareTo(chainedFrom) == 0;
+            return chained ? next : null;
+        }
+
+        /**
+         * Look up the units of rooms not seen earlier in this import
+         */
+        private void resolveUnits(List<Row> rows) {
+            List<String> rooms = rows.stream()
+                    .map(Row::roomNumber)
+                    .filter(room -> !unitIds.containsKey(room))
+                    .distinct()
+                    .toList();
+            if (rooms.isEmpty()) {
+                return;
+            }
+            rooms.forEach(room -> unitIds.put(room, null));
+            jdbc.query("SELECT id, room_number FROM units WHERE room_number IN (:rooms)",
+                    new MapSqlParameterSource("rooms", rooms),
+                    rs -> {
+                        unitIds.put(rs.getString("room_number"), rs.getLong("id"));
+                    });
+        }
+
+        /**
+         * Stored readings of the batch's units from HISTORY_MONTHS before its earliest month on,
+         * keyed by unit and utility; the later months are the ones a correction re-chains
+         */
+        private Map<String, TreeMap<LocalDate, StoredReading>> stored(List<Row> rows) {
+            LocalDate from = rows.get(0).period().minusMonths(HISTORY_MONTHS);
+            List<Long> units = rows.stream().map(row -> unitIds.get(row.roomNumber())).distinct().toList();
+            Map<String, TreeMap<LocalDate, StoredReading>> stored = new HashMap<>();
+            jdbc.query("SELECT unit_id, utility_type, reading_period, reading_value, previous_value, rate " +
+                       "FROM meter_readings WHERE unit_id IN (:units) AND reading_period >= :from",
+                    new MapSqlParameterSource()
+                            .addValue("units", units)
+                            .addValue("from", from),
+                    rs -> {
+                        stored.computeIfAbsent(rs.getLong("unit_id") + ":" + rs.getString("utility_type"),
+                                        key -> new TreeMap<>())
+                                .put(rs.getDate("reading_period").toLocalDate(), new StoredReading(
+                                        rs.getBigDecimal("reading_value"), rs.getBigDecimal("previous_value"),
+                                        rs.getBigDecimal("rate")));
+                    });
+            return stored;
+        }
+
+        private String key(Row row) {
+            return unitIds.get(row.roomNumber()) + ":" + row.utilityType();
+        }
+    }
+
+    private static String required(String value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    /**
+     * Month of a reading, as yyyy-MM or any date within the month
+     */
+    private static LocalDate parsePeriod(String period) {
+        try {
+            return period.length() <= 7
+                    ? YearMonth.parse(period).atDay(1)
+                    : LocalDate.parse(period).withDayOfMonth(1);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid period: " + period);
+        }
+    }
+
+    private static BigDecimal parseReading(String value, String name) {
+        BigDecimal reading;
+        try {
+            reading = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+        if (reading.signum() < 0) {
+            throw new IllegalArgumentException(name + " cannot be negative");
+        }
+        return reading;
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.trim().replace("\"", "").replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String cell(String[] cells, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= cells.length) {
+            return null;
+        }
+        String value = cells[index].trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
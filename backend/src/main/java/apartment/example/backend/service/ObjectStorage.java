@@ -0,0 +1,61 @@
+package apartment.example.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Object Storage
+ *
+ * Where uploaded bytes live, addressed by key (e.g. "ab/abcdef....jpg").
+ * ContentAddressedFileStore decides the keys and reference counts them; implementations
+ * only move bytes:
+ * - LocalObjectStorage: a directory (the shared uploads volume), served by /uploads/blobs/**
+ * - S3ObjectStorage: an S3-compatible bucket, downloaded by clients through presigned URLs
+ * Selected with file.storage.type (local | s3), see ObjectStorageConfig.
+ */
+public interface ObjectStorage {
+
+    /**
+     * An object and when it was written, for garbage collection
+     */
+    record StoredObject(String key, Instant lastModified) {
+    }
+
+    /**
+     * Store a staged file under key. The file is consumed: it may be moved rather than copied.
+     */
+    void put(String key, Path file, String contentType) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Copy the object to a local file, e.g. to render thumbnails
+     */
+    void download(String key, Path target) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Objects whose key starts with prefix; close the stream when done
+     */
+    Stream<StoredObject> list(String prefix) throws IOException;
+
+    /**
+     * The object as a local file, when the storage is a local directory
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * A time-limited URL the client can download from directly, bypassing the application;
+     * empty when the application serves the bytes itself
+     */
+    default Optional<String> presignedDownloadUrl(String key, Duration ttl) {
+        return Optional.empty();
+    }
+}
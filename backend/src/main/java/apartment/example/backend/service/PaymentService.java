@@ -8,6 +8,7 @@ import apartment.example.backend.repository.LeaseRepository;
 import apartment.example.backend.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,11 +43,11 @@ public class PaymentService {
     }
 
     public Optional<Payment> getPaymentById(Long id) {
-        return paymentRepository.findById(id);
+        return paymentRepository.findWithLeaseById(id);
     }
 
     public List<Payment> getPaymentsByLease(Long leaseId) {
-        return paymentRepository.findByLeaseId(leaseId);
+        return paymentRepository.findByLeaseIdOrderByDueDateDesc(leaseId);
     }
 
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
@@ -63,6 +66,25 @@ public class PaymentService {
         return paymentRepository.findByTenantId(tenantId);
     }
 
+    /**
+     * All payments of a tenant, including archived ones, newest first, with lease and unit
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentHistoryByTenant(Long tenantId) {
+        List<Payment> history = new ArrayList<>(paymentRepository.findByTenantIdWithLeaseOrderByDueDateDesc(tenantId));
+        List<Payment> archived = paymentRepository.findArchivedByTenantId(tenantId);
+        for (Payment payment : archived) {
+            // Leases fetched with the live payments are already loaded; a lease whose payments
+            // are all archived is still a proxy, so load it and its unit here
+            Hibernate.initialize(payment.getLease().getUnit());
+        }
+        if (!archived.isEmpty()) {
+            history.addAll(archived);
+            history.sort(Comparator.comparing(Payment::getDueDate).reversed());
+        }
+        return history;
+    }
+
     public List<Payment> getOverduePayments() {
         return paymentRepository.findOverduePayments(LocalDate.now());
     }
@@ -89,7 +111,7 @@ public class PaymentService {
 
     public Payment createBillByAdmin(Long leaseId, PaymentType paymentType, BigDecimal amount, LocalDate dueDate, String description) {
         // Find the lease
-        Lease lease = leaseRepository.findById(leaseId)
+        Lease lease = leaseRepository.findWithTenantAndUnitById(leaseId)
             .orElseThrow(() -> new RuntimeException("Lease not found with id: " + leaseId));
 
         // Create new payment/bill
@@ -110,7 +132,7 @@ public class PaymentService {
 
     @Transactional
     public Payment markAsPaid(Long paymentId, LocalDate paidDate, String paymentMethod, String notes) {
-        Payment payment = paymentRepository.findById(paymentId)
+        Payment payment = paymentRepository.findWithLeaseById(paymentId)
             .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
 
         if (payment.getStatus() == PaymentStatus.PAID) {
@@ -140,7 +162,7 @@ public class PaymentService {
 
     @Transactional
     public Payment markAsPartial(Long paymentId, BigDecimal paidAmount, String notes) {
-        Payment payment = paymentRepository.findById(paymentId)
+        Payment payment = paymentRepository.findWithLeaseById(paymentId)
             .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
 
         if (payment.getStatus() == PaymentStatus.PAID) {
@@ -175,7 +197,7 @@ public class PaymentService {
     }
 
     public Payment updatePayment(Long id, Payment paymentDetails) {
-        Payment payment = paymentRepository.findById(id)
+        Payment payment = paymentRepository.findWithLeaseById(id)
             .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
 
         // Allow updates to paid payments for administrative purposes
@@ -208,7 +230,15 @@ public class PaymentService {
     }
 
     public String generateReceiptNumber(PaymentType paymentType) {
-        String prefix = switch (paymentType) {
+        long timestamp = System.currentTimeMillis();
+        return receiptPrefix(paymentType) + "-" + timestamp;
+    }
+
+    /**
+     * Receipt number prefix per payment type (RENT, ELEC, WATER, ...)
+     */
+    public static String receiptPrefix(PaymentType paymentType) {
+        return switch (paymentType) {
             case RENT -> "RENT";
             case ELECTRICITY -> "ELEC";
             case WATER -> "WATER";
@@ -216,9 +246,6 @@ public class PaymentService {
             case SECURITY_DEPOSIT -> "DEP";
             case OTHER -> "OTHER";
         };
-        
-        long timestamp = System.currentTimeMillis();
-        return prefix + "-" + timestamp;
     }
 
     public boolean existsById(Long id) {
@@ -130,7 +130,7 @@ public class RentalRequestService {
     }
 
     public RentalRequest approveRequest(Long id, Long approvedByUserId) {
-        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findById(id);
+        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findByIdWithUnit(id);
         if (optionalRequest.isPresent()) {
             RentalRequest request = optionalRequest.get();
             request.setStatus(RentalRequestStatus.APPROVED);
@@ -148,7 +148,7 @@ public class RentalRequestService {
             throw new IllegalStateException("Cannot approve rental request with start date in the past. Start date: " + startDate + ", Current date: " + LocalDate.now());
         }
         
-        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findById(id);
+        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findByIdWithUnit(id);
         if (optionalRequest.isPresent()) {
             RentalRequest request = optionalRequest.get();
             
@@ -243,7 +243,7 @@ public class RentalRequestService {
     }
 
     public RentalRequest rejectRequest(Long id, String rejectionReason, Long rejectedByUserId) {
-        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findById(id);
+        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findByIdWithUnit(id);
         if (optionalRequest.isPresent()) {
             RentalRequest request = optionalRequest.get();
             request.setStatus(RentalRequestStatus.REJECTED);
@@ -256,7 +256,7 @@ public class RentalRequestService {
     }
 
     public RentalRequest updateRentalRequest(Long id, RentalRequest updatedRequest) {
-        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findById(id);
+        Optional<RentalRequest> optionalRequest = rentalRequestRepository.findByIdWithUnit(id);
         if (optionalRequest.isPresent()) {
             RentalRequest existingRequest = optionalRequest.get();
             
@@ -0,0 +1,165 @@
+package apartment.example.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * S3 Object Storage
+ *
+ * Objects in an S3-compatible bucket (AWS S3, MinIO, ...). Files above the part size are
+ * sent as a multipart upload, one part at a time straight from the staged file, so memory
+ * use does not grow with the upload. Downloads are handed to the bucket through presigned
+ * GET URLs, so file bytes never pass through the application.
+ */
+@Slf4j
+public class S3ObjectStorage implements ObjectStorage {
+
+    // S3 rejects multipart parts below 5 MiB (except the last)
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final long partSize;
+
+    public S3ObjectStorage(S3Client s3, S3Presigner presigner, String bucket, long partSize) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        try {
+            long size = Files.size(file);
+            if (size <= partSize) {
+                s3.putObject(request -> request.bucket(bucket).key(key).contentType(contentType),
+                        RequestBody.fromFile(file));
+            } else {
+                putMultipart(key, file, size, contentType);
+            }
+        } catch (SdkException e) {
+            throw new IOException("Failed to upload " + key + " to bucket " + bucket, e);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void putMultipart(String key, Path file, long size, String contentType) {
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(key).contentType(contentType))
+                .uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long start = offset;
+                long length = Math.min(partSize, size - offset);
+                int number = partNumber;
+                // Each (re)try reads the part again from the file instead of buffering it
+                RequestBody body = RequestBody.fromContentProvider(() -> openPart(file, start), length,
+                        "application/octet-stream");
+                String etag = s3.uploadPart(request -> request.bucket(bucket).key(key)
+                        .uploadId(uploadId).partNumber(number).contentLength(length), body).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abortFailure) {
+                log.warn("Could not abort multipart upload {} for {}: {}", uploadId, key, abortFailure.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            s3.headObject(request -> request.bucket(bucket).key(key));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Failed to look up " + key + " in bucket " + bucket, e);
+        } catch (SdkException e) {
+            throw new IOException("Failed to look up " + key + " in bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void download(String key, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            s3.getObject(request -> request.bucket(bucket).key(key), ResponseTransformer.toFile(target));
+        } catch (SdkException e) {
+            throw new IOException("Failed to download " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(request -> request.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new IOException("Failed to delete " + key + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public Stream<StoredObject> list(String prefix) throws IOException {
+        try {
+            // Pages are fetched lazily as the stream is consumed
+            return s3.listObjectsV2Paginator(request -> request.bucket(bucket).prefix(prefix))
+                    .contents()
+                    .stream()
+                    .map(object -> new StoredObject(object.key(), object.lastModified()));
+        } catch (SdkException e) {
+            throw new IOException("Failed to list bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public Optional<String> presignedDownloadUrl(String key, Duration ttl) {
+        return Optional.of(presigner.presignGetObject(request -> request
+                        .signatureDuration(ttl)
+                        .getObjectRequest(get -> get.bucket(bucket).key(key)))
+                .url()
+                .toString());
+    }
+
+    private static BufferedInputStream openPart(Path file, long offset) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(offset);
+            return new BufferedInputStream(Channels.newInputStream(channel));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceSchedule;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Schedule Diff
+ *
+ * Field-level change records for maintenance schedules. A snapshot holds a schedule's own
+ * columns in their JSON form (enums by name, dates as yyyy-MM-dd, the assignee by id), read
+ * straight from the entity without touching lazy associations. A diff of two snapshots is a
+ * JSON Patch-like list of operations on the changed fields only; applying the diff from the
+ * new snapshot to the old one walks a schedule back in time.
+ */
+public final class ScheduleDiff {
+
+    /**
+     * One changed field; value is omitted for a remove (the field became null)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Operation(String op, String path, Object value) {
+
+        public String field() {
+            return path.substring(1);
+        }
+    }
+
+    private ScheduleDiff() {
+    }
+
+    public static Map<String, Object> snapshot(MaintenanceSchedule schedule) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("title", schedule.getTitle());
+        fields.put("description", schedule.getDescription());
+        fields.put("category", name(schedule.getCategory()));
+        fields.put("recurrenceType", name(schedule.getRecurrenceType()));
+        fields.put("recurrenceInterval", schedule.getRecurrenceInterval());
+        fields.put("recurrenceDayOfWeek", schedule.getRecurrenceDayOfWeek());
+        fields.put("recurrenceDayOfMonth", schedule.getRecurrenceDayOfMonth());
+        fields.put("targetType", name(schedule.getTargetType()));
+        fields.put("targetUnits", schedule.getTargetUnits());
+        fields.put("startDate", date(schedule.getStartDate()));
+        fields.put("endDate", date(schedule.getEndDate()));
+        fields.put("nextTriggerDate", date(schedule.getNextTriggerDate()));
+        fields.put("lastTriggeredDate", date(schedule.getLastTriggeredDate()));
+        fields.put("notifyDaysBefore", schedule.getNotifyDaysBefore());
+        fields.put("notifyUsers", schedule.getNotifyUsers());
+        fields.put("estimatedCost", schedule.getEstimatedCost());
+        // Reading the id of a lazy user proxy does not initialize it
+        fields.put("assignedToUserId", schedule.getAssignedTo() != null ? schedule.getAssignedTo().getId() : null);
+        fields.put("priority", name(schedule.getPriority()));
+        fields.put("isActive", schedule.getIsActive());
+        fields.put("isPaused", schedule.getIsPaused());
+        return fields;
+    }
+
+    /**
+     * Operations turning the from snapshot into the to snapshot, in snapshot field order
+     */
+    public static List<Operation> diff(Map<String, Object> from, Map<String, Object> to) {
+        List<Operation> operations = new ArrayList<>();
+        for (Map.Entry<String, Object> field : to.entrySet()) {
+            Object before = from.get(field.getKey());
+            Object after = field.getValue();
+            if (sameValue(before, after)) {
+                continue;
+            }
+            String path = "/" + field.getKey();
+            if (after == null) {
+                operations.add(new Operation("remove", path, null));
+            } else {
+                operations.add(new Operation(before == null ? "add" : "replace", path, after));
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Apply operations to a snapshot in place; removed fields stay in the map as null
+     */
+    public static void apply(Map<String, Object> snapshot, List<Operation> operations) {
+        for (Operation operation : operations) {
+            snapshot.put(operation.field(), "remove".equals(operation.op()) ? null : operation.value());
+        }
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof BigDecimal x && b instanceof BigDecimal y) {
+            return x.compareTo(y) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static String date(LocalDate value) {
+        return value != null ? value.toString() : null;
+    }
+}
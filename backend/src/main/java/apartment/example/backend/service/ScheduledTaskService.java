@@ -11,12 +11,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
  * Scheduled Task Service
  * 
- * Handles automatic maintenance schedule triggers and notifications
+ * Handles maintenance notifications and cleanup. Schedules are triggered, and upcoming
+ * maintenance notifications sent, by MaintenanceTriggerDispatcher as they come due.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,85 +26,39 @@ import java.util.List;
 public class ScheduledTaskService {
 
     private final MaintenanceScheduleRepository scheduleRepository;
-    private final MaintenanceScheduleService scheduleService;
     private final MaintenanceNotificationService notificationService;
     private final ObjectMapper objectMapper;
 
     /**
-     * Check and trigger due maintenance schedules
+     * Send the upcoming maintenance notification of one schedule for the given notification date
      * 
-     * Runs daily at 6:00 AM
+     * Run by MaintenanceTriggerDispatcher on the schedule's notification date. The notification
+     * is claimed with a conditional update first, so when several instances run it only the one
+     * whose update changes the row sends it; a failed send rolls the claim back for the retry.
      */
-    @Scheduled(cron = "0 0 6 * * *")
     @Transactional
-    public void checkAndTriggerSchedules() {
-        log.info("=== Starting scheduled maintenance check ===");
-        
-        try {
-            LocalDate today = LocalDate.now();
-            
-            // Find schedules that need to be triggered today or earlier
-            List<MaintenanceSchedule> schedulesToTrigger = scheduleRepository.findSchedulesToTrigger(today);
-            
-            log.info("Found {} schedules to trigger", schedulesToTrigger.size());
-            
-            for (MaintenanceSchedule schedule : schedulesToTrigger) {
-                try {
-                    log.info("Triggering schedule: {} (ID: {})", schedule.getTitle(), schedule.getId());
-                    scheduleService.triggerSchedule(schedule.getId());
-                } catch (Exception e) {
-                    log.error("Error triggering schedule ID: {}", schedule.getId(), e);
-                }
-            }
-            
-            log.info("=== Completed scheduled maintenance check ===");
-        } catch (Exception e) {
-            log.error("Error in scheduled maintenance check", e);
+    public void sendUpcomingMaintenanceNotification(Long scheduleId, LocalDate notifyDate) {
+        MaintenanceSchedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found with id: " + scheduleId));
+
+        if (!schedule.getIsActive() || schedule.getIsPaused()) {
+            return;
         }
-    }
 
-    /**
-     * Send upcoming maintenance notifications
-     * 
-     * Runs daily at 8:00 AM
-     */
-    @Scheduled(cron = "0 0 8 * * *")
-    @Transactional
-    public void sendUpcomingMaintenanceNotifications() {
-        log.info("=== Starting upcoming maintenance notifications ===");
-        
-        try {
-            LocalDate today = LocalDate.now();
-            
-            // Check for schedules with notification settings
-            List<MaintenanceSchedule> activeSchedules = scheduleRepository.findByIsActiveTrueOrderByNextTriggerDateAsc();
-            
-            for (MaintenanceSchedule schedule : activeSchedules) {
-                if (schedule.getNotifyDaysBefore() != null && schedule.getNotifyDaysBefore() > 0) {
-                    LocalDate notificationDate = schedule.getNextTriggerDate().minusDays(schedule.getNotifyDaysBefore());
-                    
-                    if (notificationDate.equals(today)) {
-                        try {
-                            // Parse notify users from JSON
-                            List<Long> notifyUsers = parseUserIds(schedule.getNotifyUsers());
-                            
-                            if (notifyUsers != null && !notifyUsers.isEmpty()) {
-                                int daysUntil = (int) java.time.temporal.ChronoUnit.DAYS.between(today, schedule.getNextTriggerDate());
-                                log.info("Sending upcoming maintenance notification for: {} (in {} days)", 
-                                        schedule.getTitle(), daysUntil);
-                                
-                                notificationService.notifyUpcomingMaintenance(schedule, notifyUsers, daysUntil);
-                            }
-                        } catch (Exception e) {
-                            log.error("Error sending notification for schedule ID: {}", schedule.getId(), e);
-                        }
-                    }
-                }
-            }
-            
-            log.info("=== Completed upcoming maintenance notifications ===");
-        } catch (Exception e) {
-            log.error("Error sending upcoming maintenance notifications", e);
+        if (scheduleRepository.claimNotification(scheduleId, notifyDate) == 0) {
+            log.info("Upcoming maintenance notification of {} for schedule {} was already sent", notifyDate, scheduleId);
+            return;
+        }
+
+        // Parse notify users from JSON
+        List<Long> notifyUsers = parseUserIds(schedule.getNotifyUsers());
+
+        if (notifyUsers != null && !notifyUsers.isEmpty()) {
+            int daysUntil = (int) ChronoUnit.DAYS.between(LocalDate.now(), schedule.getNextTriggerDate());
+            log.info("Sending upcoming maintenance notification for: {} (in {} days)", 
+                    schedule.getTitle(), daysUntil);
+
+            notificationService.notifyUpcomingMaintenance(schedule, notifyUsers, daysUntil);
         }
     }
 
@@ -119,22 +75,20 @@ public class ScheduledTaskService {
         try {
             LocalDate today = LocalDate.now();
             
-            // Find active schedules that are overdue
-            List<MaintenanceSchedule> activeSchedules = scheduleRepository.findByIsActiveTrueOrderByNextTriggerDateAsc();
+            // Active, unpaused schedules whose trigger date has passed without a trigger
+            List<MaintenanceSchedule> overdueSchedules = scheduleRepository.findSchedulesToTrigger(today.minusDays(1));
             
-            for (MaintenanceSchedule schedule : activeSchedules) {
-                if (schedule.getNextTriggerDate().isBefore(today) && !schedule.getIsPaused()) {
-                    try {
-                        // Parse notify users from JSON
-                        List<Long> notifyUsers = parseUserIds(schedule.getNotifyUsers());
-                        
-                        if (notifyUsers != null && !notifyUsers.isEmpty()) {
-                            log.info("Sending overdue notification for: {}", schedule.getTitle());
-                            notificationService.notifyOverdueMaintenance(schedule, notifyUsers);
-                        }
-                    } catch (Exception e) {
-                        log.error("Error sending overdue notification for schedule ID: {}", schedule.getId(), e);
+            for (MaintenanceSchedule schedule : overdueSchedules) {
+                try {
+                    // Parse notify users from JSON
+                    List<Long> notifyUsers = parseUserIds(schedule.getNotifyUsers());
+                    
+                    if (notifyUsers != null && !notifyUsers.isEmpty()) {
+                        log.info("Sending overdue notification for: {}", schedule.getTitle());
+                        notificationService.notifyOverdueMaintenance(schedule, notifyUsers);
                     }
+                } catch (Exception e) {
+                    log.error("Error sending overdue notification for schedule ID: {}", schedule.getId(), e);
                 }
             }
             
@@ -150,7 +104,6 @@ public class ScheduledTaskService {
      * Runs weekly on Sunday at 2:00 AM
      */
     @Scheduled(cron = "0 0 2 * * SUN")
-    @Transactional
     public void cleanupOldNotifications() {
         log.info("=== Starting notification cleanup ===");
         
@@ -14,7 +14,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -126,4 +129,19 @@ public class TenantService {
     public boolean existsById(Long id) {
         return tenantRepository.existsById(id);
     }
+
+    /**
+     * Active lease of each tenant that has one, keyed by tenant id, in one query
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Lease> getActiveLeasesByTenantId(Collection<Long> tenantIds) {
+        if (tenantIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Lease> leases = new HashMap<>();
+        for (Lease lease : leaseRepository.findByTenantIdInAndStatus(tenantIds, LeaseStatus.ACTIVE)) {
+            leases.putIfAbsent(lease.getTenant().getId(), lease);
+        }
+        return leases;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.UnitStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Unit Audit Listener
+ *
+ * Hibernate event listener that reports unit inserts, updates and deletes to
+ * UnitAuditRecorder. It is registered with Hibernate directly rather than as a JPA entity
+ * listener because the audit needs the column values from before the update, which only
+ * Hibernate's post-update event carries. Loading a unit makes the recorder track the
+ * transaction, so the updates dirty checking flushes at commit are still recorded.
+ */
+@Component
+public class UnitAuditListener implements PostLoadEventListener, PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UnitAuditRecorder recorder;
+
+    public UnitAuditListener(EntityManagerFactory entityManagerFactory, UnitAuditRecorder recorder) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.recorder = recorder;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        if (event.getEntity() instanceof Unit) {
+            recorder.track();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Unit unit) {
+            recorder.inserted(unit.getId(), values(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Unit unit) {
+            // No old state when the unit was updated without being loaded first
+            UnitAuditRecorder.UnitValues oldValues = event.getOldState() != null
+                    ? values(event.getPersister(), event.getOldState())
+                    : null;
+            recorder.updated(unit.getId(), oldValues, values(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Unit unit) {
+            recorder.deleted(unit.getId(), values(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static UnitAuditRecorder.UnitValues values(EntityPersister persister, Object[] state) {
+        String[] names = persister.getPropertyNames();
+        return new UnitAuditRecorder.UnitValues(
+                (String) value(names, state, "roomNumber"),
+                (Integer) value(names, state, "floor"),
+                (String) value(names, state, "unitType"),
+                (BigDecimal) value(names, state, "rentAmount"),
+                (UnitStatus) value(names, state, "status"),
+                (BigDecimal) value(names, state, "sizeSqm"),
+                (String) value(names, state, "description"),
+                (LocalDateTime) value(names, state, "deletedAt"));
+    }
+
+    private static Object value(String[] names, Object[] state, String property) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return state[i];
+            }
+        }
+        return null;
+    }
+}
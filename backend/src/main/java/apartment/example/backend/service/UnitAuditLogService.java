@@ -5,7 +5,9 @@ import apartment.example.backend.entity.enums.UnitAuditActionType;
 import apartment.example.backend.repository.UnitAuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,11 +33,15 @@ public class UnitAuditLogService {
     }
 
     /**
-     * Get all audit logs for a specific unit with pagination
+     * Get all audit logs for a specific unit with pagination, including archived entries
      */
     public Page<UnitAuditLog> getAuditLogsByUnitId(Long unitId, Pageable pageable) {
         log.debug("Fetching audit logs for unit ID: {}", unitId);
-        return auditLogRepository.findByUnitIdOrderByCreatedAtDesc(unitId, pageable);
+        // The history query fixes its own order (newest first); only page and size apply
+        Page<UnitAuditLog> logs = auditLogRepository.findHistoryByUnitId(unitId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        fetchUnitsAndUsers(logs.getContent());
+        return logs;
     }
 
     /**
@@ -93,16 +99,29 @@ public class UnitAuditLogService {
     }
 
     /**
-     * Get price change logs for a unit
+     * Get price change logs for a unit, including archived entries
      */
     public List<UnitAuditLog> getPriceChangeLogs(Long unitId) {
         log.debug("Fetching price change logs for unit ID: {}", unitId);
-        return auditLogRepository.findByUnitIdAndActionTypeOrderByCreatedAtDesc(unitId, UnitAuditActionType.PRICE_CHANGED);
+        List<UnitAuditLog> logs = auditLogRepository.findPriceChangeHistoryByUnitId(unitId);
+        fetchUnitsAndUsers(logs);
+        return logs;
+    }
+
+    /**
+     * Native history queries cannot fetch associations; load the unit and user the DTOs show
+     * while the transaction is open (one select per distinct unit or user)
+     */
+    private void fetchUnitsAndUsers(List<UnitAuditLog> logs) {
+        for (UnitAuditLog auditLog : logs) {
+            Hibernate.initialize(auditLog.getUnit());
+            Hibernate.initialize(auditLog.getCreatedBy());
+        }
     }
 
     /**
      * Create a new audit log record (used internally)
-     * Note: Audit logs are usually created automatically by triggers
+     * Note: Unit changes are audited automatically by UnitAuditRecorder
      * This method is for manual logging when needed
      */
     protected UnitAuditLog createAuditLog(UnitAuditLog auditLog) {
@@ -0,0 +1,391 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.UnitAuditActionType;
+import apartment.example.backend.entity.enums.UnitStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit Audit Recorder
+ *
+ * Application-side replacement of the units triggers. UnitAuditListener reports every unit
+ * insert, update and delete with its old and new column values; changes are collected per
+ * transaction together with who made them (user, IP and user agent of the current request)
+ * and, for price changes, the reason set by the caller. Just before the transaction commits:
+ * - unit_price_history is updated in the same transaction - an initial price for new units,
+ *   and for a rent change the open interval is closed and a new one started
+ * - the audit rows are inserted into unit_audit_outbox in one JDBC batch
+ * Once committed, their outbox ids go to UnitAuditWriter, which moves them to unit_audit_logs
+ * in batches off the request thread. Action types and descriptions match what the triggers wrote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnitAuditRecorder {
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO unit_audit_outbox (unit_id, room_number, action_type, old_values, new_values, " +
+            "                               description, username, ip_address, user_agent, created_at) " +
+            "VALUES (:unitId, :roomNumber, :actionType, :oldValues, :newValues, " +
+            "        :description, :username, :ipAddress, :userAgent, :createdAt)";
+
+    private static final String CLOSE_PRICES =
+            "UPDATE unit_price_history SET effective_to = :now WHERE unit_id IN (:unitIds) AND effective_to IS NULL";
+
+    private static final String INSERT_PRICE =
+            "INSERT INTO unit_price_history (unit_id, rent_amount, effective_from, effective_to, change_reason, " +
+            "                                created_by_user_id) " +
+            "VALUES (:unitId, :rentAmount, :now, NULL, :reason, (SELECT id FROM users WHERE username = :username))";
+
+    private static final String DEFAULT_PRICE_REASON = "Price updated";
+    private static final String INITIAL_PRICE_REASON = "Initial price";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final UnitAuditWriter writer;
+
+    /**
+     * Audited column values of a unit
+     */
+    public record UnitValues(String roomNumber, Integer floor, String type, BigDecimal rentAmount,
+                             UnitStatus status, BigDecimal sizeSqm, String description, LocalDateTime deletedAt) {
+
+        public static UnitValues of(Unit unit) {
+            return new UnitValues(unit.getRoomNumber(), unit.getFloor(), unit.getUnitType(), unit.getRentAmount(),
+                    unit.getStatus(), unit.getSizeSqm(), unit.getDescription(), unit.getDeletedAt());
+        }
+
+        UnitValues withStatus(UnitStatus newStatus) {
+            return new UnitValues(roomNumber, floor, type, rentAmount, newStatus, sizeSqm, description, deletedAt);
+        }
+
+        /**
+         * Keyed by column name, like the JSON_OBJECT the triggers wrote
+         */
+        Map<String, Object> toColumns(boolean withDeletedAt) {
+            Map<String, Object> columns = new LinkedHashMap<>();
+            columns.put("room_number", roomNumber);
+            columns.put("floor", floor);
+            columns.put("type", type);
+            columns.put("rent_amount", decimal(rentAmount));
+            columns.put("status", status != null ? status.name() : null);
+            columns.put("size_sqm", decimal(sizeSqm));
+            columns.put("description", description);
+            if (withDeletedAt) {
+                columns.put("deleted_at", deletedAt);
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Who made the changes of a transaction
+     */
+    record AuditContext(String username, String ipAddress, String userAgent) {
+
+        static AuditContext current() {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String username = authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)
+                    ? authentication.getName()
+                    : null;
+            HttpServletRequest request = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                    ? attributes.getRequest()
+                    : null;
+            if (request == null) {
+                return new AuditContext(username, null, null);
+            }
+            // The first X-Forwarded-For entry is the client when running behind the proxy
+            String forwarded = request.getHeader("X-Forwarded-For");
+            String ip = forwarded != null && !forwarded.isBlank()
+                    ? forwarded.split(",")[0].trim()
+                    : request.getRemoteAddr();
+            return new AuditContext(username, truncate(ip, 45), truncate(request.getHeader("User-Agent"), 500));
+        }
+    }
+
+    /**
+     * One audited change; oldValues is null for an insert, newValues for a hard delete
+     */
+    record Change(Long unitId, UnitAuditActionType actionType, UnitValues oldValues, UnitValues newValues,
+                  String description, LocalDateTime at) {
+    }
+
+    /**
+     * Changes of one transaction, in the order they were flushed
+     */
+    static final class PendingChanges {
+
+        private final AuditContext context;
+        private final List<Change> changes = new ArrayList<>();
+        private String priceChangeReason;
+
+        PendingChanges(AuditContext context) {
+            this.context = context;
+        }
+    }
+
+    /**
+     * Make sure the current transaction records its unit changes before it commits.
+     * Called when a unit is loaded - dirty checking flushes updates only at commit, which is
+     * too late to register then.
+     */
+    public void track() {
+        pending();
+    }
+
+    /**
+     * Reason stored with the price change the current transaction makes
+     */
+    public void setPriceChangeReason(String reason) {
+        PendingChanges pending = pending();
+        if (pending != null) {
+            pending.priceChangeReason = reason;
+        }
+    }
+
+    public void inserted(Long unitId, UnitValues values) {
+        add(new Change(unitId, UnitAuditActionType.CREATED, null, values,
+                "Created unit: " + values.roomNumber(), LocalDateTime.now()));
+    }
+
+    public void updated(Long unitId, UnitValues oldValues, UnitValues newValues) {
+        UnitAuditActionType actionType;
+        String description;
+        if (oldValues == null) {
+            actionType = UnitAuditActionType.UPDATED;
+            description = "Updated unit: " + newValues.roomNumber();
+        } else if (oldValues.rentAmount().compareTo(newValues.rentAmount()) != 0) {
+            actionType = UnitAuditActionType.PRICE_CHANGED;
+            description = "Price changed from " + decimal(oldValues.rentAmount()) + " to " + decimal(newValues.rentAmount());
+        } else if (oldValues.status() != newValues.status()) {
+            actionType = UnitAuditActionType.STATUS_CHANGED;
+            description = "Status changed from " + oldValues.status() + " to " + newValues.status();
+        } else if (oldValues.deletedAt() == null && newValues.deletedAt() != null) {
+            actionType = UnitAuditActionType.DELETED;
+            description = "Soft deleted unit: " + newValues.roomNumber();
+        } else if (oldValues.deletedAt() != null && newValues.deletedAt() == null) {
+            actionType = UnitAuditActionType.RESTORED;
+            description = "Restored unit: " + newValues.roomNumber();
+        } else {
+            actionType = UnitAuditActionType.UPDATED;
+            description = "Updated unit: " + newValues.roomNumber();
+        }
+        add(new Change(unitId, actionType, oldValues, newValues, description, LocalDateTime.now()));
+    }
+
+    public void deleted(Long unitId, UnitValues oldValues) {
+        add(new Change(unitId, UnitAuditActionType.DELETED, oldValues, null,
+                "Hard deleted unit: " + oldValues.roomNumber(), LocalDateTime.now()));
+    }
+
+    /**
+     * Record a status change made with a bulk update, which bypasses the listener; the unit
+     * still holds its values from before the update
+     */
+    public void statusChanged(Unit unit, UnitStatus newStatus) {
+        if (unit.getStatus() != newStatus) {
+            UnitValues oldValues = UnitValues.of(unit);
+            updated(unit.getId(), oldValues, oldValues.withStatus(newStatus));
+        }
+    }
+
+    private void add(Change change) {
+        PendingChanges pending = pending();
+        if (pending != null) {
+            pending.changes.add(change);
+            return;
+        }
+        // Not expected: JPA writes run in a transaction. Keep the row anyway, in its own statement.
+        log.warn("Unit {} changed outside a transaction; writing its audit row directly", change.unitId());
+        PendingChanges single = new PendingChanges(AuditContext.current());
+        single.changes.add(change);
+        writer.enqueue(writeOutbox(single));
+    }
+
+    private PendingChanges pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges(AuditContext.current());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new AuditSynchronization(pending));
+        }
+        return pending;
+    }
+
+    /**
+     * Close and open price intervals of the units whose rent the transaction changed. A unit
+     * changed several times gets one new interval, with its final rent.
+     */
+    private void writePriceHistory(PendingChanges pending) {
+        Map<Long, BigDecimal> initial = new LinkedHashMap<>();
+        Map<Long, BigDecimal> changed = new LinkedHashMap<>();
+        Set<Long> removed = new HashSet<>();
+        for (Change change : pending.changes) {
+            if (change.newValues() == null) {
+                removed.add(change.unitId());
+            } else if (change.actionType() == UnitAuditActionType.CREATED) {
+                initial.put(change.unitId(), change.newValues().rentAmount());
+            } else if (initial.containsKey(change.unitId())) {
+                initial.put(change.unitId(), change.newValues().rentAmount());
+            } else if (change.actionType() == UnitAuditActionType.PRICE_CHANGED || changed.containsKey(change.unitId())) {
+                changed.put(change.unitId(), change.newValues().rentAmount());
+            }
+        }
+        removed.forEach(initial::remove);
+        removed.forEach(changed::remove);
+        if (initial.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!changed.isEmpty()) {
+            jdbc.update(CLOSE_PRICES, new MapSqlParameterSource()
+                    .addValue("now", now)
+                    .addValue("unitIds", changed.keySet()));
+        }
+        String reason = pending.priceChangeReason != null ? pending.priceChangeReason : DEFAULT_PRICE_REASON;
+        List<SqlParameterSource> rows = new ArrayList<>();
+        initial.forEach((unitId, rent) -> rows.add(priceRow(unitId, rent, now, INITIAL_PRICE_REASON, pending)));
+        changed.forEach((unitId, rent) -> rows.add(priceRow(unitId, rent, now, reason, pending)));
+        jdbc.batchUpdate(INSERT_PRICE, rows.toArray(SqlParameterSource[]::new));
+    }
+
+    private static SqlParameterSource priceRow(Long unitId, BigDecimal rent, LocalDateTime now, String reason,
+                                               PendingChanges pending) {
+        return new MapSqlParameterSource()
+                .addValue("unitId", unitId)
+                .addValue("rentAmount", rent)
+                .addValue("now", now)
+                .addValue("reason", truncate(reason, 255))
+                .addValue("username", pending.context.username());
+    }
+
+    /**
+     * Insert the transaction's audit rows into the outbox and return their ids
+     */
+    private List<Long> writeOutbox(PendingChanges pending) {
+        SqlParameterSource[] rows = pending.changes.stream()
+                .map(change -> outboxRow(change, pending.context))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(INSERT_OUTBOX, rows, keys);
+        return keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private SqlParameterSource outboxRow(Change change, AuditContext context) {
+        UnitValues current = change.newValues() != null ? change.newValues() : change.oldValues();
+        boolean created = change.actionType() == UnitAuditActionType.CREATED;
+        return new MapSqlParameterSource()
+                .addValue("unitId", change.unitId())
+                .addValue("roomNumber", current.roomNumber())
+                .addValue("actionType", change.actionType().name())
+                .addValue("oldValues", json(change.oldValues(), true))
+                .addValue("newValues", json(change.newValues(), !created))
+                .addValue("description", change.description())
+                .addValue("username", context.username())
+                .addValue("ipAddress", context.ipAddress())
+                .addValue("userAgent", context.userAgent())
+                .addValue("createdAt", change.at());
+    }
+
+    private String json(UnitValues values, boolean withDeletedAt) {
+        if (values == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(values.toColumns(withDeletedAt));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize unit audit values", e);
+        }
+    }
+
+    private static BigDecimal decimal(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * Flushes pending unit changes (so the listener has reported all of them), writes price
+     * history and the outbox rows inside the transaction, and hands the outbox ids to the
+     * writer once it has committed
+     */
+    private class AuditSynchronization implements TransactionSynchronization {
+
+        private final PendingChanges pending;
+        private List<Long> outboxIds = List.of();
+
+        AuditSynchronization(PendingChanges pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (readOnly) {
+                return;
+            }
+            entityManager.flush();
+            if (pending.changes.isEmpty()) {
+                return;
+            }
+            writePriceHistory(pending);
+            outboxIds = writeOutbox(pending);
+            pending.changes.clear();
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!outboxIds.isEmpty()) {
+                writer.enqueue(outboxIds);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UnitAuditRecorder.this);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package apartment.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit Audit Writer
+ *
+ * Moves committed unit_audit_outbox rows to unit_audit_logs. UnitAuditRecorder hands over the
+ * outbox ids of every committed transaction through a bounded queue; a single writer thread
+ * drains it and moves up to unit-audit.batch-size rows per transaction with one
+ * INSERT ... SELECT and one DELETE. When the queue is full, committing threads wait up to
+ * unit-audit.offer-timeout for room, then leave their rows to the sweep, which also picks up
+ * rows of crashed instances and other replicas. Rows are claimed with SKIP LOCKED, so the
+ * writer, the sweep and other replicas never move a row twice.
+ */
+@Component
+@Slf4j
+public class UnitAuditWriter {
+
+    private static final String CLAIM_BY_ID =
+            "SELECT id FROM unit_audit_outbox WHERE id IN (:ids) ORDER BY id FOR UPDATE SKIP LOCKED";
+
+    private static final String CLAIM_STALE =
+            "SELECT id FROM unit_audit_outbox WHERE created_at < :cutoff ORDER BY id LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED";
+
+    // The unit or user may be gone by now; their columns become NULL as with ON DELETE SET NULL
+    private static final String MOVE =
+            "INSERT INTO unit_audit_logs (unit_id, room_number, action_type, old_values, new_values, description, " +
+            "                             ip_address, user_agent, created_at, created_by_user_id) " +
+            "SELECT u.id, o.room_number, o.action_type, o.old_values, o.new_values, o.description, " +
+            "       o.ip_address, o.user_agent, o.created_at, usr.id " +
+            "FROM unit_audit_outbox o " +
+            "LEFT JOIN units u ON u.id = o.unit_id " +
+            "LEFT JOIN users usr ON usr.username = o.username " +
+            "WHERE o.id IN (:ids) " +
+            "ORDER BY o.id";
+
+    private static final String DELETE = "DELETE FROM unit_audit_outbox WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Long> queue;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Duration sweepAfter;
+    private final Counter written;
+    private final Counter overflowed;
+    private final Counter failed;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public UnitAuditWriter(NamedParameterJdbcTemplate jdbc,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${unit-audit.queue-capacity:10000}") int queueCapacity,
+                           @Value("${unit-audit.batch-size:200}") int batchSize,
+                           @Value("${unit-audit.offer-timeout:200ms}") Duration offerTimeout,
+                           @Value("${unit-audit.sweep-after:1m}") Duration sweepAfter) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.sweepAfter = sweepAfter;
+        this.written = Counter.builder("unit.audit.written")
+                .description("Audit rows moved from the outbox to unit_audit_logs")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("unit.audit.overflowed")
+                .description("Committed audit rows left to the sweep because the writer queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("unit.audit.failed")
+                .description("Audit batches that failed to move; their rows stay in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("unit.audit.queue.size", queue, BlockingQueue::size)
+                .description("Committed audit rows waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().name("unit-audit-writer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is still queued is committed; move it now rather than wait for the next sweep
+        List<Long> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        try {
+            for (int from = 0; from < remaining.size(); from += batchSize) {
+                move(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not move {} queued audit row(s) on shutdown; the next sweep will", remaining.size(), e);
+        }
+    }
+
+    /**
+     * Hand over outbox ids of a committed transaction. Waits up to the offer timeout in total
+     * when the queue is full; ids that still do not fit are left to the sweep.
+     */
+    public void enqueue(List<Long> outboxIds) {
+        long deadline = System.nanoTime() + offerTimeout.toNanos();
+        for (int i = 0; i < outboxIds.size(); i++) {
+            try {
+                long wait = Math.max(0, deadline - System.nanoTime());
+                if (!queue.offer(outboxIds.get(i), wait, TimeUnit.NANOSECONDS)) {
+                    overflowed.increment(outboxIds.size() - i);
+                    log.warn("Audit writer queue full, leaving {} row(s) to the sweep", outboxIds.size() - i);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                overflowed.increment(outboxIds.size() - i);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${unit-audit.sweep-interval:PT30S}")
+    public void sweepScheduled() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Audit outbox sweep failed", e);
+        }
+    }
+
+    /**
+     * Move outbox rows nobody has moved within unit-audit.sweep-after, oldest first
+     */
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(sweepAfter);
+        int moved = 0;
+        int claimed;
+        do {
+            claimed = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                List<Long> ids = jdbc.queryForList(CLAIM_STALE, new MapSqlParameterSource()
+                        .addValue("cutoff", cutoff)
+                        .addValue("limit", batchSize), Long.class);
+                return moveClaimed(ids);
+            }));
+            moved += claimed;
+        } while (claimed == batchSize);
+        if (moved > 0) {
+            log.info("Audit sweep moved {} outbox row(s)", moved);
+        }
+        return moved;
+    }
+
+    private void run() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                move(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The rows stay in the outbox; the sweep retries them
+                failed.increment();
+                log.error("Failed to write {} audit row(s); leaving them to the sweep", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void move(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status ->
+                moveClaimed(jdbc.queryForList(CLAIM_BY_ID, new MapSqlParameterSource("ids", ids), Long.class)));
+    }
+
+    /**
+     * Copy the claimed rows to unit_audit_logs and delete them from the outbox; runs in the
+     * transaction that claimed them
+     */
+    private int moveClaimed(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbc.update(MOVE, params);
+        jdbc.update(DELETE, params);
+        written.increment(ids.size());
+        return ids.size();
+    }
+}
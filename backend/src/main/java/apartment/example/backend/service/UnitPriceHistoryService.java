@@ -10,7 +10,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,6 +23,7 @@ public class UnitPriceHistoryService {
 
     private final UnitPriceHistoryRepository priceHistoryRepository;
     private final UnitRepository unitRepository;
+    private final UnitPriceIndex unitPriceIndex;
 
     /**
      * Get all price history for a specific unit
@@ -81,7 +84,7 @@ public class UnitPriceHistoryService {
     /**
      * Create a new price history record (used internally)
      * Note: Price changes should be done through UnitService.updateUnitPrice()
-     * which will handle triggers and audit logging
+     * which records price history and audit logging through UnitAuditRecorder
      */
     protected UnitPriceHistory createPriceHistory(UnitPriceHistory priceHistory) {
         log.info("Creating new price history record for unit ID: {}", priceHistory.getUnit().getId());
@@ -97,30 +100,38 @@ public class UnitPriceHistoryService {
 
     /**
      * Get rent amount at a specific date (convenience method)
+     * Served by UnitPriceIndex; units without price history fall back to their current rent
      */
+    @Transactional(readOnly = true)
     public BigDecimal getRentAmountAtDate(Long unitId, LocalDate date) {
-        return getPriceAtDate(unitId, date)
-                .map(UnitPriceHistory::getRentAmount)
-                .orElseGet(() -> {
-                    // Fallback to current unit rent if no history found
-                    log.warn("No price history found for unit {} on date {}, using current rent", unitId, date);
-                    return unitRepository.findById(unitId)
-                            .map(unit -> unit.getRentAmount())
-                            .orElse(BigDecimal.ZERO);
-                });
+        return getRentAmountsAtDate(List.of(unitId), date).getOrDefault(unitId, BigDecimal.ZERO);
+    }
+
+    /**
+     * Get rent amounts at a specific date for many units, as in getRentAmountAtDate
+     * Units already in UnitPriceIndex cost no query; the rest load in two queries
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getRentAmountsAtDate(Collection<Long> unitIds, LocalDate date) {
+        if (unitIds.isEmpty()) {
+            return Map.of();
+        }
+        return unitPriceIndex.rentsAt(unitIds, date.atStartOfDay());
+    }
+
+    /**
+     * Get rent amounts of all units at a specific date in one call
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getAllRentAmountsAtDate(LocalDate date) {
+        return getRentAmountsAtDate(unitRepository.findAllIds(), date);
     }
 
     /**
      * Get current rent amount (convenience method)
      */
+    @Transactional(readOnly = true)
     public BigDecimal getCurrentRentAmount(Long unitId) {
-        return getCurrentPrice(unitId)
-                .map(UnitPriceHistory::getRentAmount)
-                .orElseGet(() -> {
-                    log.warn("No current price found in history for unit {}, using unit rent", unitId);
-                    return unitRepository.findById(unitId)
-                            .map(unit -> unit.getRentAmount())
-                            .orElse(BigDecimal.ZERO);
-                });
+        return unitPriceIndex.currentRents(List.of(unitId)).getOrDefault(unitId, BigDecimal.ZERO);
     }
 }
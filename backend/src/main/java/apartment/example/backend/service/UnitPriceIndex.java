@@ -0,0 +1,235 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.repository.UnitPriceHistoryRepository;
+import apartment.example.backend.repository.UnitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Unit Price Index
+ *
+ * In-memory copy of unit_price_history: per unit, the price intervals sorted by effectiveFrom,
+ * so the rent at a point in time is a binary search instead of two queries. Units load lazily,
+ * in bulk for all units a lookup is missing, together with the unit's own rent as the fallback
+ * when no interval covers the date. The index is shared by all request and job threads.
+ *
+ * Price history is written by UnitAuditRecorder when a unit's rent changes, so UnitService
+ * invalidates a unit once the transaction that updated it completes; entries also expire after unit-price-index.ttl so
+ * price changes made on other replicas show up. Loads run in their own read-only transaction,
+ * so a caller's REPEATABLE READ snapshot never ends up in the shared index.
+ */
+@Component
+@Slf4j
+public class UnitPriceIndex {
+
+    // Keeps IN lists of bulk loads at a reasonable size
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final UnitPriceHistoryRepository priceHistoryRepository;
+    private final UnitRepository unitRepository;
+    private final TransactionTemplate loadTransaction;
+    private final long ttlNanos;
+    private final Map<Long, UnitPrices> units = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that raced one does not keep its result
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * One unit's price intervals, sorted by effectiveFrom; a null effectiveTo is the open interval
+     */
+    static final class UnitPrices {
+
+        private final LocalDateTime[] from;
+        private final LocalDateTime[] to;
+        private final BigDecimal[] rent;
+        private final BigDecimal unitRent;
+        private final long loadedAt;
+
+        UnitPrices(List<Object[]> intervals, BigDecimal unitRent, long loadedAt) {
+            int size = intervals.size();
+            this.from = new LocalDateTime[size];
+            this.to = new LocalDateTime[size];
+            this.rent = new BigDecimal[size];
+            for (int i = 0; i < size; i++) {
+                Object[] interval = intervals.get(i);
+                rent[i] = (BigDecimal) interval[1];
+                from[i] = (LocalDateTime) interval[2];
+                to[i] = (LocalDateTime) interval[3];
+            }
+            this.unitRent = unitRent != null ? unitRent : BigDecimal.ZERO;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Price effective at the given time, or the unit's rent when no interval covers it.
+         * On a change boundary the old interval ends where the new one starts; the newer one wins.
+         */
+        BigDecimal rentAt(LocalDateTime at) {
+            int low = 0;
+            int high = from.length - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (from[mid].isAfter(at)) {
+                    high = mid - 1;
+                } else {
+                    last = mid;
+                    low = mid + 1;
+                }
+            }
+            for (int i = last; i >= 0; i--) {
+                if (to[i] == null || !at.isAfter(to[i])) {
+                    return rent[i];
+                }
+            }
+            return unitRent;
+        }
+
+        /**
+         * Price of the open interval, or the unit's rent when there is none
+         */
+        BigDecimal currentRent() {
+            for (int i = rent.length - 1; i >= 0; i--) {
+                if (to[i] == null) {
+                    return rent[i];
+                }
+            }
+            return unitRent;
+        }
+
+        boolean hasIntervals() {
+            return rent.length > 0;
+        }
+    }
+
+    public UnitPriceIndex(UnitPriceHistoryRepository priceHistoryRepository,
+                          UnitRepository unitRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${unit-price-index.ttl:5m}") Duration ttl) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.unitRepository = unitRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Rent of each existing unit at the given time; unknown unit ids are left out
+     */
+    public Map<Long, BigDecimal> rentsAt(Collection<Long> unitIds, LocalDateTime at) {
+        return collect(unitIds, prices -> prices.rentAt(at));
+    }
+
+    /**
+     * Current rent of each existing unit; unknown unit ids are left out
+     */
+    public Map<Long, BigDecimal> currentRents(Collection<Long> unitIds) {
+        return collect(unitIds, UnitPrices::currentRent);
+    }
+
+    /**
+     * Drop a unit once the current transaction completes (committed or not), so no reader
+     * reloads it before the price change is visible; immediately when there is no transaction
+     */
+    public void invalidateAfterCompletion(Long unitId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(unitId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(unitId);
+            }
+        });
+    }
+
+    public void invalidate(Long unitId) {
+        generation.incrementAndGet();
+        units.remove(unitId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        units.clear();
+    }
+
+    private Map<Long, BigDecimal> collect(Collection<Long> unitIds, Function<UnitPrices, BigDecimal> price) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long unitId : new LinkedHashSet<>(unitIds)) {
+            UnitPrices prices = units.get(unitId);
+            if (prices != null && now - prices.loadedAt < ttlNanos) {
+                result.put(unitId, price.apply(prices));
+            } else {
+                missing.add(unitId);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + LOAD_CHUNK_SIZE, missing.size()));
+            load(chunk).forEach((unitId, prices) -> result.put(unitId, price.apply(prices)));
+        }
+        return result;
+    }
+
+    /**
+     * Load units in two queries: their rents, then their intervals in effectiveFrom order.
+     * Both run in a new transaction that sees the latest committed prices, not the caller's snapshot.
+     */
+    private Map<Long, UnitPrices> load(List<Long> unitIds) {
+        long stamp = generation.get();
+        Map<Long, BigDecimal> unitRents = new HashMap<>();
+        Map<Long, List<Object[]>> intervals = new HashMap<>();
+        loadTransaction.executeWithoutResult(status -> {
+            for (Object[] row : unitRepository.findRentAmountsByIdIn(unitIds)) {
+                unitRents.put((Long) row[0], (BigDecimal) row[1]);
+            }
+            if (unitRents.isEmpty()) {
+                return;
+            }
+            for (Object[] row : priceHistoryRepository.findIntervalsByUnitIdIn(unitRents.keySet())) {
+                intervals.computeIfAbsent((Long) row[0], unitId -> new ArrayList<>()).add(row);
+            }
+        });
+        if (unitRents.isEmpty()) {
+            return Map.of();
+        }
+
+        long loadedAt = System.nanoTime();
+        Map<Long, UnitPrices> loaded = new HashMap<>();
+        unitRents.forEach((unitId, unitRent) -> {
+            UnitPrices prices = new UnitPrices(intervals.getOrDefault(unitId, List.of()), unitRent, loadedAt);
+            if (!prices.hasIntervals()) {
+                log.warn("No price history found for unit {}, using unit rent", unitId);
+            }
+            loaded.put(unitId, prices);
+        });
+        units.putAll(loaded);
+        if (generation.get() != stamp) {
+            // An invalidation ran while loading: serve this lookup, but do not keep what may be stale
+            loaded.keySet().forEach(units::remove);
+        }
+        log.debug("Loaded price intervals of {} unit(s)", loaded.size());
+        return loaded;
+    }
+}
@@ -11,7 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,6 +24,8 @@ import java.util.Optional;
 public class UnitService {
 
     private final UnitRepository unitRepository;
+    private final UnitPriceIndex unitPriceIndex;
+    private final UnitAuditRecorder unitAuditRecorder;
 
     public List<Unit> getAllUnits() {
         return unitRepository.findAll();
@@ -66,6 +71,38 @@ public class UnitService {
         return unitRepository.countByFloor(floor);
     }
 
+    /**
+     * Unit totals by status and by floor from one grouped count
+     */
+    @Transactional(readOnly = true)
+    public UnitCounts getUnitCounts() {
+        long total = 0;
+        Map<UnitStatus, Long> byStatus = new EnumMap<>(UnitStatus.class);
+        Map<Integer, Long> byFloor = new HashMap<>();
+        for (Object[] row : unitRepository.countByStatusAndFloor()) {
+            long count = (Long) row[2];
+            total += count;
+            if (row[0] != null) {
+                byStatus.merge((UnitStatus) row[0], count, Long::sum);
+            }
+            if (row[1] != null) {
+                byFloor.merge((Integer) row[1], count, Long::sum);
+            }
+        }
+        return new UnitCounts(total, byStatus, byFloor);
+    }
+
+    public record UnitCounts(long total, Map<UnitStatus, Long> byStatus, Map<Integer, Long> byFloor) {
+
+        public long status(UnitStatus status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+
+        public long floor(int floor) {
+            return byFloor.getOrDefault(floor, 0L);
+        }
+    }
+
     public Unit createUnit(Unit unit) {
         // Validate unique room number
         if (unitRepository.findByRoomNumber(unit.getRoomNumber()).isPresent()) {
@@ -95,6 +132,8 @@ public class UnitService {
         unit.setDescription(unitDetails.getDescription());
 
         log.info("Updating unit: {}", unit.getRoomNumber());
+        // UnitAuditRecorder records a rent change in unit_price_history before the commit
+        unitPriceIndex.invalidateAfterCompletion(id);
         return unitRepository.save(unit);
     }
 
@@ -103,6 +142,7 @@ public class UnitService {
             .orElseThrow(() -> new RuntimeException("Unit not found with id: " + id));
         
         log.info("Deleting unit: {}", unit.getRoomNumber());
+        unitPriceIndex.invalidateAfterCompletion(id);
         unitRepository.delete(unit);
     }
 
@@ -125,7 +165,7 @@ public class UnitService {
 
     /**
      * Update unit price (for price change feature)
-     * Note: The database trigger will automatically handle price history and audit logging
+     * Note: UnitAuditRecorder writes the price history (with the change reason) and the audit log
      */
     public Unit updateUnitPrice(Long id, BigDecimal newPrice, String changeReason) {
         Unit unit = unitRepository.findById(id)
@@ -136,9 +176,8 @@ public class UnitService {
         
         log.info("Updating unit {} price from {} to {}", unit.getRoomNumber(), oldPrice, newPrice);
         
-        // Note: Session variables for trigger would be set here in a real implementation
-        // @current_user_id, @price_change_reason, @client_ip, @user_agent
-        
+        unitAuditRecorder.setPriceChangeReason(changeReason);
+        unitPriceIndex.invalidateAfterCompletion(id);
         return unitRepository.save(unit);
     }
 }
@@ -0,0 +1,28 @@
+-- ============================================
+-- V10: Utility meter readings
+-- ============================================
+-- One reading per (unit, utility, month), imported in bulk from the
+-- monthly reading sheets. consumption is the difference from the unit's
+-- previous reading of the same utility, and amount is consumption times
+-- the rate captured at import. A unit's first reading has no previous
+-- value (unless the sheet supplies one), so it has no consumption.
+-- Billing runs and invoice creation read consumption for the month.
+-- ============================================
+
+CREATE TABLE meter_readings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    unit_id BIGINT NOT NULL,
+    utility_type VARCHAR(20) NOT NULL,     -- ELECTRICITY, WATER
+    reading_period DATE NOT NULL,          -- First day of the month the reading closes
+    reading_value DECIMAL(12,2) NOT NULL,
+    previous_value DECIMAL(12,2) NULL,
+    consumption DECIMAL(12,2) NULL,
+    rate DECIMAL(10,2) NULL,
+    amount DECIMAL(12,2) NULL,
+    read_date DATE NULL,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_unit_utility_period (unit_id, utility_type, reading_period),
+    INDEX idx_period (reading_period),
+    FOREIGN KEY (unit_id) REFERENCES units(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,32 @@
+-- ============================================
+-- V11: Application-level unit auditing
+-- ============================================
+-- Unit price history and audit logs were written by per-row triggers on
+-- units. The application now captures unit changes itself: price history
+-- is still written in the changing transaction, but audit rows go to
+-- unit_audit_outbox in that transaction and a background writer moves
+-- them to unit_audit_logs in batches after commit. Rows left behind by a
+-- crash or a full queue are moved by the writer's periodic sweep.
+-- unit_id has no foreign key, so an outbox row survives the unit's hard
+-- delete; the move stores NULL then, like ON DELETE SET NULL. The user
+-- is kept by username and resolved to created_by_user_id on the move.
+-- ============================================
+
+CREATE TABLE unit_audit_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    unit_id BIGINT NULL,
+    room_number VARCHAR(20) NULL,
+    action_type VARCHAR(20) NOT NULL,      -- UnitAuditActionType
+    old_values JSON NULL,
+    new_values JSON NULL,
+    description TEXT,
+    username VARCHAR(50) NULL,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    created_at DATETIME NOT NULL,          -- Time of the change, copied to the audit log
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+DROP TRIGGER IF EXISTS after_unit_insert;
+DROP TRIGGER IF EXISTS after_unit_update;
+DROP TRIGGER IF EXISTS before_unit_delete;
@@ -0,0 +1,15 @@
+-- ============================================
+-- V12: Invoice number counters
+-- ============================================
+-- Invoice numbers are INV-YYYYMMDD-N. Manual invoices took MAX(N) + 1 and
+-- billing runs reserved a block from a MAX(N) read once at the start, so a
+-- manual invoice created during a run could take a number inside the run's
+-- block. Both now allocate from one row per date prefix with
+-- UPDATE ... SET next_value = next_value + n. A prefix's row is created on
+-- first use, starting after the highest number already issued under it.
+-- ============================================
+
+CREATE TABLE invoice_number_sequences (
+    prefix VARCHAR(20) PRIMARY KEY,    -- INV-YYYYMMDD-
+    next_value BIGINT NOT NULL         -- Next unissued N
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
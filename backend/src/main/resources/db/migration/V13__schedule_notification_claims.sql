@@ -0,0 +1,20 @@
+-- ============================================
+-- V13: Upcoming-maintenance notification claims
+-- ============================================
+-- Every replica runs the trigger dispatcher, so each replica came to the
+-- same upcoming-maintenance notification. A dispatcher now claims the
+-- notification of an occurrence with
+-- UPDATE ... SET last_notified_date = :notifyDate
+-- WHERE last_notified_date IS NULL OR last_notified_date < :notifyDate
+-- and sends it only when its update changed the row. Notifications whose
+-- date has already passed are marked as sent, so they are not sent again
+-- on the first start after this migration.
+-- ============================================
+
+ALTER TABLE maintenance_schedules
+    ADD COLUMN last_notified_date DATE NULL AFTER last_triggered_date;  -- Notification date last sent
+
+UPDATE maintenance_schedules
+SET last_notified_date = DATE_SUB(next_trigger_date, INTERVAL notify_days_before DAY)
+WHERE notify_days_before > 0
+  AND DATE_SUB(next_trigger_date, INTERVAL notify_days_before DAY) <= CURRENT_DATE;
@@ -0,0 +1,42 @@
+-- ============================================
+-- V2: Composite indexes for hot repository queries
+-- ============================================
+-- Each index matches the WHERE columns followed by the ORDER BY column of a
+-- repository method, so MySQL can read rows in order without a filesort.
+-- Single-column indexes that become a prefix of a new composite index are
+-- dropped to keep write amplification down (foreign keys reuse the composite).
+-- ============================================
+
+-- MaintenanceNotificationRepository
+--   findByUser_IdAndIsReadFalseOrderByCreatedAtDesc
+--   findByUser_IdOrderByCreatedAtDesc
+ALTER TABLE maintenance_notifications
+    ADD INDEX idx_user_unread_created (user_id, is_read, created_at),
+    ADD INDEX idx_user_created (user_id, created_at),
+    DROP INDEX idx_user_unread;
+
+-- InvoiceRepository
+--   findByStatus (ORDER BY slip_uploaded_at DESC)
+--   findByTenantEmail (per-lease lookup ORDER BY invoice_date DESC)
+--   findByParentInvoiceId (ORDER BY installment_number ASC)
+ALTER TABLE invoices
+    ADD INDEX idx_status_slip_uploaded (status, slip_uploaded_at),
+    ADD INDEX idx_lease_invoice_date (lease_id, invoice_date),
+    ADD INDEX idx_parent_installment (parent_invoice_id, installment_number),
+    DROP INDEX idx_status,
+    DROP INDEX idx_lease;
+
+-- MaintenanceLogRepository
+--   findByScheduleIdOrderByCreatedAtDesc
+--   findByRequestIdOrderByCreatedAtDesc
+ALTER TABLE maintenance_logs
+    ADD INDEX idx_schedule_created (schedule_id, created_at),
+    ADD INDEX idx_request_created (request_id, created_at),
+    DROP INDEX idx_schedule,
+    DROP INDEX idx_request;
+
+-- PaymentRepository
+--   findByLeaseIdOrderByDueDateDesc (monthly grouping by due date)
+ALTER TABLE payments
+    ADD INDEX idx_lease_due_date (lease_id, due_date),
+    DROP INDEX idx_lease;
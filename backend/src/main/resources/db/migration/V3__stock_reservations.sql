@@ -0,0 +1,20 @@
+-- ============================================
+-- V3: Stock reservations for maintenance request items
+-- ============================================
+-- Items added to an open request only reserve stock (reserved_quantity);
+-- the on-hand quantity is drawn down when the request is completed and the
+-- reservation is released when it is cancelled or deleted.
+-- Items that existed before this migration already reduced the on-hand
+-- quantity, so they are marked COMMITTED.
+-- idx_request_status backs the per-request status lookups and replaces
+-- idx_maintenance_request (its prefix) for the foreign key.
+-- ============================================
+
+ALTER TABLE maintenance_stocks
+    ADD COLUMN reserved_quantity INT NOT NULL DEFAULT 0 AFTER quantity,
+    ADD CONSTRAINT chk_reserved_quantity CHECK (reserved_quantity >= 0 AND reserved_quantity <= quantity);
+
+ALTER TABLE maintenance_request_items
+    ADD COLUMN status ENUM('RESERVED', 'COMMITTED', 'RELEASED') NOT NULL DEFAULT 'COMMITTED' AFTER quantity_used,
+    ADD INDEX idx_request_status (maintenance_request_id, status),
+    DROP INDEX idx_maintenance_request;
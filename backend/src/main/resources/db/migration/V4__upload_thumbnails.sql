@@ -0,0 +1,13 @@
+-- ============================================
+-- V4: Thumbnail URLs for uploaded images
+-- ============================================
+-- Filled in by ImageThumbnailService after the upload commits.
+-- attachment_thumbnail_urls is comma-separated and aligned with
+-- attachment_urls; non-image attachments (PDF) leave an empty entry.
+-- ============================================
+
+ALTER TABLE invoices
+    ADD COLUMN slip_thumbnail_url VARCHAR(500) NULL AFTER slip_url;
+
+ALTER TABLE maintenance_requests
+    ADD COLUMN attachment_thumbnail_urls TEXT NULL AFTER attachment_urls;
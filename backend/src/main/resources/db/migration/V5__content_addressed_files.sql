@@ -0,0 +1,24 @@
+-- ============================================
+-- V5: Content-addressed upload store
+-- ============================================
+-- One row per distinct file content, keyed by its SHA-256. Blobs live at
+-- <file.blob-dir>/<first two hex chars>/<sha256>.<extension> and are served
+-- at /uploads/blobs/... ; ref_count counts invoices.slip_url and
+-- maintenance_requests.attachment_urls entries pointing at the blob.
+-- orphaned_at is set when ref_count drops to 0 and drives garbage collection.
+-- ============================================
+
+CREATE TABLE stored_files (
+    sha256 CHAR(64) NOT NULL PRIMARY KEY,
+    extension VARCHAR(10) NOT NULL DEFAULT '',
+    content_type VARCHAR(100),
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    orphaned_at DATETIME NULL,
+    INDEX idx_orphaned (ref_count, orphaned_at),
+    CONSTRAINT chk_ref_count CHECK (ref_count >= 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Duplicate payment slip detection: identical content -> identical slip_url
+ALTER TABLE invoices ADD INDEX idx_slip_url (slip_url);
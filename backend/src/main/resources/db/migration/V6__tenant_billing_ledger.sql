@@ -0,0 +1,42 @@
+-- ============================================
+-- V6: Per-tenant monthly billing ledger
+-- ============================================
+-- Read model for tenant pages: one row per tenant and billing month
+-- (month of payments.due_date, stored as the first day of the month)
+-- with totals, paid/unpaid counts and the last paid date.
+-- BillingLedgerService keeps it current: every transaction that inserts,
+-- updates or deletes payments recomputes the affected (tenant, month) rows
+-- before it commits. Existing payments are backfilled below.
+-- ============================================
+
+CREATE TABLE tenant_billing_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id BIGINT NOT NULL,
+    billing_month DATE NOT NULL,
+    total_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+    payment_count INT NOT NULL DEFAULT 0,
+    paid_count INT NOT NULL DEFAULT 0,
+    unpaid_count INT NOT NULL DEFAULT 0,
+    invoice_count INT NOT NULL DEFAULT 0,
+    last_paid_date DATE NULL,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_tenant_month (tenant_id, billing_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO tenant_billing_ledger (tenant_id, billing_month, total_amount, paid_amount, payment_count,
+                                   paid_count, unpaid_count, invoice_count, last_paid_date, updated_at)
+SELECT l.tenant_id,
+       CAST(DATE_FORMAT(p.due_date, '%Y-%m-01') AS DATE),
+       SUM(p.amount),
+       SUM(CASE WHEN p.status = 'PAID' THEN p.amount ELSE 0 END),
+       COUNT(*),
+       COUNT(CASE WHEN p.status = 'PAID' THEN 1 END),
+       COUNT(CASE WHEN p.status <> 'PAID' THEN 1 END),
+       COUNT(DISTINCT p.invoice_id),
+       MAX(p.paid_date),
+       NOW()
+FROM payments p
+JOIN leases l ON l.id = p.lease_id
+GROUP BY l.tenant_id, CAST(DATE_FORMAT(p.due_date, '%Y-%m-01') AS DATE);
@@ -0,0 +1,48 @@
+-- ============================================
+-- V7: Archive tier for closed billing records and old logs
+-- ============================================
+-- DataArchivalService moves rows past the archive horizon out of the hot
+-- tables in small batches (copy, then delete, one short transaction per
+-- batch), so the hot tables and their indexes stay small:
+--   invoices + their payments  PAID/CANCELLED invoices due before the horizon
+--   payments                   PAID standalone payments due before the horizon
+--   maintenance_logs           logs created before the horizon
+--   unit_audit_logs            logs created before the horizon
+-- Historical reads go through the *History repository queries, which
+-- UNION ALL the hot table with its archive.
+--
+-- Each archive table has the hot table's columns in the same order followed
+-- by archived_at. A migration that adds a column to a hot table must add it
+-- to the archive table too.
+--
+-- Archive tables carry no foreign keys (the rows outlive their parents) and
+-- no unique keys other than the primary key: receipt and invoice numbers are
+-- only unique among live rows, and a duplicate must never make a batch skip
+-- a row it is about to delete from the hot table.
+-- ============================================
+
+CREATE TABLE invoices_archive LIKE invoices;
+ALTER TABLE invoices_archive
+    DROP INDEX invoice_number,
+    ADD COLUMN archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE TABLE payments_archive LIKE payments;
+ALTER TABLE payments_archive
+    DROP INDEX receipt_number,
+    ADD COLUMN archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE TABLE maintenance_logs_archive LIKE maintenance_logs;
+ALTER TABLE maintenance_logs_archive
+    ADD COLUMN archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE TABLE unit_audit_logs_archive LIKE unit_audit_logs;
+ALTER TABLE unit_audit_logs_archive
+    ADD COLUMN archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Batch selection for the archival job: status first, then the horizon column
+ALTER TABLE invoices
+    ADD INDEX idx_status_due_date (status, due_date);
+
+-- Batched pruning of read notifications (MaintenanceNotificationRepository.deleteReadBefore)
+ALTER TABLE maintenance_notifications
+    ADD INDEX idx_read_at (is_read, read_at);
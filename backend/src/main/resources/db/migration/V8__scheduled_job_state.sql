@@ -0,0 +1,22 @@
+-- ============================================
+-- V8: Lock and checkpoint for batch jobs
+-- ============================================
+-- One row per job. A replica runs the job only while it holds the row's
+-- lock (locked_by/locked_until); it renews the lock after every chunk and
+-- another replica may take over once locked_until has passed. Progress is
+-- written in the same transaction as each chunk, so a run that crashes
+-- resumes after the last committed chunk instead of starting over.
+-- ============================================
+
+CREATE TABLE scheduled_job_state (
+    job_name VARCHAR(100) PRIMARY KEY,
+    locked_by VARCHAR(100) NULL,
+    locked_until DATETIME NULL,
+    run_date DATE NULL,            -- Business date of the current or last run
+    phase VARCHAR(30) NULL,        -- Job-specific step of the current run
+    last_id BIGINT NOT NULL DEFAULT 0,  -- Keyset cursor: last id of the last committed chunk
+    processed INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    started_at DATETIME NULL,
+    finished_at DATETIME NULL      -- NULL while a run is in progress (or was interrupted)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
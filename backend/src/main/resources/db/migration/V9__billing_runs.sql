@@ -0,0 +1,51 @@
+-- ============================================
+-- V9: Monthly billing runs
+-- ============================================
+-- A billing run invoices every ACTIVE lease for one billing month.
+-- billing_run_items is the run's snapshot of leases, one row per
+-- (lease, month). The unique key makes billing idempotent: a lease is
+-- billed at most once per month, however many runs are started.
+-- Items move PENDING -> BILLED/SKIPPED in the same transaction that
+-- inserts the invoice. A run that dies leaves its unfinished items
+-- PENDING, and the next run for the month picks them up. Deleting an
+-- invoice also deletes its item, so the lease can be billed again.
+-- ============================================
+
+CREATE TABLE billing_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    billing_month DATE NOT NULL,           -- First day of the billed month
+    invoice_date DATE NOT NULL,
+    due_date DATE NOT NULL,
+    dry_run BOOLEAN NOT NULL DEFAULT FALSE,
+    status VARCHAR(20) NOT NULL,           -- RUNNING, COMPLETED, FAILED
+    electricity_rate DECIMAL(10,2) NOT NULL,  -- Rates captured when the run started
+    water_rate DECIMAL(10,2) NOT NULL,
+    total_leases INT NOT NULL DEFAULT 0,
+    billed INT NOT NULL DEFAULT 0,
+    skipped INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    error_message TEXT NULL,
+    started_at DATETIME NOT NULL,
+    finished_at DATETIME NULL,
+    INDEX idx_billing_month (billing_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE billing_run_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id BIGINT NOT NULL,
+    lease_id BIGINT NOT NULL,
+    billing_month DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',  -- PENDING, BILLED, SKIPPED
+    electricity_units DECIMAL(10,2) NULL,  -- Metered usage supplied with the run
+    water_units DECIMAL(10,2) NULL,
+    invoice_id BIGINT NULL,
+    total_amount DECIMAL(10,2) NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_lease_month (lease_id, billing_month),
+    INDEX idx_run_status (run_id, status),
+    INDEX idx_month_status (billing_month, status),
+    FOREIGN KEY (run_id) REFERENCES billing_runs(id) ON DELETE CASCADE,
+    FOREIGN KEY (lease_id) REFERENCES leases(id) ON DELETE CASCADE,
+    FOREIGN KEY (invoice_id) REFERENCES invoices(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
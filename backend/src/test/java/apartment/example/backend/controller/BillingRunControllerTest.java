@@ -0,0 +1,85 @@
+package apartment.example.backend.controller;
+
+import apartment.example.backend.entity.BillingRun;
+import apartment.example.backend.service.BillingRunService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BillingRunControllerTest {
+
+    private BillingRunService billingRunService;
+    private BillingRunController controller;
+
+    @BeforeEach
+    void setUp() {
+        billingRunService = mock(BillingRunService.class);
+        controller = new BillingRunController(billingRunService);
+    }
+
+    @Test
+    void testStartRun_accepted() {
+        BillingRun run = new BillingRun();
+        run.setId(7L);
+        when(billingRunService.start(any())).thenReturn(new BillingRunService.RunResult(run, List.of()));
+
+        ResponseEntity<BillingRunService.RunResult> response = controller.startRun(request(false));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(7L, response.getBody().run().getId());
+        verify(billingRunService).start(new BillingRunService.RunRequest(
+                LocalDate.of(2025, 11, 1), null, null, false, null));
+    }
+
+    @Test
+    void testStartRun_dryRunReturnsPreview() {
+        when(billingRunService.start(any())).thenReturn(new BillingRunService.RunResult(new BillingRun(), List.of()));
+
+        ResponseEntity<BillingRunService.RunResult> response = controller.startRun(request(true));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void testStartRun_conflictWhileAnotherRunIsInProgress() {
+        when(billingRunService.start(any())).thenThrow(new IllegalStateException("A billing run is already in progress"));
+
+        ResponseEntity<BillingRunService.RunResult> response = controller.startRun(request(false));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testStartRun_missingMonth() {
+        ResponseEntity<BillingRunService.RunResult> response =
+                controller.startRun(new BillingRunController.StartRunRequest());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(billingRunService);
+    }
+
+    @Test
+    void testGetRun_notFound() {
+        when(billingRunService.getRun(99L)).thenThrow(new RuntimeException("Billing run not found with id: 99"));
+
+        ResponseEntity<BillingRun> response = controller.getRun(99L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    private BillingRunController.StartRunRequest request(boolean dryRun) {
+        BillingRunController.StartRunRequest request = new BillingRunController.StartRunRequest();
+        request.setBillingMonth(YearMonth.of(2025, 11));
+        request.setDryRun(dryRun);
+        return request;
+    }
+}
@@ -3,9 +3,11 @@ package apartment.example.backend.controller;
 import apartment.example.backend.entity.Invoice;
 import apartment.example.backend.entity.enums.InvoiceType;
 import apartment.example.backend.service.InvoiceService;
+import apartment.example.backend.service.MeterReadingService;
 import apartment.example.backend.service.PdfService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -15,6 +17,7 @@ import org.springframework.mock.web.MockMultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +31,9 @@ public class InvoiceControllerTest {
     @Mock
     private PdfService pdfService;
 
+    @Mock
+    private MeterReadingService meterReadingService;
+
     @InjectMocks
     private InvoiceController controller;
 
@@ -57,6 +63,33 @@ public class InvoiceControllerTest {
         assertEquals(invoice, response.getBody());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void createInvoice_monthlyRent_utilitiesFromMeterReadings() {
+        InvoiceController.CreateInvoiceRequest req = new InvoiceController.CreateInvoiceRequest();
+        req.setLeaseId(1L);
+        req.setInvoiceDate(LocalDate.of(2025, 12, 1));
+        req.setDueDate(LocalDate.of(2025, 12, 6));
+        req.setRentAmount(BigDecimal.valueOf(5000));
+        req.setWaterAmount(BigDecimal.valueOf(150));
+        req.setBillingMonth(YearMonth.of(2025, 11));
+
+        when(meterReadingService.getChargesForLease(1L, LocalDate.of(2025, 11, 1)))
+                .thenReturn(new MeterReadingService.UtilityCharges(
+                        BigDecimal.valueOf(120), BigDecimal.valueOf(480), BigDecimal.valueOf(10), BigDecimal.valueOf(200)));
+        when(invoiceService.createInvoiceWithPayments(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new Invoice());
+
+        ResponseEntity<Invoice> response = controller.createInvoice(req);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<List<InvoiceService.PaymentItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(invoiceService).createInvoiceWithPayments(eq(1L), any(), any(), items.capture(), any(), any());
+        // Electricity comes from the readings; the typed-in water amount wins
+        assertEquals(List.of(BigDecimal.valueOf(5000), BigDecimal.valueOf(480), BigDecimal.valueOf(150)),
+                items.getValue().stream().map(InvoiceService.PaymentItem::getAmount).toList());
+    }
+
     @Test
     void createInvoice_invalidType_shouldReturnBadRequest() {
         InvoiceController.CreateInvoiceRequest req = new InvoiceController.CreateInvoiceRequest();
@@ -138,4 +171,37 @@ public class InvoiceControllerTest {
         assertEquals(HttpStatus.OK, resp.getStatusCode());
         verify(invoiceService, times(1)).deleteInvoice(1L);
     }
+
+    @Test
+    void getInvoicesWaitingVerification_setsNextCursorHeader() {
+        Invoice invoice = new Invoice();
+        when(invoiceService.getInvoicesWaitingVerification(null, 50))
+                .thenReturn(new InvoiceService.InvoicePage(List.of(invoice), "2025-12-01T10:00_7"));
+
+        ResponseEntity<List<Invoice>> resp = controller.getInvoicesWaitingVerification(null, 50);
+
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertEquals(List.of(invoice), resp.getBody());
+        assertEquals("2025-12-01T10:00_7", resp.getHeaders().getFirst(InvoiceController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getInvoicesByTenantEmail_lastPage_hasNoCursorHeader() {
+        when(invoiceService.getInvoicesByTenantEmail("t@example.com", "2025-12-01_7", 50))
+                .thenReturn(new InvoiceService.InvoicePage(List.of(), null));
+
+        ResponseEntity<List<Invoice>> resp = controller.getInvoicesByTenantEmail("t@example.com", "2025-12-01_7", 50);
+
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertFalse(resp.getHeaders().containsKey(InvoiceController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getPaidInvoices_invalidCursor_shouldReturnBadRequest() {
+        when(invoiceService.getPaidInvoices("garbage", 50)).thenThrow(new IllegalArgumentException());
+
+        ResponseEntity<List<Invoice>> resp = controller.getPaidInvoices("garbage", 50);
+
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
 }
@@ -490,6 +490,20 @@ class MaintenanceRequestControllerTest {
         assertEquals("THB", response.getBody().get("currency"));
     }
 
+    @Test
+    void calculateItemsCosts_Success() {
+        Map<Long, BigDecimal> costs = new LinkedHashMap<>();
+        costs.put(1L, new BigDecimal("1500.00"));
+        costs.put(2L, BigDecimal.ZERO);
+        when(itemService.calculateTotalCosts(List.of(1L, 2L))).thenReturn(costs);
+
+        ResponseEntity<Map<String, Object>> response = controller.calculateItemsCosts(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(costs, response.getBody().get("costs"));
+        assertEquals("THB", response.getBody().get("currency"));
+    }
+
 
 
     @Test
@@ -1,8 +1,10 @@
 package apartment.example.backend.controller;
 
+import apartment.example.backend.dto.MaintenanceCalendarDTO;
 import apartment.example.backend.dto.MaintenanceScheduleDTO;
 import apartment.example.backend.dto.ScheduleAffectedUnitDTO;
 import apartment.example.backend.entity.User;
+import apartment.example.backend.service.MaintenanceCalendarService;
 import apartment.example.backend.service.MaintenanceScheduleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +28,9 @@ class MaintenanceScheduleControllerTest {
     @Mock
     private MaintenanceScheduleService scheduleService;
 
+    @Mock
+    private MaintenanceCalendarService calendarService;
+
     @Mock
     private Authentication authentication;
 
@@ -182,4 +188,46 @@ class MaintenanceScheduleControllerTest {
         assertEquals(1, response.getBody().size());
         assertEquals(101L, response.getBody().get(0).getUnitId());
     }
+
+    // ---- Snapshot ----
+    @Test
+    void testGetScheduleSnapshot_Success() {
+        LocalDateTime at = LocalDateTime.of(2025, 11, 1, 0, 0);
+        Map<String, Object> snapshot = Map.of("title", "Old Title");
+        when(scheduleService.getScheduleSnapshot(1L, at)).thenReturn(Optional.of(snapshot));
+
+        ResponseEntity<Map<String, Object>> response = controller.getScheduleSnapshot(1L, at);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Old Title", response.getBody().get("title"));
+    }
+
+    @Test
+    void testGetScheduleSnapshot_BeforeCreation() {
+        LocalDateTime at = LocalDateTime.of(2020, 1, 1, 0, 0);
+        when(scheduleService.getScheduleSnapshot(1L, at)).thenReturn(Optional.empty());
+
+        ResponseEntity<Map<String, Object>> response = controller.getScheduleSnapshot(1L, at);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testGetCalendar_DefaultsToAYearFromToday() {
+        LocalDate today = LocalDate.now();
+        MaintenanceCalendarDTO calendar = new MaintenanceCalendarDTO();
+        when(calendarService.getCalendar(today, today.plusYears(1).minusDays(1))).thenReturn(calendar);
+
+        ResponseEntity<MaintenanceCalendarDTO> response = controller.getCalendar(null, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(calendar, response.getBody());
+    }
+
+    @Test
+    void testGetCalendar_InvalidRange() {
+        LocalDate from = LocalDate.of(2026, 6, 1);
+        LocalDate to = LocalDate.of(2026, 1, 1);
+        when(calendarService.getCalendar(from, to)).thenThrow(new IllegalArgumentException("end before start"));
+
+        ResponseEntity<MaintenanceCalendarDTO> response = controller.getCalendar(from, to);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 }
@@ -0,0 +1,81 @@
+package apartment.example.backend.controller;
+
+import apartment.example.backend.service.MeterReadingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MeterReadingControllerTest {
+
+    private MeterReadingService meterReadingService;
+    private MeterReadingController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterReadingService = mock(MeterReadingService.class);
+        controller = new MeterReadingController(meterReadingService);
+    }
+
+    @Test
+    void testImportCsv_success() throws Exception {
+        InputStream body = stream("room_number,utility_type,period,reading\n101,WATER,2025-11,12\n");
+        MeterReadingService.ImportResult result = new MeterReadingService.ImportResult(1, 1, 0, List.of());
+        when(meterReadingService.importCsv(body)).thenReturn(result);
+
+        ResponseEntity<MeterReadingService.ImportResult> response = controller.importCsv(body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    void testImportCsv_missingColumns() throws Exception {
+        InputStream body = stream("room,value\n");
+        when(meterReadingService.importCsv(body))
+                .thenThrow(new IllegalArgumentException("CSV header is missing column: utilitytype"));
+
+        ResponseEntity<MeterReadingService.ImportResult> response = controller.importCsv(body);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testImportJson_notAnArray() throws Exception {
+        InputStream body = stream("{}");
+        when(meterReadingService.importJson(body))
+                .thenThrow(new IllegalArgumentException("Expected a JSON array of readings"));
+
+        ResponseEntity<MeterReadingService.ImportResult> response = controller.importJson(body);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetChargesForLease() {
+        MeterReadingService.UtilityCharges charges = new MeterReadingService.UtilityCharges(
+                BigDecimal.valueOf(120), BigDecimal.valueOf(480), null, null);
+        when(meterReadingService.getChargesForLease(5L, LocalDate.of(2025, 11, 1))).thenReturn(charges);
+
+        ResponseEntity<MeterReadingService.UtilityCharges> response =
+                controller.getChargesForLease(5L, YearMonth.of(2025, 11));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(charges, response.getBody());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
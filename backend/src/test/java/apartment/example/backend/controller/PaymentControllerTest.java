@@ -5,6 +5,7 @@ import apartment.example.backend.entity.*;
 import apartment.example.backend.entity.enums.PaymentStatus;
 import apartment.example.backend.entity.enums.PaymentType;
 import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.service.BillingLedgerService;
 import apartment.example.backend.service.LeaseService;
 import apartment.example.backend.service.PaymentService;
 import apartment.example.backend.service.TenantService;
@@ -33,6 +34,9 @@ class PaymentControllerTest {
     @Mock
     private TenantService tenantService;
 
+    @Mock
+    private BillingLedgerService billingLedgerService;
+
     @InjectMocks
     private PaymentController controller;
 
@@ -180,8 +184,34 @@ class PaymentControllerTest {
 
     @Test
     void testGetVillagerPaymentHistory() {
-        when(paymentService.getAllPayments()).thenReturn(Collections.singletonList(samplePayment));
+        TenantBillingLedger month = new TenantBillingLedger();
+        month.setTenantId(1L);
+        month.setBillingMonth(samplePayment.getDueDate().withDayOfMonth(1));
+        month.setTotalAmount(BigDecimal.valueOf(1000));
+        month.setPaymentCount(1);
+        month.setUnpaidCount(1);
+        when(tenantService.findByEmail("john@example.com")).thenReturn(Optional.of(sampleTenant));
+        when(billingLedgerService.getLedger(1L)).thenReturn(List.of(month));
+        when(paymentService.getPaymentHistoryByTenant(1L)).thenReturn(List.of(samplePayment));
+
         ResponseEntity<List<Map<String, Object>>> response = controller.getVillagerPaymentHistory("john@example.com");
+
         assertEquals(1, response.getBody().size());
+        Map<String, Object> record = response.getBody().get(0);
+        assertEquals(BigDecimal.valueOf(1000), record.get("totalAmount"));
+        assertEquals("PENDING", record.get("status"));
+        assertEquals("101", record.get("unitNumber"));
+        assertEquals(1, ((List<?>) record.get("breakdown")).size());
+        verify(paymentService, never()).getAllPayments();
+    }
+
+    @Test
+    void testGetVillagerPaymentHistory_UnknownTenant() {
+        when(tenantService.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        ResponseEntity<List<Map<String, Object>>> response = controller.getVillagerPaymentHistory("nobody@example.com");
+
+        assertTrue(response.getBody().isEmpty());
+        verifyNoInteractions(billingLedgerService);
     }
 }
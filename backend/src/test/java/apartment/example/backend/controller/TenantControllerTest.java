@@ -19,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,12 +67,17 @@ class TenantControllerTest {
     @Test
     void testGetAllTenants() {
         when(tenantService.getAllTenants()).thenReturn(List.of(sampleTenant));
+        when(tenantService.getActiveLeasesByTenantId(List.of(1L)))
+                .thenReturn(Map.of(1L, sampleTenant.getLeases().get(0)));
 
         ResponseEntity<List<TenantResponseDto>> response = controller.getAllTenants();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
         assertEquals("John", response.getBody().get(0).getFirstName());
+        // Current lease info comes from the batched active lease lookup
+        assertEquals(101L, response.getBody().get(0).getUnitId());
+        assertEquals(new BigDecimal("15000"), response.getBody().get(0).getMonthlyRent());
     }
 
     @Test
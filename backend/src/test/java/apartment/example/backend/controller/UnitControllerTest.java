@@ -125,21 +125,15 @@ class UnitControllerTest {
 
     @Test
     void testGetDashboard() {
-        when(unitService.countUnitsByStatus(UnitStatus.AVAILABLE)).thenReturn(0L);
-        when(unitService.countUnitsByStatus(UnitStatus.OCCUPIED)).thenReturn(1L);
-        when(unitService.countUnitsByStatus(UnitStatus.MAINTENANCE)).thenReturn(0L);
-        when(unitService.countUnitsByStatus(UnitStatus.RESERVED)).thenReturn(0L);
-        when(unitService.countUnitsByFloor(1)).thenReturn(1L);
-        when(unitService.countUnitsByFloor(2)).thenReturn(0L);
-
-        List<Unit> units = Collections.singletonList(new Unit());
-        when(unitService.getAllUnits()).thenReturn(units);
-
+        when(unitService.getUnitCounts()).thenReturn(new UnitService.UnitCounts(1,
+                Map.of(UnitStatus.OCCUPIED, 1L), Map.of(1, 1L)));
 
         ResponseEntity<Map<String, Object>> response = controller.getDashboard();
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(Long.valueOf(1), ((Integer) response.getBody().get("totalUnits")).longValue());
+        assertEquals(Long.valueOf(1), response.getBody().get("totalUnits"));
         assertEquals(Long.valueOf(1), response.getBody().get("occupiedUnits"));
+        assertEquals(Long.valueOf(0), response.getBody().get("availableUnits"));
+        assertEquals(Long.valueOf(0), response.getBody().get("floor2Units"));
 
     }
 
@@ -198,7 +192,7 @@ class UnitControllerTest {
     @Test
     void testGetUnitsWithDetails() {
         when(unitService.getAllUnits()).thenReturn(List.of(sampleUnit));
-        when(leaseService.getAllLeases()).thenReturn(List.of(sampleLease));
+        when(leaseService.getActiveLeases()).thenReturn(List.of(sampleLease));
 
         ResponseEntity<List<Map<String, Object>>> response = controller.getUnitsWithDetails();
         assertEquals(200, response.getStatusCodeValue());
@@ -152,6 +152,18 @@ class UnitPriceHistoryControllerTest {
         assertEquals(200, response.getStatusCodeValue());
     }
 
+    @Test
+    void testGetAllRentsAtDate() {
+        LocalDate date = LocalDate.of(2025, 11, 1);
+        when(priceHistoryService.getAllRentAmountsAtDate(date))
+                .thenReturn(Map.of(99L, new BigDecimal("5000")));
+
+        var response = controller.getAllRentsAtDate(date);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(new BigDecimal("5000"), response.getBody().get(99L));
+    }
+
     // ============================================
     // AUDIT LOG TESTS
     // ============================================
@@ -30,6 +30,7 @@ class VillagerControllerTest {
     @Mock private LeaseService leaseService;
     @Mock private PaymentService paymentService;
     @Mock private MaintenanceRequestService maintenanceRequestService;
+    @Mock private BillingLedgerService billingLedgerService;
 
     @InjectMocks
     private VillagerController controller;
@@ -88,6 +89,10 @@ class VillagerControllerTest {
                 .thenReturn(List.of(lease));
         when(paymentService.getPaymentsByLease(2L))
                 .thenReturn(List.of(payment));
+        TenantBillingLedger month = new TenantBillingLedger();
+        month.setTenantId(1L);
+        when(billingLedgerService.getLedger(1L))
+                .thenReturn(List.of(month));
 
         ResponseEntity<Map<String, Object>> response =
                 controller.getVillagerDashboard("a@a.com");
@@ -100,6 +105,7 @@ class VillagerControllerTest {
         assertEquals(List.of(lease), body.get("leases"));
         assertEquals(lease, body.get("activeLease"));
         assertEquals(List.of(payment), body.get("payments"));
+        assertEquals(List.of(month), body.get("ledger"));
     }
 
     @Test
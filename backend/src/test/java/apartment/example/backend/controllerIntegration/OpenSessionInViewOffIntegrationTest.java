@@ -0,0 +1,246 @@
+package apartment.example.backend.controller.Integrationtest;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.LeaseStatus;
+import apartment.example.backend.entity.enums.PaymentStatus;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.PaymentRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import apartment.example.backend.service.DataArchivalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With open-session-in-view off, responses that show a lease's tenant and unit still render
+ * (the services fetch them up front), and a lazy load outside a transaction fails the test
+ * through LazyLoadGuard. Not @Transactional, so each request runs the way it does in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class OpenSessionInViewOffIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private DataArchivalService archivalService;
+
+    private String roomNumber;
+    private Unit unit;
+    private Tenant tenant;
+    private Lease lease;
+    private Payment payment;
+    private Lease pastLease;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        roomNumber = "OSIV-" + suffix;
+
+        unit = new Unit();
+        unit.setRoomNumber(roomNumber);
+        unit.setFloor(1);
+        unit.setStatus(UnitStatus.OCCUPIED);
+        unit.setRentAmount(BigDecimal.valueOf(8000));
+        unit.setUnitType("Standard");
+        unit = unitRepository.save(unit);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Closed");
+        tenant.setLastName("Session");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("osiv-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.now().minusMonths(1));
+        lease.setEndDate(LocalDate.now().plusMonths(11));
+        lease.setRentAmount(BigDecimal.valueOf(8000));
+        lease.setStatus(LeaseStatus.ACTIVE);
+        lease = leaseRepository.save(lease);
+
+        payment = new Payment();
+        payment.setLease(lease);
+        payment.setPaymentType(PaymentType.RENT);
+        payment.setAmount(BigDecimal.valueOf(8000));
+        payment.setDueDate(LocalDate.now().withDayOfMonth(5));
+        payment.setStatus(PaymentStatus.PENDING);
+        payment = paymentRepository.save(payment);
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (pastLease != null) {
+            transactionTemplate.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("DELETE FROM payments_archive WHERE lease_id = :leaseId")
+                    .setParameter("leaseId", pastLease.getId())
+                    .executeUpdate());
+            leaseRepository.deleteById(pastLease.getId());
+        }
+        paymentRepository.deleteById(payment.getId());
+        leaseRepository.deleteById(lease.getId());
+        tenantRepository.deleteById(tenant.getId());
+        unitRepository.deleteById(unit.getId());
+    }
+
+    @Test
+    void leaseResponsesRenderTenantAndUnit() throws Exception {
+        mockMvc.perform(get("/leases/" + lease.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unit.roomNumber").value(roomNumber))
+                .andExpect(jsonPath("$.tenant.email").value(tenant.getEmail()));
+
+        mockMvc.perform(get("/leases/tenant/" + tenant.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unit.roomNumber").value(roomNumber));
+
+        mockMvc.perform(get("/units/detailed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.unit.roomNumber == '" + roomNumber + "')].tenant.email")
+                        .value(tenant.getEmail()));
+    }
+
+    @Test
+    void tenantAndPaymentDtosCarryLeaseDetails() throws Exception {
+        mockMvc.perform(get("/tenants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.email == '" + tenant.getEmail() + "')].unitId")
+                        .value(unit.getId().intValue()));
+
+        mockMvc.perform(get("/payments/" + payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unit.roomNumber").value(roomNumber))
+                .andExpect(jsonPath("$.tenant.email").value(tenant.getEmail()));
+
+        mockMvc.perform(get("/payments/lease/" + lease.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unit.roomNumber").value(roomNumber));
+    }
+
+    @Test
+    void paymentHistoryRendersUnitsOfArchivedPayments() throws Exception {
+        // An earlier lease whose only payment is archived, so no live payment loads that lease
+        pastLease = new Lease();
+        pastLease.setTenant(tenant);
+        pastLease.setUnit(unit);
+        pastLease.setStartDate(LocalDate.of(2019, 1, 1));
+        pastLease.setEndDate(LocalDate.of(2020, 12, 31));
+        pastLease.setRentAmount(BigDecimal.valueOf(8000));
+        pastLease.setStatus(LeaseStatus.EXPIRED);
+        pastLease = leaseRepository.save(pastLease);
+
+        Payment settled = new Payment();
+        settled.setLease(pastLease);
+        settled.setPaymentType(PaymentType.RENT);
+        settled.setAmount(BigDecimal.valueOf(8000));
+        settled.setDueDate(LocalDate.of(2020, 1, 5));
+        settled.setPaidDate(LocalDate.of(2020, 1, 5));
+        settled.setStatus(PaymentStatus.PAID);
+        settled.setReceiptNumber("RENT-" + UUID.randomUUID());
+        paymentRepository.save(settled);
+        archivalService.archive(LocalDate.of(2021, 1, 1), LocalDateTime.now().minusYears(1));
+
+        mockMvc.perform(get("/payments/villager/history/" + tenant.getEmail()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.month == '2020-01')].unitNumber").value(roomNumber));
+    }
+
+    @Test
+    void lazyLoadOutsideTransactionFails() {
+        double before = lazyLoadsOutsideTransaction();
+
+        EntityManager session = entityManagerFactory.createEntityManager();
+        try {
+            Unit proxy = session.getReference(Unit.class, unit.getId());
+            assertThrows(LazyInitializationException.class, () -> Hibernate.initialize(proxy));
+        } finally {
+            session.close();
+        }
+        assertEquals(before + 1, lazyLoadsOutsideTransaction());
+
+        // The same load inside a transaction is allowed
+        String loaded = transactionTemplate.execute(status -> {
+            Unit proxy = entityManager.getReference(Unit.class, unit.getId());
+            Hibernate.initialize(proxy);
+            return proxy.getRoomNumber();
+        });
+        assertEquals(roomNumber, loaded);
+        assertEquals(before + 1, lazyLoadsOutsideTransaction());
+    }
+
+    private double lazyLoadsOutsideTransaction() {
+        var counter = meterRegistry.find("hibernate.lazy.loads.outside.transaction")
+                .tag("role", Unit.class.getName())
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
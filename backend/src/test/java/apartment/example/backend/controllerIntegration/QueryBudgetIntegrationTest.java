@@ -0,0 +1,198 @@
+package apartment.example.backend.controller.Integrationtest;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.MaintenanceRequest;
+import apartment.example.backend.entity.MaintenanceRequestItem;
+import apartment.example.backend.entity.MaintenanceStock;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.LeaseStatus;
+import apartment.example.backend.entity.enums.PaymentStatus;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.MaintenanceRequestItemRepository;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
+import apartment.example.backend.repository.MaintenanceStockRepository;
+import apartment.example.backend.repository.PaymentRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static apartment.example.backend.support.QueryCountAssertions.assertQueryCount;
+import static apartment.example.backend.support.QueryCountAssertions.resetQueryCount;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets for hot read endpoints.
+ * Seed data is flushed and the persistence context cleared before each request,
+ * so every entity the endpoint needs has to come from SQL and shows up in the count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MaintenanceRequestRepository maintenanceRequestRepository;
+
+    @Autowired
+    private MaintenanceStockRepository maintenanceStockRepository;
+
+    @Autowired
+    private MaintenanceRequestItemRepository maintenanceRequestItemRepository;
+
+    private Long requestId;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+        registry.add("spring.jpa.show-sql", () -> "true");
+    }
+
+    @BeforeEach
+    void setup() {
+        Unit unit = new Unit();
+        unit.setRoomNumber("QB101");
+        unit.setFloor(1);
+        unit.setStatus(UnitStatus.OCCUPIED);
+        unit.setRentAmount(BigDecimal.valueOf(8000));
+        unit.setUnitType("Standard");
+        unit = unitRepository.save(unit);
+
+        Tenant tenant = new Tenant();
+        tenant.setFirstName("Query");
+        tenant.setLastName("Budget");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("query.budget@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        Lease lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.now().minusMonths(3));
+        lease.setEndDate(LocalDate.now().plusMonths(9));
+        lease.setRentAmount(BigDecimal.valueOf(8000));
+        lease.setStatus(LeaseStatus.ACTIVE);
+        lease = leaseRepository.save(lease);
+
+        for (int month = 0; month < 3; month++) {
+            Payment payment = new Payment();
+            payment.setLease(lease);
+            payment.setPaymentType(PaymentType.RENT);
+            payment.setAmount(BigDecimal.valueOf(8000));
+            payment.setDueDate(LocalDate.now().minusMonths(month).withDayOfMonth(5));
+            payment.setStatus(PaymentStatus.PENDING);
+            paymentRepository.save(payment);
+        }
+
+        MaintenanceRequest request = new MaintenanceRequest();
+        request.setTenantId(tenant.getId());
+        request.setUnitId(unit.getId());
+        request.setTitle("Leaking tap");
+        request.setDescription("Kitchen tap is leaking");
+        requestId = maintenanceRequestRepository.save(request).getId();
+
+        for (int i = 0; i < 3; i++) {
+            MaintenanceStock stock = new MaintenanceStock();
+            stock.setItemName("Part " + i);
+            stock.setQuantity(10);
+            stock.setUnit("ชิ้น");
+            stock.setUnitPrice(BigDecimal.valueOf(50 + i));
+            stock = maintenanceStockRepository.save(stock);
+
+            MaintenanceRequestItem item = new MaintenanceRequestItem();
+            item.setMaintenanceRequestId(requestId);
+            item.setStockId(stock.getId());
+            item.setQuantityUsed(1);
+            maintenanceRequestItemRepository.save(item);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAllPaymentsFetchesRelationsInOneQuery() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(get("/payments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.tenant.email == 'query.budget@example.com')]").exists());
+        // findAllWithRelations: payment + lease + tenant + unit in a single join
+        assertQueryCount(1);
+    }
+
+    @Test
+    void getRequestItemsStaysWithinBudget() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(get("/maintenance-requests/" + requestId + "/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].itemName").exists());
+        // items joined with their stock rows
+        assertQueryCount(1);
+    }
+
+    @Test
+    void getRequestItemsCostIsOneAggregate() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(get("/maintenance-requests/" + requestId + "/items/cost"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCost").value(153.0));
+        // SUM(quantity_used * unit_price) in SQL: 50 + 51 + 52
+        assertQueryCount(1);
+    }
+
+    @Test
+    void getItemsCostsForManyRequestsIsOneAggregate() throws Exception {
+        resetQueryCount();
+        mockMvc.perform(get("/maintenance-requests/items/costs")
+                        .param("requestIds", requestId.toString(), "-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.costs['" + requestId + "']").value(153.0))
+                .andExpect(jsonPath("$.costs['-1']").value(0.0));
+        // one GROUP BY query for the whole page of requests
+        assertQueryCount(1);
+    }
+}
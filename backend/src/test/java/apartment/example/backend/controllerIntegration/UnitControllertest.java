@@ -19,6 +19,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 
+import static apartment.example.backend.support.QueryCountAssertions.assertQueryCount;
+import static apartment.example.backend.support.QueryCountAssertions.resetQueryCount;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -50,7 +52,7 @@ public class UnitControllertest {
         registry.add("cors.allowed-origins", () -> "http://localhost:5173");
         
         // Override database properties for Testcontainers
-        registry.add("spring.datasource.url", () -> "jdbc:tc:mysql:8.0:///testdb");
+        registry.add("spring.datasource.url", () -> "jdbc:tc:mysql:8.0:///testdb?TC_MY_CNF=mysql-conf");
         registry.add("spring.datasource.driver-class-name", () -> "org.testcontainers.jdbc.ContainerDatabaseDriver");
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
         registry.add("spring.sql.init.mode", () -> "never");
@@ -73,16 +75,20 @@ public class UnitControllertest {
 
     @Test
     void testGetAllUnits() throws Exception {
+        resetQueryCount();
         mockMvc.perform(get("/units"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].roomNumber").value("A101"));
+        assertQueryCount(1);
     }
 
     @Test
     void testGetUnitById() throws Exception {
+        resetQueryCount();
         mockMvc.perform(get("/units/" + savedId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.roomNumber").value("A101"));
+        assertQueryCount(1);
     }
 
     @Test
@@ -148,9 +154,12 @@ public class UnitControllertest {
 
     @Test
     void testDashboard() throws Exception {
+        resetQueryCount();
         mockMvc.perform(get("/units/dashboard"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalUnits").value(1))
                 .andExpect(jsonPath("$.availableUnits").value(1));
+        // one grouped count by status and floor
+        assertQueryCount(1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package apartment.example.backend.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Backend load test - excluded from ./gradlew test, run with ./gradlew loadTest
+ *
+ * Boots the full application on a random port against a seeded database,
+ * replays the scripted workload over real HTTP and reports p50/p95/p99 per endpoint.
+ * Data volume and concurrency come from application-loadtest.properties and can be
+ * overridden with -Dloadtest.*, e.g. ./gradlew loadTest -Dloadtest.years=5 -Dloadtest.threads=16
+ * Compare thread models at high concurrency by running twice with
+ * -Dloadtest.threads=200 and -Dspring.threads.virtual.enabled=false / true.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "loadtest"})
+@AutoConfigureObservability(tracing = false)
+public class BackendLoadTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @DynamicPropertySource
+    static void loadTestProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdC1zZWNyZXQta2V5LWZvci1qd3QtdG9rZW4tZ2VuZXJhdGlvbg==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+        LoadTestDatabase.register(registry);
+    }
+
+    @Test
+    void tenantAndAdminWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.from(environment);
+        LoadTestDataSeeder.SeededData data = new LoadTestDataSeeder(jdbcTemplate, settings).seed();
+
+        // Same defaults as BackendApplication.initDatabase
+        LoadTestWorkload.Result result = new LoadTestWorkload(restTemplate, settings, data).run(
+                System.getenv().getOrDefault("ADMIN_USERNAME", "admin"),
+                System.getenv().getOrDefault("ADMIN_PASSWORD", "admin123"),
+                System.getenv().getOrDefault("VILLAGER_USERNAME", "villager"),
+                System.getenv().getOrDefault("VILLAGER_PASSWORD", "villager123"));
+
+        LoadTestReport report = new LoadTestReport(meterRegistry);
+        List<LoadTestReport.EndpointLatency> latencies = report.collect();
+        report.write(latencies, new LoadTestReport.RunSummary(
+                environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                settings.threads(), result.requests(), result.elapsedMs(), result.requestsPerSecond()),
+                Path.of(settings.reportDir()));
+
+        assertFalse(latencies.isEmpty(), "No http.server.requests timers were recorded");
+        assertTrue(result.failures().isEmpty(), "Failed requests per endpoint: " + result.failures());
+    }
+}
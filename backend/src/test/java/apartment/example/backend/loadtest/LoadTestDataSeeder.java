@@ -0,0 +1,247 @@
+package apartment.example.backend.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load Test Data Seeder
+ *
+ * Bulk-loads a realistic data set with JDBC batches (JPA saves would take minutes):
+ * buildings x units, one tenant + active lease per unit, a monthly invoice with
+ * RENT/ELECTRICITY/WATER line items for every month of the requested history,
+ * and a spread of maintenance requests. Works against both the Flyway MySQL schema
+ * and the Hibernate-generated H2 schema, so only mapped columns are written.
+ */
+@Slf4j
+public class LoadTestDataSeeder {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String[] LINE_ITEMS = {"RENT", "ELECTRICITY", "WATER"};
+    private static final String[] CATEGORIES = {"PLUMBING", "ELECTRICAL", "HVAC", "APPLIANCE", "STRUCTURAL", "CLEANING", "OTHER"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH", "URGENT"};
+    private static final String[] REQUEST_STATUSES = {"SUBMITTED", "APPROVED", "IN_PROGRESS", "COMPLETED", "COMPLETED", "COMPLETED"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestSettings settings;
+
+    public LoadTestDataSeeder(JdbcTemplate jdbcTemplate, LoadTestSettings settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = settings;
+    }
+
+    /**
+     * Seed everything and return the keys the workload needs
+     */
+    public SeededData seed() {
+        long started = System.currentTimeMillis();
+        LocalDate historyStart = LocalDate.now().withDayOfMonth(1).minusYears(settings.years());
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> unitIds = insertUnits(now);
+        Map<Long, Long> tenantByUnit = insertTenants(unitIds, now);
+        Map<Long, Long> leaseByUnit = insertLeases(unitIds, tenantByUnit, historyStart, now);
+        List<Long> invoiceIds = insertInvoicesAndPayments(leaseByUnit, historyStart, now);
+        int requests = insertMaintenanceRequests(unitIds, tenantByUnit, historyStart);
+
+        List<String> tenantEmails = new ArrayList<>();
+        for (Long unitId : unitIds) {
+            tenantEmails.add(tenantEmail(unitId));
+        }
+
+        log.info("Load test data seeded in {} ms: {} units, {} invoices, {} payments, {} maintenance requests",
+                System.currentTimeMillis() - started, unitIds.size(), invoiceIds.size(),
+                invoiceIds.size() * LINE_ITEMS.length, requests);
+        return new SeededData(tenantEmails, new ArrayList<>(leaseByUnit.values()), invoiceIds);
+    }
+
+    private List<Long> insertUnits(LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int building = 1; building <= settings.buildings(); building++) {
+            for (int unit = 1; unit <= settings.unitsPerBuilding(); unit++) {
+                rows.add(new Object[]{
+                        roomNumber(building, unit), building, "OCCUPIED", unit % 5 == 0 ? "Deluxe" : "Standard",
+                        unit % 5 == 0 ? new BigDecimal("12000.00") : new BigDecimal("8000.00"),
+                        Timestamp.valueOf(now), Timestamp.valueOf(now)
+                });
+            }
+        }
+        batch("INSERT INTO units (room_number, floor, status, type, rent_amount, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM units WHERE room_number LIKE 'B%-%' ORDER BY id", Long.class);
+    }
+
+    private Map<Long, Long> insertTenants(List<Long> unitIds, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long unitId : unitIds) {
+            rows.add(new Object[]{
+                    "Tenant", "Unit" + unitId, String.format("08%08d", unitId), tenantEmail(unitId),
+                    "Emergency " + unitId, String.format("09%08d", unitId), "ACTIVE",
+                    Timestamp.valueOf(now), Timestamp.valueOf(now)
+            });
+        }
+        batch("INSERT INTO tenants (first_name, last_name, phone, email, emergency_contact, emergency_phone, "
+                + "status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+        Map<String, Long> idByEmail = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM tenants WHERE email LIKE '%@loadtest.local'",
+                rs -> {
+                    idByEmail.put(rs.getString("email"), rs.getLong("id"));
+                });
+        Map<Long, Long> tenantByUnit = new HashMap<>();
+        for (Long unitId : unitIds) {
+            tenantByUnit.put(unitId, idByEmail.get(tenantEmail(unitId)));
+        }
+        return tenantByUnit;
+    }
+
+    private Map<Long, Long> insertLeases(List<Long> unitIds, Map<Long, Long> tenantByUnit,
+                                         LocalDate historyStart, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long unitId : unitIds) {
+            rows.add(new Object[]{
+                    tenantByUnit.get(unitId), unitId, Date.valueOf(historyStart),
+                    Date.valueOf(LocalDate.now().plusYears(1)), new BigDecimal("8000.00"),
+                    "MONTHLY", new BigDecimal("16000.00"), "ACTIVE", Timestamp.valueOf(now), Timestamp.valueOf(now)
+            });
+        }
+        batch("INSERT INTO leases (tenant_id, unit_id, start_date, end_date, monthly_rent, billing_cycle, "
+                + "deposit_amount, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+        Map<Long, Long> leaseByUnit = new HashMap<>();
+        jdbcTemplate.query("SELECT l.id, l.unit_id FROM leases l JOIN tenants t ON t.id = l.tenant_id "
+                        + "WHERE t.email LIKE '%@loadtest.local'",
+                rs -> {
+                    leaseByUnit.put(rs.getLong("unit_id"), rs.getLong("id"));
+                });
+        return leaseByUnit;
+    }
+
+    private List<Long> insertInvoicesAndPayments(Map<Long, Long> leaseByUnit, LocalDate historyStart,
+                                                 LocalDateTime now) {
+        int months = settings.years() * 12;
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+        List<Object[]> invoiceRows = new ArrayList<>();
+        for (Long leaseId : leaseByUnit.values()) {
+            for (int month = 0; month < months; month++) {
+                LocalDate invoiceDate = historyStart.plusMonths(month);
+                String status = invoiceStatus(invoiceDate, currentMonth, leaseId);
+                LocalDateTime slipUploadedAt = status.equals("WAITING_VERIFICATION") || status.equals("PAID")
+                        ? invoiceDate.plusDays(3).atTime(10, 0) : null;
+                invoiceRows.add(new Object[]{
+                        invoiceNumber(leaseId, invoiceDate), leaseId, Date.valueOf(invoiceDate),
+                        Date.valueOf(invoiceDate.plusDays(5)), new BigDecimal("9250.00"), "MONTHLY_RENT", status,
+                        slipUploadedAt != null ? "/uploads/payment-slips/slip-" + leaseId + ".jpg" : null,
+                        slipUploadedAt != null ? Timestamp.valueOf(slipUploadedAt) : null,
+                        status.equals("PAID") ? Timestamp.valueOf(slipUploadedAt.plusDays(1)) : null,
+                        true, Timestamp.valueOf(now), Timestamp.valueOf(now)
+                });
+            }
+        }
+        batch("INSERT INTO invoices (invoice_number, lease_id, invoice_date, due_date, total_amount, invoice_type, "
+                + "status, slip_url, slip_uploaded_at, verified_at, can_pay, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", invoiceRows);
+
+        List<Long> invoiceIds = new ArrayList<>();
+        List<Object[]> paymentRows = new ArrayList<>();
+        jdbcTemplate.query("SELECT i.id, i.lease_id, i.due_date, i.status FROM invoices i "
+                        + "WHERE i.invoice_number LIKE 'LT-%' ORDER BY i.id",
+                rs -> {
+                    long invoiceId = rs.getLong("id");
+                    invoiceIds.add(invoiceId);
+                    LocalDate dueDate = rs.getDate("due_date").toLocalDate();
+                    boolean paid = "PAID".equals(rs.getString("status"));
+                    for (String type : LINE_ITEMS) {
+                        paymentRows.add(new Object[]{
+                                invoiceId, rs.getLong("lease_id"), type, lineItemAmount(type), Date.valueOf(dueDate),
+                                paid ? Date.valueOf(dueDate) : null, "BANK_TRANSFER", paid ? "PAID" : "PENDING",
+                                type + " " + dueDate, Timestamp.valueOf(now), Timestamp.valueOf(now)
+                        });
+                    }
+                });
+        batch("INSERT INTO payments (invoice_id, lease_id, payment_type, amount, due_date, paid_date, payment_method, "
+                + "status, notes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", paymentRows);
+        return invoiceIds;
+    }
+
+    private int insertMaintenanceRequests(List<Long> unitIds, Map<Long, Long> tenantByUnit, LocalDate historyStart) {
+        int perUnit = settings.maintenanceRequestsPerUnitPerYear() * settings.years();
+        long totalDays = historyStart.until(LocalDate.now()).toTotalMonths() * 30;
+        List<Object[]> rows = new ArrayList<>();
+        int n = 0;
+        for (Long unitId : unitIds) {
+            for (int i = 0; i < perUnit; i++, n++) {
+                LocalDateTime submitted = historyStart.plusDays((n * 37L) % Math.max(totalDays, 1)).atTime(9, 0);
+                String status = REQUEST_STATUSES[n % REQUEST_STATUSES.length];
+                rows.add(new Object[]{
+                        tenantByUnit.get(unitId), unitId, "Load test request " + n, "Generated maintenance request " + n,
+                        PRIORITIES[n % PRIORITIES.length], CATEGORIES[n % CATEGORIES.length], "MEDIUM", status,
+                        Timestamp.valueOf(submitted),
+                        status.equals("COMPLETED") ? Timestamp.valueOf(submitted.plusDays(2)) : null,
+                        false, Timestamp.valueOf(submitted), Timestamp.valueOf(submitted)
+                });
+            }
+        }
+        batch("INSERT INTO maintenance_requests (tenant_id, unit_id, title, description, priority, category, urgency, "
+                + "status, submitted_date, completed_date, is_from_schedule, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        return rows.size();
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    /**
+     * Older months are settled; the last two months mix pending, uploaded-slip and overdue invoices
+     */
+    private static String invoiceStatus(LocalDate invoiceDate, LocalDate currentMonth, long leaseId) {
+        if (invoiceDate.isBefore(currentMonth.minusMonths(1))) {
+            return leaseId % 20 == 0 ? "OVERDUE" : "PAID";
+        }
+        return switch ((int) (leaseId % 3)) {
+            case 0 -> "WAITING_VERIFICATION";
+            case 1 -> "PENDING";
+            default -> "PAID";
+        };
+    }
+
+    private static BigDecimal lineItemAmount(String type) {
+        return switch (type) {
+            case "RENT" -> new BigDecimal("8000.00");
+            case "ELECTRICITY" -> new BigDecimal("950.00");
+            default -> new BigDecimal("300.00");
+        };
+    }
+
+    private static String roomNumber(int building, int unit) {
+        return String.format("B%d-%03d", building, unit);
+    }
+
+    private static String invoiceNumber(long leaseId, LocalDate invoiceDate) {
+        return String.format("LT-%d-%d%02d", leaseId, invoiceDate.getYear(), invoiceDate.getMonthValue());
+    }
+
+    static String tenantEmail(long unitId) {
+        return "tenant" + unitId + "@loadtest.local";
+    }
+
+    /**
+     * Keys of the seeded rows used to build request URLs
+     */
+    public record SeededData(List<String> tenantEmails, List<Long> leaseIds, List<Long> invoiceIds) {
+    }
+}
@@ -0,0 +1,48 @@
+package apartment.example.backend.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Load Test Database
+ *
+ * Picks the datasource for the load test: Testcontainers MySQL (Flyway schema, triggers
+ * included) when Docker is reachable, otherwise an in-memory H2 database in MySQL mode.
+ * H2 cannot run the MySQL-specific V1 migration, so in that mode Flyway is switched off
+ * and Hibernate creates the schema from the entities; timings are then only comparable
+ * with other H2 runs.
+ */
+@Slf4j
+final class LoadTestDatabase {
+
+    private LoadTestDatabase() {
+    }
+
+    static void register(DynamicPropertyRegistry registry) {
+        if (isDockerAvailable()) {
+            log.info("Load test database: Testcontainers MySQL 8.0");
+            registry.add("spring.datasource.url", () -> "jdbc:tc:mysql:8.0:///loadtest?TC_MY_CNF=mysql-conf");
+            registry.add("spring.datasource.driver-class-name", () -> "org.testcontainers.jdbc.ContainerDatabaseDriver");
+            // Flyway owns the schema here
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        } else {
+            log.info("Load test database: Docker not available, falling back to H2 in MySQL mode");
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            registry.add("spring.flyway.enabled", () -> "false");
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        }
+    }
+
+    private static boolean isDockerAvailable() {
+        try {
+            return DockerClientFactory.instance().isDockerAvailable();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package apartment.example.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load Test Report
+ *
+ * Per-endpoint latency summary built from the http.server.requests timers
+ * (percentiles enabled in application-loadtest.properties) plus run throughput.
+ * Printed as a table and written to {@code <report-dir>/loadtest-summary.json}.
+ */
+@Slf4j
+public class LoadTestReport {
+
+    private final MeterRegistry meterRegistry;
+
+    public LoadTestReport(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public List<EndpointLatency> collect() {
+        List<EndpointLatency> rows = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("http.server.requests").timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            rows.add(new EndpointLatency(
+                    timer.getId().getTag("method"),
+                    timer.getId().getTag("uri"),
+                    timer.getId().getTag("status"),
+                    snapshot.count(),
+                    percentile(snapshot, 0.5),
+                    percentile(snapshot, 0.95),
+                    percentile(snapshot, 0.99),
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+        rows.sort(Comparator.comparingDouble(EndpointLatency::p99Ms).reversed());
+        return rows;
+    }
+
+    public void write(List<EndpointLatency> rows, RunSummary run, Path reportDir) throws IOException {
+        StringBuilder table = new StringBuilder(System.lineSeparator())
+                .append(String.format("virtualThreads=%s clients=%d requests=%d elapsed=%dms throughput=%.1f req/s%n",
+                        run.virtualThreads(), run.clients(), run.requests(), run.elapsedMs(), run.requestsPerSecond()))
+                .append(String.format("%-6s %-45s %-6s %8s %10s %10s %10s %10s%n",
+                        "METHOD", "URI", "STATUS", "COUNT", "P50(ms)", "P95(ms)", "P99(ms)", "MAX(ms)"));
+        for (EndpointLatency row : rows) {
+            table.append(String.format("%-6s %-45s %-6s %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    row.method(), row.uri(), row.status(), row.count(),
+                    row.p50Ms(), row.p95Ms(), row.p99Ms(), row.maxMs()));
+        }
+        log.info(table.toString());
+
+        Files.createDirectories(reportDir);
+        Path summary = reportDir.resolve("loadtest-summary.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(summary.toFile(), new Summary(run, rows));
+        log.info("Load test summary written to {}", summary.toAbsolutePath());
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Run-level numbers, used to compare platform vs virtual thread runs
+     */
+    public record RunSummary(boolean virtualThreads, int clients, long requests, long elapsedMs,
+                             double requestsPerSecond) {
+    }
+
+    record Summary(RunSummary run, List<EndpointLatency> endpoints) {
+    }
+
+    public record EndpointLatency(String method, String uri, String status, long count,
+                                  double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
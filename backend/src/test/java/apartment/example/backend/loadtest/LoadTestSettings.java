@@ -0,0 +1,29 @@
+package apartment.example.backend.loadtest;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Load Test Settings
+ *
+ * Data volume and workload shape, read from the loadtest profile (loadtest.* keys).
+ */
+public record LoadTestSettings(
+        int buildings,
+        int unitsPerBuilding,
+        int years,
+        int maintenanceRequestsPerUnitPerYear,
+        int threads,
+        int iterationsPerThread,
+        String reportDir) {
+
+    public static LoadTestSettings from(Environment environment) {
+        return new LoadTestSettings(
+                environment.getProperty("loadtest.buildings", Integer.class, 5),
+                environment.getProperty("loadtest.units-per-building", Integer.class, 20),
+                environment.getProperty("loadtest.years", Integer.class, 3),
+                environment.getProperty("loadtest.maintenance-requests-per-unit-per-year", Integer.class, 4),
+                environment.getProperty("loadtest.threads", Integer.class, 8),
+                environment.getProperty("loadtest.iterations-per-thread", Integer.class, 50),
+                environment.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+    }
+}
@@ -0,0 +1,137 @@
+package apartment.example.backend.loadtest;
+
+import apartment.example.backend.dto.LoginRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load Test Workload
+ *
+ * Scripted tenant and admin sessions replayed by a fixed pool of virtual users.
+ * Each iteration runs the tenant flow (dashboard -> payments -> invoices -> invoice detail);
+ * every fourth iteration also runs the admin flow (dashboards, monthly summary,
+ * verification queue, maintenance stats). Latency is measured server side by the
+ * http.server.requests timers, so this class only counts failures.
+ */
+@Slf4j
+public class LoadTestWorkload {
+
+    private final TestRestTemplate restTemplate;
+    private final LoadTestSettings settings;
+    private final LoadTestDataSeeder.SeededData data;
+    private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    public LoadTestWorkload(TestRestTemplate restTemplate, LoadTestSettings settings, LoadTestDataSeeder.SeededData data) {
+        this.restTemplate = restTemplate;
+        this.settings = settings;
+        this.data = data;
+    }
+
+    /**
+     * Run the workload to completion
+     */
+    public Result run(String adminUsername, String adminPassword,
+                                          String villagerUsername, String villagerPassword) throws Exception {
+        String adminToken = login(adminUsername, adminPassword);
+        String villagerToken = login(villagerUsername, villagerPassword);
+
+        long started = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(settings.threads());
+        try {
+            List<Future<?>> users = new ArrayList<>();
+            for (int user = 0; user < settings.threads(); user++) {
+                users.add(pool.submit(() -> {
+                    for (int iteration = 0; iteration < settings.iterationsPerThread(); iteration++) {
+                        tenantFlow(villagerToken);
+                        if (iteration % 4 == 0) {
+                            adminFlow(adminToken);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMs = System.currentTimeMillis() - started;
+        log.info("Workload finished in {} ms ({} virtual users x {} iterations, {} requests)",
+                elapsedMs, settings.threads(), settings.iterationsPerThread(), requests.get());
+        return new Result(failures, requests.get(), elapsedMs);
+    }
+
+    private void tenantFlow(String token) {
+        String email = pick(data.tenantEmails());
+        get(token, "/villager/dashboard/{email}", email);
+        get(token, "/villager/payments/{email}", email);
+        get(token, "/invoices/tenant/{email}", email);
+        get(token, "/invoices/{id}", pick(data.invoiceIds()));
+    }
+
+    private void adminFlow(String token) {
+        get(token, "/admin/dashboard");
+        get(token, "/units/dashboard");
+        get(token, "/payments/monthly-summary");
+        get(token, "/payments/lease/{leaseId}", pick(data.leaseIds()));
+        get(token, "/invoices/waiting-verification");
+        get(token, "/maintenance-requests/stats");
+    }
+
+    private void get(String token, String uriTemplate, Object... uriVariables) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        requests.incrementAndGet();
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    uriTemplate, HttpMethod.GET, new HttpEntity<>(headers), String.class, uriVariables);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                failures.computeIfAbsent(uriTemplate, key -> new AtomicInteger()).incrementAndGet();
+            }
+        } catch (Exception e) {
+            failures.computeIfAbsent(uriTemplate, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private String login(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        // LoginResponse has no default constructor, so read the token from the raw JSON map
+        ResponseEntity<Map> response = restTemplate.postForEntity("/auth/login", request, Map.class);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("Load test login failed for " + username + ": " + response.getStatusCode());
+        }
+        return (String) response.getBody().get("token");
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    /**
+     * Failed request counts per request template, plus totals for throughput
+     */
+    public record Result(Map<String, AtomicInteger> failures, long requests, long elapsedMs) {
+
+        public double requestsPerSecond() {
+            return elapsedMs == 0 ? 0 : requests * 1000.0 / elapsedMs;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset paging of invoices by status visits every invoice once and in listing order, also
+ * across invoices sharing a slip upload time and across the boundary to invoices without a slip
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class InvoiceRepositoryTest {
+
+    // Invoices of other tests with the same status may interleave; only the order of these is checked
+    private static final LocalDateTime UPLOADED = LocalDateTime.of(2099, 1, 1, 10, 0);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private Tenant tenant;
+    private Unit unit;
+    private Lease lease;
+    private final List<Long> invoiceIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Paging");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("paging-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        unit = new Unit();
+        unit.setRoomNumber("PG-" + suffix);
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitRepository.save(unit);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.now().minusMonths(1));
+        lease.setEndDate(LocalDate.now().plusMonths(11));
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+    }
+
+    @AfterEach
+    void cleanup() {
+        invoiceRepository.deleteAllById(invoiceIds);
+        leaseRepository.delete(lease);
+        unitRepository.delete(unit);
+        tenantRepository.delete(tenant);
+    }
+
+    @Test
+    void pagesByStatusAcrossEqualUploadTimesAndMissingSlips() {
+        // Three share the latest upload time, two have no slip
+        Long latestA = invoice(UPLOADED);
+        Long latestB = invoice(UPLOADED);
+        Long latestC = invoice(UPLOADED);
+        Long earlier = invoice(UPLOADED.minusHours(1));
+        Long noSlipA = invoice(null);
+        Long noSlipB = invoice(null);
+
+        // Page size 2 puts page boundaries inside the equal-time run and at the NULL boundary
+        List<Long> visited = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime afterUploadedAt = null;
+        Long afterId = null;
+        while (true) {
+            List<Object[]> keys = invoiceRepository.findKeysByStatus(Invoice.InvoiceStatus.WAITING_VERIFICATION,
+                    afterUploadedAt, afterId, PageRequest.ofSize(2));
+            for (Object[] key : keys) {
+                assertTrue(seen.add((Long) key[0]), "invoice " + key[0] + " returned twice");
+                if (invoiceIds.contains((Long) key[0])) {
+                    visited.add((Long) key[0]);
+                }
+            }
+            if (keys.size() < 2) {
+                break;
+            }
+            Object[] last = keys.get(keys.size() - 1);
+            afterId = (Long) last[0];
+            afterUploadedAt = (LocalDateTime) last[1];
+        }
+
+        // Latest upload first, id descending within a time, invoices without a slip last
+        assertEquals(List.of(latestC, latestB, latestA, earlier, noSlipB, noSlipA), visited);
+    }
+
+    private Long invoice(LocalDateTime slipUploadedAt) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-PAGING-" + UUID.randomUUID().toString().substring(0, 8));
+        invoice.setLease(lease);
+        invoice.setInvoiceDate(LocalDate.now());
+        invoice.setDueDate(LocalDate.now().plusDays(5));
+        invoice.setTotalAmount(BigDecimal.valueOf(5000));
+        invoice.setStatus(Invoice.InvoiceStatus.WAITING_VERIFICATION);
+        invoice.setSlipUploadedAt(slipUploadedAt);
+        Long id = invoiceRepository.save(invoice).getId();
+        invoiceIds.add(id);
+        return id;
+    }
+}
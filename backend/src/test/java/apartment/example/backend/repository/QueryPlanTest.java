@@ -0,0 +1,383 @@
+package apartment.example.backend.repository;
+
+import apartment.example.backend.support.BoundStatementRecorder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query Plan Test
+ *
+ * Calls every query method of every Spring Data repository against a Flyway-migrated
+ * Testcontainers MySQL, records the SQL that was actually executed with its bound values
+ * (BoundStatementRecorder) and runs EXPLAIN on it. A statement on a table that grows with
+ * usage fails the test when it needs a full scan of such a table or a filesort.
+ * New repository methods are picked up automatically; arguments come from
+ * {@link #argument} by parameter type and name.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    // Tables that grow with time/usage; a full scan on these fails the test
+    private static final Set<String> LARGE_TABLES = Set.of(
+            "payments", "invoices", "maintenance_logs", "maintenance_notifications",
+            "maintenance_requests", "unit_audit_logs", "unit_price_history");
+
+    // Queries that read every row of a large table by design
+    private static final Set<String> FULL_SCAN_ALLOWED = Set.of(
+            "PaymentRepository.findAllWithRelations",
+            // Report listings over all payments of one status/type
+            "PaymentRepository.findByStatus",
+            "PaymentRepository.findByPaymentType",
+            // Repair/backfill, aggregates every payment
+            "TenantBillingLedgerRepository.insertAllFromPayments",
+            // One row per unit, read when the whole price list is shown
+            "UnitPriceHistoryRepository.findAllCurrentPrices");
+
+    // Sorts that are bounded by one owner (tenant, schedule, request, user) or a batch limit
+    private static final Set<String> FILESORT_ALLOWED = Set.of(
+            "InvoiceRepository.findKeysByTenantEmail",
+            "InvoiceRepository.findByInvoiceDateOrderByCreatedAtDesc",
+            "PaymentRepository.findByTenantIdWithLeaseOrderByDueDateDesc",
+            "MaintenanceNotificationRepository.findBySchedule_IdOrderByCreatedAtDesc",
+            "MaintenanceNotificationRepository.findByRequest_IdOrderByCreatedAtDesc",
+            "MaintenanceNotificationRepository.findByNotificationTypeAndUser_IdOrderByCreatedAtDesc",
+            "MaintenanceNotificationRepository.deleteReadBefore",
+            "MaintenanceLogRepository.findByCreatedByIdOrderByCreatedAtDesc",
+            "MaintenanceLogRepository.findByActionTypeOrderByCreatedAtDesc",
+            "MaintenanceRequestRepository.findByPriorityOrderBySubmittedDateDesc",
+            "UnitPriceHistoryRepository.findIntervalsByUnitIdIn",
+            // Live and archived rows merged in a derived table, then sorted
+            "MaintenanceLogRepository.findHistoryByScheduleId",
+            "MaintenanceLogRepository.findHistoryByRequestId",
+            "UnitAuditLogRepository.findHistoryByUnitId",
+            "UnitAuditLogRepository.findPriceChangeHistoryByUnitId");
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("\\s*\\(?\\s*(select|with|insert|update|delete|replace)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLE_ALIAS = Pattern.compile("\\b(?:from|join|update|into)\\s+(\\w+)(?:\\s+(?:as\\s+)?(\\w+))?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final int SEED_ROWS = 2000;
+    private static final String SEED_EMAIL = "plan-test@apartment.com";
+    // Before every seeded row, so date ranges and cutoffs select few rows like they do in production
+    private static final LocalDate SAMPLE_DATE = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Long> seededIds = new HashMap<>();
+
+    @DynamicPropertySource
+    static void testProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor boundStatementRecorderPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? BoundStatementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * One repository query method
+     */
+    record QueryMethod(Class<?> repository, Method method) {
+
+        String name() {
+            return repository.getSimpleName() + "." + method.getName();
+        }
+
+        @Override
+        public String toString() {
+            return name() + Arrays.stream(method.getParameterTypes())
+                    .map(Class::getSimpleName)
+                    .collect(Collectors.joining(", ", "(", ")"));
+        }
+    }
+
+    Stream<QueryMethod> repositoryQueries() {
+        Repositories repositories = new Repositories(applicationContext);
+        return StreamSupport.stream(repositories.spliterator(), false)
+                .map(repositories::getRequiredRepositoryInformation)
+                .flatMap(information -> information.getQueryMethods().stream()
+                        .map(method -> new QueryMethod(information.getRepositoryInterface(), method)))
+                .sorted(Comparator.comparing(QueryMethod::toString));
+    }
+
+    @BeforeAll
+    void seedLargeTables() {
+        jdbcTemplate.update("INSERT INTO users (username, password, email, role) VALUES ('plan-test', 'x', ?, 'VILLAGER')", SEED_EMAIL);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'plan-test'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO tenants (first_name, last_name, phone, email, emergency_contact, emergency_phone) " +
+                "VALUES ('Plan', 'Test', '0800000000', ?, 'Contact', '0800000001')", SEED_EMAIL);
+        long tenantId = jdbcTemplate.queryForObject("SELECT id FROM tenants WHERE email = ?", Long.class, SEED_EMAIL);
+        List<Long> unitIds = jdbcTemplate.queryForList("SELECT id FROM units ORDER BY id", Long.class);
+        long unitId = unitIds.get(0);
+
+        // EXPIRED leases skip the one-active-lease trigger, so many rows can share a unit
+        List<Object[]> leases = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            leases.add(new Object[]{tenantId, unitId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leases (tenant_id, unit_id, start_date, end_date, monthly_rent, status) " +
+                "VALUES (?, ?, '2020-01-01', '2020-12-31', 8000, 'EXPIRED')", leases);
+        long leaseId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM leases WHERE tenant_id = ?", Long.class, tenantId);
+
+        jdbcTemplate.update("INSERT INTO maintenance_schedules (title, start_date, next_trigger_date) VALUES ('Plan test', '2020-01-01', '2020-01-01')");
+        long scheduleId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM maintenance_schedules WHERE title = 'Plan test'", Long.class);
+
+        List<Object[]> invoices = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        List<Object[]> notifications = new ArrayList<>();
+        List<Object[]> logs = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> auditLogs = new ArrayList<>();
+        List<Object[]> prices = new ArrayList<>();
+        for (int i = 0; i < SEED_ROWS; i++) {
+            long lease = leaseId + (i % 50);
+            long unit = unitIds.get(i % unitIds.size());
+            // The first enum constant (what argument() passes) is rare, like an equality filter in production
+            boolean rare = i % 20 == 0;
+            invoices.add(new Object[]{"INV-PLAN-" + i, lease, i % 7 == 0 ? "WAITING_VERIFICATION" : "PAID"});
+            payments.add(new Object[]{lease, i % 365});
+            notifications.add(new Object[]{userId, i % 3 == 0});
+            logs.add(new Object[]{i % 10 == 0 ? scheduleId : null});
+            requests.add(new Object[]{unit, rare ? "NOT_SUBMITTED" : "COMPLETED", rare ? "LOW" : "MEDIUM",
+                    rare ? "PLUMBING" : "OTHER", i % 10 == 0 ? userId : null});
+            auditLogs.add(new Object[]{unit, rare ? "CREATED" : "UPDATED", i % 10 == 0 ? userId : null});
+            prices.add(new Object[]{unit, i, i + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO invoices (invoice_number, lease_id, invoice_date, due_date, total_amount, status, slip_uploaded_at) " +
+                "VALUES (?, ?, '2020-01-01', '2020-01-31', 8000, ?, NOW())", invoices);
+        jdbcTemplate.batchUpdate("INSERT INTO payments (lease_id, amount, due_date) " +
+                "VALUES (?, 8000, DATE_ADD('2020-01-01', INTERVAL ? DAY))", payments);
+        jdbcTemplate.batchUpdate("INSERT INTO maintenance_notifications (user_id, notification_type, title, is_read) " +
+                "VALUES (?, 'GENERAL', 'Plan test', ?)", notifications);
+        jdbcTemplate.batchUpdate("INSERT INTO maintenance_logs (schedule_id, action_type) VALUES (?, 'SCHEDULE_UPDATED')", logs);
+        jdbcTemplate.batchUpdate("INSERT INTO maintenance_requests (unit_id, title, description, status, priority, category, created_by_user_id) " +
+                "VALUES (?, 'Plan test', 'Plan test', ?, ?, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("INSERT INTO unit_audit_logs (unit_id, action_type, description, created_by_user_id) " +
+                "VALUES (?, ?, 'Plan test', ?)", auditLogs);
+        jdbcTemplate.batchUpdate("INSERT INTO unit_price_history (unit_id, rent_amount, effective_from, effective_to, change_reason) " +
+                "VALUES (?, 8000, DATE_ADD('2010-01-01', INTERVAL ? DAY), DATE_ADD('2010-01-01', INTERVAL ? DAY), 'Plan test')", prices);
+
+        seededIds.put("user", userId);
+        seededIds.put("tenant", tenantId);
+        seededIds.put("unit", unitId);
+        seededIds.put("lease", leaseId);
+        seededIds.put("schedule", scheduleId);
+        seededIds.put("invoice", jdbcTemplate.queryForObject("SELECT MIN(id) FROM invoices WHERE invoice_number LIKE 'INV-PLAN-%'", Long.class));
+        seededIds.put("request", jdbcTemplate.queryForObject("SELECT MIN(id) FROM maintenance_requests WHERE title = 'Plan test'", Long.class));
+
+        jdbcTemplate.execute("ANALYZE TABLE invoices, payments, maintenance_notifications, maintenance_logs, " +
+                "maintenance_requests, unit_audit_logs, unit_price_history, leases, tenants");
+    }
+
+    @AfterAll
+    void removeSeedData() {
+        jdbcTemplate.update("DELETE FROM unit_price_history WHERE change_reason = 'Plan test'");
+        jdbcTemplate.update("DELETE FROM unit_audit_logs WHERE description = 'Plan test'");
+        jdbcTemplate.update("DELETE FROM maintenance_requests WHERE title = 'Plan test'");
+        jdbcTemplate.update("DELETE FROM maintenance_logs WHERE schedule_id = ? OR (schedule_id IS NULL AND request_id IS NULL AND action_type = 'SCHEDULE_UPDATED')",
+                seededIds.get("schedule"));
+        jdbcTemplate.update("DELETE FROM maintenance_notifications WHERE user_id = ?", seededIds.get("user"));
+        jdbcTemplate.update("DELETE FROM payments WHERE lease_id IN (SELECT id FROM leases WHERE tenant_id = ?)", seededIds.get("tenant"));
+        jdbcTemplate.update("DELETE FROM invoices WHERE invoice_number LIKE 'INV-PLAN-%'");
+        jdbcTemplate.update("DELETE FROM leases WHERE tenant_id = ?", seededIds.get("tenant"));
+        jdbcTemplate.update("DELETE FROM maintenance_schedules WHERE id = ?", seededIds.get("schedule"));
+        jdbcTemplate.update("DELETE FROM tenants WHERE id = ?", seededIds.get("tenant"));
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", seededIds.get("user"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryUsesIndexWithoutFilesort(QueryMethod query) {
+        List<BoundStatementRecorder.BoundStatement> statements = run(query).stream()
+                .filter(statement -> EXPLAINABLE.matcher(statement.sql()).lookingAt())
+                .toList();
+        assertFalse(statements.isEmpty(), query + " ran no SQL");
+
+        for (BoundStatementRecorder.BoundStatement statement : statements) {
+            Map<String, String> tables = tablesByAlias(statement.sql());
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                    statement.parameters().toArray());
+            if (tables.values().stream().noneMatch(LARGE_TABLES::contains)) {
+                continue;
+            }
+            for (Map<String, Object> row : plan) {
+                String alias = String.valueOf(row.get("table"));
+                String table = tables.getOrDefault(alias, alias);
+                String type = String.valueOf(row.get("type"));
+                String extra = String.valueOf(row.get("Extra"));
+
+                if (!FULL_SCAN_ALLOWED.contains(query.name())) {
+                    assertTrue(!"ALL".equals(type) || !LARGE_TABLES.contains(table),
+                            query + " does a full scan of " + table + ":\n" + statement.sql() + "\n" + plan);
+                }
+                if (!FILESORT_ALLOWED.contains(query.name())) {
+                    assertTrue(!extra.contains("Using filesort"),
+                            query + " needs a filesort on " + table + ":\n" + statement.sql() + "\n" + plan);
+                }
+            }
+        }
+    }
+
+    /**
+     * Call the query method in a transaction that is rolled back (so modifying queries leave
+     * no trace) and return the statements it executed
+     */
+    private List<BoundStatementRecorder.BoundStatement> run(QueryMethod query) {
+        Object repository = applicationContext.getBean(query.repository());
+        Object[] args = arguments(query.method());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        BoundStatementRecorder.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            try {
+                ReflectionUtils.invokeMethod(query.method(), repository, args);
+            } catch (DataAccessException e) {
+                // Sample arguments may violate a constraint or match several rows;
+                // the statement was recorded before it ran, which is all the plan needs
+            }
+        });
+        return BoundStatementRecorder.statements();
+    }
+
+    private Object[] arguments(Method method) {
+        Parameter[] parameters = method.getParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            String name = (param != null ? param.value() : parameters[i].getName()).toLowerCase(Locale.ROOT);
+            Class<?> type = parameters[i].getType();
+            if (Collection.class.isAssignableFrom(type)) {
+                Class<?> elementType = ResolvableType.forMethodParameter(method, i).asCollection().resolveGeneric(0);
+                args[i] = List.of(argument(elementType, name));
+            } else {
+                args[i] = argument(type, name);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * A sample value for a query parameter: ids of the seeded rows by parameter name,
+     * dates before the seeded data, the first constant of an enum
+     */
+    private Object argument(Class<?> type, String name) {
+        if (type == Long.class || type == long.class) {
+            return seededIds.entrySet().stream()
+                    .filter(entry -> name.contains(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(1L);
+        }
+        if (type == Integer.class || type == int.class) {
+            return name.contains("limit") ? 100 : 1;
+        }
+        if (type == String.class) {
+            return name.contains("email") ? SEED_EMAIL : "plan-test";
+        }
+        if (type == LocalDate.class) {
+            return SAMPLE_DATE;
+        }
+        if (type == LocalDateTime.class) {
+            return SAMPLE_DATE.atStartOfDay();
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        throw new IllegalStateException("No sample value for a " + type.getName() + " parameter (" + name + ")");
+    }
+
+    /**
+     * EXPLAIN reports tables by their alias in the statement (Hibernate's p1_0 etc.)
+     */
+    private static Map<String, String> tablesByAlias(String sql) {
+        Map<String, String> tables = new HashMap<>();
+        Matcher matcher = TABLE_ALIAS.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            tables.put(table, table);
+            if (matcher.group(2) != null) {
+                tables.put(matcher.group(2), table);
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,225 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.TenantBillingLedger;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.PaymentStatus;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.PaymentRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The ledger must follow every payment write - insert, pay, move to another month,
+ * delete - and agree with a full rebuild from the payments table afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BillingLedgerServiceTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+    private static final LocalDate APRIL = LocalDate.of(2025, 4, 1);
+
+    @Autowired
+    private BillingLedgerService ledgerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Tenant tenant;
+    private Unit unit;
+    private Lease lease;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Ledger");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("ledger-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        unit = new Unit();
+        unit.setRoomNumber("L-" + suffix);
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitRepository.save(unit);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.of(2025, 1, 1));
+        lease.setEndDate(LocalDate.of(2025, 12, 31));
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+    }
+
+    @AfterEach
+    void cleanup() {
+        paymentRepository.deleteAll(paymentRepository.findByLeaseId(lease.getId()));
+        leaseRepository.delete(lease);
+        unitRepository.delete(unit);
+        tenantRepository.delete(tenant);
+    }
+
+    @Test
+    void ledgerFollowsPaymentWrites() {
+        Payment rent = paymentService.createPayment(payment(PaymentType.RENT, 5000, MARCH.plusDays(4)));
+        Payment water = paymentService.createPayment(payment(PaymentType.WATER, 250, MARCH.plusDays(9)));
+
+        TenantBillingLedger march = single();
+        assertEquals(MARCH, march.getBillingMonth());
+        assertEquals(0, new BigDecimal("5250.00").compareTo(march.getTotalAmount()));
+        assertEquals(2, march.getPaymentCount());
+        assertEquals(2, march.getUnpaidCount());
+        assertNull(march.getLastPaidDate());
+
+        paymentService.markAsPaid(rent.getId(), MARCH.plusDays(5), "CASH", null);
+
+        march = single();
+        assertEquals(1, march.getPaidCount());
+        assertEquals(1, march.getUnpaidCount());
+        assertEquals(0, new BigDecimal("5000.00").compareTo(march.getPaidAmount()));
+        assertEquals(MARCH.plusDays(5), march.getLastPaidDate());
+
+        // Moving the water bill to April refreshes both months
+        Payment moved = payment(PaymentType.WATER, 250, APRIL.plusDays(9));
+        paymentService.updatePayment(water.getId(), moved);
+
+        List<TenantBillingLedger> ledger = ledgerService.getLedger(tenant.getId());
+        assertEquals(2, ledger.size());
+        assertEquals(APRIL, ledger.get(0).getBillingMonth());
+        assertEquals(1, ledger.get(0).getPaymentCount());
+        assertEquals(MARCH, ledger.get(1).getBillingMonth());
+        assertEquals(1, ledger.get(1).getPaymentCount());
+        assertEquals(0, ledger.get(1).getUnpaidCount());
+
+        // Removing April's only payment removes the month
+        paymentService.deletePayment(water.getId());
+
+        march = single();
+        assertEquals(MARCH, march.getBillingMonth());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalLedger() {
+        paymentService.createPayment(payment(PaymentType.RENT, 5000, MARCH.plusDays(4)));
+        paymentService.createPayment(payment(PaymentType.ELECTRICITY, 800, APRIL.plusDays(4)));
+        List<TenantBillingLedger> incremental = ledgerService.getLedger(tenant.getId());
+
+        assertTrue(ledgerService.rebuild() >= 2);
+
+        List<TenantBillingLedger> rebuilt = ledgerService.getLedger(tenant.getId());
+        assertEquals(incremental.size(), rebuilt.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals(incremental.get(i).getBillingMonth(), rebuilt.get(i).getBillingMonth());
+            assertEquals(0, incremental.get(i).getTotalAmount().compareTo(rebuilt.get(i).getTotalAmount()));
+            assertEquals(incremental.get(i).getPaymentCount(), rebuilt.get(i).getPaymentCount());
+        }
+    }
+
+    @Test
+    void concurrentWritesToTheSameMonthsAllCommit() throws Exception {
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                // Half the writers touch March first, half April first
+                LocalDate first = i % 2 == 0 ? MARCH : APRIL;
+                LocalDate second = i % 2 == 0 ? APRIL : MARCH;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        paymentRepository.save(payment(PaymentType.RENT, 100, first.plusDays(4)));
+                        paymentRepository.save(payment(PaymentType.WATER, 10, second.plusDays(9)));
+                    });
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<TenantBillingLedger> ledger = ledgerService.getLedger(tenant.getId());
+        assertEquals(2, ledger.size());
+        for (TenantBillingLedger month : ledger) {
+            assertEquals(writers, month.getPaymentCount());
+            assertEquals(0, new BigDecimal("440.00").compareTo(month.getTotalAmount()));
+        }
+    }
+
+    private TenantBillingLedger single() {
+        List<TenantBillingLedger> ledger = ledgerService.getLedger(tenant.getId());
+        assertEquals(1, ledger.size());
+        return ledger.get(0);
+    }
+
+    private Payment payment(PaymentType type, long amount, LocalDate dueDate) {
+        Payment payment = new Payment();
+        payment.setLease(lease);
+        payment.setPaymentType(type);
+        payment.setAmount(BigDecimal.valueOf(amount));
+        payment.setDueDate(dueDate);
+        payment.setStatus(PaymentStatus.PENDING);
+        return payment;
+    }
+}
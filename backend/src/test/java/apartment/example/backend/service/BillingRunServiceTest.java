@@ -0,0 +1,266 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.BillingRun;
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.repository.BillingRunRepository;
+import apartment.example.backend.repository.InvoiceRepository;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.PaymentRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Billing runs invoice each active lease once per month, dry runs write nothing, usage
+ * defaults to the imported meter readings, and leases a failed run left unbilled are
+ * finished by the next run for the month.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BillingRunServiceTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2031, 1, 1);
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private ApartmentSettingsService settingsService;
+
+    @Autowired
+    private MeterReadingService meterReadingService;
+
+    @Autowired
+    private BillingRunRepository billingRunRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private InvoiceNumberSequence invoiceNumberSequence;
+
+    private Tenant tenant;
+    private Unit unit;
+    private Lease lease;
+    private final List<Long> runIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Billing");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("billing-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        unit = new Unit();
+        unit.setRoomNumber("BR-" + suffix);
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitRepository.save(unit);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(MONTH.minusMonths(6));
+        lease.setEndDate(MONTH.plusMonths(6));
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+    }
+
+    @AfterEach
+    void cleanup() {
+        paymentRepository.deleteAll(paymentRepository.findByLeaseId(lease.getId()));
+        invoiceRepository.deleteAll(invoiceRepository.findByLeaseId(lease.getId()));
+        billingRunRepository.deleteAllById(runIds);
+        leaseRepository.delete(lease);
+        unitRepository.delete(unit);
+        tenantRepository.delete(tenant);
+    }
+
+    @Test
+    void dryRunPreviewsWithoutWriting() {
+        BillingRunService.RunResult result = billingRunService.start(request(true, usage(100, 10)));
+        runIds.add(result.run().getId());
+
+        BillingRunService.PreviewLine line = result.preview().stream()
+                .filter(preview -> preview.leaseId().equals(lease.getId()))
+                .findFirst()
+                .orElseThrow();
+        BigDecimal electricity = settingsService.getElectricityRate().multiply(BigDecimal.valueOf(100));
+        BigDecimal water = settingsService.getWaterRate().multiply(BigDecimal.valueOf(10));
+        assertEquals(0, BigDecimal.valueOf(5000).compareTo(line.rent()));
+        assertEquals(0, electricity.compareTo(line.electricity()));
+        assertEquals(0, BigDecimal.valueOf(5000).add(electricity).add(water).compareTo(line.total()));
+        assertFalse(line.alreadyBilled());
+        assertTrue(result.run().getDryRun());
+        assertTrue(invoiceRepository.findByLeaseId(lease.getId()).isEmpty());
+    }
+
+    @Test
+    void dryRunTakesUsageFromMeterReadings() throws Exception {
+        String csv = "room_number,utility_type,period,reading,previous_reading\n" +
+                unit.getRoomNumber() + ",ELECTRICITY,2031-01,1050,1000\n";
+        meterReadingService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        BillingRunService.RunResult result = billingRunService.start(request(true, Map.of()));
+        runIds.add(result.run().getId());
+
+        BillingRunService.PreviewLine line = result.preview().stream()
+                .filter(preview -> preview.leaseId().equals(lease.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, settingsService.getElectricityRate().multiply(BigDecimal.valueOf(50))
+                .compareTo(line.electricity()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(line.water()));
+    }
+
+    @Test
+    void runBillsEachLeaseOncePerMonth() {
+        BillingRun first = awaitFinished(billingRunService.start(request(false, usage(100, 0))).run());
+
+        assertEquals(BillingRun.Status.COMPLETED, first.getStatus());
+        List<Invoice> invoices = invoiceRepository.findByLeaseId(lease.getId());
+        assertEquals(1, invoices.size());
+        Invoice invoice = invoices.get(0);
+        assertEquals(MONTH, invoice.getInvoiceDate());
+        assertTrue(invoice.getInvoiceNumber().startsWith("INV-20310101-"));
+        List<Payment> payments = paymentRepository.findByInvoiceId(invoice.getId());
+        assertEquals(List.of(PaymentType.RENT, PaymentType.ELECTRICITY),
+                payments.stream().map(Payment::getPaymentType).sorted().toList());
+
+        // A second run for the month leaves the billed lease alone
+        awaitFinished(billingRunService.start(request(false, Map.of())).run());
+
+        assertEquals(1, invoiceRepository.findByLeaseId(lease.getId()).size());
+        BillingRunService.RunResult preview = billingRunService.start(request(true, Map.of()));
+        runIds.add(preview.run().getId());
+        assertTrue(preview.preview().stream()
+                .filter(line -> line.leaseId().equals(lease.getId()))
+                .allMatch(BillingRunService.PreviewLine::alreadyBilled));
+    }
+
+    @Test
+    void runAndManualInvoicesDrawFromOneCounter() {
+        String prefix = InvoiceService.invoiceNumberPrefix(MONTH);
+        long manualBefore = invoiceNumberSequence.reserve(prefix, 1);
+
+        awaitFinished(billingRunService.start(request(false, usage(100, 0))).run());
+        String number = invoiceRepository.findByLeaseId(lease.getId()).get(0).getInvoiceNumber();
+        long billed = Long.parseLong(number.substring(prefix.length()));
+
+        long manualAfter = invoiceNumberSequence.reserve(prefix, 1);
+        assertTrue(billed > manualBefore);
+        assertTrue(manualAfter > billed);
+    }
+
+    @Test
+    void nextRunFinishesLeasesLeftPendingByFailedRun() {
+        // A run that died after snapshotting, with usage recorded for the lease
+        BillingRun failed = new BillingRun();
+        failed.setBillingMonth(MONTH);
+        failed.setInvoiceDate(MONTH);
+        failed.setDueDate(MONTH.plusDays(5));
+        failed.setStatus(BillingRun.Status.FAILED);
+        failed.setElectricityRate(BigDecimal.ONE);
+        failed.setWaterRate(BigDecimal.ONE);
+        failed.setStartedAt(LocalDateTime.now());
+        failed = billingRunRepository.save(failed);
+        runIds.add(failed.getId());
+        jdbc.update("INSERT INTO billing_run_items (run_id, lease_id, billing_month, water_units) " +
+                    "VALUES (:runId, :leaseId, :month, 3)",
+                new MapSqlParameterSource()
+                        .addValue("runId", failed.getId())
+                        .addValue("leaseId", lease.getId())
+                        .addValue("month", MONTH));
+
+        BillingRun resumed = awaitFinished(billingRunService.start(request(false, Map.of())).run());
+
+        assertEquals(BillingRun.Status.COMPLETED, resumed.getStatus());
+        List<Invoice> invoices = invoiceRepository.findByLeaseId(lease.getId());
+        assertEquals(1, invoices.size());
+        assertTrue(paymentRepository.findByInvoiceId(invoices.get(0).getId()).stream()
+                .anyMatch(payment -> payment.getPaymentType() == PaymentType.WATER));
+    }
+
+    private BillingRunService.RunRequest request(boolean dryRun, Map<Long, BillingRunService.UtilityUsage> usage) {
+        return new BillingRunService.RunRequest(MONTH, null, null, dryRun, usage);
+    }
+
+    private Map<Long, BillingRunService.UtilityUsage> usage(long electricityUnits, long waterUnits) {
+        return Map.of(lease.getId(), new BillingRunService.UtilityUsage(
+                BigDecimal.valueOf(electricityUnits), BigDecimal.valueOf(waterUnits)));
+    }
+
+    private BillingRun awaitFinished(BillingRun started) {
+        runIds.add(started.getId());
+        for (int i = 0; i < 300; i++) {
+            BillingRun run = billingRunService.getRun(started.getId());
+            if (run.getStatus() != BillingRun.Status.RUNNING) {
+                return run;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Billing run #" + started.getId() + " did not finish");
+    }
+}
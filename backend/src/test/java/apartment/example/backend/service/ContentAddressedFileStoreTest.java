@@ -0,0 +1,215 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.StoredFile;
+import apartment.example.backend.repository.StoredFileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentAddressedFileStoreTest {
+
+    // Any well-formed hash; these tests never hash it
+    private static final String SHA = "5d3e8c0e2f3b1b6fbb4e4e54e2e4ce8b3e45bf1f1d0d26c1e8a4c8b7a3b6c7d8";
+
+    @TempDir
+    Path uploadsDir;
+
+    private Path blobDir;
+    private Path stagingDir;
+
+    private StoredFileRepository storedFileRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ContentAddressedFileStore fileStore;
+
+    @BeforeEach
+    void setUp() {
+        storedFileRepository = mock(StoredFileRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        blobDir = uploadsDir.resolve("blobs");
+        stagingDir = uploadsDir.resolve(".staging");
+        fileStore = new ContentAddressedFileStore(storedFileRepository, new FileUploadService(meterRegistry),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new LocalObjectStorage(blobDir),
+                meterRegistry, stagingDir.toString(), Duration.ofHours(24), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void stageAndCommit_StoresContentUnderItsHash() throws IOException {
+        ContentAddressedFileStore.PendingBlob blob = fileStore.stage(slip("slip.JPG"), "payment-slip");
+        String sha256 = blob.sha256();
+        assertEquals(64, sha256.length());
+        assertEquals("jpg", blob.extension());
+        when(storedFileRepository.findById(sha256)).thenReturn(Optional.of(storedFile(sha256, "jpg", 1)));
+
+        String url = fileStore.commit(blob);
+
+        assertEquals("/uploads/blobs/" + sha256.substring(0, 2) + "/" + sha256 + ".jpg", url);
+        assertTrue(fileStore.isBlobUrl(url));
+        Path stored = fileStore.localPath(url).orElseThrow();
+        assertEquals("slip image", Files.readString(stored));
+        assertEquals(sha256, ContentAddressedFileStore.sha256(stored));
+        assertNoStagedFiles();
+        assertTrue(fileStore.presignedDownloadUrl(url).isEmpty(), "Local blobs are served by the application");
+        verify(storedFileRepository).retain(eq(sha256), eq("jpg"), eq("image/jpeg"), eq(10L), any());
+    }
+
+    @Test
+    void commit_SameContentTwice_KeepsOneFile() throws IOException {
+        ContentAddressedFileStore.PendingBlob first = fileStore.stage(slip("a.jpg"), "payment-slip");
+        when(storedFileRepository.findById(first.sha256())).thenReturn(Optional.of(storedFile(first.sha256(), "jpg", 1)));
+        String firstUrl = fileStore.commit(first);
+
+        // A different name and extension; the first upload decides the stored extension
+        ContentAddressedFileStore.PendingBlob second = fileStore.stage(slip("b.png"), "payment-slip");
+        String secondUrl = fileStore.commit(second);
+
+        assertEquals(firstUrl, secondUrl);
+        assertNoStagedFiles();
+        try (var files = Files.list(fileStore.localPath(firstUrl).orElseThrow().getParent())) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(1.0, meterRegistry.get("uploads.deduplicated").tag("kind", "payment-slip").counter().count());
+    }
+
+    @Test
+    void stage_HoldsKnownBlobAwayFromGarbageCollection() throws IOException {
+        ContentAddressedFileStore.PendingBlob blob = fileStore.stage(slip("a.jpg"), "payment-slip");
+
+        verify(storedFileRepository).holdOrphan(eq(blob.sha256()), any());
+    }
+
+    @Test
+    void stage_StoresContentAgainWhenKnownBlobIsMissing() throws IOException {
+        ContentAddressedFileStore.PendingBlob first = fileStore.stage(slip("a.jpg"), "payment-slip");
+        Path stored = blobDir.resolve(first.sha256().substring(0, 2)).resolve(first.sha256() + ".jpg");
+        Files.delete(stored);
+        when(storedFileRepository.findById(first.sha256())).thenReturn(Optional.of(storedFile(first.sha256(), "jpg", 0)));
+
+        fileStore.stage(slip("b.jpg"), "payment-slip");
+
+        assertEquals("slip image", Files.readString(stored));
+        assertTrue(meterRegistry.find("uploads.deduplicated").counters().isEmpty());
+    }
+
+    @Test
+    void commit_DropsCopyStagedUnderAnotherExtension() throws IOException {
+        ContentAddressedFileStore.PendingBlob blob = fileStore.stage(slip("a.png"), "payment-slip");
+        Path shard = blobDir.resolve(blob.sha256().substring(0, 2));
+        Files.writeString(shard.resolve(blob.sha256() + ".jpg"), "slip image");
+        // A concurrent upload of the same bytes registered the blob as .jpg first
+        when(storedFileRepository.findById(blob.sha256())).thenReturn(Optional.of(storedFile(blob.sha256(), "jpg", 2)));
+
+        String url = fileStore.commit(blob);
+
+        assertTrue(url.endsWith(blob.sha256() + ".jpg"));
+        assertFalse(Files.exists(shard.resolve(blob.sha256() + ".png")));
+        assertTrue(Files.exists(shard.resolve(blob.sha256() + ".jpg")));
+    }
+
+    @Test
+    void release_IgnoresLegacyUrls() {
+        fileStore.release("/uploads/payment-slips/slip_1_abc.jpg");
+        fileStore.release(null);
+        verify(storedFileRepository, never()).release(anyString(), any());
+
+        fileStore.release("/uploads/blobs/" + SHA.substring(0, 2) + "/" + SHA + ".jpg");
+        verify(storedFileRepository).release(eq(SHA), any());
+    }
+
+    @Test
+    void collectGarbage_DeletesUnreferencedBlobWithDerivedFiles() throws IOException {
+        Path shard = Files.createDirectories(blobDir.resolve(SHA.substring(0, 2)));
+        Files.writeString(shard.resolve(SHA + ".jpg"), "x");
+        Files.writeString(shard.resolve(SHA + ".thumb.jpg"), "x");
+        Files.writeString(shard.resolve(SHA + ".preview.jpg"), "x");
+        StoredFile orphan = storedFile(SHA, "jpg", 0);
+        orphan.setOrphanedAt(LocalDateTime.now().minusDays(2));
+        when(storedFileRepository.findOrphanedBefore(any(), any())).thenReturn(List.of(SHA));
+        when(storedFileRepository.findForUpdate(SHA)).thenReturn(Optional.of(orphan));
+
+        fileStore.collectGarbage();
+
+        try (var files = Files.list(shard)) {
+            assertEquals(0, files.count());
+        }
+        verify(storedFileRepository).delete(orphan);
+        assertEquals(1.0, meterRegistry.get("uploads.blobs.collected").counter().count());
+    }
+
+    @Test
+    void collectGarbage_KeepsBlobReferencedAgainSinceListing() throws IOException {
+        Path shard = Files.createDirectories(blobDir.resolve(SHA.substring(0, 2)));
+        Files.writeString(shard.resolve(SHA + ".jpg"), "x");
+        when(storedFileRepository.findOrphanedBefore(any(), any())).thenReturn(List.of(SHA));
+        when(storedFileRepository.findForUpdate(SHA)).thenReturn(Optional.of(storedFile(SHA, "jpg", 1)));
+        when(storedFileRepository.existsById(SHA)).thenReturn(true);
+
+        fileStore.collectGarbage();
+
+        assertTrue(Files.exists(shard.resolve(SHA + ".jpg")));
+        verify(storedFileRepository, never()).delete(any());
+    }
+
+    @Test
+    void collectGarbage_KeepsBlobHeldByStagingSinceListing() throws IOException {
+        Path shard = Files.createDirectories(blobDir.resolve(SHA.substring(0, 2)));
+        Files.writeString(shard.resolve(SHA + ".jpg"), "x");
+        StoredFile held = storedFile(SHA, "jpg", 0);
+        held.setOrphanedAt(LocalDateTime.now());
+        when(storedFileRepository.findOrphanedBefore(any(), any())).thenReturn(List.of(SHA));
+        when(storedFileRepository.findForUpdate(SHA)).thenReturn(Optional.of(held));
+        when(storedFileRepository.existsById(SHA)).thenReturn(true);
+
+        fileStore.collectGarbage();
+
+        assertTrue(Files.exists(shard.resolve(SHA + ".jpg")));
+        verify(storedFileRepository, never()).delete(any());
+    }
+
+    @Test
+    void extensionOf_AcceptsOnlyShortAlphanumericExtensions() {
+        assertEquals("pdf", ContentAddressedFileStore.extensionOf("report.PDF"));
+        assertEquals("", ContentAddressedFileStore.extensionOf("noext"));
+        assertEquals("", ContentAddressedFileStore.extensionOf("evil.j/pg"));
+        assertEquals("", ContentAddressedFileStore.extensionOf(null));
+    }
+
+    private void assertNoStagedFiles() throws IOException {
+        try (var files = Files.list(stagingDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static MockMultipartFile slip(String filename) {
+        return new MockMultipartFile("slip", filename, "image/jpeg", "slip image".getBytes());
+    }
+
+    private static StoredFile storedFile(String sha256, String extension, int refCount) {
+        StoredFile storedFile = new StoredFile();
+        storedFile.setSha256(sha256);
+        storedFile.setExtension(extension);
+        storedFile.setSizeBytes(10L);
+        storedFile.setRefCount(refCount);
+        return storedFile;
+    }
+}
@@ -0,0 +1,211 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Invoice;
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.Payment;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.TenantBillingLedger;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.PaymentStatus;
+import apartment.example.backend.entity.enums.PaymentType;
+import apartment.example.backend.repository.InvoiceRepository;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.PaymentRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archival moves closed invoices (with their payments) and settled standalone payments
+ * past the horizon into the archive tables, leaves open ones alone, and history reads
+ * and the billing ledger still see everything.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class DataArchivalServiceTest {
+
+    private static final LocalDate OLD = LocalDate.of(2020, 1, 10);
+    private static final LocalDate BILLING_CUTOFF = LocalDate.of(2021, 1, 1);
+
+    @Autowired
+    private DataArchivalService archivalService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private BillingLedgerService ledgerService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Tenant tenant;
+    private Unit unit;
+    private Lease lease;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Archive");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("archive-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        unit = new Unit();
+        unit.setRoomNumber("AR-" + suffix);
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitRepository.save(unit);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(LocalDate.of(2019, 1, 1));
+        lease.setEndDate(LocalDate.now().plusYears(1));
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : List.of("payments_archive", "invoices_archive")) {
+                entityManager.createNativeQuery("DELETE FROM " + table + " WHERE lease_id = :leaseId")
+                        .setParameter("leaseId", lease.getId())
+                        .executeUpdate();
+            }
+        });
+        paymentRepository.deleteAll(paymentRepository.findByLeaseId(lease.getId()));
+        invoiceRepository.deleteAll(invoiceRepository.findByLeaseId(lease.getId()));
+        leaseRepository.delete(lease);
+        unitRepository.delete(unit);
+        tenantRepository.delete(tenant);
+    }
+
+    @Test
+    void archiveMovesClosedRowsAndKeepsHistoryReadable() {
+        Invoice paidInvoice = invoice(Invoice.InvoiceStatus.PAID, PaymentStatus.PAID);
+        Invoice openInvoice = invoice(Invoice.InvoiceStatus.PENDING, PaymentStatus.PENDING);
+        Payment settled = paymentService.createPayment(payment(PaymentType.OTHER, 300, OLD, PaymentStatus.PAID));
+        Payment unpaid = paymentService.createPayment(payment(PaymentType.OTHER, 400, OLD, PaymentStatus.PENDING));
+        Payment recent = paymentService.createPayment(
+                payment(PaymentType.OTHER, 500, LocalDate.now(), PaymentStatus.PAID));
+        List<TenantBillingLedger> ledgerBefore = ledgerService.getLedger(tenant.getId());
+
+        archivalService.archive(BILLING_CUTOFF, LocalDateTime.now().minusYears(1));
+
+        assertFalse(invoiceRepository.existsById(paidInvoice.getId()));
+        assertTrue(paymentRepository.findByInvoiceId(paidInvoice.getId()).isEmpty());
+        assertFalse(paymentRepository.existsById(settled.getId()));
+        assertTrue(invoiceRepository.existsById(openInvoice.getId()));
+        assertTrue(paymentRepository.existsById(unpaid.getId()));
+        assertTrue(paymentRepository.existsById(recent.getId()));
+
+        List<Invoice> invoiceHistory = invoiceService.getInvoiceHistoryByLeaseId(lease.getId());
+        assertEquals(2, invoiceHistory.size());
+        Invoice archived = invoiceHistory.stream()
+                .filter(invoice -> invoice.getId().equals(paidInvoice.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, archived.getPayments().size());
+        assertEquals(5, paymentService.getPaymentHistoryByTenant(tenant.getId()).size());
+
+        // The ledger counts archived payments, also when rebuilt from scratch
+        ledgerService.rebuild();
+        List<TenantBillingLedger> ledgerAfter = ledgerService.getLedger(tenant.getId());
+        assertEquals(ledgerBefore.size(), ledgerAfter.size());
+        for (int i = 0; i < ledgerAfter.size(); i++) {
+            assertEquals(0, ledgerBefore.get(i).getTotalAmount().compareTo(ledgerAfter.get(i).getTotalAmount()));
+            assertEquals(ledgerBefore.get(i).getPaymentCount(), ledgerAfter.get(i).getPaymentCount());
+        }
+    }
+
+    @Test
+    void archiveIsIdempotent() {
+        Invoice paidInvoice = invoice(Invoice.InvoiceStatus.PAID, PaymentStatus.PAID);
+
+        archivalService.archive(BILLING_CUTOFF, LocalDateTime.now().minusYears(1));
+        archivalService.archive(BILLING_CUTOFF, LocalDateTime.now().minusYears(1));
+
+        List<Invoice> invoiceHistory = invoiceService.getInvoiceHistoryByLeaseId(lease.getId());
+        assertEquals(1, invoiceHistory.size());
+        assertEquals(paidInvoice.getId(), invoiceHistory.get(0).getId());
+    }
+
+    private Invoice invoice(Invoice.InvoiceStatus status, PaymentStatus paymentStatus) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-ARCHIVE-" + UUID.randomUUID().toString().substring(0, 8));
+        invoice.setLease(lease);
+        invoice.setInvoiceDate(OLD);
+        invoice.setDueDate(OLD.plusDays(5));
+        invoice.setTotalAmount(BigDecimal.valueOf(5000));
+        invoice.setStatus(status);
+        invoice.addPayment(payment(PaymentType.RENT, 5000, OLD.plusDays(5), paymentStatus));
+        return invoiceRepository.save(invoice);
+    }
+
+    private Payment payment(PaymentType type, long amount, LocalDate dueDate, PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setLease(lease);
+        payment.setPaymentType(type);
+        payment.setAmount(BigDecimal.valueOf(amount));
+        payment.setDueDate(dueDate);
+        payment.setStatus(status);
+        payment.setPaidDate(status == PaymentStatus.PAID ? dueDate : null);
+        payment.setReceiptNumber(type + "-" + UUID.randomUUID());
+        return payment;
+    }
+}
@@ -0,0 +1,67 @@
+package apartment.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class FileUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FileUploadService fileUploadService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fileUploadService = new FileUploadService(meterRegistry);
+    }
+
+    @Test
+    void store_WritesFileAndRecordsMetrics() throws IOException {
+        byte[] content = "slip image".getBytes();
+        MockMultipartFile file = new MockMultipartFile("slip", "slip.jpg", "image/jpeg", content);
+        Path directory = tempDir.resolve("payment-slips");
+
+        Path stored = fileUploadService.store(file, directory, "slip_1.jpg", "payment-slip");
+
+        assertEquals(directory.resolve("slip_1.jpg"), stored);
+        assertArrayEquals(content, Files.readAllBytes(stored));
+        assertEquals(1, meterRegistry.get("uploads.duration").tag("kind", "payment-slip").tag("outcome", "success").timer().count());
+        assertEquals(content.length, meterRegistry.get("uploads.size").tag("kind", "payment-slip").summary().totalAmount());
+        assertNoTempFiles(directory);
+    }
+
+    @Test
+    void store_FailureLeavesNoPartialFile() throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        doThrow(new IOException("connection reset")).when(file).transferTo(any(File.class));
+
+        assertThrows(IOException.class, () -> fileUploadService.store(file, tempDir, "broken.jpg", "payment-slip"));
+
+        assertFalse(Files.exists(tempDir.resolve("broken.jpg")));
+        assertEquals(1, meterRegistry.get("uploads.duration").tag("outcome", "failure").timer().count());
+        assertNoTempFiles(tempDir);
+    }
+
+    private static void assertNoTempFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".part")));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package apartment.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageThumbnailServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        thumbnailService = new ImageThumbnailService(null, null, null, null, meterRegistry, "uploads", 320, 1280);
+    }
+
+    @Test
+    void generate_WritesBoundedPreviewAndThumbnail() throws IOException {
+        Path original = tempDir.resolve("slip_1_abc.jpg");
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "jpeg", original.toFile());
+
+        assertTrue(thumbnailService.generate(original, "payment-slip"));
+
+        BufferedImage preview = ImageIO.read(tempDir.resolve("slip_1_abc.preview.jpg").toFile());
+        BufferedImage thumbnail = ImageIO.read(tempDir.resolve("slip_1_abc.thumb.jpg").toFile());
+        assertEquals(1280, preview.getWidth());
+        assertEquals(960, preview.getHeight());
+        assertEquals(320, thumbnail.getWidth());
+        assertEquals(240, thumbnail.getHeight());
+        assertEquals(1, meterRegistry.get("uploads.thumbnail.duration").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void generate_ReusesExistingDerivedFiles() throws IOException {
+        Path original = tempDir.resolve("abc.jpg");
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "jpeg", original.toFile());
+        assertTrue(thumbnailService.generate(original, "payment-slip"));
+
+        assertTrue(thumbnailService.generate(original, "payment-slip"));
+
+        assertEquals(1, meterRegistry.get("uploads.thumbnail.duration").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("uploads.thumbnail.duration").tag("outcome", "existing").timer().count());
+    }
+
+    @Test
+    void generate_SkipsNonImages() throws IOException {
+        Path pdf = tempDir.resolve("maintenance_1_abc.pdf");
+        Files.writeString(pdf, "%PDF-1.4");
+
+        assertFalse(thumbnailService.generate(pdf, "maintenance-attachment"));
+
+        assertFalse(Files.exists(tempDir.resolve("maintenance_1_abc.thumb.jpg")));
+        assertEquals(1, meterRegistry.get("uploads.thumbnail.duration").tag("outcome", "skipped").timer().count());
+    }
+
+    @Test
+    void derivedUrl_ReplacesExtension() {
+        assertEquals("/uploads/payment-slips/slip_1_abc.thumb.jpg",
+                ImageThumbnailService.derivedUrl("/uploads/payment-slips/slip_1_abc.png", ImageThumbnailService.THUMBNAIL_SUFFIX));
+        assertEquals("/uploads/maintenance-attachments/noext.preview.jpg",
+                ImageThumbnailService.derivedUrl("/uploads/maintenance-attachments/noext", ImageThumbnailService.PREVIEW_SUFFIX));
+    }
+}
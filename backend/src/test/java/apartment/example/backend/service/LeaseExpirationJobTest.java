@@ -0,0 +1,194 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.ScheduledJobState;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.User;
+import apartment.example.backend.entity.enums.LeaseStatus;
+import apartment.example.backend.entity.enums.TenantStatus;
+import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.ScheduledJobStateRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import apartment.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The lease expiration job expires due leases and releases their tenants, resumes from
+ * its checkpoint after an interrupted run, and stays idle while another instance holds
+ * its lock.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class LeaseExpirationJobTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private LeaseExpirationJob job;
+
+    @Autowired
+    private ScheduledJobStateRepository jobStateRepository;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Tenant tenant;
+    private User user;
+    private final List<Unit> units = new ArrayList<>();
+    private final List<Lease> leases = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        user = new User();
+        user.setUsername("expire-" + suffix);
+        user.setPassword("secret");
+        user.setEmail("expire-" + suffix + "@example.com");
+        user.setRole(User.Role.VILLAGER);
+        user = userRepository.save(user);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Expire");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail(user.getEmail());
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        jobStateRepository.deleteById(LeaseExpirationJob.JOB_NAME);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jobStateRepository.deleteById(LeaseExpirationJob.JOB_NAME);
+        leaseRepository.deleteAll(leases);
+        unitRepository.deleteAll(units);
+        tenantRepository.delete(tenant);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void expiresDueLeasesAndReleasesTenant() {
+        Lease due = lease(TODAY.minusDays(1));
+
+        LeaseExpirationJob.Result result = job.run(TODAY);
+
+        assertTrue(result.ran());
+        assertEquals(LeaseStatus.EXPIRED, leaseRepository.findById(due.getId()).orElseThrow().getStatus());
+        assertEquals(UnitStatus.AVAILABLE, unitRepository.findById(due.getUnit().getId()).orElseThrow().getStatus());
+        assertEquals(TenantStatus.INACTIVE, tenantRepository.findById(tenant.getId()).orElseThrow().getStatus());
+        assertEquals(User.Role.USER, userRepository.findById(user.getId()).orElseThrow().getRole());
+    }
+
+    @Test
+    void tenantWithAnotherActiveLeaseKeepsVillagerRole() {
+        Lease due = lease(TODAY.minusDays(1));
+        lease(TODAY.plusMonths(6));
+
+        job.run(TODAY);
+
+        assertEquals(LeaseStatus.EXPIRED, leaseRepository.findById(due.getId()).orElseThrow().getStatus());
+        assertEquals(TenantStatus.ACTIVE, tenantRepository.findById(tenant.getId()).orElseThrow().getStatus());
+        assertEquals(User.Role.VILLAGER, userRepository.findById(user.getId()).orElseThrow().getRole());
+    }
+
+    @Test
+    void resumesAfterLastCommittedChunk() {
+        Lease first = lease(TODAY.minusDays(2));
+        Lease second = lease(TODAY.minusDays(1));
+        // An interrupted run for today that had committed the chunk ending at the first lease
+        ScheduledJobState state = new ScheduledJobState();
+        state.setJobName(LeaseExpirationJob.JOB_NAME);
+        state.setRunDate(TODAY);
+        state.setPhase(LeaseExpirationJob.PHASE_EXPIRE);
+        state.setLastId(first.getId());
+        state.setStartedAt(LocalDateTime.now().minusHours(1));
+        jobStateRepository.save(state);
+
+        job.run(TODAY);
+
+        assertEquals(LeaseStatus.ACTIVE, leaseRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(LeaseStatus.EXPIRED, leaseRepository.findById(second.getId()).orElseThrow().getStatus());
+        ScheduledJobState finished = jobStateRepository.findById(LeaseExpirationJob.JOB_NAME).orElseThrow();
+        assertEquals(LeaseExpirationJob.PHASE_DONE, finished.getPhase());
+
+        // The next run starts over and picks up what the checkpoint skipped
+        job.run(TODAY);
+
+        assertEquals(LeaseStatus.EXPIRED, leaseRepository.findById(first.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void skipsWhileAnotherInstanceHoldsTheLock() {
+        Lease due = lease(TODAY.minusDays(1));
+        ScheduledJobState state = new ScheduledJobState();
+        state.setJobName(LeaseExpirationJob.JOB_NAME);
+        state.setLockedBy("other-replica");
+        state.setLockedUntil(LocalDateTime.now().plusMinutes(5));
+        jobStateRepository.save(state);
+
+        LeaseExpirationJob.Result result = job.run(TODAY);
+
+        assertFalse(result.ran());
+        assertEquals(LeaseStatus.ACTIVE, leaseRepository.findById(due.getId()).orElseThrow().getStatus());
+    }
+
+    private Lease lease(LocalDate endDate) {
+        Unit unit = new Unit();
+        unit.setRoomNumber("EX-" + UUID.randomUUID().toString().substring(0, 8));
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit.setStatus(UnitStatus.OCCUPIED);
+        units.add(unitRepository.save(unit));
+
+        Lease lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(endDate.minusYears(1));
+        lease.setEndDate(endDate);
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+        leases.add(lease);
+        return lease;
+    }
+}
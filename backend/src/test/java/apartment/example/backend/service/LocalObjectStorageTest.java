@@ -0,0 +1,49 @@
+package apartment.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listing by prefix reads only the shard directory the prefix points into
+ */
+class LocalObjectStorageTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void listsKeysUnderThePrefix() throws IOException {
+        write("ab/abc1.jpg");
+        write("ab/abc1.png");
+        write("ab/abd2.jpg");
+        write("cd/abc1.jpg");
+        write(".staging/ab/abc1.jpg");
+        LocalObjectStorage storage = new LocalObjectStorage(root);
+
+        assertEquals(List.of("ab/abc1.jpg", "ab/abc1.png"), keys(storage, "ab/abc1"));
+        assertEquals(List.of("ab/abc1.jpg", "ab/abc1.png", "ab/abd2.jpg"), keys(storage, "ab/"));
+        assertEquals(List.of("ab/abc1.jpg", "ab/abc1.png", "ab/abd2.jpg", "cd/abc1.jpg"), keys(storage, ""));
+        // A shard that does not exist yet
+        assertEquals(List.of(), keys(storage, "ef/ef01"));
+    }
+
+    private void write(String key) throws IOException {
+        Path file = root.resolve(key);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, key);
+    }
+
+    private static List<String> keys(LocalObjectStorage storage, String prefix) throws IOException {
+        try (Stream<ObjectStorage.StoredObject> objects = storage.list(prefix)) {
+            return objects.map(ObjectStorage.StoredObject::key).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.dto.MaintenanceCalendarDTO;
+import apartment.example.backend.entity.MaintenanceSchedule;
+import apartment.example.backend.repository.MaintenanceScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Recurrences are expanded over the range and merged in date order, and calendars are served
+ * from the cache until a schedule changes or the ttl passes
+ */
+class MaintenanceCalendarServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 3, 31);
+
+    private MaintenanceScheduleRepository scheduleRepository;
+    private MaintenanceTriggerIndex triggerIndex;
+    private MaintenanceCalendarService calendarService;
+
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(MaintenanceScheduleRepository.class);
+        triggerIndex = new MaintenanceTriggerIndex("06:00", "08:00");
+        calendarService = new MaintenanceCalendarService(scheduleRepository, triggerIndex, 1830, 8, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void expandsAndMergesRecurrencesInDateOrder() {
+        // Monthly on the 15th, starting before the range
+        MaintenanceSchedule monthly = schedule(1L, MaintenanceSchedule.RecurrenceType.MONTHLY, 1,
+                LocalDate.of(2025, 12, 15), "100.00");
+        monthly.setRecurrenceDayOfMonth(15);
+        // Every two weeks, ending mid-February
+        MaintenanceSchedule biweekly = schedule(2L, MaintenanceSchedule.RecurrenceType.WEEKLY, 2,
+                LocalDate.of(2026, 1, 5), "40.00");
+        biweekly.setEndDate(LocalDate.of(2026, 2, 10));
+        // One-time, inside the range
+        MaintenanceSchedule once = schedule(3L, MaintenanceSchedule.RecurrenceType.ONE_TIME, 1,
+                LocalDate.of(2026, 1, 15), null);
+        // One-time, already run
+        MaintenanceSchedule done = schedule(4L, MaintenanceSchedule.RecurrenceType.ONE_TIME, 1,
+                LocalDate.of(2026, 1, 20), null);
+        done.setLastTriggeredDate(LocalDate.of(2026, 1, 20));
+        when(scheduleRepository.findByIsActiveTrueAndIsPausedFalse()).thenReturn(List.of(monthly, biweekly, once, done));
+
+        MaintenanceCalendarDTO calendar = calendarService.getCalendar(FROM, TO);
+
+        List<String> occurrences = calendar.getOccurrences().stream()
+                .map(o -> o.getDate() + "#" + o.getScheduleId())
+                .toList();
+        assertEquals(List.of(
+                "2026-01-05#2", "2026-01-15#1", "2026-01-15#3", "2026-01-19#2",
+                "2026-02-02#2", "2026-02-10#2", "2026-02-15#1", "2026-03-15#1"), occurrences);
+
+        assertEquals(8, calendar.getTotalOccurrences());
+        assertEquals(0, new BigDecimal("460.00").compareTo(calendar.getTotalEstimatedCost()));
+        assertEquals(3, calendar.getMonths().size());
+        MaintenanceCalendarDTO.MonthLoad january = calendar.getMonths().get(0);
+        assertEquals("2026-01", january.getMonth());
+        assertEquals(4, january.getOccurrences());
+        assertEquals(0, new BigDecimal("180.00").compareTo(january.getEstimatedCost()));
+    }
+
+    @Test
+    void servesCachedCalendarUntilAScheduleChanges() {
+        MaintenanceSchedule schedule = schedule(1L, MaintenanceSchedule.RecurrenceType.DAILY, 7,
+                LocalDate.of(2026, 1, 1), null);
+        when(scheduleRepository.findByIsActiveTrueAndIsPausedFalse()).thenReturn(List.of(schedule));
+
+        MaintenanceCalendarDTO first = calendarService.getCalendar(FROM, TO);
+        assertSame(first, calendarService.getCalendar(FROM, TO));
+        verify(scheduleRepository, times(1)).findByIsActiveTrueAndIsPausedFalse();
+
+        triggerIndex.reindex(schedule);
+        MaintenanceCalendarDTO second = calendarService.getCalendar(FROM, TO);
+        verify(scheduleRepository, times(2)).findByIsActiveTrueAndIsPausedFalse();
+        assertEquals(first.getOccurrences().size(), second.getOccurrences().size());
+    }
+
+    @Test
+    void expiredCalendarIsProjectedAgain() {
+        MaintenanceCalendarService expiring =
+                new MaintenanceCalendarService(scheduleRepository, triggerIndex, 1830, 8, Duration.ZERO);
+        when(scheduleRepository.findByIsActiveTrueAndIsPausedFalse()).thenReturn(List.of());
+
+        expiring.getCalendar(FROM, TO);
+        expiring.getCalendar(FROM, TO);
+        verify(scheduleRepository, times(2)).findByIsActiveTrueAndIsPausedFalse();
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> calendarService.getCalendar(TO, FROM));
+        assertThrows(IllegalArgumentException.class, () -> calendarService.getCalendar(FROM, FROM.plusYears(10)));
+        verifyNoInteractions(scheduleRepository);
+    }
+
+    private static MaintenanceSchedule schedule(Long id, MaintenanceSchedule.RecurrenceType type, int interval,
+                                                LocalDate nextTriggerDate, String estimatedCost) {
+        MaintenanceSchedule schedule = new MaintenanceSchedule();
+        schedule.setId(id);
+        schedule.setTitle("Schedule " + id);
+        schedule.setCategory(MaintenanceSchedule.Category.HVAC);
+        schedule.setRecurrenceType(type);
+        schedule.setRecurrenceInterval(interval);
+        schedule.setStartDate(nextTriggerDate);
+        schedule.setNextTriggerDate(nextTriggerDate);
+        schedule.setEstimatedCost(estimatedCost != null ? new BigDecimal(estimatedCost) : null);
+        return schedule;
+    }
+}
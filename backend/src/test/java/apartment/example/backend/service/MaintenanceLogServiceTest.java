@@ -0,0 +1,125 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceLog;
+import apartment.example.backend.entity.MaintenanceSchedule;
+import apartment.example.backend.repository.MaintenanceLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Schedule changes are logged as field-level operations, and a schedule's past state is
+ * rebuilt by undoing the changes logged after it, including full-schedule legacy rows
+ */
+class MaintenanceLogServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private MaintenanceLogRepository logRepository;
+    private MaintenanceLogService logService;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @BeforeEach
+    void setUp() {
+        logRepository = mock(MaintenanceLogRepository.class);
+        logService = new MaintenanceLogService(logRepository, objectMapper);
+    }
+
+    @Test
+    void updateLogsOnlyTheChangedFields() {
+        MaintenanceSchedule schedule = schedule();
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
+        schedule.setTitle("Quarterly filter change");
+        schedule.setEndDate(LocalDate.of(2026, 1, 1));
+
+        logService.logScheduleUpdated(schedule, before, null);
+
+        MaintenanceLog saved = savedLog();
+        assertEquals("[{\"op\":\"replace\",\"path\":\"/title\",\"value\":\"Quarterly filter change\"}," +
+                     "{\"op\":\"add\",\"path\":\"/endDate\",\"value\":\"2026-01-01\"}]", saved.getNewValue());
+        assertEquals("[{\"op\":\"replace\",\"path\":\"/title\",\"value\":\"Filter change\"}," +
+                     "{\"op\":\"remove\",\"path\":\"/endDate\"}]", saved.getPreviousValue());
+        assertNull(saved.getFieldName());
+    }
+
+    @Test
+    void singleFieldChangeNamesTheField() {
+        MaintenanceSchedule schedule = schedule();
+        Map<String, Object> before = ScheduleDiff.snapshot(schedule);
+        schedule.setIsPaused(true);
+
+        logService.logSchedulePaused(schedule, before, null);
+
+        assertEquals("isPaused", savedLog().getFieldName());
+    }
+
+    @Test
+    void reconstructUndoesChangesLoggedAfterTheTime() throws Exception {
+        MaintenanceSchedule schedule = schedule();
+        Map<String, Object> original = ScheduleDiff.snapshot(schedule);
+
+        // Jan 10: a legacy full-schedule row renaming it; Feb 1: priority raised and paused
+        MaintenanceSchedule renamed = schedule();
+        renamed.setTitle("Filter change (all floors)");
+        MaintenanceLog legacy = log(LocalDateTime.of(2025, 1, 10, 9, 0),
+                objectMapper.writeValueAsString(schedule()), objectMapper.writeValueAsString(renamed));
+        schedule.setTitle("Filter change (all floors)");
+
+        Map<String, Object> beforeFeb = ScheduleDiff.snapshot(schedule);
+        schedule.setPriority(MaintenanceSchedule.Priority.HIGH);
+        schedule.setIsPaused(true);
+        Map<String, Object> current = ScheduleDiff.snapshot(schedule);
+        MaintenanceLog february = log(LocalDateTime.of(2025, 2, 1, 9, 0),
+                objectMapper.writeValueAsString(ScheduleDiff.diff(current, beforeFeb)),
+                objectMapper.writeValueAsString(ScheduleDiff.diff(beforeFeb, current)));
+
+        when(logRepository.findHistoryByScheduleId(1L)).thenReturn(List.of(february, legacy));
+
+        assertEquals(current, logService.reconstructSchedule(schedule, LocalDateTime.of(2025, 3, 1, 0, 0)).orElseThrow());
+        assertEquals(beforeFeb, logService.reconstructSchedule(schedule, LocalDateTime.of(2025, 1, 20, 0, 0)).orElseThrow());
+        assertEquals(original, logService.reconstructSchedule(schedule, LocalDateTime.of(2025, 1, 5, 0, 0)).orElseThrow());
+        assertTrue(logService.reconstructSchedule(schedule, CREATED.minusDays(1)).isEmpty());
+    }
+
+    private MaintenanceLog savedLog() {
+        ArgumentCaptor<MaintenanceLog> captor = ArgumentCaptor.forClass(MaintenanceLog.class);
+        verify(logRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static MaintenanceSchedule schedule() {
+        MaintenanceSchedule schedule = new MaintenanceSchedule();
+        schedule.setId(1L);
+        schedule.setTitle("Filter change");
+        schedule.setCategory(MaintenanceSchedule.Category.HVAC);
+        schedule.setRecurrenceType(MaintenanceSchedule.RecurrenceType.QUARTERLY);
+        schedule.setStartDate(LocalDate.of(2025, 1, 1));
+        schedule.setNextTriggerDate(LocalDate.of(2025, 4, 1));
+        schedule.setCreatedAt(CREATED);
+        return schedule;
+    }
+
+    private static MaintenanceLog log(LocalDateTime createdAt, String previousValue, String newValue) {
+        MaintenanceLog log = new MaintenanceLog();
+        log.setActionType(MaintenanceLog.ActionType.SCHEDULE_UPDATED);
+        log.setCreatedAt(createdAt);
+        log.setPreviousValue(previousValue);
+        log.setNewValue(newValue);
+        return log;
+    }
+}
@@ -0,0 +1,116 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceRequest;
+import apartment.example.backend.entity.MaintenanceRequest.Category;
+import apartment.example.backend.entity.MaintenanceRequest.Priority;
+import apartment.example.backend.entity.MaintenanceRequest.RequestStatus;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The rollup counts match the requests written, stay cached across writes that bypass JPA,
+ * and are refreshed after request writes through JPA
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class MaintenanceRequestStatsServiceTest {
+
+    @Autowired
+    private MaintenanceRequestStatsService statsService;
+
+    @Autowired
+    private MaintenanceRequestService requestService;
+
+    @Autowired
+    private MaintenanceRequestRepository requestRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> requestIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @AfterEach
+    void cleanup() {
+        requestRepository.deleteAllById(requestIds);
+        jdbc.update("DELETE FROM maintenance_requests WHERE title LIKE 'stats-%'", new MapSqlParameterSource());
+    }
+
+    @Test
+    void countsFollowRequestWrites() {
+        MaintenanceRequestStatsService.Counts before = statsService.getCounts();
+
+        create(Priority.HIGH, Category.PLUMBING);
+        create(Priority.HIGH, Category.PLUMBING);
+        MaintenanceRequest electrical = create(Priority.LOW, Category.ELECTRICAL);
+        requestService.updateRequestStatus(electrical.getId(), RequestStatus.IN_PROGRESS, null);
+
+        MaintenanceRequestStatsService.Counts after = statsService.getCounts();
+        assertEquals(before.total() + 3, after.total());
+        assertEquals(before.byStatus(RequestStatus.SUBMITTED) + 2, after.byStatus(RequestStatus.SUBMITTED));
+        assertEquals(before.byStatus(RequestStatus.IN_PROGRESS) + 1, after.byStatus(RequestStatus.IN_PROGRESS));
+        assertEquals(before.count(RequestStatus.SUBMITTED, Priority.HIGH, Category.PLUMBING) + 2,
+                after.count(RequestStatus.SUBMITTED, Priority.HIGH, Category.PLUMBING));
+        assertEquals(before.byPriority(Priority.LOW) + 1, after.byPriority(Priority.LOW));
+        assertEquals(before.byCategory(Category.ELECTRICAL) + 1, after.byCategory(Category.ELECTRICAL));
+
+        // The detail cells add up to the rollup totals
+        long cells = 0;
+        for (Map<String, Map<String, Long>> byPriority : statsService.getBreakdown().values()) {
+            for (Map<String, Long> byCategory : byPriority.values()) {
+                cells += byCategory.values().stream().mapToLong(Long::longValue).sum();
+            }
+        }
+        assertEquals(after.total(), cells);
+        assertEquals(after.total(), statsService.getStatusStats().get("TOTAL"));
+        assertEquals((double) after.total(), meterRegistry.get("maintenance.requests").gauge().value());
+    }
+
+    @Test
+    void writesOutsideJpaWaitForTheCacheToExpire() {
+        long total = statsService.getCounts().total();
+
+        jdbc.update("INSERT INTO maintenance_requests (title, description) VALUES (:title, 'Direct insert')",
+                new MapSqlParameterSource("title", "stats-" + UUID.randomUUID().toString().substring(0, 8)));
+        assertEquals(total, statsService.getCounts().total());
+
+        statsService.invalidate();
+        assertEquals(total + 1, statsService.getCounts().total());
+    }
+
+    private MaintenanceRequest create(Priority priority, Category category) {
+        MaintenanceRequest request = new MaintenanceRequest();
+        request.setTitle("stats-" + UUID.randomUUID().toString().substring(0, 8));
+        request.setDescription("Stats test");
+        request.setPriority(priority);
+        request.setCategory(category);
+        MaintenanceRequest created = requestService.createMaintenanceRequest(request);
+        requestIds.add(created.getId());
+        return created;
+    }
+}
@@ -0,0 +1,84 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceSchedule;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
+import apartment.example.backend.repository.MaintenanceScheduleRepository;
+import apartment.example.backend.repository.UnitRepository;
+import apartment.example.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * A trigger creates requests only when its conditional update claims the occurrence, so
+ * replicas firing the same occurrence do not duplicate them
+ */
+class MaintenanceScheduleServiceTest {
+
+    private static final LocalDate DUE = LocalDate.of(2026, 1, 15);
+
+    private MaintenanceScheduleRepository scheduleRepository;
+    private MaintenanceRequestRepository requestRepository;
+    private UnitRepository unitRepository;
+    private MaintenanceTriggerIndex triggerIndex;
+    private MaintenanceScheduleService scheduleService;
+    private MaintenanceSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(MaintenanceScheduleRepository.class);
+        requestRepository = mock(MaintenanceRequestRepository.class);
+        unitRepository = mock(UnitRepository.class);
+        triggerIndex = mock(MaintenanceTriggerIndex.class);
+        scheduleService = new MaintenanceScheduleService(scheduleRepository, requestRepository,
+                mock(UserRepository.class), mock(LeaseRepository.class), unitRepository,
+                mock(MaintenanceLogService.class), mock(MaintenanceNotificationService.class),
+                new ObjectMapper(), mock(EntityManager.class), triggerIndex);
+
+        schedule = new MaintenanceSchedule();
+        schedule.setId(1L);
+        schedule.setTitle("Filter change");
+        schedule.setRecurrenceType(MaintenanceSchedule.RecurrenceType.MONTHLY);
+        schedule.setStartDate(DUE.minusMonths(1));
+        schedule.setNextTriggerDate(DUE);
+        when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+        when(unitRepository.findAll()).thenReturn(List.of());
+    }
+
+    @Test
+    void claimedOccurrenceMovesTheScheduleOn() {
+        when(scheduleRepository.claimTrigger(eq(1L), eq(DUE), any(), any())).thenReturn(1);
+
+        scheduleService.triggerSchedule(1L, DUE);
+
+        LocalDate today = LocalDate.now();
+        verify(scheduleRepository).claimTrigger(1L, DUE, today.plusMonths(1), today);
+        assertEquals(today, schedule.getLastTriggeredDate());
+        assertEquals(today.plusMonths(1), schedule.getNextTriggerDate());
+        verify(unitRepository).findAll();
+        verify(triggerIndex).reindexAfterCommit(schedule);
+    }
+
+    @Test
+    void occurrenceClaimedElsewhereIsSkipped() {
+        when(scheduleRepository.claimTrigger(anyLong(), any(), any(), any())).thenReturn(0);
+
+        scheduleService.triggerSchedule(1L, DUE);
+
+        assertEquals(DUE, schedule.getNextTriggerDate());
+        verifyNoInteractions(unitRepository, requestRepository, triggerIndex);
+        verify(scheduleRepository, never()).save(any());
+    }
+}
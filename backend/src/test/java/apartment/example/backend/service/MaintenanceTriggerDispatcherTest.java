@@ -0,0 +1,129 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceNotification;
+import apartment.example.backend.entity.MaintenanceSchedule;
+import apartment.example.backend.entity.User;
+import apartment.example.backend.repository.MaintenanceNotificationRepository;
+import apartment.example.backend.repository.MaintenanceScheduleRepository;
+import apartment.example.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two dispatchers, standing in for two replicas, that come to the same upcoming-maintenance
+ * notification send it once between them
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class MaintenanceTriggerDispatcherTest {
+
+    @Autowired
+    private MaintenanceScheduleRepository scheduleRepository;
+
+    @Autowired
+    private MaintenanceScheduleService scheduleService;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private MaintenanceNotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private MaintenanceSchedule schedule;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        user = new User();
+        user.setUsername("notify-" + suffix);
+        user.setPassword("secret");
+        user.setEmail("notify-" + suffix + "@example.com");
+        user.setRole(User.Role.ADMIN);
+        user = userRepository.save(user);
+
+        schedule = new MaintenanceSchedule();
+        schedule.setTitle("Filter change " + suffix);
+        schedule.setCategory(MaintenanceSchedule.Category.HVAC);
+        schedule.setRecurrenceType(MaintenanceSchedule.RecurrenceType.MONTHLY);
+        schedule.setStartDate(LocalDate.now());
+        schedule.setNextTriggerDate(LocalDate.now().plusDays(3));
+        schedule.setNotifyDaysBefore(3);
+        schedule.setNotifyUsers("[" + user.getId() + "]");
+        schedule = scheduleRepository.save(schedule);
+    }
+
+    @AfterEach
+    void cleanup() {
+        notificationRepository.deleteAll(notificationRepository.findBySchedule_IdOrderByCreatedAtDesc(schedule.getId()));
+        scheduleRepository.deleteById(schedule.getId());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void replicasSendAnUpcomingNotificationOnce() {
+        MaintenanceTriggerDispatcher first = dispatcher();
+        MaintenanceTriggerDispatcher second = dispatcher();
+        MaintenanceTriggerIndex.Entry entry = new MaintenanceTriggerIndex.Entry(schedule.getId(),
+                MaintenanceTriggerIndex.Kind.NOTIFY, LocalDate.now(), System.currentTimeMillis(), 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<?>[] runs = List.of(first, second).stream()
+                .map(dispatcher -> CompletableFuture.runAsync(() -> {
+                    await(start);
+                    dispatcher.dispatch(entry);
+                }))
+                .toArray(CompletableFuture[]::new);
+        start.countDown();
+        CompletableFuture.allOf(runs).join();
+
+        List<MaintenanceNotification> sent = notificationRepository.findBySchedule_IdOrderByCreatedAtDesc(schedule.getId());
+        assertEquals(1, sent.size());
+        assertEquals(LocalDate.now(), scheduleRepository.findById(schedule.getId()).orElseThrow().getLastNotifiedDate());
+
+        // The same notification coming due again, say after an index rebuild, is not sent again
+        first.dispatch(entry);
+        assertEquals(1, notificationRepository.findBySchedule_IdOrderByCreatedAtDesc(schedule.getId()).size());
+    }
+
+    private MaintenanceTriggerDispatcher dispatcher() {
+        return new MaintenanceTriggerDispatcher(new MaintenanceTriggerIndex("06:00", "08:00"), scheduleRepository,
+                scheduleService, scheduledTaskService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(5), Duration.ofMinutes(5));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceSchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Schedules come out of the trigger index when due, in due order, and only in their latest
+ * indexed state
+ */
+class MaintenanceTriggerIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private MaintenanceTriggerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MaintenanceTriggerIndex("00:00", "00:00");
+    }
+
+    @Test
+    void dueSchedulesComeOutInDueOrderAndFutureOnesWait() throws InterruptedException {
+        index.rebuild(List.of(
+                schedule(1L, TODAY.minusDays(1), null),
+                schedule(2L, TODAY.minusDays(3), null),
+                schedule(3L, TODAY.plusDays(5), 2)));
+
+        MaintenanceTriggerIndex.Entry first = index.poll(1, TimeUnit.SECONDS);
+        assertEquals(2L, first.scheduleId());
+        assertEquals(MaintenanceTriggerIndex.Kind.TRIGGER, first.kind());
+        assertEquals(1L, index.poll(1, TimeUnit.SECONDS).scheduleId());
+
+        // Schedule 3 is due in five days and notifies in three
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void reindexSupersedesEarlierEntries() throws InterruptedException {
+        MaintenanceSchedule schedule = schedule(1L, TODAY.minusDays(1), null);
+        index.reindex(schedule);
+
+        schedule.setIsPaused(true);
+        index.reindex(schedule);
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+
+        schedule.setIsPaused(false);
+        index.reindex(schedule);
+        index.remove(1L);
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+
+        // Already triggered on its next trigger date: a one-time schedule that has run
+        schedule.setLastTriggeredDate(schedule.getNextTriggerDate());
+        index.reindex(schedule);
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void failedEntryIsRetriedUnlessReindexed() throws InterruptedException {
+        MaintenanceSchedule schedule = schedule(1L, TODAY, null);
+        index.reindex(schedule);
+
+        MaintenanceTriggerIndex.Entry entry = index.poll(1, TimeUnit.SECONDS);
+        index.retry(entry, Duration.ofMillis(50));
+        assertEquals(entry.version(), index.poll(1, TimeUnit.SECONDS).version());
+
+        index.reindex(schedule);
+        MaintenanceTriggerIndex.Entry current = index.poll(1, TimeUnit.SECONDS);
+        index.retry(entry, Duration.ZERO);
+        index.retry(current, Duration.ZERO);
+        assertEquals(current.version(), index.poll(1, TimeUnit.SECONDS).version());
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void unsentNotificationIsDueUntilTheOccurrence() throws InterruptedException {
+        // Notified three days before a trigger two days out: the notification time has passed
+        MaintenanceSchedule schedule = schedule(1L, TODAY.plusDays(2), 3);
+        index.reindex(schedule);
+
+        MaintenanceTriggerIndex.Entry entry = index.poll(1, TimeUnit.SECONDS);
+        assertEquals(MaintenanceTriggerIndex.Kind.NOTIFY, entry.kind());
+        assertEquals(TODAY.minusDays(1), entry.date());
+
+        // Once sent it is not indexed again
+        schedule.setLastNotifiedDate(TODAY.minusDays(1));
+        index.reindex(schedule);
+        assertNull(index.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static MaintenanceSchedule schedule(Long id, LocalDate nextTriggerDate, Integer notifyDaysBefore) {
+        MaintenanceSchedule schedule = new MaintenanceSchedule();
+        schedule.setId(id);
+        schedule.setTitle("Schedule " + id);
+        schedule.setRecurrenceType(MaintenanceSchedule.RecurrenceType.MONTHLY);
+        schedule.setStartDate(TODAY.minusMonths(1));
+        schedule.setNextTriggerDate(nextTriggerDate);
+        schedule.setNotifyDaysBefore(notifyDaysBefore);
+        return schedule;
+    }
+}
@@ -0,0 +1,212 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Lease;
+import apartment.example.backend.entity.MeterReading;
+import apartment.example.backend.entity.Tenant;
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.UtilityType;
+import apartment.example.backend.repository.LeaseRepository;
+import apartment.example.backend.repository.TenantRepository;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports compute consumption against the previous reading, also across batches, skip and
+ * report invalid rows, and the stored charges are what invoice creation picks up.
+ * A batch size of 2 makes every import below span several batches.
+ */
+@SpringBootTest(properties = "meter-readings.import-batch-size=2")
+@ActiveProfiles("test")
+public class MeterReadingServiceTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2031, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2031, 2, 1);
+
+    @Autowired
+    private MeterReadingService meterReadingService;
+
+    @Autowired
+    private ApartmentSettingsService settingsService;
+
+    @Autowired
+    private LeaseRepository leaseRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private Tenant tenant;
+    private Unit unit;
+    private Lease lease;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        tenant = new Tenant();
+        tenant.setFirstName("Meter");
+        tenant.setLastName("Tenant");
+        tenant.setPhone("0800000000");
+        tenant.setEmail("meter-" + suffix + "@example.com");
+        tenant.setEmergencyContact("Contact");
+        tenant.setEmergencyPhone("0800000001");
+        tenant = tenantRepository.save(tenant);
+
+        unit = new Unit();
+        unit.setRoomNumber("MR-" + suffix);
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitRepository.save(unit);
+
+        lease = new Lease();
+        lease.setTenant(tenant);
+        lease.setUnit(unit);
+        lease.setStartDate(JANUARY.minusMonths(6));
+        lease.setEndDate(JANUARY.plusMonths(6));
+        lease.setRentAmount(BigDecimal.valueOf(5000));
+        lease = leaseRepository.save(lease);
+    }
+
+    @AfterEach
+    void cleanup() {
+        // meter_readings rows go with the unit (ON DELETE CASCADE)
+        leaseRepository.delete(lease);
+        unitRepository.delete(unit);
+        tenantRepository.delete(tenant);
+    }
+
+    @Test
+    void csvImportComputesConsumptionAndReportsInvalidRows() throws Exception {
+        String room = unit.getRoomNumber();
+        String csv = "room_number,utility_type,period,reading,previous_reading\n" +
+                room + ",ELECTRICITY,2031-01,1000,\n" +
+                room + ",WATER,2031-01,15,10\n" +
+                "NO-SUCH-ROOM,ELECTRICITY,2031-01,5,\n" +
+                room + ",GAS,2031-01,5,\n" +
+                room + ",ELECTRICITY,2031-02,1120.5,\n" +
+                room + ",WATER,2031-02,abc,\n" +
+                room + ",WATER,2031-02,9,\n";
+
+        MeterReadingService.ImportResult result = meterReadingService.importCsv(stream(csv));
+
+        assertEquals(7, result.rowsRead());
+        assertEquals(3, result.imported());
+        assertEquals(4, result.rejected());
+        assertEquals(List.of(4L, 5L, 7L, 8L),
+                result.errors().stream().map(MeterReadingService.RowError::row).sorted().toList());
+
+        // First electricity reading is the baseline; February's previous comes from the earlier batch
+        MeterReading baseline = reading(JANUARY, UtilityType.ELECTRICITY);
+        assertNull(baseline.getConsumption());
+        MeterReading electricity = reading(FEBRUARY, UtilityType.ELECTRICITY);
+        assertEquals(0, BigDecimal.valueOf(1000).compareTo(electricity.getPreviousValue()));
+        assertEquals(0, new BigDecimal("120.5").compareTo(electricity.getConsumption()));
+        assertEquals(0, new BigDecimal("120.5").multiply(settingsService.getElectricityRate())
+                .compareTo(electricity.getAmount()));
+        // The sheet's previous_reading seeds a first reading
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(reading(JANUARY, UtilityType.WATER).getConsumption()));
+    }
+
+    @Test
+    void jsonReimportUpdatesReadingAndFeedsLeaseCharges() throws Exception {
+        String room = unit.getRoomNumber();
+        meterReadingService.importJson(stream("[" +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"WATER\",\"period\":\"2031-01\",\"reading\":100}," +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"WATER\",\"period\":\"2031-02\",\"reading\":104}]"));
+
+        // A corrected sheet for February replaces the reading instead of adding one
+        MeterReadingService.ImportResult result = meterReadingService.importJson(stream("[" +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"water\",\"period\":\"2031-02-28\",\"reading\":106}," +
+                "42]"));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(2, meterReadingService.getReadingsForUnit(unit.getId()).size());
+        MeterReadingService.UtilityCharges charges = meterReadingService.getChargesForLease(lease.getId(), FEBRUARY);
+        assertEquals(0, BigDecimal.valueOf(6).compareTo(charges.waterUnits()));
+        assertEquals(0, BigDecimal.valueOf(6).multiply(settingsService.getWaterRate())
+                .compareTo(charges.waterAmount()));
+        assertNull(charges.electricityAmount());
+    }
+
+    @Test
+    void correctingAMonthRechainsTheFollowingMonth() throws Exception {
+        String room = unit.getRoomNumber();
+        meterReadingService.importCsv(stream("room_number,utility_type,period,reading\n" +
+                room + ",WATER,2031-01,100\n" +
+                room + ",WATER,2031-02,104\n" +
+                room + ",WATER,2031-03,110\n"));
+
+        MeterReadingService.ImportResult corrected = meterReadingService.importCsv(stream(
+                "room_number,utility_type,period,reading\n" + room + ",WATER,2031-02,106\n"));
+
+        assertEquals(1, corrected.imported());
+        MeterReading march = reading(FEBRUARY.plusMonths(1), UtilityType.WATER);
+        assertEquals(0, BigDecimal.valueOf(106).compareTo(march.getPreviousValue()));
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(march.getConsumption()));
+        assertEquals(0, BigDecimal.valueOf(4).multiply(march.getRate()).compareTo(march.getAmount()));
+
+        // Above March's reading the correction would leave March negative
+        MeterReadingService.ImportResult rejected = meterReadingService.importCsv(stream(
+                "room_number,utility_type,period,reading\n" + room + ",WATER,2031-02,120\n"));
+
+        assertEquals(0, rejected.imported());
+        assertEquals(1, rejected.rejected());
+        assertEquals(0, BigDecimal.valueOf(106).compareTo(reading(FEBRUARY, UtilityType.WATER).getReadingValue()));
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(
+                reading(FEBRUARY.plusMonths(1), UtilityType.WATER).getConsumption()));
+    }
+
+    @Test
+    void malformedJsonKeepsRowsReadBeforeIt() throws Exception {
+        String room = unit.getRoomNumber();
+        MeterReadingService.ImportResult result = meterReadingService.importJson(stream("[" +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"ELECTRICITY\",\"period\":\"2031-01\",\"reading\":1}," +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"WATER\",\"period\":\"2031-01\",\"reading\":2}," +
+                "{\"roomNumber\":\"" + room + "\",\"utilityType\":\"WATER\",\"period\":\"2031-02\",\"reading\":3}," +
+                "{\"roomNumber\": oops"));
+
+        assertEquals(3, result.imported());
+        assertTrue(result.errors().get(0).message().startsWith("Malformed JSON"));
+        assertEquals(3, meterReadingService.getReadingsForUnit(unit.getId()).size());
+    }
+
+    private MeterReading reading(LocalDate period, UtilityType type) {
+        return meterReadingService.getReadingsForUnit(unit.getId()).stream()
+                .filter(reading -> reading.getReadingPeriod().equals(period) && reading.getUtilityType() == type)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
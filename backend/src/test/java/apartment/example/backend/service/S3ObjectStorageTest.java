@@ -0,0 +1,135 @@
+package apartment.example.backend.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * S3ObjectStorage against MinIO, the same S3 API the production bucket speaks
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class S3ObjectStorageTest {
+
+    private static final String BUCKET = "uploads-test";
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-01-16T16-07-38Z");
+
+    private static S3Client s3;
+    private static S3Presigner presigner;
+    private static S3ObjectStorage storage;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setUp() {
+        var credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword()));
+        var pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        s3 = S3Client.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        presigner = S3Presigner.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        s3.createBucket(request -> request.bucket(BUCKET));
+        storage = new S3ObjectStorage(s3, presigner, BUCKET, S3ObjectStorage.MIN_PART_SIZE);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        s3.close();
+        presigner.close();
+    }
+
+    @Test
+    void put_SmallFile_CanBeDownloadedAndListed() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("a.part"), "slip image");
+
+        storage.put("ab/small.jpg", file, "image/jpeg");
+
+        assertFalse(Files.exists(file), "Staged file is consumed");
+        assertTrue(storage.exists("ab/small.jpg"));
+        assertFalse(storage.exists("ab/missing.jpg"));
+        Path copy = tempDir.resolve("copy.jpg");
+        storage.download("ab/small.jpg", copy);
+        assertEquals("slip image", Files.readString(copy));
+        try (var objects = storage.list("ab/small")) {
+            List<ObjectStorage.StoredObject> listed = objects.toList();
+            assertEquals(1, listed.size());
+            assertEquals("ab/small.jpg", listed.get(0).key());
+            assertTrue(listed.get(0).lastModified().isBefore(Instant.now().plusSeconds(60)));
+        }
+    }
+
+    @Test
+    void put_LargeFile_UsesMultipartUpload() throws IOException {
+        // Two full parts and a short last one
+        byte[] content = new byte[(int) (2 * S3ObjectStorage.MIN_PART_SIZE + 1234)];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(tempDir.resolve("b.part"), content);
+
+        storage.put("cd/large.bin", file, "application/octet-stream");
+
+        Path copy = tempDir.resolve("copy.bin");
+        storage.download("cd/large.bin", copy);
+        assertArrayEquals(content, Files.readAllBytes(copy));
+        String etag = s3.headObject(request -> request.bucket(BUCKET).key("cd/large.bin")).eTag();
+        assertTrue(etag.endsWith("-3\""), "Multipart ETag should name 3 parts: " + etag);
+    }
+
+    @Test
+    void presignedDownloadUrl_ServesObjectWithoutCredentials() throws Exception {
+        storage.put("ef/direct.jpg", Files.writeString(tempDir.resolve("c.part"), "direct"), "image/jpeg");
+
+        String url = storage.presignedDownloadUrl("ef/direct.jpg", Duration.ofMinutes(5)).orElseThrow();
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        try (InputStream body = response.body()) {
+            assertEquals("direct", new String(body.readAllBytes()));
+        }
+    }
+
+    @Test
+    void delete_RemovesObject() throws IOException {
+        storage.put("12/gone.jpg", Files.writeString(tempDir.resolve("d.part"), "x"), "image/jpeg");
+
+        storage.delete("12/gone.jpg");
+
+        assertFalse(storage.exists("12/gone.jpg"));
+    }
+}
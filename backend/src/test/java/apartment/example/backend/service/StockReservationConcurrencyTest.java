@@ -0,0 +1,261 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.MaintenanceRequest;
+import apartment.example.backend.entity.MaintenanceRequestItem;
+import apartment.example.backend.entity.MaintenanceStock;
+import apartment.example.backend.repository.MaintenanceRequestItemRepository;
+import apartment.example.backend.repository.MaintenanceRequestRepository;
+import apartment.example.backend.repository.MaintenanceStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for the stock ledger: many threads reserve, draw and restock the same
+ * rows at once against MySQL. Each operation runs in its own transaction, so the only
+ * thing keeping the numbers right is the conditional UPDATE in MaintenanceStockRepository.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MaintenanceRequestItemService itemService;
+
+    @Autowired
+    private MaintenanceStockService stockService;
+
+    @Autowired
+    private MaintenanceRequestService requestService;
+
+    @Autowired
+    private MaintenanceStockRepository stockRepository;
+
+    @Autowired
+    private MaintenanceRequestRepository requestRepository;
+
+    @Autowired
+    private MaintenanceRequestItemRepository itemRepository;
+
+    private final List<Long> requestIds = new ArrayList<>();
+    private final List<Long> stockIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @AfterEach
+    void cleanup() {
+        requestIds.forEach(id -> itemRepository.deleteAll(itemRepository.findByMaintenanceRequestId(id)));
+        requestRepository.deleteAllById(requestIds);
+        stockRepository.deleteAllById(stockIds);
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        MaintenanceStock stock = stock(50);
+        Long completedRequest = request();
+        Long cancelledRequest = request();
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Map<String, Integer> unexpected = new ConcurrentHashMap<>();
+
+        runConcurrently(THREADS, 10, (thread, attempt) -> {
+            Long requestId = (thread + attempt) % 2 == 0 ? completedRequest : cancelledRequest;
+            try {
+                itemService.addItemToRequest(requestId, stock.getId(), 1, null);
+                reserved.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            } catch (RuntimeException e) {
+                unexpected.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), "Unexpected failures: " + unexpected);
+        assertEquals(50, reserved.get(), "Exactly the available stock should be reserved");
+        assertEquals(THREADS * 10 - 50, rejected.get());
+
+        MaintenanceStock afterReserve = stockRepository.findById(stock.getId()).orElseThrow();
+        assertEquals(50, afterReserve.getQuantity(), "Reservations must not touch the on-hand quantity");
+        assertEquals(50, afterReserve.getReservedQuantity());
+        assertEquals(50, quantityOnItems(completedRequest) + quantityOnItems(cancelledRequest));
+
+        int drawn = quantityOnItems(completedRequest);
+        runConcurrently(2, 1, (thread, attempt) -> {
+            if (thread == 0) {
+                requestService.completeMaintenanceRequest(completedRequest, "done");
+            } else {
+                requestService.rejectMaintenanceRequest(cancelledRequest, "not needed");
+            }
+        });
+
+        MaintenanceStock settled = stockRepository.findById(stock.getId()).orElseThrow();
+        assertEquals(50 - drawn, settled.getQuantity());
+        assertEquals(0, settled.getReservedQuantity());
+        assertTrue(itemRepository.findByMaintenanceRequestId(completedRequest).stream()
+                .allMatch(item -> item.getStatus() == MaintenanceRequestItem.Status.COMMITTED));
+        assertTrue(itemRepository.findByMaintenanceRequestId(cancelledRequest).stream()
+                .allMatch(item -> item.getStatus() == MaintenanceRequestItem.Status.RELEASED));
+    }
+
+    @Test
+    void concurrentBatchesReserveOneRowAtATimeWithoutDeadlock() throws Exception {
+        MaintenanceStock first = stock(40);
+        MaintenanceStock second = stock(40);
+        Long requestId = request();
+
+        Map<String, Integer> unexpected = new ConcurrentHashMap<>();
+        AtomicInteger batches = new AtomicInteger();
+
+        runConcurrently(THREADS, 5, (thread, attempt) -> {
+            // Opposite item order on alternate threads - rows are still locked in id order
+            List<MaintenanceRequestItem> items = thread % 2 == 0
+                    ? List.of(item(first, 1), item(second, 2), item(first, 1))
+                    : List.of(item(second, 2), item(first, 2));
+            try {
+                itemService.addItemsToRequest(requestId, items);
+                batches.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                // insufficient stock - the whole batch rolls back
+            } catch (RuntimeException e) {
+                unexpected.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), "Unexpected failures: " + unexpected);
+        assertEquals(20, batches.get(), "Each batch takes 2 of each row, 40 available");
+
+        List<MaintenanceRequestItem> items = itemRepository.findByMaintenanceRequestId(requestId);
+        for (MaintenanceStock stock : List.of(first, second)) {
+            MaintenanceStock current = stockRepository.findById(stock.getId()).orElseThrow();
+            int onItems = items.stream()
+                    .filter(item -> item.getStockId().equals(stock.getId()))
+                    .mapToInt(MaintenanceRequestItem::getQuantityUsed)
+                    .sum();
+            assertEquals(40, current.getQuantity());
+            assertEquals(onItems, current.getReservedQuantity(), "Reserved quantity must match the items");
+            assertEquals(0, current.getAvailableQuantity());
+        }
+    }
+
+    @Test
+    void concurrentRestockAndDrawLoseNoUpdates() throws Exception {
+        MaintenanceStock stock = stock(1000);
+
+        Map<String, Integer> unexpected = new ConcurrentHashMap<>();
+        runConcurrently(THREADS, 50, (thread, attempt) -> {
+            try {
+                if (thread % 2 == 0) {
+                    stockService.addStock(stock.getId(), 3);
+                } else {
+                    stockService.reduceStock(stock.getId(), 2);
+                }
+            } catch (RuntimeException e) {
+                unexpected.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), "Unexpected failures: " + unexpected);
+        int perSide = (THREADS / 2) * 50;
+        assertEquals(1000 + perSide * 3 - perSide * 2,
+                stockRepository.findById(stock.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void quantityNeverDropsBelowReservations() throws Exception {
+        MaintenanceStock stock = stock(30);
+        Long requestId = request();
+        itemService.addItemToRequest(requestId, stock.getId(), 10, null);
+
+        AtomicInteger reduced = new AtomicInteger();
+        runConcurrently(THREADS, 5, (thread, attempt) -> {
+            try {
+                stockService.reduceStock(stock.getId(), 1);
+                reduced.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                // would dip into reserved stock
+            }
+        });
+
+        MaintenanceStock current = stockRepository.findById(stock.getId()).orElseThrow();
+        assertEquals(20, reduced.get());
+        assertEquals(10, current.getQuantity());
+        assertEquals(10, current.getReservedQuantity());
+    }
+
+    private void runConcurrently(int threads, int iterations, Step step) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    step.run(thread, i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Workers did not finish");
+    }
+
+    private MaintenanceStock stock(int quantity) {
+        MaintenanceStock stock = new MaintenanceStock("Stress part", MaintenanceStock.Category.PLUMBING, quantity, "ชิ้น");
+        stock = stockService.createStock(stock);
+        stockIds.add(stock.getId());
+        return stock;
+    }
+
+    private Long request() {
+        MaintenanceRequest request = new MaintenanceRequest();
+        request.setTitle("Stock stress");
+        request.setDescription("Concurrent stock reservations");
+        Long id = requestService.createMaintenanceRequest(request).getId();
+        requestIds.add(id);
+        return id;
+    }
+
+    private static MaintenanceRequestItem item(MaintenanceStock stock, int quantity) {
+        MaintenanceRequestItem item = new MaintenanceRequestItem();
+        item.setStockId(stock.getId());
+        item.setQuantityUsed(quantity);
+        return item;
+    }
+
+    private int quantityOnItems(Long requestId) {
+        return itemRepository.findByMaintenanceRequestId(requestId).stream()
+                .mapToInt(MaintenanceRequestItem::getQuantityUsed)
+                .sum();
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(int thread, int iteration);
+    }
+}
@@ -0,0 +1,209 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.entity.enums.UnitStatus;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit changes write price history in the changing transaction and reach unit_audit_logs
+ * through the outbox and the background writer, with the user, IP and user agent of the
+ * request; rows left in the outbox are moved by the sweep.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class UnitAuditRecorderTest {
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private UnitAuditWriter writer;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    private String suffix;
+    private String username;
+    private Long userId;
+    private Unit unit;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        username = "audit-" + suffix;
+        jdbc.update("INSERT INTO users (username, password, email, role) VALUES (:username, 'x', :email, 'ADMIN')",
+                new MapSqlParameterSource()
+                        .addValue("username", username)
+                        .addValue("email", username + "@example.com"));
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE username = :username",
+                new MapSqlParameterSource("username", username), Long.class);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        request.addHeader("User-Agent", "AuditTest/1.0");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Unit created = new Unit();
+        created.setRoomNumber("AU-" + suffix);
+        created.setFloor(3);
+        created.setUnitType("STANDARD");
+        created.setRentAmount(BigDecimal.valueOf(5000));
+        unit = unitService.createUnit(created);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        if (unitRepository.existsById(unit.getId())) {
+            unitRepository.deleteById(unit.getId());
+        }
+        jdbc.update("DELETE FROM users WHERE id = :id", new MapSqlParameterSource("id", userId));
+    }
+
+    @Test
+    void priceChangeIsAuditedWithRequestContext() {
+        unitService.updateUnitPrice(unit.getId(), BigDecimal.valueOf(6500), "Renovated");
+
+        // Price history is part of the changing transaction
+        List<Map<String, Object>> prices = jdbc.queryForList(
+                "SELECT rent_amount, effective_to, change_reason, created_by_user_id FROM unit_price_history " +
+                "WHERE unit_id = :unitId ORDER BY id", new MapSqlParameterSource("unitId", unit.getId()));
+        assertEquals(2, prices.size());
+        assertEquals("Initial price", prices.get(0).get("change_reason"));
+        assertEquals(0, BigDecimal.valueOf(6500).compareTo((BigDecimal) prices.get(1).get("rent_amount")));
+        assertNull(prices.get(1).get("effective_to"));
+        assertEquals("Renovated", prices.get(1).get("change_reason"));
+        assertEquals(userId, ((Number) prices.get(1).get("created_by_user_id")).longValue());
+
+        // Audit rows arrive through the writer
+        List<Map<String, Object>> logs = awaitAuditLogs(2);
+        assertEquals("CREATED", logs.get(0).get("action_type"));
+        Map<String, Object> priceChange = logs.get(1);
+        assertEquals("PRICE_CHANGED", priceChange.get("action_type"));
+        assertEquals("Price changed from 5000.00 to 6500.00", priceChange.get("description"));
+        assertEquals(unit.getId(), ((Number) priceChange.get("unit_id")).longValue());
+        assertEquals(userId, ((Number) priceChange.get("created_by_user_id")).longValue());
+        assertEquals("203.0.113.7", priceChange.get("ip_address"));
+        assertEquals("AuditTest/1.0", priceChange.get("user_agent"));
+        assertEquals(0, countOutbox());
+    }
+
+    @Test
+    void statusChangeAndHardDeleteAreAudited() {
+        unitService.updateUnitStatus(unit.getId(), UnitStatus.MAINTENANCE);
+
+        Map<String, Object> statusChange = awaitAuditLogs(2).get(1);
+        assertEquals("STATUS_CHANGED", statusChange.get("action_type"));
+        assertEquals("Status changed from AVAILABLE to MAINTENANCE", statusChange.get("description"));
+
+        unitService.deleteUnit(unit.getId());
+
+        // The unit is gone by the time the row is moved, so it keeps only the room number
+        Map<String, Object> deleted = awaitAuditLog("DELETED");
+        assertEquals("Hard deleted unit: AU-" + suffix, deleted.get("description"));
+        assertNull(deleted.get("unit_id"));
+    }
+
+    @Test
+    void sweepMovesRowsLeftInOutbox() {
+        awaitAuditLogs(1);
+        jdbc.update("INSERT INTO unit_audit_outbox (unit_id, room_number, action_type, description, username, created_at) " +
+                    "VALUES (:unitId, :roomNumber, 'UPDATED', 'Left behind', :username, :createdAt)",
+                new MapSqlParameterSource()
+                        .addValue("unitId", unit.getId())
+                        .addValue("roomNumber", unit.getRoomNumber())
+                        .addValue("username", username)
+                        .addValue("createdAt", LocalDateTime.now().minusDays(1)));
+
+        assertTrue(writer.sweep() >= 1);
+
+        assertEquals(0, countOutbox());
+        Map<String, Object> swept = awaitAuditLogs(2).stream()
+                .filter(row -> "Left behind".equals(row.get("description")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(userId, ((Number) swept.get("created_by_user_id")).longValue());
+    }
+
+    private List<Map<String, Object>> awaitAuditLogs(int expected) {
+        for (int i = 0; i < 100; i++) {
+            List<Map<String, Object>> logs = jdbc.queryForList(
+                    "SELECT * FROM unit_audit_logs WHERE room_number = :roomNumber ORDER BY id",
+                    new MapSqlParameterSource("roomNumber", unit.getRoomNumber()));
+            if (logs.size() >= expected) {
+                return logs;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Expected " + expected + " audit log(s) for unit " + unit.getRoomNumber());
+    }
+
+    private Map<String, Object> awaitAuditLog(String actionType) {
+        for (int i = 0; i < 100; i++) {
+            List<Map<String, Object>> logs = jdbc.queryForList(
+                    "SELECT * FROM unit_audit_logs WHERE room_number = :roomNumber AND action_type = :actionType",
+                    new MapSqlParameterSource()
+                            .addValue("roomNumber", unit.getRoomNumber())
+                            .addValue("actionType", actionType));
+            if (!logs.isEmpty()) {
+                return logs.get(0);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Expected a " + actionType + " audit log for unit " + unit.getRoomNumber());
+    }
+
+    private int countOutbox() {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM unit_audit_outbox WHERE room_number = :roomNumber",
+                new MapSqlParameterSource("roomNumber", unit.getRoomNumber()), Integer.class);
+        return count != null ? count : 0;
+    }
+}
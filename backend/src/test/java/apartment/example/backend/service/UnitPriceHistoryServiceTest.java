@@ -0,0 +1,102 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.entity.Unit;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static apartment.example.backend.support.QueryCountAssertions.assertQueryCount;
+import static apartment.example.backend.support.QueryCountAssertions.resetQueryCount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rent lookups are served from UnitPriceIndex after the first load, and a price change made
+ * through UnitService (recorded by UnitAuditRecorder) is visible right after it commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class UnitPriceHistoryServiceTest {
+
+    // Past every price change made by the test, which start at NOW()
+    private static final LocalDate NEXT_YEAR = LocalDate.now().plusYears(1);
+
+    @Autowired
+    private UnitPriceHistoryService priceHistoryService;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    private Unit first;
+    private Unit second;
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("jwt.secret", () -> "dGVzdHNlY3JldA==");
+        registry.add("jwt.expiration", () -> "3600000");
+        registry.add("cors.allowed-origins", () -> "http://localhost:5173");
+    }
+
+    @BeforeEach
+    void setUp() {
+        first = unitRepository.save(unit(5000));
+        second = unitRepository.save(unit(7000));
+    }
+
+    @AfterEach
+    void cleanup() {
+        unitRepository.deleteAll(List.of(first, second));
+    }
+
+    @Test
+    void bulkLookupIsServedFromMemoryAfterFirstLoad() {
+        Map<Long, BigDecimal> all = priceHistoryService.getAllRentAmountsAtDate(NEXT_YEAR);
+        assertEquals(0, BigDecimal.valueOf(5000).compareTo(all.get(first.getId())));
+        assertEquals(0, BigDecimal.valueOf(7000).compareTo(all.get(second.getId())));
+
+        resetQueryCount();
+        Map<Long, BigDecimal> rents = priceHistoryService.getRentAmountsAtDate(
+                List.of(first.getId(), second.getId()), NEXT_YEAR);
+        priceHistoryService.getCurrentRentAmount(first.getId());
+        assertQueryCount(0);
+
+        assertEquals(0, BigDecimal.valueOf(7000).compareTo(rents.get(second.getId())));
+    }
+
+    @Test
+    void priceChangeThroughUnitServiceInvalidatesTheUnit() {
+        assertEquals(0, BigDecimal.valueOf(5000).compareTo(
+                priceHistoryService.getRentAmountAtDate(first.getId(), NEXT_YEAR)));
+
+        unitService.updateUnitPrice(first.getId(), BigDecimal.valueOf(6500), "Renovated");
+
+        assertEquals(0, BigDecimal.valueOf(6500).compareTo(
+                priceHistoryService.getRentAmountAtDate(first.getId(), NEXT_YEAR)));
+        assertEquals(0, BigDecimal.valueOf(6500).compareTo(
+                priceHistoryService.getCurrentRentAmount(first.getId())));
+        assertEquals(2, priceHistoryService.countPriceChanges(first.getId()));
+    }
+
+    private static Unit unit(int rent) {
+        Unit unit = new Unit();
+        unit.setRoomNumber("PI-" + UUID.randomUUID().toString().substring(0, 8));
+        unit.setFloor(1);
+        unit.setUnitType("STANDARD");
+        unit.setRentAmount(BigDecimal.valueOf(rent));
+        return unit;
+    }
+}
@@ -0,0 +1,116 @@
+package apartment.example.backend.service;
+
+import apartment.example.backend.repository.UnitPriceHistoryRepository;
+import apartment.example.backend.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Interval lookups of the in-memory price index, and when it goes back to the database
+ */
+class UnitPriceIndexTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime APR = LocalDateTime.of(2025, 4, 1, 9, 30);
+    private static final LocalDateTime SEP = LocalDateTime.of(2025, 9, 15, 12, 0);
+
+    private UnitPriceHistoryRepository priceHistoryRepository;
+    private UnitRepository unitRepository;
+    private PlatformTransactionManager transactionManager;
+    private UnitPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        priceHistoryRepository = mock(UnitPriceHistoryRepository.class);
+        unitRepository = mock(UnitRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        index = new UnitPriceIndex(priceHistoryRepository, unitRepository, transactionManager, Duration.ofMinutes(5));
+
+        // Unit 1: 4000 from January, 4500 from April (closed at the same instant), then 5000 from September
+        // Unit 2: no price history, only its own rent
+        when(unitRepository.findRentAmountsByIdIn(anyCollection())).thenReturn(rows(
+                new Object[]{1L, new BigDecimal("5000")},
+                new Object[]{2L, new BigDecimal("3000")}));
+        when(priceHistoryRepository.findIntervalsByUnitIdIn(anyCollection())).thenReturn(rows(
+                new Object[]{1L, new BigDecimal("4000"), JAN, APR},
+                new Object[]{1L, new BigDecimal("4500"), APR, SEP},
+                new Object[]{1L, new BigDecimal("5000"), SEP, null}));
+    }
+
+    @Test
+    void rentAtPicksTheIntervalCoveringTheTime() {
+        assertEquals(new BigDecimal("4000"), rentAt(1L, JAN));
+        assertEquals(new BigDecimal("4000"), rentAt(1L, APR.minusSeconds(1)));
+        // On the boundary the newer price wins
+        assertEquals(new BigDecimal("4500"), rentAt(1L, APR));
+        assertEquals(new BigDecimal("5000"), rentAt(1L, SEP.plusYears(3)));
+        // Before the first interval, and for units without history, the unit's rent applies
+        assertEquals(new BigDecimal("5000"), rentAt(1L, JAN.minusDays(1)));
+        assertEquals(new BigDecimal("3000"), rentAt(2L, JAN));
+        assertEquals(new BigDecimal("5000"), index.currentRents(List.of(1L)).get(1L));
+    }
+
+    @Test
+    void loadsMissingUnitsOnceInBulk() {
+        Map<Long, BigDecimal> rents = index.rentsAt(List.of(1L, 2L, 99L), APR);
+
+        assertEquals(2, rents.size());
+        assertFalse(rents.containsKey(99L));
+        index.rentsAt(List.of(1L, 2L), SEP);
+        index.currentRents(List.of(2L));
+        verify(unitRepository, times(1)).findRentAmountsByIdIn(anyCollection());
+        verify(priceHistoryRepository, times(1)).findIntervalsByUnitIdIn(anyCollection());
+    }
+
+    @Test
+    void invalidatedUnitIsReloaded() {
+        index.rentsAt(List.of(1L, 2L), APR);
+
+        index.invalidate(1L);
+        index.rentsAt(List.of(1L, 2L), APR);
+
+        verify(unitRepository).findRentAmountsByIdIn(List.of(1L));
+        verify(unitRepository, times(2)).findRentAmountsByIdIn(anyCollection());
+    }
+
+    @Test
+    void loadsRunInTheirOwnReadOnlyTransaction() {
+        index.rentsAt(List.of(1L), APR);
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && definition.isReadOnly()));
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        index = new UnitPriceIndex(priceHistoryRepository, unitRepository, transactionManager, Duration.ZERO);
+
+        index.rentsAt(List.of(1L), APR);
+        index.rentsAt(List.of(1L), APR);
+
+        verify(priceHistoryRepository, times(2)).findIntervalsByUnitIdIn(anyCollection());
+    }
+
+    private BigDecimal rentAt(Long unitId, LocalDateTime at) {
+        return index.rentsAt(List.of(unitId), at).get(unitId);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
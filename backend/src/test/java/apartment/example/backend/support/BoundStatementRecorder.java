@@ -0,0 +1,110 @@
+package apartment.example.backend.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bound Statement Recorder
+ *
+ * DataSource wrapper for tests that records every prepared statement as it is executed,
+ * together with the values bound to it, so the statement can be run again as it was
+ * sent (e.g. under EXPLAIN). QueryCountInspector only sees Hibernate's SQL with its ?
+ * placeholders; this records below it, at the JDBC level.
+ * Like QueryCountInspector, only threads that called {@link #reset()} record anything.
+ */
+public final class BoundStatementRecorder {
+
+    private static final ThreadLocal<List<BoundStatement>> STATEMENTS = new ThreadLocal<>();
+
+    private BoundStatementRecorder() {
+    }
+
+    /**
+     * An executed statement and its parameter values in placeholder order
+     */
+    public record BoundStatement(String sql, List<Object> parameters) {
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return new RecordingDataSource(dataSource);
+    }
+
+    public static void reset() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    public static List<BoundStatement> statements() {
+        List<BoundStatement> statements = STATEMENTS.get();
+        return statements != null ? Collections.unmodifiableList(new ArrayList<>(statements)) : List.of();
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(BoundStatementRecorder.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                        return recording(statement, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(BoundStatementRecorder.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        // setNull(index, sqlType) carries the type, not a value
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.startsWith("execute")) {
+                        List<BoundStatement> statements = STATEMENTS.get();
+                        if (statements != null) {
+                            statements.add(new BoundStatement(sql, new ArrayList<>(parameters.values())));
+                        }
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(obtainTargetDataSource().getConnection(username, password));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package apartment.example.backend.support;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query Count Assertions
+ *
+ * Query budgets for integration tests. Call {@link #resetQueryCount()} right before the
+ * request under test and {@link #assertQueryCount(int)} right after it; a breach fails
+ * the build and lists the statements that were executed.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static void resetQueryCount() {
+        QueryCountInspector.reset();
+    }
+
+    /**
+     * Fail if more than {@code maxQueries} SQL statements ran since the last reset
+     */
+    public static void assertQueryCount(int maxQueries) {
+        int executed = QueryCountInspector.count();
+        if (executed > maxQueries) {
+            List<String> statements = QueryCountInspector.statements();
+            StringBuilder message = new StringBuilder()
+                    .append("Query budget exceeded: expected at most ").append(maxQueries)
+                    .append(" SQL statements but ").append(executed).append(" were executed");
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(statements.get(i));
+            }
+            fail(message.toString());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package apartment.example.backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query Count Inspector
+ *
+ * Hibernate StatementInspector registered for the test profile
+ * (spring.jpa.properties.hibernate.session_factory.statement_inspector).
+ * Records every SQL statement Hibernate prepares so tests can assert a query budget.
+ * MockMvc runs the request on the test thread, so a thread-local log is enough.
+ * Only threads that called {@link #reset()} record anything, so server threads in
+ * long-running tests (e.g. the load test) never accumulate statements.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    public static int count() {
+        List<String> statements = STATEMENTS.get();
+        return statements != null ? statements.size() : 0;
+    }
+
+    public static List<String> statements() {
+        List<String> statements = STATEMENTS.get();
+        return statements != null ? Collections.unmodifiableList(new ArrayList<>(statements)) : List.of();
+    }
+}
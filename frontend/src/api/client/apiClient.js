@@ -41,6 +41,19 @@ class APIClient {
    * @returns {Promise<any>} Response data
    */
   async request(endpoint, options = {}) {
+    const response = await this.send(endpoint, options);
+    return await this.handleSuccessResponse(response);
+  }
+
+  /**
+   * Sends an HTTP request to the API and returns the successful response unread
+   * 
+   * @private
+   * @param {string} endpoint - API endpoint (e.g., '/auth/login')
+   * @param {object} options - Fetch API options
+   * @returns {Promise<Response>} Fetch Response object
+   */
+  async send(endpoint, options = {}) {
     const token = localStorage.getItem('token');
     
     // Validate token before making request
@@ -74,7 +87,7 @@ class APIClient {
         throw new Error(errorData);
       }
       
-      return await this.handleSuccessResponse(response);
+      return response;
     } catch (error) {
       console.error(`API request failed [${endpoint}]:`, error.message);
       throw error;
@@ -162,6 +175,30 @@ class APIClient {
     });
   }
 
+  /**
+   * Makes GET requests for every page of a paged listing and returns all items
+   * 
+   * Paged listings return one page of items and the X-Next-Cursor header, which is passed
+   * back as the after parameter for the next page; the header is absent on the last page.
+   * 
+   * @param {string} endpoint - API endpoint of the listing
+   * @param {object} options - Additional fetch options
+   * @returns {Promise<Array>} Items of all pages, in listing order
+   */
+  async getAllPages(endpoint, options = {}) {
+    const items = [];
+    let after = null;
+    do {
+      const separator = endpoint.includes('?') ? '&' : '?';
+      const url = after ? `${endpoint}${separator}after=${encodeURIComponent(after)}` : endpoint;
+      const response = await this.send(url, { method: 'GET', ...options });
+      after = response.headers.get('X-Next-Cursor');
+      const page = await this.handleSuccessResponse(response);
+      items.push(...(page || []));
+    } while (after);
+    return items;
+  }
+
   /**
    * Makes a POST request
    * 
@@ -104,7 +104,8 @@ export const getInvoicesByLeaseId = async (leaseId) => {
  * console.log(`Total invoices: ${invoices.length}`);
  */
 export const getInvoicesByTenant = async (tenantEmail) => {
-  return await apiClient.get(`/invoices/tenant/${tenantEmail}`);
+  // Paged endpoint: follows the cursor through every page
+  return await apiClient.getAllPages(`/invoices/tenant/${tenantEmail}`);
 };
 
 /**
@@ -233,7 +234,8 @@ export const uploadPaymentSlip = async (invoiceId, slipFile) => {
  * const pendingInvoices = await getWaitingVerificationInvoices();
  */
 export const getWaitingVerificationInvoices = async () => {
-  return await apiClient.get('/invoices/waiting-verification');
+  // Paged endpoint: follows the cursor through every page
+  return await apiClient.getAllPages('/invoices/waiting-verification');
 };
 
 /**
@@ -269,7 +271,8 @@ export const verifyPayment = async (invoiceId, approved, notes = '') => {
  * const paidInvoices = await getPaidInvoices();
  */
 export const getPaidInvoices = async () => {
-  return await apiClient.get('/invoices/paid');
+  // Paged endpoint: follows the cursor through every page
+  return await apiClient.getAllPages('/invoices/paid');
 };
 
 /**